@@ -0,0 +1,85 @@
+package com.anczykowski.lexer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.anczykowski.errormodule.ErrorModule;
+
+// run with: gradle jmh
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FloatLiteralBenchmark {
+
+    private static final int LITERAL_COUNT = 1000;
+
+    private String[] literals;
+
+    private long[] mantissas;
+
+    private int[] exponents;
+
+    private byte[] source;
+
+    @Setup
+    public void setup() {
+        var random = new Random(42);
+        literals = new String[LITERAL_COUNT];
+        mantissas = new long[LITERAL_COUNT];
+        exponents = new int[LITERAL_COUNT];
+        for (int i = 0; i < LITERAL_COUNT; ++i) {
+            var integerPart = 1 + random.nextInt(100_000);
+            var fractionDigits = 1 + random.nextInt(7);
+            var fractionPart = random.nextInt((int) Math.pow(10, fractionDigits));
+            var fraction = String.format("%0" + fractionDigits + "d", fractionPart);
+            literals[i] = integerPart + "." + fraction;
+            mantissas[i] = Long.parseLong(integerPart + fraction);
+            exponents[i] = -fractionDigits;
+        }
+        source = String.join(" ", literals).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public float parseFloat() {
+        var sum = 0.0f;
+        for (var literal : literals) {
+            sum += Float.parseFloat(literal);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public float decimalConversion() {
+        var sum = 0.0f;
+        for (int i = 0; i < LITERAL_COUNT; ++i) {
+            sum += DecimalConversion.toFloat(mantissas[i], exponents[i]);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public float lexFloatLiterals() {
+        var errorModule = new ErrorModule();
+        var lexer = new LexerImpl(new ByteBufferSource(errorModule, source), errorModule);
+        var sum = 0.0f;
+        for (var token = lexer.getNextToken(); token.getType() != TokenType.EOF; token = lexer.getNextToken()) {
+            sum += ((FloatToken) token).getValue();
+        }
+        return sum;
+    }
+}
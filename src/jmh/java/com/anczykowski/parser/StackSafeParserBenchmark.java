@@ -0,0 +1,78 @@
+package com.anczykowski.parser;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.anczykowski.errormodule.ErrorModule;
+import com.anczykowski.errormodule.exceptions.ParserException;
+import com.anczykowski.lexer.ByteBufferSource;
+import com.anczykowski.lexer.LexerImpl;
+import com.anczykowski.lexer.SymbolTable;
+import com.anczykowski.parser.structures.Program;
+
+// ordinary code parsed with and without the stack-safe mode, run with: gradle jmh --args="StackSafeParserBenchmark"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class StackSafeParserBenchmark {
+
+    private static final int FUNCTION_COUNT = 2000;
+
+    private static final String[] OPERANDS = {"a", "b", "1", "2.5", "x.y", "f(a, 2)"};
+
+    private static final String[] OPERATORS = {"+", "-", "*", "/", "<", "==", "and", "or"};
+
+    @Param({"false", "true"})
+    private boolean stackSafe;
+
+    private byte[] source;
+
+    @Setup
+    public void setup() {
+        var random = new Random(42);
+        var program = new StringBuilder();
+        for (int i = 0; i < FUNCTION_COUNT; ++i) {
+            program.append("fun").append(i).append("(a, b) {\n")
+                .append("  var c = ").append(expression(random, 3)).append(";\n")
+                .append("  if (").append(expression(random, 2)).append(") { while (c > 0) { c = c - 1; } }")
+                .append(" else { c = ").append(expression(random, 2)).append("; }\n")
+                .append("  for (i in list(a, b)) { switch (i) { int -> { print(i); } default -> { } } }\n")
+                .append("  return c;\n")
+                .append("}\n");
+        }
+        source = program.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String expression(Random random, int depth) {
+        if (depth == 0) {
+            return OPERANDS[random.nextInt(OPERANDS.length)];
+        }
+        return "(" + expression(random, depth - 1) + " " + OPERATORS[random.nextInt(OPERATORS.length)] + " "
+            + expression(random, depth - 1) + ")";
+    }
+
+    @Benchmark
+    public Program parse() throws ParserException {
+        var errorModule = new ErrorModule();
+        var parser = new Parser(new LexerImpl(new ByteBufferSource(errorModule, source), errorModule, new SymbolTable()),
+            errorModule);
+        parser.setStackSafe(stackSafe);
+        return parser.parse();
+    }
+}
@@ -1,52 +1,158 @@
 package com.anczykowski;
 
+import com.anczykowski.cache.ProgramCache;
+import com.anczykowski.errormodule.ErrorFormat;
 import com.anczykowski.errormodule.ErrorModule;
 import com.anczykowski.errormodule.exceptions.InterpreterException;
 import com.anczykowski.errormodule.exceptions.ParserException;
-import com.anczykowski.lexer.LexerFiltered;
+import com.anczykowski.errormodule.exceptions.TooManyErrorsException;
+import com.anczykowski.lexer.ByteBufferSource;
+import com.anczykowski.lexer.Lexer;
 import com.anczykowski.lexer.LexerImpl;
+import com.anczykowski.lexer.ParallelLexer;
 import com.anczykowski.lexer.Source;
-import com.anczykowski.lexer.TokenFilters;
+import com.anczykowski.lexer.SymbolTable;
+import com.anczykowski.lexer.TriviaPolicy;
+import com.anczykowski.parser.ParallelParser;
 import com.anczykowski.parser.Parser;
+import com.anczykowski.parser.structures.Program;
 import com.anczykowski.visitors.InterpreterVisitor;
+import com.anczykowski.visitors.OptimizerVisitor;
 import com.anczykowski.visitors.PrinterVisitor;
 
 import java.io.*;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 
 public class Main {
     private static final boolean isDebug = true;
 
+    private static final int FRONT_END_ABORT_THRESHOLD = 200;
+
+    private static final String SOURCE_EXTENSION = ".tkom";
+
+    private static final String ERRORS_OPTION = "--errors=";
+
+    private static final String ERROR_FORMAT_OPTION = "--error-format=";
+
+    private static final String CACHE_OPTION = "--cache";
+
+    // parses deeply nested code without recursion; only the parser is stack-safe, the cache, printer, optimizer,
+    // resolver and interpreter still recurse over the tree, so code nested deeper than the thread stack allows is
+    // parsed and then fails with a StackOverflowError in the first of them
+    private static final String STACK_SAFE_OPTION = "--stack-safe";
+
     public static void main(String[] args) throws Exception {
         var outPrintStream = getPrintStream();
 
+        var sourcePaths = new ArrayList<Path>();
+        String errorsPath = null;
+        ErrorFormat errorFormat = null;
+        ProgramCache cache = null;
+        var isStackSafe = false;
+        for (var arg : args) {
+            if (arg.startsWith(ERRORS_OPTION)) {
+                errorsPath = arg.substring(ERRORS_OPTION.length());
+            } else if (arg.startsWith(ERROR_FORMAT_OPTION)) {
+                errorFormat = getErrorFormat(arg.substring(ERROR_FORMAT_OPTION.length()));
+            } else if (arg.equals(CACHE_OPTION)) {
+                cache = new ProgramCache();
+            } else if (arg.startsWith(CACHE_OPTION + "=")) {
+                cache = new ProgramCache(Path.of(arg.substring(CACHE_OPTION.length() + 1)));
+            } else if (arg.equals(STACK_SAFE_OPTION)) {
+                isStackSafe = true;
+            } else {
+                addSourcePaths(Path.of(arg), sourcePaths);
+            }
+        }
+
         var errorModule = new ErrorModule();
+        // garbage input stops lexing and parsing early
+        errorModule.setAbortThreshold(FRONT_END_ABORT_THRESHOLD);
+
+        try (var errorStream = getErrorStream(errorsPath)) {
+            if (errorsPath != null || errorFormat != null) {
+                errorModule.streamTo(errorStream != null ? errorStream : outPrintStream,
+                    errorFormat != null ? errorFormat : ErrorFormat.TEXT);
+            }
+            run(sourcePaths, cache, isStackSafe, errorModule, outPrintStream);
+        }
+    }
+
+    private static void run(List<Path> sourcePaths, ProgramCache cache, boolean isStackSafe, ErrorModule errorModule,
+                            PrintStream outPrintStream) throws IOException {
+        var symbolTable = new SymbolTable();
+
+        try {
+            var program = parse(sourcePaths, cache, isStackSafe, errorModule, symbolTable, outPrintStream);
+            var printer = new PrinterVisitor(outPrintStream);
+            program.accept(printer);
+
+            errorModule.setAbortThreshold(ErrorModule.NO_LIMIT);
+            // the printed program is the one that was written, constants are folded for the interpreter only
+            OptimizerVisitor.optimize(program);
+            outPrintStream.println("#### Interpreter ####");
+            var interpreter = new InterpreterVisitor(errorModule, outPrintStream, symbolTable);
+            program.accept(interpreter);
+        } catch (ParserException | InterpreterException e) {
+            if (isDebug) {
+                outPrintStream.println("#### Debug StackTrace ####");
+                e.printStackTrace(outPrintStream);
+            }
+        } catch (TooManyErrorsException e) {
+            outPrintStream.printf("#### Aborted after %d errors ####%n", errorModule.getErrorCount());
+        }
+        finally {
+            errorModule.printErrors(outPrintStream);
+        }
+    }
 
-        try (var src = getSource(args, errorModule)) {
-            var lexer = new LexerImpl(src, errorModule);
-            var lexerFiltered = new LexerFiltered(lexer, TokenFilters.getCommentFilter());
-
-            var parser = new Parser(lexerFiltered, errorModule);
-
-            try {
-                outPrintStream.println("#### Printer ####");
-                var program = parser.parse();
-                var printer = new PrinterVisitor(outPrintStream);
-                program.accept(printer);
-
-                outPrintStream.println("#### Interpreter ####");
-                var interpreter = new InterpreterVisitor(errorModule, outPrintStream);
-                program.accept(interpreter);
-            } catch (ParserException | InterpreterException e) {
-                if (isDebug) {
-                    outPrintStream.println("#### Debug StackTrace ####");
-                    e.printStackTrace(outPrintStream);
+    private static Program parse(List<Path> sourcePaths, ProgramCache cache, boolean isStackSafe, ErrorModule errorModule,
+                                 SymbolTable symbolTable, PrintStream outPrintStream) throws IOException, ParserException {
+        // files of a bigger code base are lexed and parsed concurrently, each on its own
+        if (sourcePaths.size() > 1) {
+            var program = ParallelParser.parse(sourcePaths, errorModule, symbolTable, isStackSafe);
+            outPrintStream.println("#### Printer ####");
+            return program;
+        }
+        try (var src = getSource(sourcePaths.isEmpty() ? null : sourcePaths.get(0), errorModule)) {
+            ProgramCache.Entry cacheEntry = null;
+            if (cache != null && src instanceof ByteBufferSource byteBufferSource) {
+                cacheEntry = cache.getEntry(byteBufferSource);
+                var program = cacheEntry.load(symbolTable);
+                if (program != null) {
+                    outPrintStream.println("#### Printer ####");
+                    return program;
                 }
             }
-            finally {
-                errorModule.printErrors(outPrintStream);
+
+            var lexer = getLexer(src, errorModule, symbolTable);
+            var parser = new Parser(lexer, errorModule);
+            parser.setStackSafe(isStackSafe);
+
+            outPrintStream.println("#### Printer ####");
+            var program = parser.parse();
+            // errors are not kept in the cache, so only clean programs are
+            if (cacheEntry != null && errorModule.getErrorCount() == 0) {
+                cacheEntry.store(program, symbolTable);
             }
+            return program;
+        }
+    }
 
+    // a directory stands for all source files in it and its subdirectories
+    private static void addSourcePaths(Path path, List<Path> sourcePaths) throws IOException {
+        if (!Files.isDirectory(path)) {
+            sourcePaths.add(path);
+            return;
+        }
+        try (var files = Files.walk(path)) {
+            files.filter(file -> Files.isRegularFile(file) && file.toString().endsWith(SOURCE_EXTENSION))
+                .sorted()
+                .forEach(sourcePaths::add);
         }
     }
 
@@ -54,12 +160,34 @@ public class Main {
         return new PrintStream(System.out, false, StandardCharsets.UTF_8);
     }
 
-    private static Source getSource(String[] args, ErrorModule errorModule) throws IOException {
-        if (args.length == 1) {
-            var path = args[0];
-            var file = new File(path);
-            var fileReader = new FileReader(file, StandardCharsets.UTF_8);
-            return new Source(errorModule, fileReader, file.getCanonicalPath());
+    private static Lexer getLexer(Source src, ErrorModule errorModule, SymbolTable symbolTable) {
+        // big files are lexed up front on all cores, lexer errors are then reported before parser errors
+        if (src instanceof ByteBufferSource byteBufferSource && ParallelLexer.isWorthIt(byteBufferSource)) {
+            return ParallelLexer.lex(byteBufferSource, errorModule, symbolTable, TriviaPolicy.SKIP, type -> true);
+        }
+        // comments are skipped by the lexer itself, nothing is left to filter
+        return new LexerImpl(src, errorModule, symbolTable, TriviaPolicy.SKIP);
+    }
+
+    private static ErrorFormat getErrorFormat(String name) {
+        return switch (name) {
+            case "text" -> ErrorFormat.TEXT;
+            case "json" -> ErrorFormat.JSON_LINES;
+            default -> throw new IllegalArgumentException("unknown error format: " + name);
+        };
+    }
+
+    // errors streamed to a file are buffered and flushed line by line, "-" streams them with the program output
+    private static PrintStream getErrorStream(String errorsPath) throws IOException {
+        if (errorsPath == null || errorsPath.equals("-")) {
+            return null;
+        }
+        return new PrintStream(new BufferedOutputStream(new FileOutputStream(errorsPath)), true, StandardCharsets.UTF_8);
+    }
+
+    private static Source getSource(Path sourcePath, ErrorModule errorModule) throws IOException {
+        if (sourcePath != null) {
+            return ByteBufferSource.ofFile(errorModule, sourcePath);
         } else {
             var fileReader = new InputStreamReader(System.in, StandardCharsets.UTF_8);
             return new Source(errorModule, fileReader);
@@ -0,0 +1,48 @@
+package com.anczykowski.cache;
+
+// kind of a serialized node, stored as its ordinal byte, so changing this enum needs a new ProgramCache.FORMAT_VERSION
+enum NodeTag {
+    NULL,
+    CODE_BLOCK,
+    VAR_STMT,
+    ASSIGNMENT_STMT,
+    EXPRESSION_STMT,
+    COND_STMT,
+    WHILE_STMT,
+    FOR_STMT,
+    SWITCH_STMT,
+    RETURN_STMT,
+    OR,
+    AND,
+    EQ,
+    NE,
+    GT,
+    GE,
+    LT,
+    LE,
+    ADDITION,
+    SUBTRACTION,
+    MULTIPLICATION,
+    DIVISION,
+    NEGATED,
+    CAST,
+    INTEGER,
+    FLOAT,
+    LONG,
+    DOUBLE,
+    STRING,
+    IDENTIFIER,
+    OBJECT_ACCESS,
+    FUNCTION_CALL,
+    CLASS_INIT,
+    ARG;
+
+    private static final NodeTag[] TAGS = values();
+
+    static NodeTag of(byte ordinal) {
+        if (ordinal < 0 || ordinal >= TAGS.length) {
+            throw new IllegalStateException("unknown node tag " + ordinal);
+        }
+        return TAGS[ordinal];
+    }
+}
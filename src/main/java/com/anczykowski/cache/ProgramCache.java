@@ -0,0 +1,170 @@
+package com.anczykowski.cache;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+
+import com.anczykowski.lexer.ByteBufferSource;
+import com.anczykowski.lexer.SymbolTable;
+import com.anczykowski.parser.structures.Program;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+// keeps parsed programs in .tkc files, so that unchanged sources skip lexing and parsing; an entry holds the symbol
+// table, a string pool and the serialized nodes, is keyed by FORMAT_VERSION and the SHA-256 of the source and is
+// memory mapped back; the cache is only an optimization, entries that cannot be read or written are ignored
+public class ProgramCache {
+
+    public static final String EXTENSION = ".tkc";
+
+    static final int FORMAT_VERSION = 2;
+
+    // "TKC" and a zero byte
+    private static final int MAGIC = 0x544B4300;
+
+    private static final int HASH_SIZE = 32;
+
+    // entries are kept next to their sources when not set
+    private final Path directory;
+
+    public ProgramCache() {
+        this(null);
+    }
+
+    public ProgramCache(Path directory) {
+        this.directory = directory;
+    }
+
+    public Entry getEntry(ByteBufferSource source) {
+        var hash = hash(source.getBuffer());
+        var path = directory == null
+            ? Path.of(source.getFilename() + EXTENSION)
+            : directory.resolve(HexFormat.of().formatHex(hash) + EXTENSION);
+        return new Entry(source, path, hash);
+    }
+
+    private static byte[] hash(ByteBuffer content) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256");
+            digest.update(content);
+            return digest.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+    public static final class Entry {
+
+        private final ByteBufferSource source;
+
+        @Getter
+        private final Path path;
+
+        private final byte[] hash;
+
+        // null when there is no valid entry for the source; symbol ids of the entry are given out again, so
+        // symbolTable has to be empty
+        public Program load(SymbolTable symbolTable) {
+            if (symbolTable.size() != 0 || !Files.isRegularFile(path)) {
+                return null;
+            }
+            try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                var buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+                    return null;
+                }
+                var entryHash = new byte[HASH_SIZE];
+                buffer.get(entryHash);
+                if (!Arrays.equals(entryHash, hash)) {
+                    return null;
+                }
+                var symbolCount = buffer.getInt();
+                for (int id = 0; id < symbolCount; ++id) {
+                    if (symbolTable.getId(readString(buffer)) != id) {
+                        return null;
+                    }
+                }
+                var strings = new String[buffer.getInt()];
+                for (int i = 0; i < strings.length; ++i) {
+                    strings[i] = readString(buffer);
+                }
+                return new ProgramReader(buffer, strings, source.getSourceText()).readProgram();
+            } catch (IOException | RuntimeException e) {
+                return null;
+            }
+        }
+
+        // written to a temporary file first, so that concurrent runs never map a half written entry
+        public void store(Program program, SymbolTable symbolTable) {
+            Path temporary = null;
+            try {
+                var writer = new ProgramWriter(program.getArena());
+                writer.writeProgram();
+                var symbols = new String[symbolTable.size()];
+                for (int id = 0; id < symbols.length; ++id) {
+                    symbols[id] = symbolTable.getName(id);
+                }
+
+                var parent = path.toAbsolutePath().getParent();
+                Files.createDirectories(parent);
+                temporary = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+                try (var channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                    var header = ByteBuffer.allocate(2 * Integer.BYTES + HASH_SIZE);
+                    header.putInt(MAGIC).putInt(FORMAT_VERSION).put(hash);
+                    writeFully(channel, header.flip());
+                    writeFully(channel, encodeStrings(Arrays.asList(symbols)));
+                    writeFully(channel, encodeStrings(writer.getStrings()));
+                    writeFully(channel, writer.getNodes());
+                }
+                Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException | RuntimeException e) {
+                if (temporary != null) {
+                    try {
+                        Files.deleteIfExists(temporary);
+                    } catch (IOException ignored) {
+                        // nothing more to do, the entry is just not written
+                    }
+                }
+            }
+        }
+
+        private static ByteBuffer encodeStrings(List<String> strings) {
+            var encoded = new byte[strings.size()][];
+            var size = Integer.BYTES;
+            for (int i = 0; i < encoded.length; ++i) {
+                encoded[i] = strings.get(i).getBytes(StandardCharsets.UTF_8);
+                size += Integer.BYTES + encoded[i].length;
+            }
+            var buffer = ByteBuffer.allocate(size);
+            buffer.putInt(encoded.length);
+            for (var bytes : encoded) {
+                buffer.putInt(bytes.length).put(bytes);
+            }
+            return buffer.flip();
+        }
+
+        private static String readString(ByteBuffer buffer) {
+            var bytes = new byte[buffer.getInt()];
+            buffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+}
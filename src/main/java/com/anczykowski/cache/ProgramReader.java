@@ -0,0 +1,257 @@
+package com.anczykowski.cache;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import com.anczykowski.lexer.Position;
+import com.anczykowski.lexer.SourceSnippet;
+import com.anczykowski.lexer.SourceText;
+import com.anczykowski.parser.structures.*;
+import com.anczykowski.parser.structures.expressions.*;
+import com.anczykowski.parser.structures.expressions.relops.*;
+import com.anczykowski.parser.structures.statements.*;
+import lombok.RequiredArgsConstructor;
+
+// rebuilds a program written by ProgramWriter, snippets are resolved against the text of the cached source
+@RequiredArgsConstructor
+class ProgramReader {
+
+    private static final int NO_STRING = -1;
+
+    private static final int NO_SNIPPET = -1;
+
+    private final ByteBuffer nodes;
+
+    private final String[] strings;
+
+    private final SourceText sourceText;
+
+    private record Origin(String filename, long position, SourceSnippet snippet) {
+    }
+
+    Program readProgram() {
+        HashMap<String, ClassDef> classes = new HashMap<>();
+        var classCount = readInt();
+        for (int i = 0; i < classCount; ++i) {
+            var classDef = readClassDef();
+            classes.put(classDef.getName(), classDef);
+        }
+        HashMap<String, FuncDef> functions = new HashMap<>();
+        var functionCount = readInt();
+        for (int i = 0; i < functionCount; ++i) {
+            var funcDef = readFuncDef();
+            functions.put(funcDef.getName(), funcDef);
+        }
+        return new Program(functions, classes);
+    }
+
+    private ClassDef readClassDef() {
+        var name = readString();
+        var origin = readOrigin();
+        var classBody = readBoolean() ? readClassBody() : null;
+        return new ClassDef(name, classBody, origin.filename(), origin.position(), origin.snippet());
+    }
+
+    private ClassBody readClassBody() {
+        HashMap<String, VarStmt> attributes = new HashMap<>();
+        var attributeCount = readInt();
+        for (int i = 0; i < attributeCount; ++i) {
+            var attribute = (VarStmt) readNode();
+            attributes.put(attribute.getName(), attribute);
+        }
+        HashMap<String, FuncDef> methods = new HashMap<>();
+        var methodCount = readInt();
+        for (int i = 0; i < methodCount; ++i) {
+            var method = readFuncDef();
+            methods.put(method.getName(), method);
+        }
+        return new ClassBody(methods, attributes);
+    }
+
+    private FuncDef readFuncDef() {
+        var name = readString();
+        var symbolId = readInt();
+        var isMethod = readBoolean();
+        var origin = readOrigin();
+        var paramCount = readInt();
+        var params = new ArrayList<Parameter>(paramCount);
+        for (int i = 0; i < paramCount; ++i) {
+            params.add(new Parameter(readString(), readInt()));
+        }
+        var codeBlock = (CodeBLock) readNode();
+        var funcDef = new FuncDef(name, params, codeBlock, symbolId, origin.filename(), origin.position(), origin.snippet());
+        funcDef.setIsMethod(isMethod);
+        return funcDef;
+    }
+
+    private Object readNode() {
+        var tag = NodeTag.of(nodes.get());
+        return switch (tag) {
+            case NULL -> null;
+            case CODE_BLOCK -> readCodeBlock();
+            case VAR_STMT -> {
+                var name = readString();
+                var symbolId = readInt();
+                var origin = readOrigin();
+                var initial = (Expression) readNode();
+                yield new VarStmt(name, initial, origin.filename(), origin.position(), origin.snippet(), symbolId);
+            }
+            case ASSIGNMENT_STMT -> {
+                var origin = readOrigin();
+                var lval = (Expression) readNode();
+                var rval = (Expression) readNode();
+                yield new AssignmentStatement(lval, rval, origin.filename(), origin.position(), origin.snippet());
+            }
+            case EXPRESSION_STMT -> new ExpressionStatement((Expression) readNode());
+            case COND_STMT -> {
+                var condition = (Expression) readNode();
+                var trueBlock = (CodeBLock) readNode();
+                var elseBlock = (CodeBLock) readNode();
+                yield new CondStmt(condition, trueBlock, elseBlock);
+            }
+            case WHILE_STMT -> {
+                var condition = (Expression) readNode();
+                yield new WhileStmt(condition, (CodeBLock) readNode());
+            }
+            case FOR_STMT -> {
+                var iteratorIdentifier = readString();
+                var symbolId = readInt();
+                var origin = readOrigin();
+                var iterable = (Expression) readNode();
+                var codeBlock = (CodeBLock) readNode();
+                yield new ForStmt(iteratorIdentifier, iterable, codeBlock, origin.filename(), origin.position(),
+                    origin.snippet(), symbolId);
+            }
+            case SWITCH_STMT -> {
+                var expression = (Expression) readNode();
+                var elementCount = readInt();
+                HashMap<SwitchLabel, CodeBLock> switchElements = new HashMap<>();
+                for (int i = 0; i < elementCount; ++i) {
+                    var label = new SwitchLabel(readString());
+                    switchElements.put(label, (CodeBLock) readNode());
+                }
+                yield new SwitchStmt(expression, switchElements);
+            }
+            case RETURN_STMT -> new ReturnStatement((Expression) readNode());
+            case OR, AND, EQ, NE, GT, GE, LT, LE, ADDITION, SUBTRACTION, MULTIPLICATION, DIVISION -> readLeftRight(tag);
+            case NEGATED -> new NegatedExpression((Expression) readNode());
+            case CAST -> {
+                var type = readString();
+                var origin = readOrigin();
+                var inner = (Expression) readNode();
+                yield new CastExpression(inner, type, origin.filename(), origin.position(), origin.snippet());
+            }
+            case INTEGER -> new IntegerConstantExpr(readInt());
+            case FLOAT -> new FloatConstantExpr(Float.intBitsToFloat(nodes.getInt()));
+            case LONG -> new LongConstantExpr(readLong());
+            case DOUBLE -> new DoubleConstantExpr(Double.longBitsToDouble(nodes.getLong()));
+            case STRING -> new StringExpression(readString());
+            case IDENTIFIER -> {
+                var origin = readOrigin();
+                var identifier = readString();
+                yield new IdentifierExpression(identifier, origin.filename(), origin.position(), origin.snippet(), readInt());
+            }
+            case OBJECT_ACCESS -> {
+                var origin = readOrigin();
+                var current = (Expression) readNode();
+                var child = (Expression) readNode();
+                yield new ObjectAccessExpression(current, child, origin.filename(), origin.position(), origin.snippet());
+            }
+            case FUNCTION_CALL -> {
+                var identifier = readString();
+                var symbolId = readInt();
+                var origin = readOrigin();
+                yield new FunctionCallExpression(identifier, readArgs(), origin.filename(), origin.position(),
+                    origin.snippet(), symbolId);
+            }
+            case CLASS_INIT -> {
+                var identifier = readString();
+                var symbolId = readInt();
+                var origin = readOrigin();
+                yield new ClassInitExpression(identifier, readArgs(), origin.filename(), origin.position(),
+                    origin.snippet(), symbolId);
+            }
+            case ARG -> {
+                var isByReference = readBoolean();
+                yield new Arg((Expression) readNode(), isByReference);
+            }
+        };
+    }
+
+    private CodeBLock readCodeBlock() {
+        var statementCount = readInt();
+        var statements = new ArrayList<Statement>(statementCount);
+        for (int i = 0; i < statementCount; ++i) {
+            statements.add((Statement) readNode());
+        }
+        return new CodeBLock(statements);
+    }
+
+    private Expression readLeftRight(NodeTag tag) {
+        var origin = readOrigin();
+        var left = (Expression) readNode();
+        var right = (Expression) readNode();
+        var filename = origin.filename();
+        var position = origin.position();
+        var snippet = origin.snippet();
+        return switch (tag) {
+            case OR -> new OrExpression(left, right, filename, position, snippet);
+            case AND -> new AndExpr(left, right, filename, position, snippet);
+            case EQ -> new EqRelExpr(left, right, filename, position, snippet);
+            case NE -> new NeRelExpr(left, right, filename, position, snippet);
+            case GT -> new GtRelExpr(left, right, filename, position, snippet);
+            case GE -> new GeRelExpr(left, right, filename, position, snippet);
+            case LT -> new LtRelExpr(left, right, filename, position, snippet);
+            case LE -> new LeRelExpr(left, right, filename, position, snippet);
+            case ADDITION -> new AdditionTerm(left, right, filename, position, snippet);
+            case SUBTRACTION -> new SubtractionTerm(left, right, filename, position, snippet);
+            case MULTIPLICATION -> new MultiplicationFactor(left, right, filename, position, snippet);
+            case DIVISION -> new DivisionFactor(left, right, filename, position, snippet);
+            default -> throw new IllegalStateException("not a left right expression " + tag);
+        };
+    }
+
+    private ArrayList<Arg> readArgs() {
+        var argCount = readInt();
+        var args = new ArrayList<Arg>(argCount);
+        for (int i = 0; i < argCount; ++i) {
+            args.add((Arg) readNode());
+        }
+        return args;
+    }
+
+    private Origin readOrigin() {
+        var position = Position.of(readInt(), readInt());
+        var filename = position != Position.NONE ? readString() : null;
+        var start = readInt();
+        var snippet = start != NO_SNIPPET ? new SourceSnippet(sourceText, start, start + readInt()) : null;
+        return new Origin(filename, position, snippet);
+    }
+
+    private String readString() {
+        var id = readInt();
+        return id == NO_STRING ? null : strings[id];
+    }
+
+    private int readInt() {
+        return (int) readLong();
+    }
+
+    // zigzag varint, see ProgramWriter
+    private long readLong() {
+        long zigzag = 0;
+        for (int shift = 0; ; shift += 7) {
+            var part = nodes.get();
+            zigzag |= (long) (part & 0x7F) << shift;
+            if (part >= 0) {
+                break;
+            }
+        }
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+
+    private boolean readBoolean() {
+        return nodes.get() != 0;
+    }
+}
@@ -0,0 +1,310 @@
+package com.anczykowski.cache;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.function.IntConsumer;
+
+import com.anczykowski.lexer.Position;
+import com.anczykowski.parser.arena.AstArena;
+import com.anczykowski.parser.arena.NodeKind;
+import lombok.RequiredArgsConstructor;
+
+// serializes a parsed program for ProgramReader by walking its AstArena: nodes are written depth first, each
+// expression and statement starting with its NodeTag; numbers are varints, strings are written once into a pool and
+// referred to by their index
+@RequiredArgsConstructor
+class ProgramWriter {
+
+    private static final int NO_STRING = -1;
+
+    private static final int NO_SNIPPET = -1;
+
+    private static final int MAX_VARINT_BYTES = 10;
+
+    private final AstArena arena;
+
+    private ByteBuffer nodes = ByteBuffer.allocate(4096);
+
+    private final HashMap<String, Integer> stringIds = new HashMap<>();
+
+    private final ArrayList<String> strings = new ArrayList<>();
+
+    ByteBuffer getNodes() {
+        return nodes.duplicate().flip();
+    }
+
+    ArrayList<String> getStrings() {
+        return strings;
+    }
+
+    void writeProgram() {
+        writeInt(countChildren(AstArena.ROOT, NodeKind.CLASS_DEF));
+        forEachChild(AstArena.ROOT, NodeKind.CLASS_DEF, this::writeClassDef);
+        writeInt(countChildren(AstArena.ROOT, NodeKind.FUNC_DEF));
+        forEachChild(AstArena.ROOT, NodeKind.FUNC_DEF, this::writeFuncDef);
+    }
+
+    private void writeClassDef(int node) {
+        writeString(arena.getString(node));
+        writeOrigin(node);
+        var classBody = arena.getFirstChild(node);
+        writeBoolean(classBody != AstArena.NO_NODE);
+        if (classBody != AstArena.NO_NODE) {
+            writeInt(countChildren(classBody, NodeKind.VAR_STMT));
+            forEachChild(classBody, NodeKind.VAR_STMT, this::writeNode);
+            writeInt(countChildren(classBody, NodeKind.METHOD_DEF));
+            forEachChild(classBody, NodeKind.METHOD_DEF, this::writeFuncDef);
+        }
+    }
+
+    private void writeFuncDef(int node) {
+        writeString(arena.getString(node));
+        writeInt(arena.getSymbolId(node));
+        writeBoolean(arena.getKind(node) == NodeKind.METHOD_DEF);
+        writeOrigin(node);
+        var paramCount = countChildren(node, NodeKind.PARAMETER);
+        writeInt(paramCount);
+        forEachChild(node, NodeKind.PARAMETER, parameter -> {
+            writeString(arena.getString(parameter));
+            writeInt(arena.getSymbolId(parameter));
+        });
+        writeNode(arena.getChild(node, paramCount));
+    }
+
+    // missing optional children are NO_NODE and written as NULL
+    private void writeNode(int node) {
+        if (node == AstArena.NO_NODE) {
+            writeTag(NodeTag.NULL);
+            return;
+        }
+        var kind = arena.getKind(node);
+        switch (kind) {
+            case CODE_BLOCK -> {
+                writeTag(NodeTag.CODE_BLOCK);
+                writeChildren(node);
+            }
+            case VAR_STMT -> {
+                writeTag(NodeTag.VAR_STMT);
+                writeString(arena.getString(node));
+                writeInt(arena.getSymbolId(node));
+                writeOrigin(node);
+                writeNode(arena.getFirstChild(node));
+            }
+            case ASSIGNMENT_STMT -> {
+                writeTag(NodeTag.ASSIGNMENT_STMT);
+                writeOrigin(node);
+                writeNode(arena.getChild(node, 0));
+                writeNode(arena.getChild(node, 1));
+            }
+            case EXPRESSION_STMT -> {
+                writeTag(NodeTag.EXPRESSION_STMT);
+                writeNode(arena.getFirstChild(node));
+            }
+            case COND_STMT -> {
+                writeTag(NodeTag.COND_STMT);
+                writeNode(arena.getChild(node, 0));
+                writeNode(arena.getChild(node, 1));
+                writeNode(arena.getChild(node, 2));
+            }
+            case WHILE_STMT -> {
+                writeTag(NodeTag.WHILE_STMT);
+                writeNode(arena.getChild(node, 0));
+                writeNode(arena.getChild(node, 1));
+            }
+            case FOR_STMT -> {
+                writeTag(NodeTag.FOR_STMT);
+                writeString(arena.getString(node));
+                writeInt(arena.getSymbolId(node));
+                writeOrigin(node);
+                writeNode(arena.getChild(node, 0));
+                writeNode(arena.getChild(node, 1));
+            }
+            case SWITCH_STMT -> {
+                writeTag(NodeTag.SWITCH_STMT);
+                writeNode(arena.getFirstChild(node));
+                writeInt(countChildren(node, NodeKind.SWITCH_LABEL));
+                forEachChild(node, NodeKind.SWITCH_LABEL, label -> {
+                    writeString(arena.getString(label));
+                    writeNode(arena.getFirstChild(label));
+                });
+            }
+            case RETURN_STMT -> {
+                writeTag(NodeTag.RETURN_STMT);
+                writeNode(arena.getFirstChild(node));
+            }
+            case OR -> writeLeftRight(NodeTag.OR, node);
+            case AND -> writeLeftRight(NodeTag.AND, node);
+            case EQ -> writeLeftRight(NodeTag.EQ, node);
+            case NE -> writeLeftRight(NodeTag.NE, node);
+            case GT -> writeLeftRight(NodeTag.GT, node);
+            case GE -> writeLeftRight(NodeTag.GE, node);
+            case LT -> writeLeftRight(NodeTag.LT, node);
+            case LE -> writeLeftRight(NodeTag.LE, node);
+            case ADDITION -> writeLeftRight(NodeTag.ADDITION, node);
+            case SUBTRACTION -> writeLeftRight(NodeTag.SUBTRACTION, node);
+            case MULTIPLICATION -> writeLeftRight(NodeTag.MULTIPLICATION, node);
+            case DIVISION -> writeLeftRight(NodeTag.DIVISION, node);
+            case NEGATED -> {
+                writeTag(NodeTag.NEGATED);
+                writeNode(arena.getFirstChild(node));
+            }
+            case CAST -> {
+                writeTag(NodeTag.CAST);
+                writeString(arena.getString(node));
+                writeOrigin(node);
+                writeNode(arena.getFirstChild(node));
+            }
+            case INTEGER -> {
+                writeTag(NodeTag.INTEGER);
+                writeInt(arena.getInt(node));
+            }
+            case FLOAT -> {
+                writeTag(NodeTag.FLOAT);
+                writeFixedInt(Float.floatToRawIntBits(arena.getFloat(node)));
+            }
+            case LONG -> {
+                writeTag(NodeTag.LONG);
+                writeLong(arena.getLong(node));
+            }
+            case DOUBLE -> {
+                writeTag(NodeTag.DOUBLE);
+                writeFixedLong(Double.doubleToRawLongBits(arena.getDouble(node)));
+            }
+            case STRING -> {
+                writeTag(NodeTag.STRING);
+                writeString(arena.getString(node));
+            }
+            case IDENTIFIER -> {
+                writeTag(NodeTag.IDENTIFIER);
+                writeOrigin(node);
+                writeString(arena.getString(node));
+                writeInt(arena.getSymbolId(node));
+            }
+            case OBJECT_ACCESS -> {
+                writeTag(NodeTag.OBJECT_ACCESS);
+                writeOrigin(node);
+                writeNode(arena.getChild(node, 0));
+                writeNode(arena.getChild(node, 1));
+            }
+            case FUNCTION_CALL, CLASS_INIT -> {
+                writeTag(kind == NodeKind.FUNCTION_CALL ? NodeTag.FUNCTION_CALL : NodeTag.CLASS_INIT);
+                writeString(arena.getString(node));
+                writeInt(arena.getSymbolId(node));
+                writeOrigin(node);
+                writeChildren(node);
+            }
+            case ARG, REF_ARG -> {
+                writeTag(NodeTag.ARG);
+                writeBoolean(kind == NodeKind.REF_ARG);
+                writeNode(arena.getFirstChild(node));
+            }
+            // booleans only come from folding and folded programs are not cached
+            default -> throw new IllegalStateException("cannot serialize " + kind);
+        }
+    }
+
+    private void writeLeftRight(NodeTag tag, int node) {
+        writeTag(tag);
+        writeOrigin(node);
+        writeNode(arena.getChild(node, 0));
+        writeNode(arena.getChild(node, 1));
+    }
+
+    private void writeChildren(int node) {
+        writeInt(arena.getChildCount(node));
+        for (int child = arena.getFirstChild(node); child != AstArena.NO_NODE; child = arena.getNextSibling(child)) {
+            writeNode(child);
+        }
+    }
+
+    private int countChildren(int node, NodeKind kind) {
+        var count = 0;
+        for (int child = arena.getFirstChild(node); child != AstArena.NO_NODE; child = arena.getNextSibling(child)) {
+            if (arena.getKind(child) == kind) {
+                ++count;
+            }
+        }
+        return count;
+    }
+
+    private void forEachChild(int node, NodeKind kind, IntConsumer write) {
+        for (int child = arena.getFirstChild(node); child != AstArena.NO_NODE; child = arena.getNextSibling(child)) {
+            if (arena.getKind(child) == kind) {
+                write.accept(child);
+            }
+        }
+    }
+
+    // snippets are stored as offsets, they always come from the source the program was parsed from
+    private void writeOrigin(int node) {
+        var position = arena.getPosition(node);
+        writeInt(Position.getLineNumber(position));
+        writeInt(Position.getColumnNumber(position));
+        if (position != Position.NONE) {
+            writeString(arena.getFilename(node));
+        }
+        var snippet = arena.getSnippet(node);
+        writeInt(snippet == null ? NO_SNIPPET : snippet.getStart());
+        if (snippet != null) {
+            writeInt(snippet.getEnd() - snippet.getStart());
+        }
+    }
+
+    private void writeString(String string) {
+        if (string == null) {
+            writeInt(NO_STRING);
+            return;
+        }
+        var id = stringIds.get(string);
+        if (id == null) {
+            id = strings.size();
+            stringIds.put(string, id);
+            strings.add(string);
+        }
+        writeInt(id);
+    }
+
+    private void writeTag(NodeTag tag) {
+        ensureRemaining(Byte.BYTES);
+        nodes.put((byte) tag.ordinal());
+    }
+
+    private void writeBoolean(boolean value) {
+        ensureRemaining(Byte.BYTES);
+        nodes.put((byte) (value ? 1 : 0));
+    }
+
+    // zigzag varints, so that small values and -1 take a single byte
+    private void writeInt(int value) {
+        writeLong(value);
+    }
+
+    private void writeLong(long value) {
+        var zigzag = (value << 1) ^ (value >> 63);
+        ensureRemaining(MAX_VARINT_BYTES);
+        while ((zigzag & ~0x7FL) != 0) {
+            nodes.put((byte) ((zigzag & 0x7F) | 0x80));
+            zigzag >>>= 7;
+        }
+        nodes.put((byte) zigzag);
+    }
+
+    private void writeFixedInt(int value) {
+        ensureRemaining(Integer.BYTES);
+        nodes.putInt(value);
+    }
+
+    private void writeFixedLong(long value) {
+        ensureRemaining(Long.BYTES);
+        nodes.putLong(value);
+    }
+
+    private void ensureRemaining(int size) {
+        if (nodes.remaining() < size) {
+            var grown = ByteBuffer.allocate(nodes.capacity() * 2);
+            grown.put(nodes.flip());
+            nodes = grown;
+        }
+    }
+}
@@ -1,10 +1,14 @@
 package com.anczykowski.errormodule;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import com.anczykowski.lexer.Location;
+import com.anczykowski.lexer.SourceSnippet;
 import lombok.Builder;
 import lombok.Getter;
 
@@ -16,20 +20,35 @@ public class ErrorElement {
 
     private String codeLineBuffer;
 
+    // resolved only when codeLineBuffer is not given and the error is actually printed
+    private SourceSnippet codeSnippet;
+
     private String underlineFragment;
 
+    // computes underlineFragment when the error is printed, for fragments costly to find
+    private Supplier<String> underlineFragmentSupplier;
+
     private String explanation;
 
     private ErrorType errorType;
 
-    private final LocalDateTime timestamp = LocalDateTime.now();
+    // turned into a date only when asked for
+    private final long timestampMillis = System.currentTimeMillis();
 
-    @SuppressWarnings("UnnecessaryDefault")
     @Override
     public String toString() {
         var explanationText = getExplanationText();
         var underline = getUnderlineText();
-        var msg = switch (errorType) {
+        var msg = getMessage();
+        var locationString = location == null ? "" : location.toString();
+        var codeLineBufferString = getTrimmedCodeLineBuffer();
+        return "%s: %s%s\n%s%s\n".formatted(locationString, msg, explanationText, codeLineBufferString, underline);
+
+    }
+
+    @SuppressWarnings("UnnecessaryDefault")
+    public String getMessage() {
+        return switch (errorType) {
             case TOKEN_TOO_LONG -> "error: too long token";
             case INCONSISTENT_LINE_ENDINGS -> "error: inconsistent line endings";
             case UNKNOWN_CHARACTER -> "error: unknown character";
@@ -47,10 +66,30 @@ public class ErrorElement {
             case UNDEFINED_SYMBOL -> "error: undefined symbol";
             default -> "unknownError";
         };
-        var locationString = location == null ? "" : location.toString();
-        var codeLineBufferString = codeLineBuffer == null ? "" : codeLineBuffer.trim().lines().map(String::trim).collect(Collectors.joining("\n"));
-        return "%s: %s%s\n%s%s\n".formatted(locationString, msg, explanationText, codeLineBufferString, underline);
+    }
+
+    public String getCodeLineBuffer() {
+        if (codeLineBuffer == null && codeSnippet != null) {
+            return codeSnippet.getText();
+        }
+        return codeLineBuffer;
+    }
+
+    String getTrimmedCodeLineBuffer() {
+        var buffer = getCodeLineBuffer();
+        return buffer == null ? "" : buffer.trim().lines().map(String::trim).collect(Collectors.joining("\n"));
+    }
+
+    public String getUnderlineFragment() {
+        if (underlineFragment == null && underlineFragmentSupplier != null) {
+            underlineFragment = underlineFragmentSupplier.get();
+            underlineFragmentSupplier = null;
+        }
+        return underlineFragment;
+    }
 
+    public LocalDateTime getTimestamp() {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(timestampMillis), ZoneId.systemDefault());
     }
 
     public String getExplanationText() {
@@ -59,8 +98,9 @@ public class ErrorElement {
 
     public String getUnderlineText() {
         AtomicReference<String> underlineResult = new AtomicReference<>("");
+        var underlineFragment = getUnderlineFragment();
         if (underlineFragment != null) {
-            var codeLineBufferString = codeLineBuffer == null ? "" : codeLineBuffer.trim().lines().map(String::trim).collect(Collectors.joining("\n"));
+            var codeLineBufferString = getTrimmedCodeLineBuffer();
             codeLineBufferString.lines().forEach(codeLineFragment -> {
                 var underlineIndex = codeLineFragment.lastIndexOf(underlineFragment);
                 if (underlineIndex > -1) {
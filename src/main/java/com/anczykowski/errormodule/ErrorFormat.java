@@ -0,0 +1,69 @@
+package com.anczykowski.errormodule;
+
+import java.time.Instant;
+
+// how ErrorModule writes errors it streams
+public enum ErrorFormat {
+    // same as the errors printed at the end of the run
+    TEXT {
+        @Override
+        public String format(ErrorElement error) {
+            return error.toString();
+        }
+    },
+    // one JSON object per line, for tools consuming errors while the program runs
+    JSON_LINES {
+        @Override
+        public String format(ErrorElement error) {
+            var json = new StringBuilder(256);
+            json.append("{\"timestamp\":");
+            appendString(json, Instant.ofEpochMilli(error.getTimestampMillis()).toString());
+            json.append(",\"type\":");
+            appendString(json, error.getErrorType().name());
+            var location = error.getLocation();
+            if (location != null) {
+                json.append(",\"file\":");
+                appendString(json, location.getFilename());
+                json.append(",\"line\":").append(location.getLineNumber());
+                json.append(",\"column\":").append(location.getColumnNumber());
+            }
+            json.append(",\"message\":");
+            appendString(json, error.getMessage());
+            json.append(",\"explanation\":");
+            appendString(json, error.getExplanation());
+            json.append(",\"code\":");
+            appendString(json, error.getTrimmedCodeLineBuffer());
+            json.append(",\"underline\":");
+            appendString(json, error.getUnderlineFragment());
+            return json.append('}').toString();
+        }
+    };
+
+    public abstract String format(ErrorElement error);
+
+    private static void appendString(StringBuilder json, String value) {
+        if (value == null) {
+            json.append("null");
+            return;
+        }
+        json.append('"');
+        for (int i = 0; i < value.length(); ++i) {
+            var character = value.charAt(i);
+            switch (character) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> {
+                    if (character < 0x20) {
+                        json.append("\\u%04x".formatted((int) character));
+                    } else {
+                        json.append(character);
+                    }
+                }
+            }
+        }
+        json.append('"');
+    }
+}
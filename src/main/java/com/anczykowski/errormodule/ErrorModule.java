@@ -1,25 +1,152 @@
 package com.anczykowski.errormodule;
 
 import java.io.PrintStream;
+import java.util.HashSet;
 import java.util.LinkedList;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import com.anczykowski.errormodule.exceptions.TooManyErrorsException;
 import lombok.Getter;
-import lombok.RequiredArgsConstructor;
+import lombok.Setter;
 
-@RequiredArgsConstructor
 public class ErrorModule {
 
+    public static final int NO_LIMIT = Integer.MAX_VALUE;
+
+    public static final int DEFAULT_MAX_ERRORS = 1000;
+
+    private record ErrorKey(ErrorType errorType, String filename, int lineNumber, int columnNumber) {
+    }
+
     @Getter
     private final LinkedList<ErrorElement> errors = new LinkedList<>();
 
+    // errors past the cap are only counted
+    @Getter
+    private final int maxErrors;
+
+    @Getter
+    private int omittedErrors = 0;
+
+    // reaching it makes addError throw TooManyErrorsException, meant for the lexer and parser phases
+    @Getter
+    @Setter
+    private int abortThreshold = NO_LIMIT;
+
+    // type and location of the kept errors, the same error is reported once
+    private final HashSet<ErrorKey> reported = new HashSet<>();
+
+    // when set, errors are written as soon as they are added instead of being kept
+    private PrintStream stream;
+
+    private ErrorFormat streamFormat;
+
+    @Getter
+    private int streamedErrors = 0;
+
+    // errors counted towards the abort threshold, shared with the parts made by createPart
+    private final AtomicInteger runningErrorCount;
+
+    public ErrorModule() {
+        this(DEFAULT_MAX_ERRORS);
+    }
+
+    public ErrorModule(int maxErrors) {
+        this(maxErrors, new AtomicInteger());
+    }
+
+    private ErrorModule(int maxErrors, AtomicInteger runningErrorCount) {
+        this.maxErrors = maxErrors;
+        this.runningErrorCount = runningErrorCount;
+    }
+
+    // module for a part of the input handled on another thread (e.g. one of many files), it keeps its errors until
+    // they are handed over with addPartErrors, but aborts once this module and all its parts reach the threshold
+    public ErrorModule createPart() {
+        var part = new ErrorModule(maxErrors, runningErrorCount);
+        part.abortThreshold = abortThreshold;
+        return part;
+    }
+
+    // from now on every error is written to given stream right away, memory use stays constant
+    public void streamTo(PrintStream stream, ErrorFormat format) {
+        this.stream = stream;
+        this.streamFormat = format;
+    }
+
     public void addError(ErrorElement error) {
-        errors.add(error);
+        if (store(error)) {
+            runningErrorCount.incrementAndGet();
+            checkAbortThreshold();
+        }
+    }
+
+    // errors of a part were counted when the part got them, here only those handed over so far count
+    public void addPartErrors(ErrorModule part) {
+        for (var error : part.errors) {
+            store(error);
+        }
+        omittedErrors += part.omittedErrors;
+        checkAbortThreshold(getErrorCount());
+    }
+
+    // false when the same error was reported already
+    private boolean store(ErrorElement error) {
+        if (stream != null) {
+            // only recent errors are checked for duplicates
+            if (reported.size() >= maxErrors) {
+                reported.clear();
+            }
+            if (isReported(error)) {
+                return false;
+            }
+            stream.println(streamFormat.format(error));
+            ++streamedErrors;
+        } else if (errors.size() < maxErrors) {
+            if (isReported(error)) {
+                return false;
+            }
+            errors.add(error);
+        } else {
+            ++omittedErrors;
+        }
+        return true;
+    }
+
+    private boolean isReported(ErrorElement error) {
+        var location = error.getLocation();
+        return location != null && !reported.add(new ErrorKey(error.getErrorType(), location.getFilename(),
+            location.getLineNumber(), location.getColumnNumber()));
+    }
+
+    // errors dropped by another error module (e.g. one of a part of the input) still count
+    public void addOmittedErrors(int count) {
+        omittedErrors += count;
+        runningErrorCount.addAndGet(count);
+        checkAbortThreshold();
+    }
+
+    private void checkAbortThreshold() {
+        checkAbortThreshold(runningErrorCount.get());
+    }
+
+    private void checkAbortThreshold(int errorCount) {
+        if (errorCount >= abortThreshold) {
+            throw new TooManyErrorsException();
+        }
+    }
+
+    public int getErrorCount() {
+        return errors.size() + omittedErrors + streamedErrors;
     }
 
     public void printErrors(PrintStream out) {
         if (errors.isEmpty()) return;
         out.println("\n===== Error Module =====");
         out.printf("%d Errors, most recent errors last:%n", errors.size());
+        if (omittedErrors > 0) {
+            out.printf("%d more errors omitted%n", omittedErrors);
+        }
         var it = errors.descendingIterator();
         while(it.hasNext()) {
             out.println(it.next());
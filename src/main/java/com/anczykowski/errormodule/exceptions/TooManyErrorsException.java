@@ -0,0 +1,5 @@
+package com.anczykowski.errormodule.exceptions;
+
+// thrown by ErrorModule once its abort threshold is reached
+public class TooManyErrorsException extends RuntimeException {
+}
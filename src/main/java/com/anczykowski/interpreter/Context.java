@@ -6,24 +6,74 @@ import lombok.Getter;
 import java.util.HashMap;
 
 public class Context {
-    @Getter
-    private final HashMap<String, ValueProxy> variables = new HashMap<>();
+    private final SymbolMap<ValueProxy> variables = new SymbolMap<>();
 
+    // only class contexts carry their own functions (methods)
     @Getter
-    private final SymbolManager localSymbolManager = new SymbolManager();
+    private final MethodTable methods;
 
     @Getter
     private final boolean isBarrierContext;
 
-    public Context(boolean isBarrierContext) {
+    // variables resolved by ResolverVisitor live in slots, the others are kept by name
+    private final ValueProxy[] slots;
+
+    // set when the context is the frame of a called function, see ContextManager
+    @Getter
+    private boolean isFunctionContext = false;
+
+    @Getter
+    private int callerFunctionContext;
+
+    public Context(boolean isBarrierContext, MethodTable methods, int frameSize) {
         this.isBarrierContext = isBarrierContext;
+        this.methods = methods;
+        this.slots = frameSize > 0 ? new ValueProxy[frameSize] : null;
+    }
+
+    public Context(boolean isBarrierContext, MethodTable methods) {
+        this(isBarrierContext, methods, 0);
+    }
+
+    public Context(boolean isBarrierContext, int frameSize) {
+        this(isBarrierContext, null, frameSize);
+    }
+
+    public Context(boolean isBarrierContext) {
+        this(isBarrierContext, null);
     }
 
     public Context() {
-        this.isBarrierContext = false;
+        this(false, null);
+    }
+
+    // name keyed copy of the variables, lookups should go through getVariable
+    public HashMap<String, ValueProxy> getVariables() {
+        return variables.toNameMap();
+    }
+
+    public boolean hasVariable(int symbolId) {
+        return variables.containsKey(symbolId);
+    }
+
+    public ValueProxy getVariable(int symbolId) {
+        return variables.get(symbolId);
+    }
+
+    public void addVariable(int symbolId, String variable, ValueProxy value) {
+        variables.put(symbolId, variable, value);
+    }
+
+    public ValueProxy getSlot(int slot) {
+        return slots[slot];
+    }
+
+    public void setSlot(int slot, ValueProxy value) {
+        slots[slot] = value;
     }
 
-    public void addVariable(String variable, ValueProxy value) {
-        variables.put(variable, value);
+    void enterFunction(int callerFunctionContext) {
+        this.isFunctionContext = true;
+        this.callerFunctionContext = callerFunctionContext;
     }
 }
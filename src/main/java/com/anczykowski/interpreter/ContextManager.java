@@ -1,52 +1,104 @@
 package com.anczykowski.interpreter;
 
 import com.anczykowski.interpreter.value.ValueProxy;
+import com.anczykowski.lexer.SymbolTable;
 import com.anczykowski.parser.structures.FuncDef;
 import lombok.Getter;
 
-import java.util.ArrayDeque;
+import java.util.ArrayList;
 
 
 public class ContextManager {
-    private final ArrayDeque<Context> contexts = new ArrayDeque<>();
+    private final ArrayList<Context> contexts = new ArrayList<>();
+
+    // index of the frame of the function being executed, resolved variables are addressed relative to it
+    private int functionContext = -1;
+
+    @Getter
+    private final SymbolTable symbolTable;
+
+    @Getter
+    private final SymbolManager globalSymbolManager;
+
+    public ContextManager(SymbolTable symbolTable) {
+        this.symbolTable = symbolTable;
+        this.globalSymbolManager = new SymbolManager(symbolTable);
+    }
+
+    public ContextManager() {
+        this(new SymbolTable());
+    }
 
     public void addContext(Context context) {
         contexts.add(context);
     }
 
+    public void addFunctionContext(Context context) {
+        context.enterFunction(functionContext);
+        functionContext = contexts.size();
+        contexts.add(context);
+    }
+
     @SuppressWarnings("UnusedReturnValue")
     public Context popContext() {
-        return contexts.removeLast();
+        var context = contexts.remove(contexts.size() - 1);
+        if (context.isFunctionContext()) {
+            functionContext = context.getCallerFunctionContext();
+        }
+        return context;
     }
 
-    @Getter
-    private final SymbolManager globalSymbolManager = new SymbolManager();
-
+    private Context peekLast() {
+        return contexts.isEmpty() ? null : contexts.get(contexts.size() - 1);
+    }
 
-    public FuncDef getFunction(String function) {
-        if (contexts.peekLast() != null) {
-            var localDef = contexts.peekLast().getLocalSymbolManager().getFunction(function);
+    public FuncDef getFunction(int symbolId) {
+        var lastContext = peekLast();
+        if (lastContext != null && lastContext.getMethods() != null) {
+            var localDef = lastContext.getMethods().getMethod(symbolId);
             if (localDef != null) {
                 return localDef;
             }
         }
-        return globalSymbolManager.getFunction(function);
+        return globalSymbolManager.getFunction(symbolId);
     }
 
-    public void addVariable(String variable, ValueProxy value) {
-        if (contexts.peekLast() != null) {
-            contexts.peekLast().addVariable(variable, value);
+    // methods of the object whose class context is on top, null outside of one
+    public MethodTable getMethods() {
+        var lastContext = peekLast();
+        return lastContext != null ? lastContext.getMethods() : null;
+    }
+
+    public FuncDef getFunction(String function) {
+        return getFunction(symbolTable.getId(function));
+    }
+
+    public void addVariable(int symbolId, String variable, ValueProxy value) {
+        var lastContext = peekLast();
+        if (lastContext != null) {
+            lastContext.addVariable(symbolId, variable, value);
         }
     }
 
-    @SuppressWarnings("unused")
-    public ValueProxy getVariable(String variable) {
-        var it = contexts.descendingIterator();
+    // level counts the blocks entered since the function frame, see ResolverVisitor
+    public ValueProxy getVariable(int level, int slot) {
+        return contexts.get(functionContext + level).getSlot(slot);
+    }
+
+    public void setVariable(int slot, ValueProxy value) {
+        peekLast().setSlot(slot, value);
+    }
+
+    public void addVariable(String variable, ValueProxy value) {
+        addVariable(symbolTable.getId(variable), variable, value);
+    }
+
+    public ValueProxy getVariable(int symbolId) {
         boolean foundFunction = false;
-        while(it.hasNext() && !foundFunction){
-            var context = it.next();
-            if (context.getVariables().containsKey(variable)) {
-                return context.getVariables().get(variable);
+        for (int i = contexts.size() - 1; i >= 0 && !foundFunction; i--) {
+            var context = contexts.get(i);
+            if (context.hasVariable(symbolId)) {
+                return context.getVariable(symbolId);
             }
             if(context.isBarrierContext()){
                 foundFunction = true;
@@ -55,4 +107,9 @@ public class ContextManager {
         return null;
     }
 
+    @SuppressWarnings("unused")
+    public ValueProxy getVariable(String variable) {
+        return getVariable(symbolTable.getId(variable));
+    }
+
 }
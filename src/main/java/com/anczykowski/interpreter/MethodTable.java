@@ -0,0 +1,24 @@
+package com.anczykowski.interpreter;
+
+import com.anczykowski.lexer.SymbolTable;
+import com.anczykowski.parser.structures.ClassDef;
+import com.anczykowski.parser.structures.FuncDef;
+
+// methods of a class keyed by symbol id, built once when the program is loaded and shared by all objects of the class,
+// nothing can be added to it afterwards
+public final class MethodTable {
+
+    private final SymbolMap<FuncDef> methods = new SymbolMap<>();
+
+    public MethodTable(ClassDef cls, SymbolTable symbolTable) {
+        if (cls.getClassBody() != null) {
+            // nodes built without a symbol table (e.g. by hand) are keyed by name
+            cls.getClassBody().getMethods().forEach((name, method) -> methods.put(
+                method.getSymbolId() != SymbolTable.NO_SYMBOL ? method.getSymbolId() : symbolTable.getId(name), name, method));
+        }
+    }
+
+    public FuncDef getMethod(int symbolId) {
+        return methods.get(symbolId);
+    }
+}
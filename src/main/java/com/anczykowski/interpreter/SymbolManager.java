@@ -1,5 +1,6 @@
 package com.anczykowski.interpreter;
 
+import com.anczykowski.lexer.SymbolTable;
 import com.anczykowski.parser.structures.ClassDef;
 import com.anczykowski.parser.structures.FuncDef;
 
@@ -7,23 +8,41 @@ import java.util.HashMap;
 
 public class SymbolManager {
 
-    private final HashMap<String, FuncDef> functions = new HashMap<>();
-    private final HashMap<String, ClassDef> classes = new HashMap<>();
+    private final SymbolTable symbolTable;
+
+    private final SymbolMap<FuncDef> functions = new SymbolMap<>();
+    private final SymbolMap<ClassDef> classes = new SymbolMap<>();
+
+    public SymbolManager(SymbolTable symbolTable) {
+        this.symbolTable = symbolTable;
+    }
 
     public void addFunctions(HashMap<String, FuncDef> functions) {
-        this.functions.putAll(functions);
+        functions.forEach((name, function) -> addFunction(symbolTable.getId(name), name, function));
+    }
+
+    public void addFunction(int symbolId, String name, FuncDef function) {
+        functions.put(symbolId, name, function);
     }
 
     public void addClasses(HashMap<String, ClassDef> classes) {
-        this.classes.putAll(classes);
+        classes.forEach((name, cls) -> this.classes.put(symbolTable.getId(name), name, cls));
+    }
+
+    public FuncDef getFunction(int symbolId) {
+        return functions.get(symbolId);
     }
 
     public FuncDef getFunction(String function) {
-        return functions.get(function);
+        return getFunction(symbolTable.getId(function));
+    }
+
+    public ClassDef getClass(int symbolId) {
+        return classes.get(symbolId);
     }
 
     @SuppressWarnings("unused")
     public ClassDef getClass(String cls) {
-        return classes.get(cls);
+        return getClass(symbolTable.getId(cls));
     }
 }
@@ -0,0 +1,118 @@
+package com.anczykowski.interpreter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+// small open addressing map keyed by symbol ids, names are only kept to build name keyed views
+public class SymbolMap<V> {
+
+    private static final int EMPTY = -1;
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    // allocated on first put, most block contexts never hold a variable
+    private int[] keys;
+
+    private String[] names;
+
+    private Object[] values;
+
+    private int size = 0;
+
+    @SuppressWarnings("unchecked")
+    public V get(int symbolId) {
+        var index = indexOf(symbolId);
+        return index < 0 ? null : (V) values[index];
+    }
+
+    public boolean containsKey(int symbolId) {
+        return indexOf(symbolId) >= 0;
+    }
+
+    public void put(int symbolId, String name, V value) {
+        if (keys == null) {
+            keys = new int[INITIAL_CAPACITY];
+            Arrays.fill(keys, EMPTY);
+            names = new String[INITIAL_CAPACITY];
+            values = new Object[INITIAL_CAPACITY];
+        }
+        int mask = keys.length - 1;
+        int index = symbolId & mask;
+        while (keys[index] != EMPTY && keys[index] != symbolId) {
+            index = (index + 1) & mask;
+        }
+        var isNew = keys[index] == EMPTY;
+        keys[index] = symbolId;
+        names[index] = name;
+        values[index] = value;
+        if (isNew && ++size * 2 > keys.length) {
+            grow();
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public ArrayList<V> values() {
+        var result = new ArrayList<V>(size);
+        for (int i = 0; keys != null && i < keys.length; ++i) {
+            if (keys[i] != EMPTY) {
+                result.add((V) values[i]);
+            }
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    public HashMap<String, V> toNameMap() {
+        var result = new HashMap<String, V>();
+        for (int i = 0; keys != null && i < keys.length; ++i) {
+            if (keys[i] != EMPTY) {
+                result.put(names[i], (V) values[i]);
+            }
+        }
+        return result;
+    }
+
+    private int indexOf(int symbolId) {
+        if (keys == null) {
+            return -1;
+        }
+        int mask = keys.length - 1;
+        int index = symbolId & mask;
+        int key;
+        while ((key = keys[index]) != EMPTY) {
+            if (key == symbolId) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void grow() {
+        var oldKeys = keys;
+        var oldNames = names;
+        var oldValues = values;
+        keys = new int[oldKeys.length * 2];
+        Arrays.fill(keys, EMPTY);
+        names = new String[keys.length];
+        values = new Object[keys.length];
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; ++i) {
+            if (oldKeys[i] == EMPTY) {
+                continue;
+            }
+            int index = oldKeys[i] & mask;
+            while (keys[index] != EMPTY) {
+                index = (index + 1) & mask;
+            }
+            keys[index] = oldKeys[i];
+            names[index] = oldNames[i];
+            values[index] = oldValues[i];
+        }
+    }
+}
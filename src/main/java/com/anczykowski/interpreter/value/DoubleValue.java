@@ -0,0 +1,17 @@
+package com.anczykowski.interpreter.value;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+@AllArgsConstructor
+@Getter
+@Setter
+public class DoubleValue implements Value {
+    private double value;
+
+    @Override
+    public String toString() {
+        return String.valueOf(value);
+    }
+}
@@ -0,0 +1,162 @@
+package com.anczykowski.lexer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import com.anczykowski.errormodule.ErrorModule;
+
+// Source decoding UTF-8 straight from a (possibly memory mapped) buffer, without Reader in between
+public class ByteBufferSource extends Source {
+
+    private final ByteBuffer buffer;
+
+    private final int limit;
+
+    private int position;
+
+    private final SourceText sourceText;
+
+    public ByteBufferSource(ErrorModule errorModule, ByteBuffer buffer) {
+        this(errorModule, buffer, null);
+    }
+
+    public ByteBufferSource(ErrorModule errorModule, ByteBuffer buffer, String path) {
+        super(errorModule, path);
+        // offsets into the source text are relative to the initial position
+        this.buffer = buffer.slice();
+        this.position = 0;
+        this.limit = this.buffer.limit();
+        this.sourceText = new SourceText() {
+            @Override
+            public String getText(int start, int end) {
+                return decode(start, end);
+            }
+
+            // offsets are bytes, those of plain ASCII are chars as well
+            @Override
+            public boolean isCharAddressed(int start, int end) {
+                for (int i = start; i < end; ++i) {
+                    if (ByteBufferSource.this.buffer.get(i) < 0) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+
+            @Override
+            public char charAt(int offset) {
+                return (char) ByteBufferSource.this.buffer.get(offset);
+            }
+        };
+    }
+
+    public ByteBufferSource(ErrorModule errorModule, byte[] bytes) {
+        this(errorModule, ByteBuffer.wrap(bytes));
+    }
+
+    public static ByteBufferSource ofFile(ErrorModule errorModule, Path path) throws IOException {
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // mapping stays valid after the channel is closed
+            var buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new ByteBufferSource(errorModule, buffer, path.toFile().getCanonicalPath());
+        }
+    }
+
+    // whole input of the source, independent of how much of it was read
+    public ByteBuffer getBuffer() {
+        return buffer.asReadOnlyBuffer();
+    }
+
+    @Override
+    protected int getReadOffset() {
+        return position;
+    }
+
+    @Override
+    public SourceText getSourceText() {
+        return sourceText;
+    }
+
+    private String decode(int start, int end) {
+        var bytes = new byte[end - start];
+        buffer.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    protected int skipPlainAscii(LineBuffer lineBuffer) {
+        var end = position;
+        while (end < limit) {
+            var character = buffer.get(end);
+            if (character < 0 || character == '\n' || character == '\r') {
+                break;
+            }
+            ++end;
+        }
+        // only the end of a long run stays in the line buffer
+        for (int i = Math.max(position, end - Source.LINE_BUFFER_LIMIT); i < end; ++i) {
+            lineBuffer.push(buffer.get(i));
+        }
+        var length = end - position;
+        position = end;
+        return length;
+    }
+
+    @Override
+    protected int readCodePoint() {
+        if (position >= limit) {
+            return END_OF_INPUT;
+        }
+        int leadByte = buffer.get(position) & 0xFF;
+        if (leadByte < 0x80) {
+            ++position;
+            return leadByte;
+        }
+
+        int length;
+        int codePoint;
+        int minCodePoint;
+        if ((leadByte & 0xE0) == 0xC0) {
+            length = 2;
+            codePoint = leadByte & 0x1F;
+            minCodePoint = 0x80;
+        } else if ((leadByte & 0xF0) == 0xE0) {
+            length = 3;
+            codePoint = leadByte & 0x0F;
+            minCodePoint = 0x800;
+        } else if ((leadByte & 0xF8) == 0xF0) {
+            length = 4;
+            codePoint = leadByte & 0x07;
+            minCodePoint = 0x10000;
+        } else {
+            ++position;
+            return MALFORMED_INPUT;
+        }
+
+        for (int i = 1; i < length; ++i) {
+            if (position + i >= limit) {
+                position = limit;
+                return MALFORMED_INPUT;
+            }
+            int continuationByte = buffer.get(position + i) & 0xFF;
+            if ((continuationByte & 0xC0) != 0x80) {
+                // resynchronize on the byte that broke the sequence
+                position += i;
+                return MALFORMED_INPUT;
+            }
+            codePoint = (codePoint << 6) | (continuationByte & 0x3F);
+        }
+        position += length;
+
+        // overlong encodings, surrogates and values past the unicode range
+        if (codePoint < minCodePoint || codePoint > Character.MAX_CODE_POINT
+            || (codePoint >= Character.MIN_SURROGATE && codePoint <= Character.MAX_SURROGATE)) {
+            return MALFORMED_INPUT;
+        }
+        return codePoint;
+    }
+}
@@ -0,0 +1,63 @@
+package com.anczykowski.lexer;
+
+// classes driving the main lexer switch, ascii is looked up in a table and the rest falls back to unicode
+enum CharacterClass {
+    WHITESPACE,
+    DIGIT,
+    LETTER,
+    QUOTE,
+    OPERATOR,
+    OTHER;
+
+    private static final int ASCII_LIMIT = 128;
+
+    private static final CharacterClass[] ASCII_CLASSES = new CharacterClass[ASCII_LIMIT];
+
+    static {
+        for (int codePoint = 0; codePoint < ASCII_LIMIT; ++codePoint) {
+            ASCII_CLASSES[codePoint] = classifyUnicode(codePoint);
+        }
+        for (var operator : "*+,.(){};<>-=!/".toCharArray()) {
+            ASCII_CLASSES[operator] = OPERATOR;
+        }
+        ASCII_CLASSES['"'] = QUOTE;
+        ASCII_CLASSES['\''] = QUOTE;
+    }
+
+    static CharacterClass of(int codePoint) {
+        if (codePoint >= 0 && codePoint < ASCII_LIMIT) {
+            return ASCII_CLASSES[codePoint];
+        }
+        return codePoint < 0 ? OTHER : classifyUnicode(codePoint);
+    }
+
+    static boolean isDigit(int codePoint) {
+        return of(codePoint) == DIGIT;
+    }
+
+    static boolean isIdentifierStart(int codePoint) {
+        return of(codePoint) == LETTER;
+    }
+
+    static boolean isIdentifierPart(int codePoint) {
+        var characterClass = of(codePoint);
+        return characterClass == LETTER || characterClass == DIGIT;
+    }
+
+    private static CharacterClass classifyUnicode(int codePoint) {
+        if (Character.isWhitespace(codePoint)) {
+            return WHITESPACE;
+        }
+        if (Character.isDigit(codePoint)) {
+            return DIGIT;
+        }
+        if (Character.isLetter(codePoint) || isEmoji(codePoint)) {
+            return LETTER;
+        }
+        return OTHER;
+    }
+
+    private static boolean isEmoji(int codePoint) {
+        return codePoint >= ASCII_LIMIT && EmojiRanges.contains(codePoint);
+    }
+}
@@ -0,0 +1,161 @@
+package com.anczykowski.lexer;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+// correctly rounded conversion of an unsigned decimal mantissa times a power of ten to float and double: exact
+// arithmetic for small operands, Eisel-Lemire with 128-bit powers of ten otherwise and BigDecimal when neither decides
+final class DecimalConversion {
+
+    private static final long FAILED = -1;
+
+    private static final double[] DOUBLE_POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private static final float[] FLOAT_POWERS_OF_TEN = {
+        1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f
+    };
+
+    private DecimalConversion() {
+    }
+
+    static double toDouble(long mantissa, int exponent) {
+        if (mantissa == 0) {
+            return 0.0;
+        }
+        // both operands are exact doubles, so the single rounding of the operation is the correct one
+        if (mantissa > 0 && mantissa <= 1L << 53 && Math.abs(exponent) < DOUBLE_POWERS_OF_TEN.length) {
+            return exponent < 0
+                ? mantissa / DOUBLE_POWERS_OF_TEN[-exponent]
+                : mantissa * DOUBLE_POWERS_OF_TEN[exponent];
+        }
+        var bits = eiselLemire(mantissa, exponent, 52, 1023, 0x7FF);
+        if (bits != FAILED) {
+            return Double.longBitsToDouble(bits);
+        }
+        return toBigDecimal(mantissa, exponent).doubleValue();
+    }
+
+    static float toFloat(long mantissa, int exponent) {
+        if (mantissa == 0) {
+            return 0.0f;
+        }
+        if (mantissa > 0 && mantissa <= 1L << 24 && Math.abs(exponent) < FLOAT_POWERS_OF_TEN.length) {
+            return exponent < 0
+                ? mantissa / FLOAT_POWERS_OF_TEN[-exponent]
+                : mantissa * FLOAT_POWERS_OF_TEN[exponent];
+        }
+        var bits = eiselLemire(mantissa, exponent, 23, 127, 0xFF);
+        if (bits != FAILED) {
+            return Float.intBitsToFloat((int) bits);
+        }
+        return toBigDecimal(mantissa, exponent).floatValue();
+    }
+
+    // for mantissas that do not fit into 64 bits
+    static double toDouble(CharSequence digits, int exponent) {
+        return toBigDecimal(digits, exponent).doubleValue();
+    }
+
+    static float toFloat(CharSequence digits, int exponent) {
+        return toBigDecimal(digits, exponent).floatValue();
+    }
+
+    private static BigDecimal toBigDecimal(long mantissa, int exponent) {
+        return new BigDecimal(new BigInteger(Long.toUnsignedString(mantissa)), -exponent);
+    }
+
+    private static BigDecimal toBigDecimal(CharSequence digits, int exponent) {
+        return new BigDecimal(new BigInteger(digits.toString()), -exponent);
+    }
+
+    // bits of the positive binary floating point number closest to mantissa * 10^exponent or FAILED when the
+    // truncated power of ten leaves it undecided, see Lemire "Number Parsing at a Gigabyte per Second"
+    private static long eiselLemire(long mantissa, int exponent, int mantissaBits, int exponentBias, int maxExponent) {
+        if (exponent < PowersOfTen.MIN_EXPONENT || exponent > PowersOfTen.MAX_EXPONENT) {
+            return FAILED;
+        }
+        var leadingZeros = Long.numberOfLeadingZeros(mantissa);
+        mantissa <<= leadingZeros;
+        // 217706 / 2^16 approximates log2(10)
+        long resultExponent = ((217706L * exponent) >> 16) + 64 + exponentBias - leadingZeros;
+
+        var index = exponent - PowersOfTen.MIN_EXPONENT;
+        var high = unsignedMultiplyHigh(mantissa, PowersOfTen.HIGH[index]);
+        var low = mantissa * PowersOfTen.HIGH[index];
+        // bits below the result mantissa and its rounding bit
+        var shift = 63 - mantissaBits - 2;
+        var lowMask = (1L << shift) - 1;
+        if ((high & lowMask) == lowMask && Long.compareUnsigned(low + mantissa, mantissa) < 0) {
+            // the product might be off by the truncated low half of the power, include it
+            var secondHigh = unsignedMultiplyHigh(mantissa, PowersOfTen.LOW[index]);
+            var secondLow = mantissa * PowersOfTen.LOW[index];
+            var mergedHigh = high;
+            var mergedLow = low + secondHigh;
+            if (Long.compareUnsigned(mergedLow, low) < 0) {
+                ++mergedHigh;
+            }
+            if ((mergedHigh & lowMask) == lowMask && mergedLow == -1
+                && Long.compareUnsigned(secondLow + mantissa, mantissa) < 0) {
+                return FAILED;
+            }
+            high = mergedHigh;
+            low = mergedLow;
+        }
+
+        var mostSignificantBit = high >>> 63;
+        var resultMantissa = high >>> (mostSignificantBit + shift);
+        resultExponent -= 1 ^ mostSignificantBit;
+        // exactly half way between two floats, the rounding direction depends on the truncated digits
+        if (low == 0 && (high & lowMask) == 0 && (resultMantissa & 3) == 1) {
+            return FAILED;
+        }
+
+        resultMantissa += resultMantissa & 1;
+        resultMantissa >>>= 1;
+        if (resultMantissa >>> (mantissaBits + 1) > 0) {
+            resultMantissa >>>= 1;
+            ++resultExponent;
+        }
+        // subnormal results and overflows are left to the fallback
+        if (Long.compareUnsigned(resultExponent - 1, maxExponent - 1) >= 0) {
+            return FAILED;
+        }
+        return resultExponent << mantissaBits | (resultMantissa & ((1L << mantissaBits) - 1));
+    }
+
+    private static long unsignedMultiplyHigh(long x, long y) {
+        return Math.multiplyHigh(x, y) + ((x >> 63) & y) + ((y >> 63) & x);
+    }
+
+    // loaded on the first literal that misses the exact path
+    private static final class PowersOfTen {
+
+        static final int MIN_EXPONENT = -348;
+
+        static final int MAX_EXPONENT = 347;
+
+        // 10^exponent normalized to 128 bits with the highest bit set and rounded down, split into halves
+        static final long[] HIGH = new long[MAX_EXPONENT - MIN_EXPONENT + 1];
+
+        static final long[] LOW = new long[MAX_EXPONENT - MIN_EXPONENT + 1];
+
+        static {
+            for (int exponent = MIN_EXPONENT; exponent <= MAX_EXPONENT; ++exponent) {
+                BigInteger value;
+                if (exponent >= 0) {
+                    value = BigInteger.TEN.pow(exponent);
+                    var bitLength = value.bitLength();
+                    value = bitLength > 128 ? value.shiftRight(bitLength - 128) : value.shiftLeft(128 - bitLength);
+                } else {
+                    var divisor = BigInteger.TEN.pow(-exponent);
+                    value = BigInteger.ONE.shiftLeft(divisor.bitLength() + 127).divide(divisor);
+                }
+                HIGH[exponent - MIN_EXPONENT] = value.shiftRight(64).longValue();
+                LOW[exponent - MIN_EXPONENT] = value.longValue();
+            }
+        }
+    }
+}
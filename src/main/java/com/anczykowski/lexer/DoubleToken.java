@@ -0,0 +1,19 @@
+package com.anczykowski.lexer;
+
+import lombok.Getter;
+
+public class DoubleToken extends Token {
+    public DoubleToken(TokenType type, String filename, long position, Double value) {
+        super(type, filename, position);
+        this.value = value;
+    }
+
+    @Getter
+    private final Double value;
+
+    @Override
+    public String toString() {
+        var locationStr = getLocation() + "\t";
+        return locationStr + "DoubleToken(type=" + this.type + ", value=[" + this.value + "])";
+    }
+}
@@ -0,0 +1,87 @@
+package com.anczykowski.lexer;
+
+// single pass unescaping of string literals: octal, unicode (backslash, 'u' and four hex digits) and the usual
+// character escapes; a backslash before any other character is dropped, unicode escapes without four hex digits are
+// kept as written
+final class Escapes {
+
+    private Escapes() {
+    }
+
+    static String unescape(CharSequence text) {
+        var length = text.length();
+        var result = new StringBuilder(length);
+        var index = 0;
+        while (index < length) {
+            var character = text.charAt(index);
+            if (character != '\\') {
+                result.append(character);
+                ++index;
+                continue;
+            }
+            if (index + 1 == length) {
+                break;
+            }
+            var next = text.charAt(index + 1);
+            if (isOctalDigit(next)) {
+                index = unescapeOctal(text, index, result);
+            } else if (next == 'u') {
+                index = unescapeUnicode(text, index, result);
+            } else {
+                result.append(switch (next) {
+                    case 'b' -> '\b';
+                    case 'n' -> '\n';
+                    case 't' -> '\t';
+                    case 'f' -> '\f';
+                    case 'r' -> '\r';
+                    default -> next;
+                });
+                index += 2;
+            }
+        }
+        return result.toString();
+    }
+
+    // up to three digits, the third one only if the value stays below \400
+    private static int unescapeOctal(CharSequence text, int index, StringBuilder result) {
+        var end = index + 2;
+        if (end < text.length() && isOctalDigit(text.charAt(end))) {
+            ++end;
+            if (end < text.length() && text.charAt(index + 1) <= '3' && isOctalDigit(text.charAt(end))) {
+                ++end;
+            }
+        }
+        var value = 0;
+        for (int i = index + 1; i < end; ++i) {
+            value = value * 8 + text.charAt(i) - '0';
+        }
+        result.append((char) value);
+        return end;
+    }
+
+    // any number of 'u', an optional '+' and four hex digits
+    private static int unescapeUnicode(CharSequence text, int index, StringBuilder result) {
+        var digitsStart = index + 1;
+        while (digitsStart < text.length() && text.charAt(digitsStart) == 'u') {
+            ++digitsStart;
+        }
+        if (digitsStart < text.length() && text.charAt(digitsStart) == '+') {
+            ++digitsStart;
+        }
+        var value = 0;
+        for (int i = digitsStart; i < digitsStart + 4; ++i) {
+            var digit = i < text.length() ? Character.digit(text.charAt(i), 16) : -1;
+            if (digit < 0) {
+                result.append(text, index, digitsStart);
+                return digitsStart;
+            }
+            value = value * 16 + digit;
+        }
+        result.append((char) value);
+        return digitsStart + 4;
+    }
+
+    private static boolean isOctalDigit(char character) {
+        return character >= '0' && character <= '7';
+    }
+}
@@ -3,6 +3,11 @@ package com.anczykowski.lexer;
 import lombok.Getter;
 
 public class FloatToken extends Token {
+    public FloatToken(TokenType type, String filename, long position, Float value) {
+        super(type, filename, position);
+        this.value = value;
+    }
+
     public FloatToken(TokenType type, Location location, Float value) {
         super(type, location);
         this.value = value;
@@ -13,7 +18,7 @@ public class FloatToken extends Token {
 
     @Override
     public String toString() {
-        var locationStr = super.location + "\t";
+        var locationStr = getLocation() + "\t";
         return locationStr + "FloatToken(type=" + this.type + ", value=[" + this.value + "])";
     }
 }
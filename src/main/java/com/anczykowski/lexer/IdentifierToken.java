@@ -0,0 +1,14 @@
+package com.anczykowski.lexer;
+
+import lombok.Getter;
+
+public class IdentifierToken extends StringToken {
+    public IdentifierToken(String filename, long position, String value, int symbolId) {
+        super(TokenType.IDENTIFIER, filename, position, value);
+        this.symbolId = symbolId;
+    }
+
+    // id of the identifier in the symbol table of the lexer that produced it
+    @Getter
+    private final int symbolId;
+}
@@ -3,6 +3,11 @@ package com.anczykowski.lexer;
 import lombok.Getter;
 
 public class IntegerToken extends Token {
+    public IntegerToken(TokenType type, String filename, long position, Integer value) {
+        super(type, filename, position);
+        this.value = value;
+    }
+
     public IntegerToken(TokenType type, Location location, Integer value) {
         super(type, location);
         this.value = value;
@@ -13,7 +18,7 @@ public class IntegerToken extends Token {
 
     @Override
     public String toString() {
-        var locationStr = super.location + "\t";
+        var locationStr = getLocation() + "\t";
         return locationStr + "IntegerToken(type=" + this.type + ", value=[" + this.value + "])";
     }
 }
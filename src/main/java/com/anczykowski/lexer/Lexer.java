@@ -5,12 +5,74 @@ public interface Lexer {
 
     Location getPreviousLocation();
 
+    // packed counterparts of the locations above, see Position
+    default long getCurrentPosition() {
+        return Position.of(getCurrentLocation());
+    }
+
+    default long getPreviousPosition() {
+        return Position.of(getPreviousLocation());
+    }
+
+    default String getFilename() {
+        return getCurrentLocation().getFilename();
+    }
+
     @SuppressWarnings("UnusedReturnValue")
     Token getNextToken();
 
     Token getCurrentToken();
 
+    default TokenType getCurrentTokenType() {
+        return getCurrentToken().getType();
+    }
+
+    // moves to the next token like getNextToken, lexers that keep tokens unpacked do not create it
+    default void advance() {
+        getNextToken();
+    }
+
+    // parts of the current token, read without creating it where the lexer allows
+    default long getCurrentTokenPosition() {
+        return getCurrentToken().getPosition();
+    }
+
+    // name of an identifier or value of a string
+    default String getCurrentText() {
+        return ((StringToken) getCurrentToken()).getValue();
+    }
+
+    // identifiers from lexers without a symbol table stay unresolved and are interned by the interpreter
+    default int getCurrentSymbolId() {
+        return getCurrentToken() instanceof IdentifierToken identifierToken ? identifierToken.getSymbolId() : SymbolTable.NO_SYMBOL;
+    }
+
+    default int getCurrentIntValue() {
+        return ((IntegerToken) getCurrentToken()).getValue();
+    }
+
+    default long getCurrentLongValue() {
+        return ((LongToken) getCurrentToken()).getValue();
+    }
+
+    default float getCurrentFloatValue() {
+        return ((FloatToken) getCurrentToken()).getValue();
+    }
+
+    default double getCurrentDoubleValue() {
+        return ((DoubleToken) getCurrentToken()).getValue();
+    }
+
     String getCharacterBuffer();
 
     String getEffectiveCharacterBuffer();
+
+    // lazy counterparts of the buffers above, text is only built when the snippet is resolved
+    default SourceSnippet getSnippet() {
+        return SourceSnippet.of(getCharacterBuffer());
+    }
+
+    default SourceSnippet getEffectiveSnippet() {
+        return SourceSnippet.of(getEffectiveCharacterBuffer());
+    }
 }
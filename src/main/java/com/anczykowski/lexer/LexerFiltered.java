@@ -20,6 +20,21 @@ public class LexerFiltered implements Lexer {
         return lexer.getPreviousLocation();
     }
 
+    @Override
+    public long getCurrentPosition() {
+        return lexer.getCurrentPosition();
+    }
+
+    @Override
+    public long getPreviousPosition() {
+        return lexer.getPreviousPosition();
+    }
+
+    @Override
+    public String getFilename() {
+        return lexer.getFilename();
+    }
+
     @Override
     public String getCharacterBuffer() {
         return lexer.getCharacterBuffer();
@@ -30,6 +45,16 @@ public class LexerFiltered implements Lexer {
         return lexer.getEffectiveCharacterBuffer();
     }
 
+    @Override
+    public SourceSnippet getSnippet() {
+        return lexer.getSnippet();
+    }
+
+    @Override
+    public SourceSnippet getEffectiveSnippet() {
+        return lexer.getEffectiveSnippet();
+    }
+
     @Override
     public Token getNextToken() {
         var nextToken = lexer.getNextToken();
@@ -43,4 +68,9 @@ public class LexerFiltered implements Lexer {
     public Token getCurrentToken() {
         return lexer.getCurrentToken();
     }
+
+    @Override
+    public TokenType getCurrentTokenType() {
+        return lexer.getCurrentTokenType();
+    }
 }
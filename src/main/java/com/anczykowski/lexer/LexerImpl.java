@@ -1,18 +1,17 @@
 package com.anczykowski.lexer;
 
-import static org.apache.commons.text.StringEscapeUtils.unescapeJava;
+import static com.anczykowski.lexer.CharacterClass.isDigit;
+import static com.anczykowski.lexer.CharacterClass.isIdentifierPart;
+import static com.anczykowski.lexer.CharacterClass.isIdentifierStart;
 
 import java.util.Arrays;
-import java.util.HashSet;
-import java.util.Objects;
-import java.util.Set;
-
-import org.apache.commons.lang3.StringUtils;
+import java.util.Map;
+import java.util.function.Predicate;
 
 import com.anczykowski.errormodule.ErrorElement;
 import com.anczykowski.errormodule.ErrorModule;
 import com.anczykowski.errormodule.ErrorType;
-import com.vdurmont.emoji.EmojiManager;
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 
 @RequiredArgsConstructor
@@ -23,8 +22,83 @@ public class LexerImpl implements Lexer {
 
     private static final int TOKEN_MAX_SIZE = 64;
 
+    private static final Map<String, TokenType> KEYWORDS = Map.ofEntries(
+        Map.entry("var", TokenType.VAR_KEYWORD),
+        Map.entry("if", TokenType.IF_KEYWORD),
+        Map.entry("else", TokenType.ELSE_KEYWORD),
+        Map.entry("and", TokenType.AND_KEYWORD),
+        Map.entry("or", TokenType.OR_KEYWORD),
+        Map.entry("while", TokenType.WHILE_KEYWORD),
+        Map.entry("for", TokenType.FOR_KEYWORD),
+        Map.entry("return", TokenType.RETURN_KEYWORD),
+        Map.entry("switch", TokenType.SWITCH_KEYWORD),
+        Map.entry("def", TokenType.DEFAULT_KEYWORD),
+        Map.entry("class", TokenType.CLASS_KEYWORD),
+        Map.entry("new", TokenType.NEW_KEYWORD),
+        Map.entry("not", TokenType.NOT_KEYWORD),
+        Map.entry("as", TokenType.AS_KEYWORD),
+        Map.entry("in", TokenType.IN_KEYWORD),
+        Map.entry("ref", TokenType.REF_KEYWORD)
+    );
+
+    // keywords bucketed by length, so that scanned characters are compared only against same length candidates
+    private static final String[][] KEYWORDS_BY_LENGTH;
+
+    private static final TokenType[][] KEYWORD_TYPES_BY_LENGTH;
+
+    static {
+        var maxLength = KEYWORDS.keySet().stream().mapToInt(String::length).max().orElse(0);
+        KEYWORDS_BY_LENGTH = new String[maxLength + 1][];
+        KEYWORD_TYPES_BY_LENGTH = new TokenType[maxLength + 1][];
+        for (int length = 0; length <= maxLength; ++length) {
+            var finalLength = length;
+            KEYWORDS_BY_LENGTH[length] = KEYWORDS.keySet().stream()
+                .filter(keyword -> keyword.length() == finalLength)
+                .sorted()
+                .toArray(String[]::new);
+            KEYWORD_TYPES_BY_LENGTH[length] = Arrays.stream(KEYWORDS_BY_LENGTH[length])
+                .map(KEYWORDS::get)
+                .toArray(TokenType[]::new);
+        }
+    }
+
+    @Getter
+    private final SymbolTable symbolTable;
+
+    private final TriviaPolicy triviaPolicy;
+
+    // reused for identifiers and keywords, those are turned into strings only through the symbol table
+    private final StringBuilder identifierBuilder = new StringBuilder(TOKEN_MAX_SIZE);
+
+    // the current token is kept unpacked in the fields below and only created when asked for
+    private TokenType currentType;
+
+    private long currentPosition;
+
+    // symbol id, integer value or raw bits of a float or double, depending on the type
+    private long currentValue;
+
+    // value of a string or comment
+    private CharSequence currentText;
+
     private Token currentToken;
 
+    private NumberScanner numberScanner;
+
+    // whether the last scanned string or comment contains a backslash
+    private boolean textHasEscapes;
+
+    // source offset of the first character of the current token
+    private int tokenStartOffset;
+
+    public LexerImpl(Source source, ErrorModule errorModule) {
+        this(source, errorModule, new SymbolTable());
+    }
+
+    public LexerImpl(Source source, ErrorModule errorModule, SymbolTable symbolTable) {
+        this(source, errorModule, symbolTable, TriviaPolicy.KEEP);
+    }
+
     @Override
     public Location getCurrentLocation() {
         return source.getCurrentLocation();
@@ -35,6 +109,21 @@ public class LexerImpl implements Lexer {
         return source.getPreviousLocation();
     }
 
+    @Override
+    public long getCurrentPosition() {
+        return source.getCurrentPosition();
+    }
+
+    @Override
+    public long getPreviousPosition() {
+        return source.getPreviousPosition();
+    }
+
+    @Override
+    public String getFilename() {
+        return source.getFilename();
+    }
+
     @Override
     public String getCharacterBuffer() {
         return source.getCharacterBuffer().toString();
@@ -45,205 +134,158 @@ public class LexerImpl implements Lexer {
         return source.getPreviousLine() + "\n" + getCharacterBuffer();
     }
 
+    @Override
+    public SourceSnippet getSnippet() {
+        return source.getLineSnippet();
+    }
+
+    @Override
+    public SourceSnippet getEffectiveSnippet() {
+        return source.getEffectiveSnippet();
+    }
+
     @Override
     public Token getNextToken() {
+        advance();
+        return getCurrentToken();
+    }
+
+    @Override
+    public void advance() {
+        currentToken = null;
 
         trimWhitespace();
+        while (triviaPolicy == TriviaPolicy.SKIP && isCommentStart()) {
+            source.skipLine();
+            trimWhitespace();
+        }
+        tokenStartOffset = source.getCurrentStartOffset();
 
         if (source.isEOF()) {
-            return currentToken = new Token(TokenType.EOF, source.getCurrentLocation().clone());
+            setCurrent(TokenType.EOF, source.getCurrentPosition());
+            return;
         }
 
-        if (tryBuildSimpleTokenOrComment()
-            || tryBuildNumber()
-            || tryBuildString()
-            || tryBuildIdentOrKeyword()
-        ) {
-            return currentToken;
-        } else {
+        var built = switch (CharacterClass.of(source.getCurrentCodePoint())) {
+            case OPERATOR -> tryBuildSimpleTokenOrComment();
+            case DIGIT -> tryBuildNumber();
+            case QUOTE -> tryBuildString();
+            case LETTER -> tryBuildIdentOrKeyword();
+            default -> false;
+        };
+        if (!built) {
             source.fetchCharacter();
-            return currentToken = new Token(TokenType.UNKNOWN, source.getCurrentLocation().clone());
+            setCurrent(TokenType.UNKNOWN, source.getCurrentPosition());
         }
     }
 
-    private void trimWhitespace() {
-        while (source.isNotEOF() && StringUtils.isWhitespace(source.getCurrentCharacter())) {
-            source.fetchCharacter();
-        }
+    // lexes the rest of the input straight into the buffer, tokens are not created
+    void lexInto(TokenBuffer buffer, Predicate<TokenType> typeFilter) {
+        do {
+            advance();
+            if (typeFilter.test(currentType) || currentType == TokenType.EOF) {
+                buffer.add(currentType, tokenStartOffset, source.getCurrentStartOffset(), currentPosition, currentValue,
+                    currentText, source.getCurrentPosition(), source.getCurrentEndOffset());
+            }
+        } while (currentType != TokenType.EOF);
     }
 
-    private Boolean tryBuildNumber() {
-        if (!StringUtils.isNumeric(source.getCurrentCharacter())) {
-            return false;
-        }
-        var currentLocation = source.getCurrentLocation().clone();
-        int nominator = source.getCurrentCharacterSingle() - '0';
-        if (!source.getCurrentCharacter().equals("0")) {
-            source.fetchCharacter();
-            while (source.isNotEOF() && StringUtils.isNumeric(source.getCurrentCharacter())) {
-                int decimal = source.getCurrentCharacterSingle() - '0';
-                if (willNotOverflow(currentLocation, nominator, decimal)) {
-                    nominator = nominator * 10 + decimal;
-                } else {
-                    // ignore the rest of the number
-                    while (source.isNotEOF() && StringUtils.isNumeric(source.getCurrentCharacter())) {
-                        source.fetchCharacter();
-                    }
-                }
-                source.fetchCharacter();
-            }
-        } else {
-            source.fetchCharacter();
-        }
-        if (source.getCurrentCharacter().equals(".")) {
-            source.fetchCharacter();
-            if (!StringUtils.isNumeric(source.getCurrentCharacter())) {
-                errorModule.addError(
-                    ErrorElement.builder()
-                        .errorType(ErrorType.MALFORMED_NUMBER)
-                        .location(currentLocation)
-                        .codeLineBuffer(source.getCharacterBuffer().toString())
-                        .underlineFragment(nominator + ".")
-                        .build()
-                );
-            }
-            int denominator = source.getCurrentCharacterSingle() - '0';
-            int decimalCount = 1;
+    private void setCurrent(TokenType type, long position) {
+        currentType = type;
+        currentPosition = position;
+    }
+
+    private void setCurrent(TokenType type, long position, long value) {
+        setCurrent(type, position);
+        currentValue = value;
+    }
+
+    private void setCurrent(TokenType type, long position, CharSequence text) {
+        setCurrent(type, position);
+        currentText = text;
+    }
+
+    private void trimWhitespace() {
+        while (source.isNotEOF() && CharacterClass.of(source.getCurrentCodePoint()) == CharacterClass.WHITESPACE) {
             source.fetchCharacter();
-            while (source.isNotEOF() && StringUtils.isNumeric(source.getCurrentCharacter())) {
-                int decimal = source.getCurrentCharacterSingle() - '0';
-                if (willNotOverflow(currentLocation, denominator, decimal)) {
-                    denominator = denominator * 10 + decimal;
-                } else {
-                    // ignore the rest of the number
-                    while (source.isNotEOF() && StringUtils.isNumeric(source.getCurrentCharacter())) {
-                        source.fetchCharacter();
-                    }
-                }
-                ++decimalCount;
-                source.fetchCharacter();
-            }
-            var floatValue = nominator + denominator * Math.pow(10, -decimalCount);
-            currentToken = new FloatToken(TokenType.FLOAT_NUMBER, currentLocation, (float) floatValue);
-        } else {
-            currentToken = new IntegerToken(TokenType.INTEGER_NUMBER, currentLocation, nominator);
         }
-        return true;
     }
 
-    private boolean willNotOverflow(Location currentLocation, int currentValue, int decimal) {
-        if ((Integer.MAX_VALUE - decimal) / 10 <= currentValue) {
-            errorModule.addError(
-                ErrorElement.builder()
-                    .errorType(ErrorType.CONSTANT_TOO_BIG)
-                    .location(currentLocation)
-                    .codeLineBuffer(source.getCharacterBuffer().toString())
-                    .underlineFragment(String.valueOf(currentValue))
-                    .build()
-            );
+    private boolean tryBuildNumber() {
+        if (!isDigit(source.getCurrentCodePoint())) {
             return false;
         }
+        if (numberScanner == null) {
+            numberScanner = new NumberScanner(source, errorModule);
+        }
+        var position = source.getCurrentPosition();
+        var type = numberScanner.scan();
+        setCurrent(type, position, numberScanner.getValue());
         return true;
     }
 
-    private Boolean tryBuildIdentOrKeyword() {
-        if (!StringUtils.isAlpha(source.getCurrentCharacter()) && !EmojiManager.containsEmoji(
-            source.getCurrentCharacter())) {
+    private boolean tryBuildIdentOrKeyword() {
+        if (!isIdentifierStart(source.getCurrentCodePoint())) {
             return false;
         }
-        var lexemValueBuilder = new StringBuilder();
-        var startLocation = source.getCurrentLocation().clone();
+        var lexemValueBuilder = identifierBuilder;
+        lexemValueBuilder.setLength(0);
+        var startPosition = source.getCurrentPosition();
         do {
             consume(lexemValueBuilder);
-        } while (source.isNotEOF() &&
-            (
-                StringUtils.isAlpha(source.getCurrentCharacter())
-                    || StringUtils.isNumeric(source.getCurrentCharacter())
-                    || EmojiManager.containsEmoji(source.getCurrentCharacter())
-            )
-        );
-        TokenType foundKeyword = matchKeyword(lexemValueBuilder.toString());
+        } while (source.isNotEOF() && isIdentifierPart(source.getCurrentCodePoint()));
+        TokenType foundKeyword = matchKeyword(lexemValueBuilder);
         if (foundKeyword != null) {
-            currentToken = new Token(foundKeyword, startLocation);
+            setCurrent(foundKeyword, startPosition);
             return true;
         }
-        currentToken = new StringToken(TokenType.IDENTIFIER, startLocation, lexemValueBuilder.toString());
+        setCurrent(TokenType.IDENTIFIER, startPosition, symbolTable.getId(lexemValueBuilder));
         return true;
     }
 
-    private TokenType matchKeyword(String string) {
-        return switch (string) {
-            case "var" -> TokenType.VAR_KEYWORD;
-            case "if" -> TokenType.IF_KEYWORD;
-            case "else" -> TokenType.ELSE_KEYWORD;
-            case "and" -> TokenType.AND_KEYWORD;
-            case "or" -> TokenType.OR_KEYWORD;
-            case "while" -> TokenType.WHILE_KEYWORD;
-            case "for" -> TokenType.FOR_KEYWORD;
-            case "return" -> TokenType.RETURN_KEYWORD;
-            case "switch" -> TokenType.SWITCH_KEYWORD;
-            case "def" -> TokenType.DEFAULT_KEYWORD;
-            case "class" -> TokenType.CLASS_KEYWORD;
-            case "new" -> TokenType.NEW_KEYWORD;
-            case "not" -> TokenType.NOT_KEYWORD;
-            case "as" -> TokenType.AS_KEYWORD;
-            case "in" -> TokenType.IN_KEYWORD;
-            case "ref" -> TokenType.REF_KEYWORD;
-            default -> null;
-        };
+    static TokenType matchKeyword(CharSequence lexem) {
+        var length = lexem.length();
+        if (length >= KEYWORDS_BY_LENGTH.length) {
+            return null;
+        }
+        var candidates = KEYWORDS_BY_LENGTH[length];
+        for (int i = 0; i < candidates.length; ++i) {
+            if (candidates[i].contentEquals(lexem)) {
+                return KEYWORD_TYPES_BY_LENGTH[length][i];
+            }
+        }
+        return null;
     }
 
-    private Boolean tryBuildString() {
-        if (!source.getCurrentCharacter().equals("\"") && !source.getCurrentCharacter().equals("'")) {
+    private boolean tryBuildString() {
+        var endCharacter = source.getCurrentCodePoint();
+        if (endCharacter != '"' && endCharacter != '\'') {
             return false;
         }
 
-        var lexemValueBuilder = new StringBuilder();
-        var currentLocation = source.getCurrentLocation().clone();
-        var endCharacter = source.getCurrentCharacter();
+        var startPosition = source.getCurrentPosition();
         source.fetchCharacter();
-        while (insideString(lexemValueBuilder, endCharacter)) {
-            consume(lexemValueBuilder);
-        }
+        var content = scanText(endCharacter);
 
-        if (source.getCurrentCharacter().equals("\n")) {
+        if (source.getCurrentCodePoint() == '\n') {
             errorModule.addError(
                 ErrorElement.builder()
                     .errorType(ErrorType.UNCLOSED_STRING)
-                    .location(currentLocation)
+                    .location(Position.toLocation(source.getFilename(), startPosition))
                     .codeLineBuffer(source.getPreviousLine())
-                    .underlineFragment(lexemValueBuilder.toString())
+                    .underlineFragment(content.toString())
                     .build()
             );
         }
 
-        var unescapedString = unescapeJava(lexemValueBuilder.toString());
-
         source.fetchCharacter();
-        currentToken = new StringToken(TokenType.STRING, currentLocation, unescapedString);
+        setCurrent(TokenType.STRING, startPosition, textHasEscapes ? Escapes.unescape(content) : content);
         return true;
     }
 
-    private boolean insideString(StringBuilder sb, String endCharacter) {
-        var isEscaped = !sb.isEmpty() && sb.charAt(sb.length() - 1) == '\\';
-        var isEndQuote = source.getCurrentCharacter().equals(endCharacter);
-        var isNewline = source.getCurrentCharacter().equals("\n");
-        return source.isNotEOF() && !(isEndQuote && !isEscaped) && !isNewline;
-    }
-
-    private static final Set<TokenType> typesThatPeeked = new HashSet<>(Arrays.asList(
-        TokenType.LT,
-        TokenType.GT,
-        TokenType.MINUS,
-        TokenType.ASSIGNMENT,
-        TokenType.NEG,
-        TokenType.SLASH
-    ));
-
-    private Boolean tryBuildSimpleTokenOrComment() {
-        var commentContent = new StringBuilder();
-        var currentLocation = source.getCurrentLocation().clone();
-        TokenType tokenType = switch (source.getCurrentCharacterSingle()) {
+    private boolean tryBuildSimpleTokenOrComment() {
+        var startPosition = source.getCurrentPosition();
+        TokenType tokenType = switch (source.getCurrentCodePoint()) {
             case '*' -> TokenType.ASTERISK;
             case '+' -> TokenType.PLUS;
             case ',' -> TokenType.COMMA;
@@ -258,66 +300,153 @@ public class LexerImpl implements Lexer {
             case '-' -> matchNextChar('>', TokenType.ARROW, TokenType.MINUS);
             case '=' -> matchNextChar('=', TokenType.EQ, TokenType.ASSIGNMENT);
             case '!' -> matchNextChar('=', TokenType.NE, TokenType.NEG);
-            case '/' -> handleSlashOrComment(commentContent);
+            case '/' -> matchNextChar('/', TokenType.COMMENT, TokenType.SLASH);
             default -> TokenType.UNKNOWN;
         };
         if (tokenType == TokenType.UNKNOWN) return false;
 
-        if(!typesThatPeeked.contains(tokenType)){
-            source.fetchCharacter();
-        }
+        source.fetchCharacter();
 
-        if (tokenType.equals(TokenType.COMMENT)) {
-            currentToken = new StringToken(tokenType, currentLocation, commentContent.toString());
+        if (tokenType == TokenType.COMMENT) {
+            setCurrent(tokenType, startPosition, buildComment());
         } else {
-            currentToken = new Token(tokenType, currentLocation);
+            setCurrent(tokenType, startPosition);
         }
         return true;
     }
 
-    private TokenType handleSlashOrComment(StringBuilder commentContent) {
-        var slashToken = matchNextChar('/', TokenType.COMMENT, TokenType.SLASH);
-        if (slashToken.equals(TokenType.COMMENT)) {
-            buildComment(commentContent);
-        }
-        return slashToken;
-    }
-
-    private TokenType matchNextChar(Character nextChar, TokenType returnMatch, TokenType returnMismatch) {
-        source.fetchCharacter();
-        var secondChar = source.isEOF() ? null : source.getCurrentCharacterSingle();
-        if (Objects.equals(secondChar, nextChar)) {
+    // consumes the first character of two character token if the second one matches
+    private TokenType matchNextChar(int nextChar, TokenType returnMatch, TokenType returnMismatch) {
+        if (source.peekCodePoint() == nextChar) {
             source.fetchCharacter();
             return returnMatch;
         }
         return returnMismatch;
     }
 
-    private void buildComment(StringBuilder commentContent) {
-        while (source.isNotEOF() && !source.getCurrentCharacter().equals("\n")) {
-            consume(commentContent);
+    private boolean isCommentStart() {
+        return source.getCurrentCodePoint() == '/' && source.peekCodePoint() == '/';
+    }
+
+    private SourceSlice buildComment() {
+        if (triviaPolicy == TriviaPolicy.KEEP) {
+            return scanText(Source.END_OF_INPUT);
+        }
+        var start = source.getCurrentStartOffset();
+        source.skipLine();
+        return new SourceSlice(source.getSourceText(), start, source.getCurrentStartOffset());
+    }
+
+    // string or comment content up to the end character (unless escaped) or the end of the line, as a view of the
+    // source text; after exceeding the length limit only the characters past the last reported error are kept
+    private SourceSlice scanText(int endCharacter) {
+        var start = source.getCurrentStartOffset();
+        var length = 0;
+        var previousCodePoint = Source.END_OF_INPUT;
+        textHasEscapes = false;
+        while (source.isNotEOF() && source.getCurrentCodePoint() != '\n'
+            && !(source.getCurrentCodePoint() == endCharacter && previousCodePoint != '\\')) {
+            var codePoint = source.getCurrentCodePoint();
+            textHasEscapes |= codePoint == '\\';
+            length += Character.charCount(codePoint);
+            previousCodePoint = codePoint;
+            if (length >= TOKEN_MAX_SIZE) {
+                reportTokenTooLong(source.getSourceText().getText(start, source.getCurrentEndOffset()));
+                start = source.getCurrentEndOffset();
+                length = 0;
+                previousCodePoint = Source.END_OF_INPUT;
+            }
+            source.fetchCharacter();
         }
+        return new SourceSlice(source.getSourceText(), start, source.getCurrentStartOffset());
     }
 
     private void consume(StringBuilder lexemValueBuilder) {
-        lexemValueBuilder.append(source.getCurrentCharacter());
+        lexemValueBuilder.appendCodePoint(source.getCurrentCodePoint());
         if (lexemValueBuilder.length() >= TOKEN_MAX_SIZE) {
-            errorModule.addError(
-                ErrorElement.builder()
-                    .errorType(ErrorType.TOKEN_TOO_LONG)
-                    .location(source.getCurrentLocation().clone())
-                    .codeLineBuffer(source.getCharacterBuffer().toString())
-                    .underlineFragment(lexemValueBuilder.toString())
-                    .explanation("%d character limit exceeded".formatted(TOKEN_MAX_SIZE))
-                    .build()
-            );
+            reportTokenTooLong(lexemValueBuilder.toString());
             lexemValueBuilder.setLength(0);
         }
         source.fetchCharacter();
     }
 
+    private void reportTokenTooLong(String fragment) {
+        errorModule.addError(
+            ErrorElement.builder()
+                .errorType(ErrorType.TOKEN_TOO_LONG)
+                .location(source.getCurrentLocation())
+                .codeLineBuffer(source.getCharacterBuffer().toString())
+                .underlineFragment(fragment)
+                .explanation("%d character limit exceeded".formatted(TOKEN_MAX_SIZE))
+                .build()
+        );
+    }
+
     @Override
     public Token getCurrentToken() {
-        return this.currentToken;
+        if (currentToken == null && currentType != null) {
+            currentToken = createToken(currentType, source.getFilename(), currentPosition, currentValue, currentText,
+                symbolTable);
+        }
+        return currentToken;
+    }
+
+    static Token createToken(TokenType type, String filename, long position, long value, CharSequence text,
+                             SymbolTable symbolTable) {
+        return switch (type) {
+            case IDENTIFIER -> new IdentifierToken(filename, position, symbolTable.getName((int) value), (int) value);
+            case INTEGER_NUMBER -> new IntegerToken(type, filename, position, (int) value);
+            case FLOAT_NUMBER -> new FloatToken(type, filename, position, Float.intBitsToFloat((int) value));
+            case LONG_NUMBER -> new LongToken(type, filename, position, value);
+            case DOUBLE_NUMBER -> new DoubleToken(type, filename, position, Double.longBitsToDouble(value));
+            case STRING, COMMENT -> new StringToken(type, filename, position, text);
+            default -> new Token(type, filename, position);
+        };
+    }
+
+    @Override
+    public TokenType getCurrentTokenType() {
+        return currentType;
+    }
+
+    @Override
+    public long getCurrentTokenPosition() {
+        return currentPosition;
+    }
+
+    @Override
+    public String getCurrentText() {
+        if (currentType == TokenType.IDENTIFIER) {
+            return symbolTable.getName((int) currentValue);
+        }
+        if (!(currentText instanceof String)) {
+            currentText = currentText.toString();
+        }
+        return (String) currentText;
+    }
+
+    @Override
+    public int getCurrentSymbolId() {
+        return currentType == TokenType.IDENTIFIER ? (int) currentValue : SymbolTable.NO_SYMBOL;
+    }
+
+    @Override
+    public int getCurrentIntValue() {
+        return (int) currentValue;
+    }
+
+    @Override
+    public long getCurrentLongValue() {
+        return currentValue;
+    }
+
+    @Override
+    public float getCurrentFloatValue() {
+        return Float.intBitsToFloat((int) currentValue);
+    }
+
+    @Override
+    public double getCurrentDoubleValue() {
+        return Double.longBitsToDouble(currentValue);
     }
 }
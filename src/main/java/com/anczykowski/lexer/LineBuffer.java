@@ -0,0 +1,59 @@
+package com.anczykowski.lexer;
+
+// Fixed size ring buffer holding the last code points of a line, text is only built on toString
+public class LineBuffer {
+    private final int[] codePoints;
+
+    private int start = 0;
+
+    private int size = 0;
+
+    public LineBuffer(int capacity) {
+        this.codePoints = new int[capacity];
+    }
+
+    public void push(int codePoint) {
+        var end = start + size;
+        if (end >= codePoints.length) {
+            end -= codePoints.length;
+        }
+        codePoints[end] = codePoint;
+        if (size < codePoints.length) {
+            ++size;
+        } else if (++start == codePoints.length) {
+            // buffer full, oldest code point got overwritten
+            start = 0;
+        }
+    }
+
+    // most recently pushed code point
+    public int getLast() {
+        var index = start + size - 1;
+        return codePoints[index >= codePoints.length ? index - codePoints.length : index];
+    }
+
+    public void clear() {
+        start = 0;
+        size = 0;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        var builder = new StringBuilder(size);
+        for (int i = 0, index = start; i < size; ++i, ++index) {
+            if (index == codePoints.length) {
+                index = 0;
+            }
+            builder.appendCodePoint(codePoints[index]);
+        }
+        return builder.toString();
+    }
+}
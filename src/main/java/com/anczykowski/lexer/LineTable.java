@@ -0,0 +1,44 @@
+package com.anczykowski.lexer;
+
+import java.util.Arrays;
+
+// start offset and last column of every line read so far, line numbers start at 1
+public class LineTable {
+
+    private int[] startOffsets = new int[64];
+
+    private int[] endColumns = new int[64];
+
+    private int lineCount = 1;
+
+    // registers the end of the last line and the start of the next one
+    public void addLine(int nextLineStartOffset, int endColumn) {
+        if (lineCount == startOffsets.length) {
+            startOffsets = Arrays.copyOf(startOffsets, lineCount * 2);
+            endColumns = Arrays.copyOf(endColumns, lineCount * 2);
+        }
+        endColumns[lineCount - 1] = endColumn;
+        startOffsets[lineCount] = nextLineStartOffset;
+        ++lineCount;
+    }
+
+    // appends lines of a later part of the same input, whose first line is the last line of this table
+    void append(LineTable other, int offsetDelta) {
+        for (int line = 1; line < other.lineCount; ++line) {
+            addLine(other.getStartOffset(line + 1) + offsetDelta, other.getEndColumn(line));
+        }
+    }
+
+    public int getLineCount() {
+        return lineCount;
+    }
+
+    public int getStartOffset(int lineNumber) {
+        return startOffsets[lineNumber - 1];
+    }
+
+    // column of the newline that ended the line
+    public int getEndColumn(int lineNumber) {
+        return endColumns[lineNumber - 1];
+    }
+}
@@ -1,22 +1,30 @@
 package com.anczykowski.lexer;
 
 import lombok.Getter;
-import lombok.NoArgsConstructor;
 
-@NoArgsConstructor
-public class Location implements Cloneable {
+public class Location {
 
     @Getter
-    private int lineNumber = 1;
+    private final int lineNumber;
 
     @Getter
-    private int columnNumber = 0;
+    private final int columnNumber;
 
     @Getter
-    private String filename = null;
+    private final String filename;
+
+    public Location() {
+        this(null);
+    }
 
     public Location(String filename) {
+        this(filename, 1, 0);
+    }
+
+    public Location(String filename, int lineNumber, int columnNumber) {
         this.filename = filename;
+        this.lineNumber = lineNumber;
+        this.columnNumber = columnNumber;
     }
 
     @Override
@@ -26,25 +34,4 @@ public class Location implements Cloneable {
         }
         return "%s:%d:%d".formatted(filename, lineNumber, columnNumber);
     }
-
-    public void resetColumnNumber() {
-        columnNumber = 0;
-    }
-
-    public void incrementColumnNumber() {
-        ++columnNumber;
-    }
-
-    public void incrementLineNumber() {
-        ++lineNumber;
-    }
-
-    @Override
-    public Location clone() {
-        try {
-            return (Location) super.clone();
-        } catch (CloneNotSupportedException e) {
-            throw new AssertionError();
-        }
-    }
 }
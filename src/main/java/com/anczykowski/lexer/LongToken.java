@@ -0,0 +1,19 @@
+package com.anczykowski.lexer;
+
+import lombok.Getter;
+
+public class LongToken extends Token {
+    public LongToken(TokenType type, String filename, long position, Long value) {
+        super(type, filename, position);
+        this.value = value;
+    }
+
+    @Getter
+    private final Long value;
+
+    @Override
+    public String toString() {
+        var locationStr = getLocation() + "\t";
+        return locationStr + "LongToken(type=" + this.type + ", value=[" + this.value + "])";
+    }
+}
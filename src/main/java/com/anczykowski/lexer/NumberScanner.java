@@ -0,0 +1,158 @@
+package com.anczykowski.lexer;
+
+import static com.anczykowski.lexer.CharacterClass.isDigit;
+import static com.anczykowski.lexer.CharacterClass.isIdentifierPart;
+
+import com.anczykowski.errormodule.ErrorElement;
+import com.anczykowski.errormodule.ErrorModule;
+import com.anczykowski.errormodule.ErrorType;
+
+import lombok.Getter;
+
+// scans number literals: all digits go into a 64-bit decimal mantissa while reading, so integers are exact and
+// fractions are rounded once, correctly; an 'L' suffix makes a long and a 'D' suffix a double literal
+class NumberScanner {
+
+    // any 19 digit number fits into an unsigned long
+    private static final int MAX_MANTISSA_DIGITS = 19;
+
+    private static final String MAX_INT = String.valueOf(Integer.MAX_VALUE);
+
+    private static final String MAX_LONG = String.valueOf(Long.MAX_VALUE);
+
+    private final Source source;
+
+    private final ErrorModule errorModule;
+
+    // digits of the literal without the period, only read back for errors and mantissas longer than 64 bits
+    private final StringBuilder digits = new StringBuilder();
+
+    private long mantissa;
+
+    private int significantDigits;
+
+    // value of the last scanned literal, floats and doubles as their raw bits
+    @Getter
+    private long value;
+
+    NumberScanner(Source source, ErrorModule errorModule) {
+        this.source = source;
+        this.errorModule = errorModule;
+    }
+
+    TokenType scan() {
+        var position = source.getCurrentPosition();
+        digits.setLength(0);
+        mantissa = 0;
+        significantDigits = 0;
+
+        // a leading zero is a number on its own
+        if (source.getCurrentCodePoint() == '0') {
+            consumeDigit();
+        } else {
+            consumeDigits();
+        }
+        var integerDigits = digits.length();
+
+        var isFraction = source.getCurrentCodePoint() == '.';
+        if (isFraction) {
+            source.fetchCharacter();
+            if (!isDigit(source.getCurrentCodePoint())) {
+                errorModule.addError(
+                    ErrorElement.builder()
+                        .errorType(ErrorType.MALFORMED_NUMBER)
+                        .location(Position.toLocation(source.getFilename(), position))
+                        .codeLineBuffer(source.getCharacterBuffer().toString())
+                        .underlineFragment(digits + ".")
+                        .build()
+                );
+            }
+            consumeDigits();
+        }
+        var fractionDigits = digits.length() - integerDigits;
+
+        if (!isFraction && consumeSuffix('L', 'l')) {
+            checkFits(position, 0, integerDigits, MAX_LONG);
+            value = integerValue(Long.MAX_VALUE);
+            return TokenType.LONG_NUMBER;
+        }
+        if (consumeSuffix('D', 'd')) {
+            checkFits(position, 0, integerDigits, MAX_LONG);
+            var doubleValue = significantDigits > MAX_MANTISSA_DIGITS
+                ? DecimalConversion.toDouble(digits, -fractionDigits)
+                : DecimalConversion.toDouble(mantissa, -fractionDigits);
+            value = Double.doubleToRawLongBits(doubleValue);
+            return TokenType.DOUBLE_NUMBER;
+        }
+        if (isFraction) {
+            checkFits(position, 0, integerDigits, MAX_INT);
+            var floatValue = significantDigits > MAX_MANTISSA_DIGITS
+                ? DecimalConversion.toFloat(digits, -fractionDigits)
+                : DecimalConversion.toFloat(mantissa, -fractionDigits);
+            value = Float.floatToRawIntBits(floatValue);
+            return TokenType.FLOAT_NUMBER;
+        }
+        checkFits(position, 0, integerDigits, MAX_INT);
+        value = integerValue(Integer.MAX_VALUE);
+        return TokenType.INTEGER_NUMBER;
+    }
+
+    private void consumeDigits() {
+        while (source.isNotEOF() && isDigit(source.getCurrentCodePoint())) {
+            consumeDigit();
+        }
+    }
+
+    private void consumeDigit() {
+        var codePoint = source.getCurrentCodePoint();
+        var digit = Character.digit(codePoint, 10);
+        digits.append((char) ('0' + digit));
+        // leading zeros do not take up mantissa digits
+        if (significantDigits > 0 || digit != 0) {
+            if (significantDigits < MAX_MANTISSA_DIGITS) {
+                mantissa = mantissa * 10 + digit;
+            }
+            ++significantDigits;
+        }
+        source.fetchCharacter();
+    }
+
+    // suffix letter directly followed by an identifier character is left for the identifier
+    private boolean consumeSuffix(char upperCase, char lowerCase) {
+        var codePoint = source.getCurrentCodePoint();
+        if ((codePoint != upperCase && codePoint != lowerCase) || isIdentifierPart(source.peekCodePoint())) {
+            return false;
+        }
+        source.fetchCharacter();
+        return true;
+    }
+
+    // too big values are clamped to the maximum
+    private long integerValue(long maxValue) {
+        if (significantDigits > MAX_MANTISSA_DIGITS || Long.compareUnsigned(mantissa, maxValue) > 0) {
+            return maxValue;
+        }
+        return mantissa;
+    }
+
+    // the integer part of a literal has to fit into the integer type of its kind, fraction digits are not limited
+    private void checkFits(long position, int start, int end, String maxValue) {
+        var firstSignificant = start;
+        while (firstSignificant < end - 1 && digits.charAt(firstSignificant) == '0') {
+            ++firstSignificant;
+        }
+        var length = end - firstSignificant;
+        var fits = length < maxValue.length()
+            || length == maxValue.length() && CharSequence.compare(digits.subSequence(firstSignificant, end), maxValue) <= 0;
+        if (!fits) {
+            errorModule.addError(
+                ErrorElement.builder()
+                    .errorType(ErrorType.CONSTANT_TOO_BIG)
+                    .location(Position.toLocation(source.getFilename(), position))
+                    .codeLineBuffer(source.getCharacterBuffer().toString())
+                    .underlineFragment(digits.substring(start, end))
+                    .build()
+            );
+        }
+    }
+}
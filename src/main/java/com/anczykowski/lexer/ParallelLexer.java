@@ -0,0 +1,151 @@
+package com.anczykowski.lexer;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+import com.anczykowski.errormodule.ErrorModule;
+import com.anczykowski.errormodule.ErrorType;
+
+// lexes big inputs in newline aligned chunks on the common fork-join pool, tokens cannot span lines so every chunk
+// can be lexed on its own; chunk results are merged in source order and match lexing the whole input at once
+public class ParallelLexer {
+
+    public static final int SIZE_THRESHOLD = 4 << 20;
+
+    static final int CHUNK_SIZE = 1 << 20;
+
+    private record Chunk(int start, int end, int firstLine) {
+    }
+
+    private record ChunkResult(TokenBuffer tokens, ErrorModule errorModule, SymbolTable symbolTable) {
+    }
+
+    // merging costs about half of sequential lexing, so it pays off only for big inputs and more than one core
+    public static boolean isWorthIt(ByteBufferSource source) {
+        return source.getBuffer().limit() >= SIZE_THRESHOLD && ForkJoinPool.getCommonPoolParallelism() > 1;
+    }
+
+    public static TokenBuffer lex(ByteBufferSource source, ErrorModule errorModule, SymbolTable symbolTable,
+                                  TriviaPolicy triviaPolicy, Predicate<TokenType> typeFilter) {
+        return lex(source, errorModule, symbolTable, triviaPolicy, typeFilter, CHUNK_SIZE);
+    }
+
+    static TokenBuffer lex(ByteBufferSource source, ErrorModule errorModule, SymbolTable symbolTable,
+                           TriviaPolicy triviaPolicy, Predicate<TokenType> typeFilter, int chunkSize) {
+        var buffer = source.getBuffer();
+        var filename = source.getFilename();
+        var chunks = split(buffer, chunkSize);
+        var firstLineEnding = findFirstLineEnding(buffer);
+
+        var results = IntStream.range(0, chunks.size()).parallel()
+            .mapToObj(i -> lexChunk(buffer, filename, chunks.get(i), firstLineEnding, i < chunks.size() - 1,
+                errorModule.getMaxErrors(), triviaPolicy, typeFilter))
+            .toList();
+
+        var lineTable = new LineTable();
+        var lineEndingsReported = false;
+        var merged = new TokenBuffer(source.getSourceText(), filename, symbolTable, lineTable);
+        for (int i = 0; i < chunks.size(); ++i) {
+            var chunk = chunks.get(i);
+            var result = results.get(i);
+            var chunkSymbols = result.symbolTable();
+            // chunks are merged in order, so symbol ids are given out in the order of first occurrence like sequentially
+            var symbolIds = new int[chunkSymbols.size()];
+            for (int id = 0; id < symbolIds.length; ++id) {
+                symbolIds[id] = symbolTable.getId(chunkSymbols.getName(id));
+            }
+            merged.append(result.tokens(), chunk.start(), symbolIds);
+            for (var error : result.errorModule().getErrors()) {
+                // every chunk reports its first inconsistent line ending, the whole input only the first one
+                if (error.getErrorType() == ErrorType.INCONSISTENT_LINE_ENDINGS) {
+                    if (lineEndingsReported) {
+                        continue;
+                    }
+                    lineEndingsReported = true;
+                }
+                errorModule.addError(error);
+            }
+            if (result.errorModule().getOmittedErrors() > 0) {
+                errorModule.addOmittedErrors(result.errorModule().getOmittedErrors());
+            }
+        }
+        return merged;
+    }
+
+    private static ChunkResult lexChunk(ByteBuffer buffer, String filename, Chunk chunk, Source.LineEnding firstLineEnding,
+                                        boolean inputContinues, int maxErrors, TriviaPolicy triviaPolicy,
+                                        Predicate<TokenType> typeFilter) {
+        var errorModule = new ErrorModule(maxErrors);
+        var symbolTable = new SymbolTable();
+        var source = new ByteBufferSource(errorModule, buffer.slice(chunk.start(), chunk.end() - chunk.start()), filename);
+        source.resume(chunk.firstLine(), firstLineEnding, inputContinues);
+        var tokens = TokenBuffer.lex(source, errorModule, symbolTable, triviaPolicy, typeFilter);
+        return new ChunkResult(tokens, errorModule, symbolTable);
+    }
+
+    // chunks start right after a run of newline characters, so a two character line ending is never split
+    private static List<Chunk> split(ByteBuffer buffer, int chunkSize) {
+        var limit = buffer.limit();
+        var starts = new ArrayList<Integer>();
+        starts.add(0);
+        var position = chunkSize;
+        while (position < limit) {
+            while (position < limit && !isNewline(buffer.get(position))) {
+                ++position;
+            }
+            while (position < limit && isNewline(buffer.get(position))) {
+                ++position;
+            }
+            // a chunk starting with a non ASCII byte could hide malformed input the lexer skips while reading past a line
+            if (position < limit && buffer.get(position) >= 0) {
+                starts.add(position);
+                position += chunkSize;
+            }
+        }
+
+        var lineCounts = IntStream.range(0, starts.size()).parallel()
+            .map(i -> countLines(buffer, starts.get(i), i + 1 < starts.size() ? starts.get(i + 1) : limit))
+            .toArray();
+        var chunks = new ArrayList<Chunk>(starts.size());
+        var firstLine = 1;
+        for (int i = 0; i < starts.size(); ++i) {
+            var end = i + 1 < starts.size() ? starts.get(i + 1) : limit;
+            chunks.add(new Chunk(starts.get(i), end, firstLine));
+            firstLine += lineCounts[i];
+        }
+        return chunks;
+    }
+
+    // counts line endings the way Source does, pairing CR LF and LF CR
+    private static int countLines(ByteBuffer buffer, int start, int end) {
+        var count = 0;
+        for (int i = start; i < end; ++i) {
+            var character = buffer.get(i);
+            if (isNewline(character)) {
+                ++count;
+                if (i + 1 < end && isNewline(buffer.get(i + 1)) && buffer.get(i + 1) != character) {
+                    ++i;
+                }
+            }
+        }
+        return count;
+    }
+
+    private static Source.LineEnding findFirstLineEnding(ByteBuffer buffer) {
+        for (int i = 0; i < buffer.limit(); ++i) {
+            if (isNewline(buffer.get(i))) {
+                var next = i + 1 < buffer.limit() ? buffer.get(i + 1) : Source.END_OF_INPUT;
+                return Source.LineEnding.of(buffer.get(i), next);
+            }
+        }
+        return null;
+    }
+
+    private static boolean isNewline(byte character) {
+        return character == '\n' || character == '\r';
+    }
+}
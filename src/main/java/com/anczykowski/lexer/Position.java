@@ -0,0 +1,35 @@
+package com.anczykowski.lexer;
+
+// line and column packed into a long, so that tokens and nodes do not need a Location object each; those are only
+// created when a position is reported, together with the filename kept once by the source
+public final class Position {
+
+    // position of nodes built without one
+    public static final long NONE = -1;
+
+    private Position() {
+    }
+
+    public static long of(int lineNumber, int columnNumber) {
+        return (long) lineNumber << 32 | columnNumber & 0xFFFFFFFFL;
+    }
+
+    public static long of(Location location) {
+        return location == null ? NONE : of(location.getLineNumber(), location.getColumnNumber());
+    }
+
+    public static int getLineNumber(long position) {
+        return (int) (position >> 32);
+    }
+
+    public static int getColumnNumber(long position) {
+        return (int) position;
+    }
+
+    public static Location toLocation(String filename, long position) {
+        if (position == NONE) {
+            return null;
+        }
+        return new Location(filename, getLineNumber(position), getColumnNumber(position));
+    }
+}
@@ -3,42 +3,115 @@ package com.anczykowski.lexer;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.Reader;
-import java.util.Stack;
 
 import com.anczykowski.errormodule.ErrorElement;
 import com.anczykowski.errormodule.ErrorModule;
 import com.anczykowski.errormodule.ErrorType;
 import lombok.Getter;
+import lombok.Setter;
 
 public class Source implements AutoCloseable {
 
-    private static final int LINE_BUFFER_LIMIT = 80;
+    static final int LINE_BUFFER_LIMIT = 80;
+
+    public static final int END_OF_INPUT = -1;
+
+    protected static final int MALFORMED_INPUT = -2;
+
+    private static final int NOT_READ = Integer.MIN_VALUE;
+
+    private static final String[] ASCII_STRINGS = new String[128];
+
+    static {
+        for (int i = 0; i < ASCII_STRINGS.length; ++i) {
+            ASCII_STRINGS[i] = String.valueOf((char) i);
+        }
+    }
+
+    enum LineEnding {
+        LF, CR, CRLF, LFCR;
+
+        static LineEnding of(int firstCharacter, int secondCharacter) {
+            if (firstCharacter == '\r') {
+                return secondCharacter == '\n' ? CRLF : CR;
+            }
+            return secondCharacter == '\r' ? LFCR : LF;
+        }
+    }
 
     private final Reader reader;
 
     private final ErrorModule errorModule;
 
-    // UTF8 characters might not fit into a single character, because of that string is used
-    private String currentCharacter = null;
+    // code points are used, because UTF8 characters might not fit into a single char
+    private int currentCodePoint = NOT_READ;
 
-    private String firstLineEnding;
+    // raw code point read ahead of the current one (e.g. while matching two character newlines)
+    private int lookaheadCodePoint = NOT_READ;
 
-    private String notConsumedCharacter = null;
+    // text read so far, only used by the reader based source (subclasses keep their own backing text); all of it is
+    // kept rather than the current and previous lines, because AST nodes hold snippets as offsets into it and an
+    // error found while interpreting prints lines read long before; files are mapped by ByteBufferSource instead
+    private final StringBuilder readText;
 
-    private boolean flagEOF = false;
+    private final SourceText readSourceText;
 
+    // offsets in source text units: bounds of the current character and starts of the current and previous lines
     @Getter
-    private Location currentLocation = new Location();
+    private int currentStartOffset = 0;
 
     @Getter
-    private Location previousLocation = new Location();
+    private int currentEndOffset = 0;
 
+    private int lookaheadStartOffset = 0;
+
+    private int lookaheadEndOffset = 0;
+
+    private int lineStartOffset = 0;
+
+    private int previousLineStartOffset = 0;
+
+    // optional record of line starts and ends, filled while reading
+    @Setter
+    private LineTable lineTable;
+
+    private LineEnding firstLineEnding;
+
+    private boolean inconsistentLineEndingsReported = false;
+
+    // set when the source is only a part of the input, more of it follows after the end
+    private boolean inputContinues = false;
+
+    private boolean flagEOF = false;
+
+    // kept once for all positions of the source
     @Getter
-    private final Stack<String> characterBuffer = new FixedCharacterStack(LINE_BUFFER_LIMIT);
+    private final String filename;
+
+    private int lineNumber = 1;
+
+    private int columnNumber = 0;
 
+    // position of the last newline
     @Getter
-    private String previousLine;
+    private long previousPosition = Position.of(1, 0);
 
+    @Getter
+    private LineBuffer characterBuffer = new LineBuffer(LINE_BUFFER_LIMIT);
+
+    private LineBuffer previousLineBuffer = new LineBuffer(LINE_BUFFER_LIMIT);
+
+    public long getCurrentPosition() {
+        return Position.of(lineNumber, columnNumber);
+    }
+
+    public Location getCurrentLocation() {
+        return new Location(filename, lineNumber, columnNumber);
+    }
+
+    public Location getPreviousLocation() {
+        return Position.toLocation(filename, previousPosition);
+    }
 
     public boolean isNotEOF() {
         return !flagEOF;
@@ -48,115 +121,255 @@ public class Source implements AutoCloseable {
         return flagEOF;
     }
 
-    public String getCurrentCharacter() {
-        if (currentCharacter == null) {
+    public int getCurrentCodePoint() {
+        if (currentCodePoint == NOT_READ) {
             fetchCharacter();
         }
-        return currentCharacter;
+        return currentCodePoint;
+    }
+
+    // next code point without consuming it, newlines are reported as '\n'
+    public int peekCodePoint() {
+        try {
+            var nextCodePoint = readAhead();
+            return nextCodePoint == '\r' ? '\n' : nextCodePoint;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public String getPreviousLine() {
+        return previousLineBuffer.toString();
+    }
+
+    // current line up to and including the current character
+    public SourceSnippet getLineSnippet() {
+        return new SourceSnippet(getSourceText(), lineStartOffset, currentEndOffset);
+    }
+
+    public SourceSnippet getPreviousLineSnippet() {
+        return new SourceSnippet(getSourceText(), previousLineStartOffset, lineStartOffset);
     }
 
-    public Character getCurrentCharacterSingle(){
-        return currentCharacter.charAt(0);
+    // previous line followed by the current one, up to and including the current character
+    public SourceSnippet getEffectiveSnippet() {
+        return new SourceSnippet(getSourceText(), previousLineStartOffset, currentEndOffset);
+    }
+
+    public String getCurrentCharacter() {
+        var codePoint = getCurrentCodePoint();
+        if (codePoint == END_OF_INPUT) {
+            return "";
+        }
+        return codePoint < ASCII_STRINGS.length ? ASCII_STRINGS[codePoint] : Character.toString(codePoint);
     }
 
     public void fetchCharacter() {
         try {
-            currentLocation.incrementColumnNumber();
-            if(notConsumedCharacter != null){
-                characterBuffer.push(notConsumedCharacter);
-                currentCharacter = notConsumedCharacter;
-                notConsumedCharacter = null;
+            ++columnNumber;
+            int codePoint = nextCodePoint();
+            while (codePoint == MALFORMED_INPUT) {
+                errorModule.addError(
+                    ErrorElement.builder()
+                        .errorType(ErrorType.UNKNOWN_CHARACTER)
+                        .location(getCurrentLocation())
+                        .codeLineBuffer(getCharacterBuffer().toString())
+                        .build());
+                codePoint = nextCodePoint();
+            }
+            if (codePoint == END_OF_INPUT) {
+                flagEOF = true;
+                currentCodePoint = END_OF_INPUT;
+                return;
+            }
+            if (codePoint == '\r' || codePoint == '\n') {
+                handleNewline(codePoint);
                 return;
             }
-            innerFetchCharacter();
-            handleNewline();
+            currentCodePoint = codePoint;
+            characterBuffer.push(codePoint);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
 
-    private void handleNewline() throws IOException {
-        var currentNewline = matchNewlineOfOrder("\r", "\n");
-        if(currentNewline.isEmpty()) currentNewline = matchNewlineOfOrder("\n", "\r");
-        if(currentNewline.isEmpty()) return;
-        if(firstLineEnding == null) {
-            firstLineEnding = currentNewline;
+    // consumes the rest of the current line, stopping at its newline or the end of input
+    public void skipLine() {
+        while (isNotEOF() && getCurrentCodePoint() != '\n') {
+            if (lookaheadCodePoint == NOT_READ) {
+                skipPlainAscii();
+            }
+            fetchCharacter();
+        }
+    }
+
+    // same as fetching each character of the plain ASCII run following the current one
+    private void skipPlainAscii() {
+        var start = getReadOffset();
+        var length = skipPlainAscii(characterBuffer);
+        if (length == 0) {
+            return;
+        }
+        columnNumber += length;
+        currentCodePoint = characterBuffer.getLast();
+        currentStartOffset = start + length - 1;
+        currentEndOffset = start + length;
+    }
+
+    // skips ASCII characters other than newlines from the read offset on and pushes them to given buffer, returns
+    // their count; sources unable to look at their input without decoding it skip nothing
+    protected int skipPlainAscii(LineBuffer buffer) {
+        return 0;
+    }
+
+    private void handleNewline(int firstCharacter) throws IOException {
+        int secondCharacter = readAhead();
+        var lineEnding = LineEnding.of(firstCharacter, secondCharacter);
+        if (lineEnding == LineEnding.CRLF || lineEnding == LineEnding.LFCR) {
+            lookaheadCodePoint = NOT_READ;
+            currentEndOffset = lookaheadEndOffset;
         }
-        else if (!currentNewline.equals(firstLineEnding) && isNotEOF()){
+
+        if (firstLineEnding == null) {
+            firstLineEnding = lineEnding;
+        } else if (lineEnding != firstLineEnding && (secondCharacter != END_OF_INPUT || inputContinues)
+            && !inconsistentLineEndingsReported) {
+            // reported for the first offending line only, the rest of the file is likely the same
+            inconsistentLineEndingsReported = true;
             errorModule.addError(
                 ErrorElement.builder()
                     .errorType(ErrorType.INCONSISTENT_LINE_ENDINGS)
-                    .location(getCurrentLocation().clone())
+                    .location(getCurrentLocation())
                     .codeLineBuffer(getCharacterBuffer().toString())
                     .build()
             );
         }
-        currentCharacter = "\n";
-        previousLocation = currentLocation.clone();
-        currentLocation.resetColumnNumber();
-        if(!characterBuffer.isEmpty()) {
-            characterBuffer.pop();
-        }
-        previousLine = characterBuffer.toString();
+        currentCodePoint = '\n';
+        previousPosition = getCurrentPosition();
+        // swap buffers instead of copying the finished line
+        var finishedLine = characterBuffer;
+        characterBuffer = previousLineBuffer;
         characterBuffer.clear();
-        currentLocation.incrementLineNumber();
-    }
-
-    private String matchNewlineOfOrder(String firstNewlineChar, String secondNewlineChar) throws IOException {
-        var currentNewLine = new StringBuilder();
-        if(currentCharacter.equals(firstNewlineChar)){
-            currentNewLine.append(currentCharacter);
-            innerFetchCharacter();
-            if (currentCharacter.equals(secondNewlineChar)) {
-                currentNewLine.append(currentCharacter);
-            } else {
-                notConsumedCharacter = currentCharacter;
-            }
+        previousLineBuffer = finishedLine;
+        previousLineStartOffset = lineStartOffset;
+        lineStartOffset = currentEndOffset;
+        if (lineTable != null) {
+            lineTable.addLine(lineStartOffset, columnNumber);
+        }
+        columnNumber = 0;
+        ++lineNumber;
+    }
+
+    // makes the source continue a bigger input: it starts at given line of it and checks line endings against
+    // the input's first one, inputContinues tells whether anything follows the end of this source
+    void resume(int lineNumber, LineEnding firstLineEnding, boolean inputContinues) {
+        this.lineNumber = lineNumber;
+        this.columnNumber = 0;
+        this.firstLineEnding = firstLineEnding;
+        this.inputContinues = inputContinues;
+    }
+
+    private int readAhead() throws IOException {
+        if (lookaheadCodePoint == NOT_READ) {
+            lookaheadStartOffset = getReadOffset();
+            lookaheadCodePoint = readCodePoint();
+            lookaheadEndOffset = getReadOffset();
+        }
+        return lookaheadCodePoint;
+    }
+
+    private int nextCodePoint() throws IOException {
+        if (lookaheadCodePoint != NOT_READ) {
+            var codePoint = lookaheadCodePoint;
+            lookaheadCodePoint = NOT_READ;
+            currentStartOffset = lookaheadStartOffset;
+            currentEndOffset = lookaheadEndOffset;
+            return codePoint;
         }
-        return currentNewLine.toString();
+        currentStartOffset = getReadOffset();
+        var codePoint = readCodePoint();
+        currentEndOffset = getReadOffset();
+        return codePoint;
+    }
+
+    // offset right after the last code point returned by readCodePoint
+    protected int getReadOffset() {
+        return readText.length();
+    }
+
+    public SourceText getSourceText() {
+        return readSourceText;
     }
 
-    private void innerFetchCharacter() throws IOException {
+    // returns code point, END_OF_INPUT or MALFORMED_INPUT
+    protected int readCodePoint() throws IOException {
         int highUnit = reader.read();
-        if (highUnit < 0){
-            flagEOF = true;
-            return;
+        if (highUnit < 0) {
+            return END_OF_INPUT;
         }
-        if (!Character.isHighSurrogate((char)highUnit))
-        {
-            currentCharacter = Character.toString(highUnit);
-            characterBuffer.push(currentCharacter);
-            return;
+        readText.append((char) highUnit);
+        if (!Character.isHighSurrogate((char) highUnit)) {
+            return highUnit;
         }
 
         int lowUnit = reader.read();
-        if (!Character.isLowSurrogate((char)lowUnit)){
-            errorModule.addError(
-                ErrorElement.builder()
-                    .errorType(ErrorType.UNKNOWN_CHARACTER)
-                    .location(getCurrentLocation().clone())
-                    .codeLineBuffer(getCharacterBuffer().toString())
-                    .build());
-            return;
+        if (lowUnit >= 0) {
+            readText.append((char) lowUnit);
+        }
+        if (!Character.isLowSurrogate((char) lowUnit)) {
+            return MALFORMED_INPUT;
+        }
+        return Character.toCodePoint((char) highUnit, (char) lowUnit);
+    }
+
+    // offsets of a reader based source are chars of the text read so far
+    private record ReadText(StringBuilder text) implements SourceText {
+        @Override
+        public String getText(int start, int end) {
+            return text.substring(start, end);
+        }
+
+        @Override
+        public boolean isCharAddressed(int start, int end) {
+            return true;
         }
 
-        currentCharacter = Character.toString(Character.toCodePoint((char)highUnit, (char)lowUnit));
-        characterBuffer.push(currentCharacter);
+        @Override
+        public char charAt(int offset) {
+            return text.charAt(offset);
+        }
     }
 
     public Source(ErrorModule errorModule, Reader inputReader) {
         this.errorModule = errorModule;
+        this.filename = null;
         this.reader = new BufferedReader(inputReader);
+        this.readText = new StringBuilder();
+        this.readSourceText = new ReadText(readText);
     }
 
     public Source(ErrorModule errorModule, Reader inputReader, String path) {
         this.errorModule = errorModule;
-        this.currentLocation = new Location(path);
+        this.filename = path;
         this.reader = new BufferedReader(inputReader);
+        this.readText = new StringBuilder();
+        this.readSourceText = new ReadText(readText);
+    }
+
+    // for sources not backed by a reader, those have to override readCodePoint, getReadOffset and getSourceText
+    protected Source(ErrorModule errorModule, String path) {
+        this.errorModule = errorModule;
+        this.filename = path;
+        this.reader = null;
+        this.readText = null;
+        this.readSourceText = null;
     }
 
     @Override
     public void close() {
+        if (reader == null) {
+            return;
+        }
         try {
             reader.close();
         } catch (IOException e) {
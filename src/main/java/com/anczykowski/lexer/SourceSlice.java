@@ -0,0 +1,69 @@
+package com.anczykowski.lexer;
+
+// token value as a [start, end) view of the source text, copied out of the source only when first read as a whole;
+// chars of a slice that maps one to one to the source (e.g. plain ASCII) are read in place
+public class SourceSlice implements CharSequence {
+
+    private final SourceText sourceText;
+
+    private final int start;
+
+    private final int end;
+
+    private String text;
+
+    private Boolean isCharAddressed;
+
+    public SourceSlice(SourceText sourceText, int start, int end) {
+        this.sourceText = sourceText;
+        this.start = start;
+        this.end = end;
+    }
+
+    private boolean isCharAddressed() {
+        if (isCharAddressed == null) {
+            isCharAddressed = sourceText.isCharAddressed(start, end);
+        }
+        return isCharAddressed;
+    }
+
+    @Override
+    public int length() {
+        if (text == null && isCharAddressed()) {
+            return end - start;
+        }
+        return toString().length();
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (text == null && isCharAddressed()) {
+            if (index < 0 || index >= end - start) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            return sourceText.charAt(start + index);
+        }
+        return toString().charAt(index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (text == null && isCharAddressed()) {
+            if (start < 0 || end > this.end - this.start || start > end) {
+                throw new IndexOutOfBoundsException("[%d, %d) of %d".formatted(start, end, this.end - this.start));
+            }
+            var slice = new SourceSlice(sourceText, this.start + start, this.start + end);
+            slice.isCharAddressed = true;
+            return slice;
+        }
+        return toString().subSequence(start, end);
+    }
+
+    @Override
+    public String toString() {
+        if (text == null) {
+            text = sourceText.getText(start, end);
+        }
+        return text;
+    }
+}
@@ -0,0 +1,35 @@
+package com.anczykowski.lexer;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+// [start, end) range of a source text, resolved to a string on demand (e.g. when an error is printed)
+@RequiredArgsConstructor
+public class SourceSnippet {
+
+    private final SourceText sourceText;
+
+    @Getter
+    private final int start;
+
+    @Getter
+    private final int end;
+
+    public static SourceSnippet of(String text) {
+        return new SourceSnippet(text::substring, 0, text.length());
+    }
+
+    public String getText() {
+        var text = sourceText.getText(start, end);
+        if (text.indexOf('\r') < 0) {
+            return text;
+        }
+        // raw source might use any of the supported line endings
+        return text.replace("\r\n", "\n").replace("\n\r", "\n").replace('\r', '\n');
+    }
+
+    @Override
+    public String toString() {
+        return getText();
+    }
+}
@@ -0,0 +1,17 @@
+package com.anczykowski.lexer;
+
+// whole text of a source, kept once so that snippets are turned into strings only when needed
+@FunctionalInterface
+public interface SourceText {
+    String getText(int start, int end);
+
+    // whether every offset in [start, end) holds exactly one char, so that chars can be read without decoding
+    default boolean isCharAddressed(int start, int end) {
+        return false;
+    }
+
+    // only valid where isCharAddressed
+    default char charAt(int offset) {
+        return getText(offset, offset + 1).charAt(0);
+    }
+}
@@ -1,19 +1,34 @@
 package com.anczykowski.lexer;
 
-import lombok.Getter;
-
 public class StringToken extends Token {
-    public StringToken(TokenType type, Location location, String value) {
+    public StringToken(TokenType type, String filename, long position, CharSequence value) {
+        super(type, filename, position);
+        this.value = value;
+    }
+
+    public StringToken(TokenType type, Location location, CharSequence value) {
         super(type, location);
         this.value = value;
     }
 
-    @Getter
-    private final String value;
+    // usually a view of the source text, see SourceSlice
+    private CharSequence value;
+
+    public CharSequence getValueSequence() {
+        return value;
+    }
+
+    // creates an owned string on first use
+    public String getValue() {
+        if (!(value instanceof String)) {
+            value = value.toString();
+        }
+        return (String) value;
+    }
 
     @Override
     public String toString() {
-        var locationStr = super.location + "\t";
+        var locationStr = getLocation() + "\t";
         return locationStr + "StringToken(type=" + this.type + ", value=[" + this.value + "])";
     }
 }
@@ -0,0 +1,83 @@
+package com.anczykowski.lexer;
+
+import java.util.Arrays;
+
+// interns identifiers of a program straight from the scanned characters and gives each a dense id,
+// a String is created only for the first occurrence
+public class SymbolTable {
+
+    // symbol id of nodes and tokens that were not resolved against a table (e.g. built by hand)
+    public static final int NO_SYMBOL = -1;
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    // open addressing slots holding symbol ids, NO_SYMBOL marks an empty slot
+    private int[] slots = newSlots(INITIAL_CAPACITY);
+
+    private String[] names = new String[INITIAL_CAPACITY / 2];
+
+    private int size = 0;
+
+    public String intern(CharSequence characters) {
+        return getName(getId(characters));
+    }
+
+    public int getId(CharSequence characters) {
+        int hash = hash(characters);
+        int mask = slots.length - 1;
+        int index = hash & mask;
+        int id;
+        while ((id = slots[index]) != NO_SYMBOL) {
+            var name = names[id];
+            if (name.hashCode() == hash && name.contentEquals(characters)) {
+                return id;
+            }
+            index = (index + 1) & mask;
+        }
+        id = size++;
+        if (id == names.length) {
+            names = Arrays.copyOf(names, names.length * 2);
+        }
+        names[id] = characters.toString();
+        slots[index] = id;
+        if (size * 2 > slots.length) {
+            grow();
+        }
+        return id;
+    }
+
+    public String getName(int id) {
+        return names[id];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // same as String.hashCode, so that stored names can be compared by their cached hash first
+    private static int hash(CharSequence characters) {
+        int hash = 0;
+        for (int i = 0; i < characters.length(); ++i) {
+            hash = 31 * hash + characters.charAt(i);
+        }
+        return hash;
+    }
+
+    private static int[] newSlots(int capacity) {
+        var slots = new int[capacity];
+        Arrays.fill(slots, NO_SYMBOL);
+        return slots;
+    }
+
+    private void grow() {
+        slots = newSlots(slots.length * 2);
+        int mask = slots.length - 1;
+        for (int id = 0; id < size; ++id) {
+            int index = names[id].hashCode() & mask;
+            while (slots[index] != NO_SYMBOL) {
+                index = (index + 1) & mask;
+            }
+            slots[index] = id;
+        }
+    }
+}
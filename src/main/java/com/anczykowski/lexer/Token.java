@@ -2,18 +2,35 @@ package com.anczykowski.lexer;
 
 
 import lombok.Getter;
-import lombok.RequiredArgsConstructor;
 
-@RequiredArgsConstructor
 public class Token {
     @Getter
     protected final TokenType type;
 
+    // shared by all tokens of a source
     @Getter
-    protected final Location location;
+    protected final String filename;
+
+    // see Position
+    @Getter
+    protected final long position;
+
+    public Token(TokenType type, String filename, long position) {
+        this.type = type;
+        this.filename = filename;
+        this.position = position;
+    }
+
+    public Token(TokenType type, Location location) {
+        this(type, location.getFilename(), Position.of(location));
+    }
+
+    public Location getLocation() {
+        return Position.toLocation(filename, position);
+    }
 
     public String toString() {
-        var locationStr = location + "\t";
+        var locationStr = getLocation() + "\t";
         return locationStr + "Token(type=" + this.type + ")";
     }
 }
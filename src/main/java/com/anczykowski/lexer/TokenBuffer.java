@@ -0,0 +1,389 @@
+package com.anczykowski.lexer;
+
+import java.util.Arrays;
+import java.util.function.Predicate;
+
+import com.anczykowski.errormodule.ErrorModule;
+
+// whole input lexed up front into parallel primitive arrays, the lexer writes into them and the parser reads from them
+// by index; Token objects are created only when asked for; besides sequential Lexer access it allows peeking any
+// number of tokens ahead and rewinding to a mark
+public class TokenBuffer implements Lexer {
+
+    private static final TokenType[] TOKEN_TYPES = TokenType.values();
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    private final SourceText sourceText;
+
+    private final String filename;
+
+    private SymbolTable symbolTable;
+
+    private final LineTable lineTable;
+
+    private byte[] types = new byte[INITIAL_CAPACITY];
+
+    private int[] startOffsets = new int[INITIAL_CAPACITY];
+
+    private int[] lengths = new int[INITIAL_CAPACITY];
+
+    // see Position
+    private long[] positions = new long[INITIAL_CAPACITY];
+
+    // integer values, float bits, symbol ids or indexes into strings or wideValues, depending on the token type
+    private int[] values = new int[INITIAL_CAPACITY];
+
+    // source position right after the token was lexed (what the streaming lexer reports as current location)
+    private long[] afterPositions = new long[INITIAL_CAPACITY];
+
+    private int[] afterEndOffsets = new int[INITIAL_CAPACITY];
+
+    private CharSequence[] strings = new CharSequence[16];
+
+    private int stringCount = 0;
+
+    // long values and double bits
+    private long[] wideValues = new long[16];
+
+    private int wideValueCount = 0;
+
+    private int size = 0;
+
+    private int position = -1;
+
+    private Token materializedToken;
+
+    private int materializedPosition = -1;
+
+    TokenBuffer(SourceText sourceText, String filename, SymbolTable symbolTable, LineTable lineTable) {
+        this.sourceText = sourceText;
+        this.filename = filename;
+        this.symbolTable = symbolTable;
+        this.lineTable = lineTable;
+    }
+
+    public static TokenBuffer lex(Source source, ErrorModule errorModule, SymbolTable symbolTable,
+                                  Predicate<TokenType> typeFilter) {
+        return lex(source, errorModule, symbolTable, TriviaPolicy.KEEP, typeFilter);
+    }
+
+    public static TokenBuffer lex(Source source, ErrorModule errorModule, SymbolTable symbolTable, TriviaPolicy triviaPolicy,
+                                  Predicate<TokenType> typeFilter) {
+        var lineTable = new LineTable();
+        source.setLineTable(lineTable);
+        var buffer = new TokenBuffer(source.getSourceText(), source.getFilename(), symbolTable, lineTable);
+        new LexerImpl(source, errorModule, symbolTable, triviaPolicy).lexInto(buffer, typeFilter);
+        source.setLineTable(null);
+        return buffer;
+    }
+
+    // value is a symbol id, a number or the raw bits of one, text the value of a string or comment
+    void add(TokenType type, int startOffset, int endOffset, long position, long value, CharSequence text,
+             long afterPosition, int afterEndOffset) {
+        if (size == types.length) {
+            grow();
+        }
+        types[size] = (byte) type.ordinal();
+        startOffsets[size] = startOffset;
+        lengths[size] = endOffset - startOffset;
+        positions[size] = position;
+        values[size] = switch (type) {
+            case IDENTIFIER, INTEGER_NUMBER, FLOAT_NUMBER -> (int) value;
+            case LONG_NUMBER, DOUBLE_NUMBER -> addWideValue(value);
+            case STRING, COMMENT -> addString(text);
+            default -> 0;
+        };
+        afterPositions[size] = afterPosition;
+        afterEndOffsets[size] = afterEndOffset;
+        ++size;
+    }
+
+    // appends tokens lexed from the next part of the same input, starting at given offset of it; the EOF of the
+    // previous part is dropped and symbolIds translate the part's symbol ids into this buffer's symbol table
+    void append(TokenBuffer part, int startOffset, int[] symbolIds) {
+        if (size > 0 && getType(size - 1) == TokenType.EOF) {
+            --size;
+            var last = size - 1;
+            // the previous part ended while the lexer was reading past its last token (e.g. an unclosed string
+            // consumes its newline), on the whole input it would have read the first character of this part,
+            // parts start with an ASCII character
+            if (last >= 0 && afterEndOffsets[last] == startOffset && startOffsets[last] + lengths[last] == startOffset) {
+                afterEndOffsets[last] = startOffset + 1;
+            }
+        }
+        while (size + part.size > types.length) {
+            grow();
+        }
+        var stringBase = stringCount;
+        var wideValueBase = wideValueCount;
+        for (int i = 0; i < part.size; ++i) {
+            var type = part.getType(i);
+            var value = part.values[i];
+            if (type == TokenType.IDENTIFIER) {
+                value = symbolIds[value];
+            } else if (type == TokenType.STRING || type == TokenType.COMMENT) {
+                value += stringBase;
+            } else if (type == TokenType.LONG_NUMBER || type == TokenType.DOUBLE_NUMBER) {
+                value += wideValueBase;
+            }
+            types[size] = part.types[i];
+            startOffsets[size] = part.startOffsets[i] + startOffset;
+            lengths[size] = part.lengths[i];
+            positions[size] = part.positions[i];
+            values[size] = value;
+            afterPositions[size] = part.afterPositions[i];
+            afterEndOffsets[size] = part.afterEndOffsets[i] + startOffset;
+            ++size;
+        }
+        if (stringCount + part.stringCount > strings.length) {
+            strings = Arrays.copyOf(strings, stringCount + part.stringCount);
+        }
+        System.arraycopy(part.strings, 0, strings, stringCount, part.stringCount);
+        stringCount += part.stringCount;
+        if (wideValueCount + part.wideValueCount > wideValues.length) {
+            wideValues = Arrays.copyOf(wideValues, wideValueCount + part.wideValueCount);
+        }
+        System.arraycopy(part.wideValues, 0, wideValues, wideValueCount, part.wideValueCount);
+        wideValueCount += part.wideValueCount;
+        lineTable.append(part.lineTable, startOffset);
+    }
+
+    // moves identifiers to another symbol table, so that separately lexed files can share one table; ids are given out
+    // in the order of first occurrence in this buffer
+    public void moveTo(SymbolTable target) {
+        var symbolIds = new int[symbolTable.size()];
+        for (int id = 0; id < symbolIds.length; ++id) {
+            symbolIds[id] = target.getId(symbolTable.getName(id));
+        }
+        for (int i = 0; i < size; ++i) {
+            if (getType(i) == TokenType.IDENTIFIER) {
+                values[i] = symbolIds[values[i]];
+            }
+        }
+        symbolTable = target;
+    }
+
+    private int addString(CharSequence text) {
+        if (stringCount == strings.length) {
+            strings = Arrays.copyOf(strings, stringCount * 2);
+        }
+        strings[stringCount] = text;
+        return stringCount++;
+    }
+
+    private int addWideValue(long value) {
+        if (wideValueCount == wideValues.length) {
+            wideValues = Arrays.copyOf(wideValues, wideValueCount * 2);
+        }
+        wideValues[wideValueCount] = value;
+        return wideValueCount++;
+    }
+
+    private void grow() {
+        var capacity = types.length * 2;
+        types = Arrays.copyOf(types, capacity);
+        startOffsets = Arrays.copyOf(startOffsets, capacity);
+        lengths = Arrays.copyOf(lengths, capacity);
+        positions = Arrays.copyOf(positions, capacity);
+        values = Arrays.copyOf(values, capacity);
+        afterPositions = Arrays.copyOf(afterPositions, capacity);
+        afterEndOffsets = Arrays.copyOf(afterEndOffsets, capacity);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getPosition() {
+        return position;
+    }
+
+    public TokenType getType(int index) {
+        return TOKEN_TYPES[types[index]];
+    }
+
+    // raw source text of the token
+    public String getText(int index) {
+        return sourceText.getText(startOffsets[index], startOffsets[index] + lengths[index]);
+    }
+
+    // type of the token k positions after the current one, everything past the end is EOF
+    public TokenType peek(int k) {
+        return getType(Math.min(position + k, size - 1));
+    }
+
+    public int mark() {
+        return position;
+    }
+
+    public void reset(int mark) {
+        position = mark;
+    }
+
+    @Override
+    public Token getNextToken() {
+        advance();
+        return getCurrentToken();
+    }
+
+    @Override
+    public void advance() {
+        if (position < size - 1) {
+            ++position;
+        }
+    }
+
+    @Override
+    public Token getCurrentToken() {
+        if (position < 0) {
+            return null;
+        }
+        if (materializedPosition != position) {
+            materializedToken = materialize(position);
+            materializedPosition = position;
+        }
+        return materializedToken;
+    }
+
+    @Override
+    public TokenType getCurrentTokenType() {
+        return position < 0 ? null : getType(position);
+    }
+
+    private Token materialize(int index) {
+        var type = getType(index);
+        return switch (type) {
+            case LONG_NUMBER, DOUBLE_NUMBER -> LexerImpl.createToken(type, filename, positions[index],
+                wideValues[values[index]], null, symbolTable);
+            case STRING, COMMENT -> LexerImpl.createToken(type, filename, positions[index], 0, strings[values[index]],
+                symbolTable);
+            default -> LexerImpl.createToken(type, filename, positions[index], values[index], null, symbolTable);
+        };
+    }
+
+    @Override
+    public long getCurrentTokenPosition() {
+        return positions[position];
+    }
+
+    @Override
+    public String getCurrentText() {
+        if (getType(position) == TokenType.IDENTIFIER) {
+            return symbolTable.getName(values[position]);
+        }
+        var index = values[position];
+        if (!(strings[index] instanceof String)) {
+            strings[index] = strings[index].toString();
+        }
+        return (String) strings[index];
+    }
+
+    @Override
+    public int getCurrentSymbolId() {
+        return getType(position) == TokenType.IDENTIFIER ? values[position] : SymbolTable.NO_SYMBOL;
+    }
+
+    @Override
+    public int getCurrentIntValue() {
+        return values[position];
+    }
+
+    @Override
+    public long getCurrentLongValue() {
+        return wideValues[values[position]];
+    }
+
+    @Override
+    public float getCurrentFloatValue() {
+        return Float.intBitsToFloat(values[position]);
+    }
+
+    @Override
+    public double getCurrentDoubleValue() {
+        return Double.longBitsToDouble(wideValues[values[position]]);
+    }
+
+    @Override
+    public Location getCurrentLocation() {
+        return Position.toLocation(filename, getCurrentPosition());
+    }
+
+    @Override
+    public Location getPreviousLocation() {
+        return Position.toLocation(filename, getPreviousPosition());
+    }
+
+    @Override
+    public long getCurrentPosition() {
+        return position < 0 ? Position.of(1, 0) : afterPositions[position];
+    }
+
+    @Override
+    public long getPreviousPosition() {
+        var line = currentLine();
+        if (line == 1) {
+            // same as the source before its first newline
+            return Position.of(1, 0);
+        }
+        return Position.of(line - 1, lineTable.getEndColumn(line - 1));
+    }
+
+    @Override
+    public String getFilename() {
+        return filename;
+    }
+
+    @Override
+    public String getCharacterBuffer() {
+        return lastCodePoints(sourceText.getText(lineTable.getStartOffset(currentLine()), currentEndOffset()));
+    }
+
+    @Override
+    public String getEffectiveCharacterBuffer() {
+        var line = currentLine();
+        var previousLine = "";
+        if (line > 1) {
+            var previousLineText = sourceText.getText(lineTable.getStartOffset(line - 1), lineTable.getStartOffset(line));
+            previousLine = lastCodePoints(withoutLineEnding(previousLineText));
+        }
+        return previousLine + "\n" + getCharacterBuffer();
+    }
+
+    @Override
+    public SourceSnippet getSnippet() {
+        return new SourceSnippet(sourceText, lineTable.getStartOffset(currentLine()), currentEndOffset());
+    }
+
+    @Override
+    public SourceSnippet getEffectiveSnippet() {
+        var line = currentLine();
+        var start = line > 1 ? lineTable.getStartOffset(line - 1) : 0;
+        return new SourceSnippet(sourceText, start, currentEndOffset());
+    }
+
+    private int currentLine() {
+        return Position.getLineNumber(getCurrentPosition());
+    }
+
+    private int currentEndOffset() {
+        return position < 0 ? 0 : afterEndOffsets[position];
+    }
+
+    private static String withoutLineEnding(String line) {
+        var end = line.length();
+        while (end > 0 && (line.charAt(end - 1) == '\n' || line.charAt(end - 1) == '\r')) {
+            --end;
+        }
+        return line.substring(0, end);
+    }
+
+    // the streaming source keeps only the last LINE_BUFFER_LIMIT characters of a line
+    private static String lastCodePoints(String text) {
+        var codePointCount = text.codePointCount(0, text.length());
+        if (codePointCount <= Source.LINE_BUFFER_LIMIT) {
+            return text;
+        }
+        return text.substring(text.offsetByCodePoints(0, codePointCount - Source.LINE_BUFFER_LIMIT));
+    }
+}
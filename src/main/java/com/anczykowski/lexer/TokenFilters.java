@@ -7,4 +7,9 @@ public class TokenFilters {
     public static Predicate<Token> getCommentFilter() {
         return token -> !token.getType().equals(TokenType.COMMENT);
     }
+
+    // for lexers that filter before creating tokens, see TokenBuffer
+    public static Predicate<TokenType> getCommentTypeFilter() {
+        return type -> type != TokenType.COMMENT;
+    }
 }
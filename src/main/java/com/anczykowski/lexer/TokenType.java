@@ -5,6 +5,8 @@ public enum TokenType {
     IDENTIFIER,
     INTEGER_NUMBER,
     FLOAT_NUMBER,
+    LONG_NUMBER,
+    DOUBLE_NUMBER,
     STRING,
     UNKNOWN,
     EOF,
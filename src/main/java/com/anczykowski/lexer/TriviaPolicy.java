@@ -0,0 +1,11 @@
+package com.anczykowski.lexer;
+
+// what the lexer does with comments
+public enum TriviaPolicy {
+    // comments produce no tokens, their text is passed over without being scanned character by character
+    SKIP,
+    // COMMENT tokens with the comment text, subject to the token length limit like strings
+    KEEP,
+    // COMMENT tokens only marking where the comment is in the source text, without the length limit
+    KEEP_OFFSETS
+}
@@ -0,0 +1,155 @@
+package com.anczykowski.parser;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import com.anczykowski.errormodule.ErrorElement;
+import com.anczykowski.errormodule.ErrorModule;
+import com.anczykowski.errormodule.ErrorType;
+import com.anczykowski.errormodule.exceptions.ParserException;
+import com.anczykowski.errormodule.exceptions.TooManyErrorsException;
+import com.anczykowski.lexer.ByteBufferSource;
+import com.anczykowski.lexer.Location;
+import com.anczykowski.lexer.SourceSnippet;
+import com.anczykowski.lexer.SymbolTable;
+import com.anczykowski.lexer.TokenBuffer;
+import com.anczykowski.lexer.TriviaPolicy;
+import com.anczykowski.parser.structures.ClassDef;
+import com.anczykowski.parser.structures.FuncDef;
+import com.anczykowski.parser.structures.Program;
+
+// lexes and parses many files on the common fork-join pool, every file with its own source, lexer, parser and part of
+// the error module; files are lexed into their own symbol tables, moved into the shared one in the order of files and
+// then parsed, so symbol ids, errors and the merged program do not depend on scheduling; errors of a file are handed
+// over as soon as it and the files before it are parsed, and all files abort together once their errors add up to the
+// threshold
+public class ParallelParser {
+
+    private record FileResult(ErrorModule errorModule, TokenBuffer tokens, Program program, boolean failed,
+                              boolean aborted) {
+
+        FileResult parsed(Program program, boolean failed, boolean aborted) {
+            return new FileResult(errorModule, tokens, program, failed, aborted);
+        }
+    }
+
+    public static Program parse(List<Path> paths, ErrorModule errorModule, SymbolTable symbolTable)
+        throws IOException, ParserException {
+        return parse(paths, errorModule, symbolTable, false);
+    }
+
+    // see Parser.setStackSafe
+    public static Program parse(List<Path> paths, ErrorModule errorModule, SymbolTable symbolTable, boolean isStackSafe)
+        throws IOException, ParserException {
+        var lexed = paths.stream()
+            .map(path -> CompletableFuture.supplyAsync(() -> lex(path, errorModule)))
+            .toList();
+
+        // the shared table is only read while files are parsed
+        var results = new ArrayList<FileResult>(lexed.size());
+        for (var future : lexed) {
+            var result = join(future);
+            if (result.tokens() != null) {
+                result.tokens().moveTo(symbolTable);
+            }
+            results.add(result);
+        }
+
+        var parsed = results.stream()
+            .map(result -> CompletableFuture.supplyAsync(() -> parse(result, isStackSafe)))
+            .toList();
+
+        HashMap<String, FuncDef> functions = new HashMap<>();
+        HashMap<String, ClassDef> classes = new HashMap<>();
+        var failed = false;
+        var aborted = false;
+        for (var future : parsed) {
+            var result = join(future);
+            errorModule.addPartErrors(result.errorModule());
+            failed |= result.failed();
+            aborted |= result.aborted();
+            if (result.program() != null) {
+                merge(result.program(), functions, classes, errorModule);
+            }
+        }
+        if (aborted) {
+            throw new TooManyErrorsException();
+        }
+        if (failed) {
+            throw new ParserException();
+        }
+        return new Program(functions, classes);
+    }
+
+    private static FileResult join(CompletableFuture<FileResult> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException ioException) {
+                throw ioException.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
+    private static FileResult lex(Path path, ErrorModule errorModule) {
+        var fileErrors = errorModule.createPart();
+        try (var source = ByteBufferSource.ofFile(fileErrors, path)) {
+            var tokens = TokenBuffer.lex(source, fileErrors, new SymbolTable(), TriviaPolicy.SKIP, type -> true);
+            return new FileResult(fileErrors, tokens, null, false, false);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (TooManyErrorsException e) {
+            return new FileResult(fileErrors, null, null, false, true);
+        }
+    }
+
+    private static FileResult parse(FileResult result, boolean isStackSafe) {
+        if (result.tokens() == null) {
+            return result;
+        }
+        try {
+            var parser = new Parser(result.tokens(), result.errorModule());
+            parser.setStackSafe(isStackSafe);
+            return result.parsed(parser.parse(), false, false);
+        } catch (ParserException e) {
+            return result.parsed(null, true, false);
+        } catch (TooManyErrorsException e) {
+            return result.parsed(null, false, true);
+        }
+    }
+
+    // the first definition wins, later ones are reported where they are
+    private static void merge(Program program, HashMap<String, FuncDef> functions, HashMap<String, ClassDef> classes,
+                              ErrorModule errorModule) {
+        for (var function : program.getFunctions().values()) {
+            if (functions.putIfAbsent(function.getName(), function) != null) {
+                reportAlreadyDeclared(function.getName(), function.getLocation(), function.getSnippet(), errorModule);
+            }
+        }
+        for (var classDef : program.getClasses().values()) {
+            if (classes.putIfAbsent(classDef.getName(), classDef) != null) {
+                reportAlreadyDeclared(classDef.getName(), classDef.getLocation(), classDef.getSnippet(), errorModule);
+            }
+        }
+    }
+
+    private static void reportAlreadyDeclared(String identifier, Location location, SourceSnippet snippet,
+                                              ErrorModule errorModule) {
+        errorModule.addError(ErrorElement.builder()
+            .errorType(ErrorType.ALREADY_DECLARED)
+            .location(location)
+            .codeSnippet(snippet)
+            .underlineFragment(identifier)
+            .build());
+    }
+}
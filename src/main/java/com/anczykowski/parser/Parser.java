@@ -12,6 +12,7 @@ import com.anczykowski.parser.structures.statements.*;
 import lombok.RequiredArgsConstructor;
 
 import java.util.*;
+import java.util.function.Function;
 
 @SuppressWarnings("StatementWithEmptyBody")
 @RequiredArgsConstructor
@@ -20,12 +21,21 @@ public class Parser {
 
     final ErrorModule errorModule;
 
+    // nested code blocks and parenthesized expressions are kept on an explicit stack instead of the thread stack
+    private boolean isStackSafe = false;
+
+    // for generated code, blocks, parentheses and call arguments can then be nested as deep as memory allows; the
+    // visitors walking the tree still recurse, which is why Main only turns it on with --stack-safe
+    public void setStackSafe(boolean stackSafe) {
+        isStackSafe = stackSafe;
+    }
+
     // program = { func_def | class_def };
     public Program parse() throws ParserException {
         HashMap<String, FuncDef> functions = new HashMap<>();
         HashMap<String, ClassDef> classes = new HashMap<>();
 
-        lexer.getNextToken();
+        lexer.advance();
 
         while (parseFunDef(functions) || parseClassDef(classes)) {
         }
@@ -44,13 +54,15 @@ public class Parser {
             return false;
         }
 
-        var classIdentifier = ((StringToken) lexer.getCurrentToken()).getValue();
+        var classIdentifier = lexer.getCurrentText();
+        var classPosition = lexer.getCurrentTokenPosition();
+        var classSnippet = lexer.getSnippet();
 
         if (classes.containsKey(classIdentifier)) {
             reportAlreadyDeclared(classIdentifier);
         }
 
-        lexer.getNextToken();
+        lexer.advance();
 
         var classBody = parseClassBody();
 
@@ -58,7 +70,7 @@ public class Parser {
             reportUnexpectedToken(classIdentifier, "expected class body after class identifier");
         }
 
-        classes.put(classIdentifier, new ClassDef(classIdentifier, classBody));
+        classes.put(classIdentifier, new ClassDef(classIdentifier, classBody, lexer.getFilename(), classPosition, classSnippet));
 
         return true;
     }
@@ -96,14 +108,15 @@ public class Parser {
             return null;
         }
 
-        var varIdentifier = ((StringToken) lexer.getCurrentToken()).getValue();
+        var varIdentifier = lexer.getCurrentText();
+        var varSymbolId = lexer.getCurrentSymbolId();
 
         if (variables.containsKey(varIdentifier)) {
             reportAlreadyDeclared(varIdentifier);
             return null;
         }
 
-        lexer.getNextToken();
+        lexer.advance();
 
         if (!consumeIf(TokenType.ASSIGNMENT)) {
             reportUnexpectedToken(varIdentifier, "expected '=' after identifier in var statement");
@@ -116,7 +129,7 @@ public class Parser {
             throw new ParserException();
         }
 
-        varStmt = new VarStmt(varIdentifier, expr, lexer.getPreviousLocation().clone(), lexer.getEffectiveCharacterBuffer());
+        varStmt = new VarStmt(varIdentifier, expr, lexer.getFilename(), lexer.getPreviousPosition(), lexer.getEffectiveSnippet(), varSymbolId);
 
         variables.put(varIdentifier, varStmt);
 
@@ -134,9 +147,12 @@ public class Parser {
             return false;
         }
 
-        var funIdentifier = ((StringToken) lexer.getCurrentToken()).getValue();
+        var funIdentifier = lexer.getCurrentText();
+        var funSymbolId = lexer.getCurrentSymbolId();
+        var funPosition = lexer.getCurrentTokenPosition();
+        var funSnippet = lexer.getSnippet();
 
-        lexer.getNextToken();
+        lexer.advance();
 
         if (!consumeIf(TokenType.LPAREN)) {
             reportUnexpectedToken(funIdentifier, "'(' expected after identifier in function definition");
@@ -159,12 +175,16 @@ public class Parser {
             reportAlreadyDeclared(funIdentifier);
             return false;
         }
-        functions.put(funIdentifier, new FuncDef(funIdentifier, params, codeBlock));
+        functions.put(funIdentifier, new FuncDef(funIdentifier, params, codeBlock, funSymbolId, lexer.getFilename(), funPosition,
+            funSnippet));
         return true;
     }
 
     // code_block  = "{", { non_ret_stmt | ret_stmt | obj_access, ["=", expr], ";" }, "}";
     protected CodeBLock parseCodeBlock() throws ParserException {
+        if (isStackSafe) {
+            return parseCodeBlockIteratively();
+        }
 
         if (!consumeIf(TokenType.LBRACE)) {
             return null;
@@ -180,7 +200,10 @@ public class Parser {
         ) {
         }
 
+        return closeCodeBlock(statements);
+    }
 
+    private CodeBLock closeCodeBlock(ArrayList<Statement> statements) {
         if (!consumeIf(TokenType.RBRACE)) {
             reportUnexpectedTokenWithExplanation("Expected '{' to close code block");
         }
@@ -188,6 +211,76 @@ public class Parser {
         return new CodeBLock(statements);
     }
 
+    // a code block whose '}' has not been reached yet, owned by the statement it belongs to
+    private record OpenBlock(PendingStatement owner, ArrayList<Statement> statements, HashMap<String, VarStmt> variables) {
+        OpenBlock(PendingStatement owner) {
+            this(owner, new ArrayList<>(), new HashMap<>());
+        }
+    }
+
+    // the rules of parseCodeBlock with open blocks kept on a stack: a statement that needs a block waits on the stack
+    // below it and gets the block when its '}' is reached
+    private CodeBLock parseCodeBlockIteratively() throws ParserException {
+        if (!consumeIf(TokenType.LBRACE)) {
+            return null;
+        }
+
+        var blocks = new ArrayDeque<OpenBlock>();
+        blocks.push(new OpenBlock(null));
+        var pending = parseStatementsUntilBlock(blocks.peek(), VAR_STMT);
+        while (true) {
+            var block = blocks.peek();
+            if (pending == null) {
+                var codeBlock = closeCodeBlock(block.statements());
+                blocks.pop();
+                if (blocks.isEmpty()) {
+                    return codeBlock;
+                }
+                pending = block.owner();
+                pending.acceptBlock(codeBlock);
+            } else if (pending.needsBlock()) {
+                if (consumeIf(TokenType.LBRACE)) {
+                    var nested = new OpenBlock(pending);
+                    blocks.push(nested);
+                    pending = parseStatementsUntilBlock(nested, VAR_STMT);
+                } else {
+                    pending.acceptBlock(null);
+                }
+            } else {
+                var statement = pending.finish();
+                if (statement != null) {
+                    block.statements().add(statement);
+                    pending = parseStatementsUntilBlock(block, VAR_STMT);
+                } else {
+                    pending = parseStatementsUntilBlock(block, pending.kind + 1);
+                }
+            }
+        }
+    }
+
+    // parses statements of the block up to the header of one that has code blocks, null at the end of the block;
+    // alternatives are tried in the order of parseNonRetStmt, starting after the one that just failed
+    private PendingStatement parseStatementsUntilBlock(OpenBlock block, int firstKind) throws ParserException {
+        var kind = firstKind;
+        while (true) {
+            if (kind == VAR_STMT) {
+                var varStmt = parseVarStmt(block.variables());
+                if (varStmt != null) {
+                    block.statements().add(varStmt);
+                    continue;
+                }
+            }
+            var pending = beginBlockStatement(Math.max(kind, COND_STMT));
+            if (pending != null) {
+                return pending;
+            }
+            if (!parseRetStmt(block.statements()) && !parseExprInsideCodeBlock(block.statements())) {
+                return null;
+            }
+            kind = VAR_STMT;
+        }
+    }
+
     // ret_stmt = "return", [expr], ";"
     protected boolean parseRetStmt(ArrayList<Statement> statementsAndExpressions) {
         if(!consumeIf(TokenType.RETURN_KEYWORD)){
@@ -214,12 +307,12 @@ public class Parser {
 
         Statement expressionStatement = null;
         if (consumeIf(TokenType.ASSIGNMENT)) {
-            var location = lexer.getCurrentLocation().clone();
+            var position = lexer.getCurrentPosition();
             var assignExpr = parseExpr();
             if (assignExpr == null) {
                 reportUnexpectedToken("=", "expected expression after '='");
             } else {
-                expressionStatement = new AssignmentStatement(expression, assignExpr, location, lexer.getEffectiveCharacterBuffer());
+                expressionStatement = new AssignmentStatement(expression, assignExpr, lexer.getFilename(), position, lexer.getEffectiveSnippet());
             }
         }
 
@@ -236,132 +329,236 @@ public class Parser {
         return true;
     }
 
-    // expr = and_expr, { "or", and_expr };
-    protected Expression parseExpr() {
-        var left = parseAndExpr();
-        if (left == null) return null;
+    // not generic, so that positions are not boxed
+    @FunctionalInterface
+    public interface LeftRightConstructor {
+        Expression apply(Expression left, Expression right, String filename, long position, SourceSnippet snippet);
+    }
 
-        while (consumeIf(TokenType.OR_KEYWORD)) {
-            var right = parseAndExpr();
-            if (right == null) {
-                reportUnexpectedToken("or", "expected expression after 'or' keyword");
-                continue;
-            }
-            left = new OrExpression(left, right);
+    private static final int OR_PRECEDENCE = 1;
+
+    private static final int AND_PRECEDENCE = 2;
+
+    private static final int REL_PRECEDENCE = 3;
+
+    private static final int ADD_PRECEDENCE = 4;
+
+    private static final int MULT_PRECEDENCE = 5;
+
+    // keyword is underlined when the right operand is missing, logical operators do not keep their location
+    private record BinaryOperator(int precedence, LeftRightConstructor constructor, String keyword, String explanation) {
+        boolean isRelation() {
+            return precedence == REL_PRECEDENCE;
         }
-        return left;
     }
 
-    // and_expr = rel_expr, { "and", rel_expr };
-    protected Expression parseAndExpr() {
-        var left = parseRelExpr();
-        if (left == null) return null;
+    private static final EnumMap<TokenType, BinaryOperator> binaryOps = createBinaryOps();
+
+    private static EnumMap<TokenType, BinaryOperator> createBinaryOps() {
+        var binaryOps = new EnumMap<TokenType, BinaryOperator>(TokenType.class);
+        binaryOps.put(TokenType.OR_KEYWORD, new BinaryOperator(OR_PRECEDENCE, (left, right, filename, position, snippet) ->
+            new OrExpression(left, right), "or", "expected expression after 'or' keyword"));
+        binaryOps.put(TokenType.AND_KEYWORD, new BinaryOperator(AND_PRECEDENCE, (left, right, filename, position, snippet) ->
+            new AndExpr(left, right), "and", "expected expression after 'and' keyword"));
+        binaryOps.put(TokenType.EQ, relOp(EqRelExpr::new));
+        binaryOps.put(TokenType.NE, relOp(NeRelExpr::new));
+        binaryOps.put(TokenType.LT, relOp(LtRelExpr::new));
+        binaryOps.put(TokenType.LE, relOp(LeRelExpr::new));
+        binaryOps.put(TokenType.GT, relOp(GtRelExpr::new));
+        binaryOps.put(TokenType.GE, relOp(GeRelExpr::new));
+        binaryOps.put(TokenType.PLUS, addOp(AdditionTerm::new));
+        binaryOps.put(TokenType.MINUS, addOp(SubtractionTerm::new));
+        binaryOps.put(TokenType.ASTERISK, multOp(MultiplicationFactor::new));
+        binaryOps.put(TokenType.SLASH, multOp(DivisionFactor::new));
+        return binaryOps;
+    }
 
-        while (consumeIf(TokenType.AND_KEYWORD)) {
-            var right = parseRelExpr();
-            if (right == null) {
-                reportUnexpectedToken("and", "expected expression after 'and' keyword");
-                continue;
-            }
-            left = new AndExpr(left, right);
-        }
-        return left;
+    private static BinaryOperator relOp(LeftRightConstructor constructor) {
+        return new BinaryOperator(REL_PRECEDENCE, constructor, null, "expected expression after relation operator");
     }
 
-    @FunctionalInterface
-    public interface FourParameterFunction<T, U, V, W, R> {
-        R apply(T t, U u, V v, W w);
+    private static BinaryOperator addOp(LeftRightConstructor constructor) {
+        return new BinaryOperator(ADD_PRECEDENCE, constructor, null, "expected expression after additive operator");
     }
 
-    private static final Map<TokenType, FourParameterFunction<Expression, Expression, Location, String, Expression>> relOps = Map.of(
-        TokenType.EQ, EqRelExpr::new,
-        TokenType.NE, NeRelExpr::new,
-        TokenType.LT, LtRelExpr::new,
-        TokenType.LE, LeRelExpr::new,
-        TokenType.GT, GtRelExpr::new,
-        TokenType.GE, GeRelExpr::new
-    );
+    private static BinaryOperator multOp(LeftRightConstructor constructor) {
+        return new BinaryOperator(MULT_PRECEDENCE, constructor, null, "expected expression after multiplicative operator");
+    }
+
+    // expr = and_expr, { "or", and_expr };
+    protected Expression parseExpr() {
+        return parseBinaryExpr(OR_PRECEDENCE);
+    }
+
+    // and_expr = rel_expr, { "and", rel_expr };
+    protected Expression parseAndExpr() {
+        return parseBinaryExpr(AND_PRECEDENCE);
+    }
 
     // rel_expr = add_expr, [rel_operator, add_expr];
     protected Expression parseRelExpr() {
-        var left = parseAddExpr();
-        if (left == null) return null;
+        return parseBinaryExpr(REL_PRECEDENCE);
+    }
 
+    // add_expr = term, { add_op, term };
+    protected Expression parseAddExpr() {
+        return parseBinaryExpr(ADD_PRECEDENCE);
+    }
 
+    // term = factor, { mult_op, factor };
+    protected Expression parseTerm() {
+        return parseBinaryExpr(MULT_PRECEDENCE);
+    }
 
-        FourParameterFunction<Expression, Expression, Location, String, Expression> relOpConstructor;
-        if ((relOpConstructor = relOps.get(lexer.getCurrentToken().getType())) != null) {
-            lexer.getNextToken();
-            var location = lexer.getCurrentLocation().clone();
-            var right = parseAddExpr();
-            if (right == null) {
-                reportUnexpectedTokenWithExplanation("expected expression after relation operator");
-                return left;
-            }
-            left = relOpConstructor.apply(left, right, location, lexer.getEffectiveCharacterBuffer());
+    // precedence climbing over the rules above: operators of one level are folded to the left in a loop and only a
+    // tighter binding operator recurses, so the depth is bounded by the number of levels instead of the chain length
+    private Expression parseBinaryExpr(int minPrecedence) {
+        if (isStackSafe) {
+            return parseBinaryExprIteratively(minPrecedence);
+        }
+        var level = new BinaryLevel(minPrecedence);
+        level.accept(parseFactor());
+        while (level.nextOperator()) {
+            level.accept(parseBinaryExpr(level.operator.precedence() + 1));
         }
+        return level.left;
+    }
 
-        if (relOps.containsKey(lexer.getCurrentToken().getType())) {
-            reportUnsupportedChaining();
-            // consume all unsupported chains (e.g.: a > b > c)
-            while (relOps.containsKey(lexer.getCurrentToken().getType()) || parseAddExpr() != null) {
-                if (relOps.containsKey(lexer.getCurrentToken().getType())) {
-                    lexer.getNextToken();
+    // the rules of parseBinaryExpr and parseFactor with levels kept on a stack: a level waits there for the right
+    // operand of its operator, for its first operand when that one is parenthesized, or for the next argument of a
+    // call in its first operand
+    private Expression parseBinaryExprIteratively(int minPrecedence) {
+        var levels = new ArrayDeque<BinaryLevel>();
+        var level = new BinaryLevel(minPrecedence);
+        // operand of the level popped last, the level below resumes with it
+        Expression operand = null;
+        var isResumed = false;
+        while (true) {
+            if (!isResumed) {
+                level.isNegated = consumeIf(TokenType.MINUS) || consumeIf(TokenType.NOT_KEYWORD);
+                parseFactorInner(level);
+                if (level.inner == null && level.call == null && consumeIf(TokenType.LPAREN)) {
+                    levels.push(level);
+                    level = new BinaryLevel(OR_PRECEDENCE);
+                    continue;
                 }
+            } else if (level.operator != null) {
+                level.accept(operand);
+            } else if (level.call != null) {
+                continueFactorInner(level, completeArg(level.call.isByRef, operand));
+            } else {
+                level.inner = closeParenthesized(operand);
             }
-            return left;
+            isResumed = false;
+            if (level.call != null) {
+                level.call.isByRef = consumeIf(TokenType.REF_KEYWORD);
+                levels.push(level);
+                level = new BinaryLevel(OR_PRECEDENCE);
+                continue;
+            }
+            if (level.operator == null) {
+                level.accept(completeFactor(level.isNegated, level.inner));
+            }
+            if (level.nextOperator()) {
+                levels.push(level);
+                level = new BinaryLevel(level.operator.precedence() + 1);
+                continue;
+            }
+            if (levels.isEmpty()) {
+                return level.left;
+            }
+            operand = level.left;
+            level = levels.pop();
+            isResumed = true;
         }
-
-        return left;
     }
 
-    private static final Map<TokenType, FourParameterFunction<Expression, Expression, Location, String, Expression>> addOps = Map.of(
-            TokenType.PLUS, AdditionTerm::new,
-            TokenType.MINUS, SubtractionTerm::new
-    );
+    // one level of precedence climbing, kept in an object so that the stack-safe mode can suspend it
+    private final class BinaryLevel {
+        private final int minPrecedence;
 
+        // null when the first operand is missing, the level then yields null
+        private Expression left = null;
 
-    // add_expr = term, { add_op, term };
-    protected Expression parseAddExpr() {
-        var left = parseTerm();
-        if (left == null) return null;
-
-        FourParameterFunction<Expression, Expression, Location, String, Expression> addOpConstructor;
-        while ((addOpConstructor = addOps.get(lexer.getCurrentToken().getType())) != null) {
-            lexer.getNextToken();
-            var location = lexer.getCurrentLocation().clone();
-            var right = parseTerm();
-            if (right == null) {
-                reportUnexpectedTokenWithExplanation("expected expression after additive operator");
-                continue;
-            }
-            left = addOpConstructor.apply(left, right, location, lexer.getEffectiveCharacterBuffer());
+        // operator waiting for its right operand, null before the first one
+        private BinaryOperator operator = null;
+
+        private long position;
+
+        // a relation takes a single operator and must come before any logical one
+        private boolean afterRelation = false;
+
+        private boolean relationClosed = false;
+
+        // negation of the first operand
+        private boolean isNegated = false;
+
+        // factor_inner of the first operand, complete once call is null
+        private Expression inner = null;
+
+        // obj_access children of the first operand so far, null when it is not an obj_access
+        private ArrayDeque<Expression> accessChildren = null;
+
+        // call in the first operand waiting for its next argument
+        private PendingCall call = null;
+
+        private BinaryLevel(int minPrecedence) {
+            this.minPrecedence = minPrecedence;
         }
-        return left;
-    }
 
-    private static final Map<TokenType, FourParameterFunction<Expression, Expression, Location, String, Expression>> multOps = Map.of(
-            TokenType.ASTERISK, MultiplicationFactor::new,
-            TokenType.SLASH, DivisionFactor::new
-    );
+        // consumes the next operator of this level, false when the level is complete
+        private boolean nextOperator() {
+            if (left == null) {
+                return false;
+            }
+            BinaryOperator next;
+            while ((next = binaryOps.get(lexer.getCurrentTokenType())) != null && next.precedence() >= minPrecedence) {
+                if (next.isRelation() && afterRelation) {
+                    reportUnsupportedChaining();
+                    // consume all unsupported chains (e.g.: a > b > c)
+                    while (isRelation(lexer.getCurrentTokenType()) || parseAddExpr() != null) {
+                        if (isRelation(lexer.getCurrentTokenType())) {
+                            lexer.advance();
+                        }
+                    }
+                    afterRelation = false;
+                    relationClosed = true;
+                    continue;
+                }
+                if (next.isRelation() && relationClosed) {
+                    break;
+                }
+                lexer.advance();
+                position = lexer.getCurrentPosition();
+                operator = next;
+                return true;
+            }
+            return false;
+        }
 
-    // term = factor, { mult_op, factor };
-    protected Expression parseTerm() {
-        var left = parseFactor();
-        if (left == null) return null;
-
-        FourParameterFunction<Expression, Expression, Location, String, Expression> multOpConstructor;
-        while ((multOpConstructor = multOps.get(lexer.getCurrentToken().getType())) != null) {
-            lexer.getNextToken();
-            var location = lexer.getCurrentLocation().clone();
-            var right = parseFactor();
-            if (right == null) {
-                reportUnexpectedTokenWithExplanation("expected expression after multiplicative operator");
-                continue;
+        private void accept(Expression operand) {
+            if (operator == null) {
+                left = operand;
+                return;
             }
-            left = multOpConstructor.apply(left, right, location, lexer.getEffectiveCharacterBuffer());
+            if (operand == null) {
+                if (operator.keyword() != null) {
+                    reportUnexpectedToken(operator.keyword(), operator.explanation());
+                } else {
+                    reportUnexpectedTokenWithExplanation(operator.explanation());
+                }
+                relationClosed |= operator.precedence() <= REL_PRECEDENCE;
+                return;
+            }
+            left = operator.constructor().apply(left, operand, lexer.getFilename(), position, lexer.getEffectiveSnippet());
+            afterRelation = operator.isRelation();
+            relationClosed |= operator.precedence() < REL_PRECEDENCE;
         }
-        return left;
+    }
+
+    private static boolean isRelation(TokenType tokenType) {
+        var operator = binaryOps.get(tokenType);
+        return operator != null && operator.isRelation();
     }
 
     // factor = ["not" | "-"], (factor_inner | "(", expr, ")"), ["as", (type | class_id)];
@@ -373,6 +570,10 @@ public class Parser {
             factor = parseExprParenthesized();
         }
 
+        return completeFactor(isNegated, factor);
+    }
+
+    private Expression completeFactor(boolean isNegated, Expression factor) {
         if (factor == null && !isNegated) {
             return null;
         }
@@ -387,14 +588,14 @@ public class Parser {
         }
 
         if (consumeIf(TokenType.AS_KEYWORD)) {
-            var location = lexer.getCurrentLocation().clone();
+            var position = lexer.getCurrentPosition();
             if (!peekIf(TokenType.IDENTIFIER)) {
                 reportUnexpectedToken("as", "expected identifier after 'as' keyboard");
                 return factor;
             }
-            var identifier = ((StringToken) lexer.getCurrentToken()).getValue();
-            lexer.getNextToken();
-            factor = new CastExpression(factor, identifier, location, lexer.getEffectiveCharacterBuffer());
+            var identifier = lexer.getCurrentText();
+            lexer.advance();
+            factor = new CastExpression(factor, identifier, lexer.getFilename(), position, lexer.getEffectiveSnippet());
         }
 
         return factor;
@@ -415,28 +616,82 @@ public class Parser {
         return inner;
     }
 
+    // factor_inner of the stack-safe mode, parsed up to the next call argument, which the level then waits for
+    private void parseFactorInner(BinaryLevel level) {
+        level.inner = parseConstant();
+        if (level.inner == null && peekIf(TokenType.IDENTIFIER)) {
+            level.accessChildren = new ArrayDeque<>();
+            continueObjAccess(level, parseIdentOrFunCall(level));
+            return;
+        }
+        if (level.inner == null) {
+            level.inner = parseString();
+        }
+        if (level.inner == null) {
+            level.call = openClassInit();
+        }
+    }
+
+    // hands a parsed argument to the call the level waits with, the factor_inner then goes on up to the next one
+    private void continueFactorInner(BinaryLevel level, Arg arg) {
+        if (level.call.addArg(arg)) {
+            return;
+        }
+        var call = level.call.close();
+        level.call = null;
+        if (level.accessChildren == null) {
+            level.inner = call;
+        } else {
+            continueObjAccess(level, call);
+        }
+    }
+
     protected Expression parseConstant() {
         Expression constant = parseFloatConstant();
         if (constant == null) {
             constant = parseIntegerConstant();
         }
+        if (constant == null) {
+            constant = parseLongConstant();
+        }
+        if (constant == null) {
+            constant = parseDoubleConstant();
+        }
         return constant;
     }
 
     protected FloatConstantExpr parseFloatConstant() {
         if (peekIf(TokenType.FLOAT_NUMBER)) {
-            var floatToken = (FloatToken) lexer.getCurrentToken();
-            lexer.getNextToken();
-            return new FloatConstantExpr(floatToken.getValue());
+            var value = lexer.getCurrentFloatValue();
+            lexer.advance();
+            return new FloatConstantExpr(value);
         }
         return null;
     }
 
     protected IntegerConstantExpr parseIntegerConstant() {
         if (peekIf(TokenType.INTEGER_NUMBER)) {
-            var integerToken = (IntegerToken) lexer.getCurrentToken();
-            lexer.getNextToken();
-            return new IntegerConstantExpr(integerToken.getValue());
+            var value = lexer.getCurrentIntValue();
+            lexer.advance();
+            return new IntegerConstantExpr(value);
+        }
+        return null;
+    }
+
+    protected LongConstantExpr parseLongConstant() {
+        if (peekIf(TokenType.LONG_NUMBER)) {
+            var value = lexer.getCurrentLongValue();
+            lexer.advance();
+            return new LongConstantExpr(value);
+        }
+        return null;
+    }
+
+    protected DoubleConstantExpr parseDoubleConstant() {
+        if (peekIf(TokenType.DOUBLE_NUMBER)) {
+            var value = lexer.getCurrentDoubleValue();
+            lexer.advance();
+            return new DoubleConstantExpr(value);
         }
         return null;
     }
@@ -454,17 +709,37 @@ public class Parser {
         var accessChildren = new ArrayDeque<Expression>();
         accessChildren.add(objAccess);
         while (consumeIf(TokenType.PERIOD)) {
-            var child = parseIdentOrFunCall();
-            if (child == null) {
-                reportUnexpectedToken(".", "expected identifier or function call after '.'");
-            } else {
-                accessChildren.add(child);
+            addAccessChild(accessChildren, parseIdentOrFunCall());
+        }
+
+        return foldObjAccess(accessChildren);
+    }
+
+    // obj_access of the stack-safe mode, continued after a child up to the next call argument
+    private void continueObjAccess(BinaryLevel level, Expression child) {
+        while (level.call == null) {
+            addAccessChild(level.accessChildren, child);
+            if (!consumeIf(TokenType.PERIOD)) {
+                level.inner = foldObjAccess(level.accessChildren);
+                level.accessChildren = null;
+                return;
             }
+            child = parseIdentOrFunCall(level);
         }
+    }
+
+    private void addAccessChild(ArrayDeque<Expression> accessChildren, Expression child) {
+        if (child == null) {
+            reportUnexpectedToken(".", "expected identifier or function call after '.'");
+        } else {
+            accessChildren.add(child);
+        }
+    }
 
+    private Expression foldObjAccess(ArrayDeque<Expression> accessChildren) {
         var lastChild = accessChildren.remove();
         for (var accessChild : accessChildren) {
-            lastChild = new ObjectAccessExpression(accessChild, lastChild, lexer.getPreviousLocation().clone(), lexer.getEffectiveCharacterBuffer());
+            lastChild = new ObjectAccessExpression(accessChild, lastChild, lexer.getFilename(), lexer.getPreviousPosition(), lexer.getEffectiveSnippet());
         }
 
         return lastChild;
@@ -472,45 +747,59 @@ public class Parser {
 
     // ident_or_fun_call  = identifier, ["(", [args], ")"];
     protected Expression parseIdentOrFunCall() {
+        return parseIdentOrFunCall(null);
+    }
+
+    // given a level (stack-safe mode) the arguments of a call are left to it and null is returned
+    private Expression parseIdentOrFunCall(BinaryLevel level) {
         if (!peekIf(TokenType.IDENTIFIER)) {
             return null;
         }
-        var identifier = ((StringToken) lexer.getCurrentToken()).getValue();
-        lexer.getNextToken();
+        var identifier = lexer.getCurrentText();
+        var symbolId = lexer.getCurrentSymbolId();
+        var identifierPosition = lexer.getCurrentTokenPosition();
+        lexer.advance();
         if (consumeIf(TokenType.LPAREN)) {
-            var args = parseArgs();
-            var location = lexer.getCurrentLocation().clone();
-            var characterBuffer = lexer.getCharacterBuffer();
-            if (!consumeIf(TokenType.RPAREN)) {
-                reportUnexpectedToken("(", "unmatched ')' in function call");
+            var call = new PendingCall(identifier, symbolId, false);
+            if (level != null) {
+                level.call = call;
+                return null;
             }
-            return new FunctionCallExpression(identifier, args, location, characterBuffer);
+            call.args.addAll(parseArgs());
+            return call.close();
         }
-        return new IdentifierExpression(identifier);
+        return new IdentifierExpression(identifier, lexer.getFilename(), identifierPosition, lexer.getSnippet(), symbolId);
     }
 
     // args = arg, {",", arg }
     protected ArrayList<Arg> parseArgs() {
         var args = new ArrayList<Arg>();
-        var firstArg = parseArg();
-        if (firstArg == null) return args;
-        args.add(firstArg);
-        while (consumeIf(TokenType.COMMA)) {
-            var arg = parseArg();
-            if (arg == null) {
-                reportUnexpectedToken(",", "expected another argument after ','");
-                continue;
-            }
-            args.add(arg);
+        var isFirst = true;
+        while (addArg(args, parseArg(), isFirst)) {
+            isFirst = false;
         }
-
         return args;
     }
 
+    // adds a parsed argument, true when another one follows after ','
+    private boolean addArg(ArrayList<Arg> args, Arg arg, boolean isFirst) {
+        if (arg != null) {
+            args.add(arg);
+        } else if (isFirst) {
+            return false;
+        } else {
+            reportUnexpectedToken(",", "expected another argument after ','");
+        }
+        return consumeIf(TokenType.COMMA);
+    }
+
     // arg = ["ref"] expr;
     protected Arg parseArg() {
         var isByRef = consumeIf(TokenType.REF_KEYWORD);
-        var expr = parseExpr();
+        return completeArg(isByRef, parseExpr());
+    }
+
+    private Arg completeArg(boolean isByRef, Expression expr) {
         if (expr == null) {
             if (isByRef) {
                 reportUnexpectedToken("ref", "expected expression after ref keyword (argument)");
@@ -520,17 +809,73 @@ public class Parser {
         return new Arg(expr, isByRef);
     }
 
+    // a function call or class initialization whose arguments are being parsed, kept in an object so that the
+    // stack-safe mode can suspend it for each argument
+    private final class PendingCall {
+        private final String identifier;
+
+        private final int symbolId;
+
+        private final boolean isClassInit;
+
+        private final ArrayList<Arg> args = new ArrayList<>();
+
+        // whether the argument being parsed is passed by reference
+        private boolean isByRef = false;
+
+        private boolean isFirst = true;
+
+        private PendingCall(String identifier, int symbolId, boolean isClassInit) {
+            this.identifier = identifier;
+            this.symbolId = symbolId;
+            this.isClassInit = isClassInit;
+        }
+
+        // true when another argument follows
+        private boolean addArg(Arg arg) {
+            var hasNext = Parser.this.addArg(args, arg, isFirst);
+            isFirst = false;
+            return hasNext;
+        }
+
+        // consumes the closing ')'
+        private Expression close() {
+            if (isClassInit) {
+                if (!consumeIf(TokenType.RPAREN)) {
+                    reportUnexpectedToken(identifier, "unmatched ')' in class initialization");
+                }
+                return new ClassInitExpression(identifier, args, lexer.getFilename(), lexer.getPreviousPosition(), lexer.getEffectiveSnippet(), symbolId);
+            }
+            var position = lexer.getCurrentPosition();
+            var snippet = lexer.getSnippet();
+            if (!consumeIf(TokenType.RPAREN)) {
+                reportUnexpectedToken("(", "unmatched ')' in function call");
+            }
+            return new FunctionCallExpression(identifier, args, lexer.getFilename(), position, snippet, symbolId);
+        }
+    }
+
     protected Expression parseString() {
         if (!peekIf(TokenType.STRING)) {
             return null;
         }
-        var stringToken = (StringToken) lexer.getCurrentToken();
-        lexer.getNextToken();
-        return new StringExpression(stringToken.getValue());
+        var value = lexer.getCurrentText();
+        lexer.advance();
+        return new StringExpression(value);
     }
 
     // class_init = "new", class_id, "(", [args], ")";
     protected Expression parseClassInit() {
+        var call = openClassInit();
+        if (call == null) {
+            return null;
+        }
+        call.args.addAll(parseArgs());
+        return call.close();
+    }
+
+    // class_init up to its arguments
+    private PendingCall openClassInit() {
         if (!consumeIf(TokenType.NEW_KEYWORD)) {
             return null;
         }
@@ -539,19 +884,14 @@ public class Parser {
             return null;
         }
 
-        var identifier = ((StringToken) lexer.getCurrentToken()).getValue();
-        lexer.getNextToken();
+        var identifier = lexer.getCurrentText();
+        var symbolId = lexer.getCurrentSymbolId();
+        lexer.advance();
 
         if (!consumeIf(TokenType.LPAREN)) {
             reportUnexpectedToken(identifier, "'(' expected after identifier in class initialization");
         }
-
-        var args = parseArgs();
-
-        if (!consumeIf(TokenType.RPAREN)) {
-            reportUnexpectedToken(identifier, "unmatched ')' in class initialization");
-        }
-        return new ClassInitExpression(identifier, args, lexer.getPreviousLocation().clone(), lexer.getEffectiveCharacterBuffer());
+        return new PendingCall(identifier, symbolId, true);
     }
 
     // "(", expr, ")"
@@ -559,7 +899,10 @@ public class Parser {
         if (!consumeIf(TokenType.LPAREN)) {
             return null;
         }
-        var expr = parseExpr();
+        return closeParenthesized(parseExpr());
+    }
+
+    private Expression closeParenthesized(Expression expr) {
         if (expr == null) {
             reportUnexpectedToken("(", "expected expression after '('");
             return null;
@@ -595,8 +938,100 @@ public class Parser {
         return true;
     }
 
+    private static final int VAR_STMT = 0;
+
+    private static final int COND_STMT = 1;
+
+    private static final int WHILE_STMT = 2;
+
+    private static final int FOR_STMT = 3;
+
+    private static final int SWITCH_STMT = 4;
+
+    // a statement with code blocks whose header has been parsed, it gets its blocks one by one either from nested
+    // parseCodeBlock calls or from the stack of parseCodeBlockIteratively
+    private abstract static class PendingStatement {
+        private final int kind;
+
+        private PendingStatement(int kind) {
+            this.kind = kind;
+        }
+
+        // consumes what comes before the next block, false when the statement takes no more blocks
+        abstract boolean needsBlock();
+
+        // null when there is no '{' where the block should start
+        abstract void acceptBlock(CodeBLock codeBlock);
+
+        // null when a block was missing
+        abstract Statement finish();
+    }
+
+    private final class PendingSingleBlockStmt extends PendingStatement {
+        private final String explanation;
+
+        private final Function<CodeBLock, Statement> constructor;
+
+        private boolean hasBlock = false;
+
+        private Statement statement = null;
+
+        private PendingSingleBlockStmt(int kind, String explanation, Function<CodeBLock, Statement> constructor) {
+            super(kind);
+            this.explanation = explanation;
+            this.constructor = constructor;
+        }
+
+        @Override
+        boolean needsBlock() {
+            return !hasBlock;
+        }
+
+        @Override
+        void acceptBlock(CodeBLock codeBlock) {
+            hasBlock = true;
+            if (codeBlock == null) {
+                reportUnexpectedToken(")", explanation);
+                return;
+            }
+            statement = constructor.apply(codeBlock);
+        }
+
+        @Override
+        Statement finish() {
+            return statement;
+        }
+    }
+
+    private Statement parseBlocksRecursively(PendingStatement pending) throws ParserException {
+        if (pending == null) {
+            return null;
+        }
+        while (pending.needsBlock()) {
+            pending.acceptBlock(parseCodeBlock());
+        }
+        return pending.finish();
+    }
+
+    private PendingStatement beginBlockStatement(int firstKind) throws ParserException {
+        PendingStatement pending = null;
+        for (var kind = firstKind; pending == null && kind <= SWITCH_STMT; ++kind) {
+            pending = switch (kind) {
+                case COND_STMT -> beginConditionalStmt();
+                case WHILE_STMT -> beginWhileStmt();
+                case FOR_STMT -> beginForStmt();
+                default -> beginSwitchStmt();
+            };
+        }
+        return pending;
+    }
+
     // cond_stmt = "if", "(", expr, ")", code_block, ["else", code_block];
     protected Statement parseConditionalStmt() throws ParserException {
+        return parseBlocksRecursively(beginConditionalStmt());
+    }
+
+    private PendingStatement beginConditionalStmt() throws ParserException {
         if (!consumeIf(TokenType.IF_KEYWORD)) {
             return null;
         }
@@ -616,27 +1051,58 @@ public class Parser {
             reportUnexpectedTokenWithExplanation("unmatched ')'");
         }
 
-        var codeBlock = parseCodeBlock();
-        if (codeBlock == null) {
-            reportUnexpectedToken(")", "code block expected after ')' in if statement");
-            return null;
+        return new PendingCondStmt(condition);
+    }
+
+    private final class PendingCondStmt extends PendingStatement {
+        private final Expression condition;
+
+        private int blockCount = 0;
+
+        private boolean isMissingBlock = false;
+
+        private CodeBLock codeBlock = null;
+
+        private CodeBLock elseCodeBlock = null;
+
+        private PendingCondStmt(Expression condition) {
+            super(COND_STMT);
+            this.condition = condition;
         }
 
-        CodeBLock elseCodeBlock = null;
+        @Override
+        boolean needsBlock() {
+            return !isMissingBlock && (blockCount == 0 || blockCount == 1 && consumeIf(TokenType.ELSE_KEYWORD));
+        }
 
-        if (consumeIf(TokenType.ELSE_KEYWORD)) {
-            elseCodeBlock = parseCodeBlock();
-            if (elseCodeBlock == null) {
-                reportUnexpectedToken("else", "code block expected after else in if statement");
-                return null;
+        @Override
+        void acceptBlock(CodeBLock codeBlock) {
+            isMissingBlock = codeBlock == null;
+            if (blockCount++ == 0) {
+                if (isMissingBlock) {
+                    reportUnexpectedToken(")", "code block expected after ')' in if statement");
+                }
+                this.codeBlock = codeBlock;
+            } else {
+                if (isMissingBlock) {
+                    reportUnexpectedToken("else", "code block expected after else in if statement");
+                }
+                elseCodeBlock = codeBlock;
             }
         }
 
-        return new CondStmt(condition, codeBlock, elseCodeBlock);
+        @Override
+        Statement finish() {
+            return isMissingBlock ? null : new CondStmt(condition, codeBlock, elseCodeBlock);
+        }
     }
 
     // while_stmt = "while", "(", expr, ")", code_block;
     protected Statement parseWhileStmt() throws ParserException {
+        return parseBlocksRecursively(beginWhileStmt());
+    }
+
+    private PendingStatement beginWhileStmt() throws ParserException {
         if (!consumeIf(TokenType.WHILE_KEYWORD)) {
             return null;
         }
@@ -656,17 +1122,16 @@ public class Parser {
             reportUnexpectedTokenWithExplanation("unmatched ')'");
         }
 
-        var codeBlock = parseCodeBlock();
-        if (codeBlock == null) {
-            reportUnexpectedToken(")", "code block expected after ')' in while statement");
-            return null;
-        }
-
-        return new WhileStmt(condition, codeBlock);
+        return new PendingSingleBlockStmt(WHILE_STMT, "code block expected after ')' in while statement",
+            codeBlock -> new WhileStmt(condition, codeBlock));
     }
 
     // for_stmt = "for", "(", identifier, "in", expr, ")", code_block;
     protected Statement parseForStmt() throws ParserException {
+        return parseBlocksRecursively(beginForStmt());
+    }
+
+    private PendingStatement beginForStmt() throws ParserException {
         if (!consumeIf(TokenType.FOR_KEYWORD)) {
             return null;
         }
@@ -680,9 +1145,10 @@ public class Parser {
             return null;
         }
 
-        var iteratorIdentifier = ((StringToken) lexer.getCurrentToken()).getValue();
+        var iteratorIdentifier = lexer.getCurrentText();
+        var iteratorSymbolId = lexer.getCurrentSymbolId();
 
-        lexer.getNextToken();
+        lexer.advance();
 
         if (!consumeIf(TokenType.IN_KEYWORD)) {
             reportUnexpectedTokenWithExplanation("expected in keyword after identifier in for statement");
@@ -695,24 +1161,24 @@ public class Parser {
             throw new ParserException();
         }
 
-        var location = lexer.getCurrentLocation().clone();
-        var buffer = lexer.getEffectiveCharacterBuffer();
+        var position = lexer.getCurrentPosition();
+        var snippet = lexer.getEffectiveSnippet();
 
         if (!consumeIf(TokenType.RPAREN)) {
             reportUnexpectedTokenWithExplanation("unmatched ')'");
         }
 
-        var codeBlock = parseCodeBlock();
-        if (codeBlock == null) {
-            reportUnexpectedToken(")", "code block expected after ')' in for statement");
-            return null;
-        }
-
-        return new ForStmt(iteratorIdentifier, iterable, codeBlock, location, buffer);
+        return new PendingSingleBlockStmt(FOR_STMT, "code block expected after ')' in for statement",
+            codeBlock -> new ForStmt(iteratorIdentifier, iterable, codeBlock, lexer.getFilename(), position, snippet,
+                iteratorSymbolId));
     }
 
     // switch_stmt = "switch", "(", (expr), ")", "{", { (type | class_id | "default"), "->", code_block } ,"}";
     protected Statement parseSwitchStmt() throws ParserException {
+        return parseBlocksRecursively(beginSwitchStmt());
+    }
+
+    private PendingStatement beginSwitchStmt() throws ParserException {
         if (!consumeIf(TokenType.SWITCH_KEYWORD)) {
             return null;
         }
@@ -736,37 +1202,60 @@ public class Parser {
             reportUnexpectedToken(")", "expected '{' after ')' in switch statement");
         }
 
-        Map<SwitchLabel, CodeBLock> switchElements = new HashMap<>();
+        return new PendingSwitchStmt(expr);
+    }
+
+    private final class PendingSwitchStmt extends PendingStatement {
+        private final Expression expr;
+
+        private final Map<SwitchLabel, CodeBLock> switchElements = new HashMap<>();
+
+        private SwitchLabel switchLabel = null;
+
+        private PendingSwitchStmt(Expression expr) {
+            super(SWITCH_STMT);
+            this.expr = expr;
+        }
+
+        @Override
+        boolean needsBlock() {
+            if (peekIf(TokenType.IDENTIFIER) || peekIf(TokenType.DEFAULT_KEYWORD)) {
+                switchLabel = peekIf(TokenType.IDENTIFIER)
+                        ? new SwitchLabel(lexer.getCurrentText())
+                        : new SwitchLabel("default");
 
-        while (peekIf(TokenType.IDENTIFIER) || peekIf(TokenType.DEFAULT_KEYWORD)) {
-            var switchLabel = peekIf(TokenType.IDENTIFIER)
-                    ? new SwitchLabel(((StringToken) lexer.getCurrentToken()).getValue())
-                    : new SwitchLabel("default");
+                lexer.advance();
 
-            lexer.getNextToken();
+                if (!consumeIf(TokenType.ARROW)) {
+                    reportUnexpectedTokenWithExplanation("expected '->' after type in switch statement element");
+                }
+                return true;
+            }
 
-            if (!consumeIf(TokenType.ARROW)) {
-                reportUnexpectedTokenWithExplanation("expected '->' after type in switch statement element");
+            if (!consumeIf(TokenType.RBRACE)) {
+                reportUnexpectedTokenWithExplanation("unmatched '}'");
             }
+            return false;
+        }
 
-            var codeBlock = parseCodeBlock();
+        @Override
+        void acceptBlock(CodeBLock codeBlock) {
             if (codeBlock == null) {
                 reportUnexpectedToken("->", "code block expected after '->' in switch statement");
-                continue;
+                return;
             }
 
-            if(switchElements.containsKey(switchLabel)){
+            if (switchElements.containsKey(switchLabel)) {
                 reportDuplicateLabel(switchLabel.getLabel());
-                continue;
+                return;
             }
             switchElements.put(switchLabel, codeBlock);
         }
 
-        if (!consumeIf(TokenType.RBRACE)) {
-            reportUnexpectedTokenWithExplanation("unmatched '}'");
+        @Override
+        Statement finish() {
+            return new SwitchStmt(expr, switchElements);
         }
-
-        return new SwitchStmt(expr, switchElements);
     }
 
 
@@ -776,15 +1265,15 @@ public class Parser {
             return new ArrayList<>();
         }
         ArrayList<Parameter> params = new ArrayList<>();
-        params.add(new Parameter(((StringToken) lexer.getCurrentToken()).getValue()));
-        lexer.getNextToken();
+        params.add(new Parameter(lexer.getCurrentText(), lexer.getCurrentSymbolId()));
+        lexer.advance();
         while (consumeIf(TokenType.COMMA)) {
             if (!peekIf(TokenType.IDENTIFIER)) {
                 reportUnexpectedToken(",", "expected token after ',' in parameters");
                 continue;
             }
-            params.add(new Parameter(((StringToken) lexer.getCurrentToken()).getValue()));
-            lexer.getNextToken();
+            params.add(new Parameter(lexer.getCurrentText(), lexer.getCurrentSymbolId()));
+            lexer.advance();
         }
         return params;
     }
@@ -793,18 +1282,18 @@ public class Parser {
         if (!peekIf(tokenType)) {
             return false;
         }
-        lexer.getNextToken();
+        lexer.advance();
         return true;
     }
 
     private boolean peekIf(TokenType tokenType) {
-        return lexer.getCurrentToken().getType().equals(tokenType);
+        return lexer.getCurrentTokenType().equals(tokenType);
     }
 
     private void reportAlreadyDeclared(String identifier) {
         errorModule.addError(ErrorElement.builder()
                 .errorType(ErrorType.ALREADY_DECLARED)
-                .location(lexer.getCurrentLocation().clone())
+                .location(lexer.getCurrentLocation())
                 .codeLineBuffer(lexer.getCharacterBuffer())
                 .underlineFragment(identifier)
                 .build());
@@ -813,7 +1302,7 @@ public class Parser {
     private void reportDuplicateLabel(String identifier) {
         errorModule.addError(ErrorElement.builder()
                 .errorType(ErrorType.DUPLICATE_LABEL)
-                .location(lexer.getCurrentLocation().clone())
+                .location(lexer.getCurrentLocation())
                 .codeLineBuffer(lexer.getCharacterBuffer())
                 .underlineFragment(identifier)
                 .build());
@@ -822,7 +1311,7 @@ public class Parser {
     private void reportUnexpectedToken(String underline, String explanation) {
         errorModule.addError(ErrorElement.builder()
                 .errorType(ErrorType.UNEXPECTED_TOKEN)
-                .location(lexer.getCurrentLocation().clone())
+                .location(lexer.getCurrentLocation())
                 .underlineFragment(underline)
                 .explanation(explanation)
                 .codeLineBuffer(lexer.getCharacterBuffer())
@@ -832,7 +1321,7 @@ public class Parser {
     private void reportUnexpectedTokenWithExplanation(String explanation) {
         errorModule.addError(ErrorElement.builder()
                 .errorType(ErrorType.UNEXPECTED_TOKEN)
-                .location(lexer.getCurrentLocation().clone())
+                .location(lexer.getCurrentLocation())
                 .explanation(explanation)
                 .codeLineBuffer(lexer.getCharacterBuffer())
                 .build());
@@ -841,7 +1330,7 @@ public class Parser {
     private void reportUnsupportedChaining() {
         errorModule.addError(ErrorElement.builder()
                 .errorType(ErrorType.UNSUPPORTED_CHAINING)
-                .location(lexer.getCurrentLocation().clone())
+                .location(lexer.getCurrentLocation())
                 .codeLineBuffer(lexer.getCharacterBuffer())
                 .build());
     }
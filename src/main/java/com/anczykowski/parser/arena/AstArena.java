@@ -0,0 +1,250 @@
+package com.anczykowski.parser.arena;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import com.anczykowski.lexer.Location;
+import com.anczykowski.lexer.Position;
+import com.anczykowski.lexer.SourceSnippet;
+import com.anczykowski.lexer.SymbolTable;
+
+// flat AST: nodes are indexes into primitive arrays holding their kind, first child, next sibling, payload and
+// position; children are kept as a linked list in source order, so walking the tree reads a few arrays instead of
+// chasing objects; the root is the PROGRAM node; it is built from the object AST (see AstArenaBuilder) and kept
+// next to it, so it adds to the memory of a program rather than replacing the tree
+public final class AstArena {
+
+    public static final int NO_NODE = -1;
+
+    public static final int ROOT = 0;
+
+    private static final int NO_ORIGIN = -1;
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    private byte[] kinds = new byte[INITIAL_CAPACITY];
+
+    private int[] firstChildren = new int[INITIAL_CAPACITY];
+
+    private int[] nextSiblings = new int[INITIAL_CAPACITY];
+
+    // string index, integer value, float bits or index into wideValues, depending on the kind
+    private int[] payloads = new int[INITIAL_CAPACITY];
+
+    // see Position
+    private long[] positions = new long[INITIAL_CAPACITY];
+
+    // index into originFilenames and originSnippets, only nodes with a location or snippet have one
+    private int[] origins = new int[INITIAL_CAPACITY];
+
+    // only used while children are appended
+    private int[] lastChildren = new int[INITIAL_CAPACITY];
+
+    private int size = 0;
+
+    // long values and double bits
+    private long[] wideValues = new long[16];
+
+    private int wideValueCount = 0;
+
+    private final ArrayList<String> strings = new ArrayList<>();
+
+    private final HashMap<String, Integer> stringIds = new HashMap<>();
+
+    // symbol id of every string used as a name, names resolve to the same symbol wherever they occur
+    private int[] stringSymbolIds = new int[16];
+
+    private final ArrayList<String> originFilenames = new ArrayList<>();
+
+    private final ArrayList<SourceSnippet> originSnippets = new ArrayList<>();
+
+    AstArena() {
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public NodeKind getKind(int node) {
+        return NodeKind.of(kinds[node]);
+    }
+
+    public int getFirstChild(int node) {
+        return firstChildren[node];
+    }
+
+    public int getNextSibling(int node) {
+        return nextSiblings[node];
+    }
+
+    public int getChildCount(int node) {
+        var count = 0;
+        for (int child = firstChildren[node]; child != NO_NODE; child = nextSiblings[child]) {
+            ++count;
+        }
+        return count;
+    }
+
+    // NO_NODE when there is no such child, e.g. a missing else block
+    public int getChild(int node, int index) {
+        var child = firstChildren[node];
+        for (int i = 0; i < index && child != NO_NODE; ++i) {
+            child = nextSiblings[child];
+        }
+        return child;
+    }
+
+    // name of a named node, value of STRING, type of CAST and label of SWITCH_LABEL
+    public String getString(int node) {
+        return strings.get(payloads[node]);
+    }
+
+    public int getSymbolId(int node) {
+        return stringSymbolIds[payloads[node]];
+    }
+
+    public int getInt(int node) {
+        return payloads[node];
+    }
+
+    public boolean getBoolean(int node) {
+        return payloads[node] != 0;
+    }
+
+    public float getFloat(int node) {
+        return Float.intBitsToFloat(payloads[node]);
+    }
+
+    public long getLong(int node) {
+        return wideValues[payloads[node]];
+    }
+
+    public double getDouble(int node) {
+        return Double.longBitsToDouble(wideValues[payloads[node]]);
+    }
+
+    public long getPosition(int node) {
+        return positions[node];
+    }
+
+    public Location getLocation(int node) {
+        var origin = origins[node];
+        return origin == NO_ORIGIN ? null : Position.toLocation(originFilenames.get(origin), positions[node]);
+    }
+
+    public String getFilename(int node) {
+        var origin = origins[node];
+        return origin == NO_ORIGIN ? null : originFilenames.get(origin);
+    }
+
+    public SourceSnippet getSnippet(int node) {
+        var origin = origins[node];
+        return origin == NO_ORIGIN ? null : originSnippets.get(origin);
+    }
+
+    // depth first, without recursion, so that deeply nested programs do not overflow the stack
+    public void walk(int node, AstArenaVisitor visitor) {
+        var stack = new int[16];
+        var depth = 0;
+        stack[depth++] = node;
+        visitor.enter(this, node);
+        var current = firstChildren[node];
+        while (depth > 0) {
+            if (current != NO_NODE) {
+                visitor.enter(this, current);
+                if (depth == stack.length) {
+                    stack = Arrays.copyOf(stack, depth * 2);
+                }
+                stack[depth++] = current;
+                current = firstChildren[current];
+            } else {
+                var finished = stack[--depth];
+                visitor.exit(this, finished);
+                current = depth > 0 ? nextSiblings[finished] : NO_NODE;
+            }
+        }
+    }
+
+    // nodes are added parents first, children in order
+    int add(int parent, NodeKind kind, int payload) {
+        if (size == kinds.length) {
+            grow();
+        }
+        var node = size++;
+        kinds[node] = (byte) kind.ordinal();
+        firstChildren[node] = NO_NODE;
+        nextSiblings[node] = NO_NODE;
+        lastChildren[node] = NO_NODE;
+        payloads[node] = payload;
+        positions[node] = Position.NONE;
+        origins[node] = NO_ORIGIN;
+        if (parent != NO_NODE) {
+            if (lastChildren[parent] == NO_NODE) {
+                firstChildren[parent] = node;
+            } else {
+                nextSiblings[lastChildren[parent]] = node;
+            }
+            lastChildren[parent] = node;
+        }
+        return node;
+    }
+
+    void setOrigin(int node, Location location, long position, SourceSnippet snippet) {
+        if (location == null && snippet == null) {
+            return;
+        }
+        positions[node] = position;
+        origins[node] = originFilenames.size();
+        originFilenames.add(location == null ? null : location.getFilename());
+        originSnippets.add(snippet);
+    }
+
+    int addString(String string, int symbolId) {
+        var id = stringIds.get(string);
+        if (id == null) {
+            id = strings.size();
+            stringIds.put(string, id);
+            strings.add(string);
+            if (id == stringSymbolIds.length) {
+                stringSymbolIds = Arrays.copyOf(stringSymbolIds, id * 2);
+            }
+            stringSymbolIds[id] = symbolId;
+        } else if (stringSymbolIds[id] == SymbolTable.NO_SYMBOL) {
+            stringSymbolIds[id] = symbolId;
+        }
+        return id;
+    }
+
+    int addWideValue(long value) {
+        if (wideValueCount == wideValues.length) {
+            wideValues = Arrays.copyOf(wideValues, wideValueCount * 2);
+        }
+        wideValues[wideValueCount] = value;
+        return wideValueCount++;
+    }
+
+    // building is done, arrays are cut to size
+    void trim() {
+        kinds = Arrays.copyOf(kinds, size);
+        firstChildren = Arrays.copyOf(firstChildren, size);
+        nextSiblings = Arrays.copyOf(nextSiblings, size);
+        payloads = Arrays.copyOf(payloads, size);
+        positions = Arrays.copyOf(positions, size);
+        origins = Arrays.copyOf(origins, size);
+        lastChildren = null;
+        wideValues = Arrays.copyOf(wideValues, wideValueCount);
+        stringSymbolIds = Arrays.copyOf(stringSymbolIds, strings.size());
+    }
+
+    private void grow() {
+        var capacity = kinds.length * 2;
+        kinds = Arrays.copyOf(kinds, capacity);
+        firstChildren = Arrays.copyOf(firstChildren, capacity);
+        nextSiblings = Arrays.copyOf(nextSiblings, capacity);
+        payloads = Arrays.copyOf(payloads, capacity);
+        positions = Arrays.copyOf(positions, capacity);
+        origins = Arrays.copyOf(origins, capacity);
+        lastChildren = Arrays.copyOf(lastChildren, capacity);
+    }
+}
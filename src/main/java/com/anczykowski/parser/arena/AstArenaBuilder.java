@@ -0,0 +1,342 @@
+package com.anczykowski.parser.arena;
+
+import com.anczykowski.interpreter.ListFuncDef;
+import com.anczykowski.interpreter.PrintCodeBlock;
+import com.anczykowski.lexer.SymbolTable;
+import com.anczykowski.parser.structures.*;
+import com.anczykowski.parser.structures.expressions.*;
+import com.anczykowski.parser.structures.expressions.relops.*;
+import com.anczykowski.parser.structures.statements.*;
+import com.anczykowski.visitors.Visitable;
+import com.anczykowski.visitors.Visitor;
+
+// flattens a program into an AstArena, keeping the order in which PrinterVisitor walks it
+public class AstArenaBuilder implements Visitor {
+
+    private final AstArena arena = new AstArena();
+
+    private int parent = AstArena.NO_NODE;
+
+    public static AstArena build(Program program) {
+        var builder = new AstArenaBuilder();
+        program.accept(builder);
+        builder.arena.trim();
+        return builder.arena;
+    }
+
+    @Override
+    public void visit(Program program) {
+        var node = add(NodeKind.PROGRAM, 0);
+        withParent(node, () -> {
+            program.getClasses().values().forEach(this::addNode);
+            program.getFunctions().values().forEach(this::addNode);
+        });
+    }
+
+    @Override
+    public void visit(ClassDef classDef) {
+        var node = add(NodeKind.CLASS_DEF, name(classDef.getName(), SymbolTable.NO_SYMBOL));
+        arena.setOrigin(node, classDef.getLocation(), classDef.getPosition(), classDef.getSnippet());
+        withParent(node, () -> addNode(classDef.getClassBody()));
+    }
+
+    @Override
+    public void visit(FuncDef funcDef) {
+        var kind = funcDef.getIsMethod() ? NodeKind.METHOD_DEF : NodeKind.FUNC_DEF;
+        var node = add(kind, name(funcDef.getName(), funcDef.getSymbolId()));
+        arena.setOrigin(node, funcDef.getLocation(), funcDef.getPosition(), funcDef.getSnippet());
+        withParent(node, () -> {
+            funcDef.getParams().forEach(this::addNode);
+            addNode(funcDef.getCodeBLock());
+        });
+    }
+
+    @Override
+    public void visit(ListFuncDef listFuncDef) {
+        throw unsupported(listFuncDef);
+    }
+
+    @Override
+    public void visit(ClassBody classBody) {
+        var node = add(NodeKind.CLASS_BODY, 0);
+        withParent(node, () -> {
+            classBody.getAttributes().values().forEach(this::addNode);
+            classBody.getMethods().values().forEach(this::addNode);
+        });
+    }
+
+    @Override
+    public void visit(VarStmt varStmt) {
+        var node = add(NodeKind.VAR_STMT, name(varStmt.getName(), varStmt.getSymbolId()));
+        arena.setOrigin(node, varStmt.getLocation(), varStmt.getPosition(), varStmt.getSnippet());
+        withParent(node, () -> addNode(varStmt.getInitial()));
+    }
+
+    @Override
+    public void visit(Parameter parameter) {
+        add(NodeKind.PARAMETER, name(parameter.getName(), parameter.getSymbolId()));
+    }
+
+    @Override
+    public void visit(CodeBLock codeBLock) {
+        var node = add(NodeKind.CODE_BLOCK, 0);
+        withParent(node, () -> codeBLock.getStatements().forEach(this::addNode));
+    }
+
+    @Override
+    public void visit(PrintCodeBlock codeBLock) {
+        throw unsupported(codeBLock);
+    }
+
+    @Override
+    public void visit(Statement statement) {
+        throw unsupported(statement);
+    }
+
+    @Override
+    public void visit(Expression expression) {
+        throw unsupported(expression);
+    }
+
+    @Override
+    public void visit(AndExpr andExpr) {
+        addLeftRight(NodeKind.AND, andExpr);
+    }
+
+    @Override
+    public void visit(OrExpression orExpression) {
+        addLeftRight(NodeKind.OR, orExpression);
+    }
+
+    @Override
+    public void visit(EqRelExpr eqRelExpr) {
+        addLeftRight(NodeKind.EQ, eqRelExpr);
+    }
+
+    @Override
+    public void visit(NeRelExpr neRelOpArg) {
+        addLeftRight(NodeKind.NE, neRelOpArg);
+    }
+
+    @Override
+    public void visit(GtRelExpr gtRelExpr) {
+        addLeftRight(NodeKind.GT, gtRelExpr);
+    }
+
+    @Override
+    public void visit(GeRelExpr geRelExpr) {
+        addLeftRight(NodeKind.GE, geRelExpr);
+    }
+
+    @Override
+    public void visit(LtRelExpr ltRelExpr) {
+        addLeftRight(NodeKind.LT, ltRelExpr);
+    }
+
+    @Override
+    public void visit(LeRelExpr leRelExpr) {
+        addLeftRight(NodeKind.LE, leRelExpr);
+    }
+
+    @Override
+    public void visit(AdditionTerm additionTerm) {
+        addLeftRight(NodeKind.ADDITION, additionTerm);
+    }
+
+    @Override
+    public void visit(SubtractionTerm subtractionTerm) {
+        addLeftRight(NodeKind.SUBTRACTION, subtractionTerm);
+    }
+
+    @Override
+    public void visit(MultiplicationFactor multiplicationFactor) {
+        addLeftRight(NodeKind.MULTIPLICATION, multiplicationFactor);
+    }
+
+    @Override
+    public void visit(IntegerConstantExpr integerConstantExpr) {
+        add(NodeKind.INTEGER, integerConstantExpr.getValue());
+    }
+
+    @Override
+    public void visit(FloatConstantExpr floatConstantExpr) {
+        add(NodeKind.FLOAT, Float.floatToRawIntBits(floatConstantExpr.getValue()));
+    }
+
+    @Override
+    public void visit(LongConstantExpr longConstantExpr) {
+        add(NodeKind.LONG, arena.addWideValue(longConstantExpr.getValue()));
+    }
+
+    @Override
+    public void visit(DoubleConstantExpr doubleConstantExpr) {
+        add(NodeKind.DOUBLE, arena.addWideValue(Double.doubleToRawLongBits(doubleConstantExpr.getValue())));
+    }
+
+    @Override
+    public void visit(BoolConstantExpr boolConstantExpr) {
+        add(NodeKind.BOOLEAN, boolConstantExpr.getValue() ? 1 : 0);
+    }
+
+    @Override
+    public void visit(DivisionFactor divisionFactor) {
+        addLeftRight(NodeKind.DIVISION, divisionFactor);
+    }
+
+    @Override
+    public void visit(NegatedExpression negatedExpression) {
+        var node = add(NodeKind.NEGATED, 0);
+        withParent(node, () -> addNode(negatedExpression.getInner()));
+    }
+
+    @Override
+    public void visit(AssignmentStatement assignmentStatement) {
+        var node = add(NodeKind.ASSIGNMENT_STMT, 0);
+        arena.setOrigin(node, assignmentStatement.getLocation(), assignmentStatement.getPosition(), assignmentStatement.getSnippet());
+        withParent(node, () -> {
+            addNode(assignmentStatement.getLval());
+            addNode(assignmentStatement.getRval());
+        });
+    }
+
+    @Override
+    public void visit(ExpressionStatement expressionStatement) {
+        var node = add(NodeKind.EXPRESSION_STMT, 0);
+        withParent(node, () -> addNode(expressionStatement.getExpression()));
+    }
+
+    @Override
+    public void visit(CondStmt condStmt) {
+        var node = add(NodeKind.COND_STMT, 0);
+        withParent(node, () -> {
+            addNode(condStmt.getCondition());
+            addNode(condStmt.getTrueBlock());
+            addNode(condStmt.getElseBlock());
+        });
+    }
+
+    @Override
+    public void visit(WhileStmt whileStmt) {
+        var node = add(NodeKind.WHILE_STMT, 0);
+        withParent(node, () -> {
+            addNode(whileStmt.getCondition());
+            addNode(whileStmt.getCodeBLock());
+        });
+    }
+
+    @Override
+    public void visit(ForStmt forStmt) {
+        var node = add(NodeKind.FOR_STMT, name(forStmt.getIteratorIdentifier(), forStmt.getSymbolId()));
+        arena.setOrigin(node, forStmt.getLocation(), forStmt.getPosition(), forStmt.getSnippet());
+        withParent(node, () -> {
+            addNode(forStmt.getIterable());
+            addNode(forStmt.getCodeBLock());
+        });
+    }
+
+    @Override
+    public void visit(SwitchStmt switchStmt) {
+        var node = add(NodeKind.SWITCH_STMT, 0);
+        withParent(node, () -> {
+            addNode(switchStmt.getExpression());
+            switchStmt.getSwitchElements().forEach((label, block) -> {
+                var labelNode = add(NodeKind.SWITCH_LABEL, name(label.getLabel(), SymbolTable.NO_SYMBOL));
+                withParent(labelNode, () -> addNode(block));
+            });
+        });
+    }
+
+    @Override
+    public void visit(IdentifierExpression identifierExpression) {
+        var node = add(NodeKind.IDENTIFIER, name(identifierExpression.getIdentifier(), identifierExpression.getSymbolId()));
+        arena.setOrigin(node, identifierExpression.getLocation(), identifierExpression.getPosition(), identifierExpression.getSnippet());
+    }
+
+    @Override
+    public void visit(ObjectAccessExpression identifierExpression) {
+        var node = add(NodeKind.OBJECT_ACCESS, 0);
+        arena.setOrigin(node, identifierExpression.getLocation(), identifierExpression.getPosition(), identifierExpression.getSnippet());
+        withParent(node, () -> {
+            addNode(identifierExpression.getCurrent());
+            addNode(identifierExpression.getChild());
+        });
+    }
+
+    @Override
+    public void visit(Arg arg) {
+        var node = add(arg.isByReference() ? NodeKind.REF_ARG : NodeKind.ARG, 0);
+        withParent(node, () -> addNode(arg.getArgument()));
+    }
+
+    @Override
+    public void visit(FunctionCallExpression functionCallExpression) {
+        var node = add(NodeKind.FUNCTION_CALL, name(functionCallExpression.getIdentifier(), functionCallExpression.getSymbolId()));
+        arena.setOrigin(node, functionCallExpression.getLocation(), functionCallExpression.getPosition(), functionCallExpression.getSnippet());
+        withParent(node, () -> functionCallExpression.getArgs().forEach(this::addNode));
+    }
+
+    @Override
+    public void visit(ClassInitExpression classInitExpression) {
+        var node = add(NodeKind.CLASS_INIT, name(classInitExpression.getIdentifier(), classInitExpression.getSymbolId()));
+        arena.setOrigin(node, classInitExpression.getLocation(), classInitExpression.getPosition(), classInitExpression.getSnippet());
+        withParent(node, () -> classInitExpression.getArgs().forEach(this::addNode));
+    }
+
+    @Override
+    public void visit(StringExpression stringExpression) {
+        add(NodeKind.STRING, name(stringExpression.getValue(), SymbolTable.NO_SYMBOL));
+    }
+
+    @Override
+    public void visit(CastExpression castExpression) {
+        var node = add(NodeKind.CAST, name(castExpression.getType(), SymbolTable.NO_SYMBOL));
+        arena.setOrigin(node, castExpression.getLocation(), castExpression.getPosition(), castExpression.getSnippet());
+        withParent(node, () -> addNode(castExpression.getInner()));
+    }
+
+    @Override
+    public void visit(SwitchLabel switchLabel) {
+        add(NodeKind.SWITCH_LABEL, name(switchLabel.getLabel(), SymbolTable.NO_SYMBOL));
+    }
+
+    @Override
+    public void visit(ReturnStatement returnStatement) {
+        var node = add(NodeKind.RETURN_STMT, 0);
+        withParent(node, () -> addNode(returnStatement.getInner()));
+    }
+
+    private int add(NodeKind kind, int payload) {
+        return arena.add(parent, kind, payload);
+    }
+
+    private int name(String name, int symbolId) {
+        return arena.addString(name, symbolId);
+    }
+
+    // missing optional children are left out, they are always the last ones
+    private void addNode(Visitable node) {
+        if (node != null) {
+            node.accept(this);
+        }
+    }
+
+    private void addLeftRight(NodeKind kind, LeftRightExpression expression) {
+        var node = add(kind, 0);
+        arena.setOrigin(node, expression.getLocation(), expression.getPosition(), expression.getSnippet());
+        withParent(node, () -> {
+            addNode(expression.getLeft());
+            addNode(expression.getRight());
+        });
+    }
+
+    private void withParent(int node, Runnable addChildren) {
+        var previous = parent;
+        parent = node;
+        addChildren.run();
+        parent = previous;
+    }
+
+    private static IllegalStateException unsupported(Visitable node) {
+        return new IllegalStateException("cannot flatten " + node.getClass().getSimpleName());
+    }
+}
@@ -0,0 +1,9 @@
+package com.anczykowski.parser.arena;
+
+// callbacks of AstArena.walk, a node is entered before and exited after its children
+public interface AstArenaVisitor {
+    void enter(AstArena arena, int node);
+
+    default void exit(AstArena arena, int node) {
+    }
+}
@@ -0,0 +1,81 @@
+package com.anczykowski.parser.arena;
+
+// kind of an AstArena node and what its payload and children are
+public enum NodeKind {
+    // classes, then functions
+    PROGRAM,
+    // name, class body when given
+    CLASS_DEF,
+    // attributes (VAR_STMT), then methods
+    CLASS_BODY,
+    // name, parameters, then the code block
+    FUNC_DEF,
+    METHOD_DEF,
+    // name
+    PARAMETER,
+    // statements
+    CODE_BLOCK,
+    // name, initial value when given
+    VAR_STMT,
+    // lval, rval
+    ASSIGNMENT_STMT,
+    // expression
+    EXPRESSION_STMT,
+    // condition, block, else block when given
+    COND_STMT,
+    // condition, block
+    WHILE_STMT,
+    // iterator name, iterable, block
+    FOR_STMT,
+    // expression, then labels
+    SWITCH_STMT,
+    // label, block
+    SWITCH_LABEL,
+    // value when given
+    RETURN_STMT,
+    // left, right
+    OR,
+    AND,
+    EQ,
+    NE,
+    GT,
+    GE,
+    LT,
+    LE,
+    ADDITION,
+    SUBTRACTION,
+    MULTIPLICATION,
+    DIVISION,
+    // inner expression when given
+    NEGATED,
+    // type name, inner expression
+    CAST,
+    // value, no children
+    INTEGER,
+    FLOAT,
+    LONG,
+    DOUBLE,
+    // 1 for true, 0 for false, only in folded programs
+    BOOLEAN,
+    STRING,
+    // name
+    IDENTIFIER,
+    // current, child
+    OBJECT_ACCESS,
+    // name, arguments
+    FUNCTION_CALL,
+    CLASS_INIT,
+    // argument
+    ARG,
+    REF_ARG;
+
+    private static final NodeKind[] KINDS = values();
+
+    static NodeKind of(byte ordinal) {
+        return KINDS[ordinal];
+    }
+
+    public boolean isLeftRight() {
+        return compareTo(OR) >= 0 && compareTo(DIVISION) <= 0;
+    }
+}
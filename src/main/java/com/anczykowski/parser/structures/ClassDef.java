@@ -1,11 +1,16 @@
 package com.anczykowski.parser.structures;
 
+import com.anczykowski.lexer.Location;
+import com.anczykowski.lexer.Position;
+import com.anczykowski.lexer.SourceSnippet;
 import com.anczykowski.visitors.Visitable;
 import com.anczykowski.visitors.Visitor;
+import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 
 @RequiredArgsConstructor
+@AllArgsConstructor
 public class ClassDef implements Visitable {
     @Getter
     private final String name;
@@ -13,6 +18,19 @@ public class ClassDef implements Visitable {
     @Getter
     private final ClassBody classBody;
 
+    private String filename = null;
+
+    // see Position, where the class name is
+    @Getter
+    private long position = Position.NONE;
+
+    @Getter
+    private SourceSnippet snippet = null;
+
+    public Location getLocation() {
+        return Position.toLocation(filename, position);
+    }
+
     @Override
     public void accept(Visitor visitor) {
         visitor.visit(this);
@@ -3,19 +3,28 @@ package com.anczykowski.parser.structures;
 import java.util.ArrayList;
 
 import com.anczykowski.parser.structures.statements.Statement;
+import com.anczykowski.visitors.ResolverVisitor;
 import com.anczykowski.visitors.Visitable;
 import com.anczykowski.visitors.Visitor;
-import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
 
-@AllArgsConstructor
 @NoArgsConstructor
 public class CodeBLock implements Visitable {
 
     @Getter
     ArrayList<Statement> statements;
 
+    // slots of the context the block runs in, see ResolverVisitor
+    @Getter
+    @Setter
+    private int frameSize = ResolverVisitor.UNRESOLVED;
+
+    public CodeBLock(ArrayList<Statement> statements) {
+        this.statements = statements;
+    }
+
     @Override
     public void accept(Visitor visitor) {
         visitor.visit(this);
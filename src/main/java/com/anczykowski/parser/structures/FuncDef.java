@@ -1,5 +1,9 @@
 package com.anczykowski.parser.structures;
 
+import com.anczykowski.lexer.Location;
+import com.anczykowski.lexer.Position;
+import com.anczykowski.lexer.SourceSnippet;
+import com.anczykowski.lexer.SymbolTable;
 import com.anczykowski.visitors.Visitable;
 import com.anczykowski.visitors.Visitor;
 import lombok.Getter;
@@ -19,6 +23,18 @@ public class FuncDef implements Visitable {
     @Getter
     private CodeBLock codeBLock = null;
 
+    @Getter
+    private int symbolId = SymbolTable.NO_SYMBOL;
+
+    private String filename = null;
+
+    // see Position, where the function name is
+    @Getter
+    private long position = Position.NONE;
+
+    @Getter
+    private SourceSnippet snippet = null;
+
     @Getter
     @Setter
     private Boolean isMethod = false;
@@ -38,6 +54,21 @@ public class FuncDef implements Visitable {
         this.codeBLock = codeBLock;
     }
 
+    public FuncDef(String name, ArrayList<Parameter> params, CodeBLock codeBLock, int symbolId) {
+        this.name = name;
+        this.params = params;
+        this.codeBLock = codeBLock;
+        this.symbolId = symbolId;
+    }
+
+    public FuncDef(String name, ArrayList<Parameter> params, CodeBLock codeBLock, int symbolId, String filename, long position,
+                   SourceSnippet snippet) {
+        this(name, params, codeBLock, symbolId);
+        this.filename = filename;
+        this.position = position;
+        this.snippet = snippet;
+    }
+
     public FuncDef(String name, ArrayList<Parameter> params, CodeBLock codeBLock, Boolean isMethod) {
         this.name = name;
         this.params = params;
@@ -45,6 +76,10 @@ public class FuncDef implements Visitable {
         this.isMethod = isMethod;
     }
 
+    public Location getLocation() {
+        return Position.toLocation(filename, position);
+    }
+
     @Override
     public void accept(Visitor visitor) {
         visitor.visit(this);
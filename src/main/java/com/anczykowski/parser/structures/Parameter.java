@@ -1,15 +1,31 @@
 package com.anczykowski.parser.structures;
 
+import com.anczykowski.lexer.SymbolTable;
+import com.anczykowski.visitors.ResolverVisitor;
 import com.anczykowski.visitors.Visitable;
 import com.anczykowski.visitors.Visitor;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
+import lombok.Setter;
 
 @RequiredArgsConstructor
 public class Parameter implements Visitable {
     @Getter
     private final String name;
 
+    @Getter
+    private int symbolId = SymbolTable.NO_SYMBOL;
+
+    // see ResolverVisitor
+    @Getter
+    @Setter
+    private int slot = ResolverVisitor.UNRESOLVED;
+
+    public Parameter(String name, int symbolId) {
+        this.name = name;
+        this.symbolId = symbolId;
+    }
+
     @Override
     public void accept(Visitor visitor) {
         visitor.visit(this);
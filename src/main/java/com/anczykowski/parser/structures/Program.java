@@ -2,6 +2,8 @@ package com.anczykowski.parser.structures;
 
 import java.util.HashMap;
 
+import com.anczykowski.parser.arena.AstArena;
+import com.anczykowski.parser.arena.AstArenaBuilder;
 import com.anczykowski.visitors.Visitable;
 import com.anczykowski.visitors.Visitor;
 import lombok.Getter;
@@ -15,6 +17,15 @@ public class Program implements Visitable {
     @Getter
     private final HashMap<String, ClassDef> classes;
 
+    // flat form of the program, built on first use
+    private AstArena arena;
+
+    public AstArena getArena() {
+        if (arena == null) {
+            arena = AstArenaBuilder.build(this);
+        }
+        return arena;
+    }
 
     @Override
     public void accept(Visitor visitor) {
@@ -1,6 +1,6 @@
 package com.anczykowski.parser.structures.expressions;
 
-import com.anczykowski.lexer.Location;
+import com.anczykowski.lexer.SourceSnippet;
 import com.anczykowski.visitors.Visitor;
 
 public class AdditionTerm extends LeftRightExpression {
@@ -9,8 +9,8 @@ public class AdditionTerm extends LeftRightExpression {
         super(left, right);
     }
 
-    public AdditionTerm(Expression left, Expression right, Location location, String characterBuffer) {
-        super(left, right, location, characterBuffer);
+    public AdditionTerm(Expression left, Expression right, String filename, long position, SourceSnippet snippet) {
+        super(left, right, filename, position, snippet);
     }
 
     @Override
@@ -1,6 +1,6 @@
 package com.anczykowski.parser.structures.expressions;
 
-import com.anczykowski.lexer.Location;
+import com.anczykowski.lexer.SourceSnippet;
 import com.anczykowski.visitors.Visitor;
 
 public class AndExpr extends LeftRightExpression {
@@ -10,8 +10,8 @@ public class AndExpr extends LeftRightExpression {
     }
 
     @SuppressWarnings("unused")
-    public AndExpr(Expression left, Expression right, Location location, String characterBuffer) {
-        super(left, right, location, characterBuffer);
+    public AndExpr(Expression left, Expression right, String filename, long position, SourceSnippet snippet) {
+        super(left, right, filename, position, snippet);
     }
 
     @Override
@@ -0,0 +1,18 @@
+package com.anczykowski.parser.structures.expressions;
+
+import com.anczykowski.visitors.Visitor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+// result of folded relations and logical operators, the language itself has no boolean literals
+@RequiredArgsConstructor
+public class BoolConstantExpr extends Expression {
+
+    @Getter
+    private final Boolean value;
+
+    @Override
+    public void accept(Visitor visitor) {
+        visitor.visit(this);
+    }
+}
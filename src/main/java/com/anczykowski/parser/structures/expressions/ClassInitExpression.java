@@ -3,6 +3,9 @@ package com.anczykowski.parser.structures.expressions;
 import java.util.ArrayList;
 
 import com.anczykowski.lexer.Location;
+import com.anczykowski.lexer.Position;
+import com.anczykowski.lexer.SourceSnippet;
+import com.anczykowski.lexer.SymbolTable;
 import com.anczykowski.visitors.Visitor;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -18,11 +21,25 @@ public class ClassInitExpression extends Expression {
     @Getter
     private final ArrayList<Arg> args;
 
+    private String filename = null;
+
+    // see Position
+    @Getter
+    private long position = Position.NONE;
+
     @Getter
-    private Location location = null;
+    private SourceSnippet snippet = null;
 
     @Getter
-    private String characterBuffer = null;
+    private int symbolId = SymbolTable.NO_SYMBOL;
+
+    public Location getLocation() {
+        return Position.toLocation(filename, position);
+    }
+
+    public String getCharacterBuffer() {
+        return snippet == null ? null : snippet.getText();
+    }
 
     @Override
     public void accept(Visitor visitor) {
@@ -0,0 +1,17 @@
+package com.anczykowski.parser.structures.expressions;
+
+import com.anczykowski.visitors.Visitor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+public class DoubleConstantExpr extends Expression {
+
+    @Getter
+    private final Double value;
+
+    @Override
+    public void accept(Visitor visitor) {
+        visitor.visit(this);
+    }
+}
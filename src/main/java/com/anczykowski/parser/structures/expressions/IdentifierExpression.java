@@ -1,5 +1,10 @@
 package com.anczykowski.parser.structures.expressions;
 
+import com.anczykowski.lexer.Location;
+import com.anczykowski.lexer.Position;
+import com.anczykowski.lexer.SourceSnippet;
+import com.anczykowski.lexer.SymbolTable;
+import com.anczykowski.visitors.ResolverVisitor;
 import com.anczykowski.visitors.Visitor;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
@@ -10,6 +15,47 @@ public class IdentifierExpression extends Expression {
     @Getter
     private final String identifier;
 
+    @Getter
+    private int symbolId = SymbolTable.NO_SYMBOL;
+
+    private String filename = null;
+
+    // see Position
+    @Getter
+    private long position = Position.NONE;
+
+    @Getter
+    private SourceSnippet snippet = null;
+
+    // set by ResolverVisitor: nesting level of the block counted from the function and the slot in it, unresolved
+    // identifiers are looked up by name
+    @Getter
+    private int level = ResolverVisitor.UNRESOLVED;
+
+    @Getter
+    private int slot = ResolverVisitor.UNRESOLVED;
+
+    public void resolve(int level, int slot) {
+        this.level = level;
+        this.slot = slot;
+    }
+
+    public IdentifierExpression(String identifier, int symbolId) {
+        this.identifier = identifier;
+        this.symbolId = symbolId;
+    }
+
+    public IdentifierExpression(String identifier, String filename, long position, SourceSnippet snippet, int symbolId) {
+        this(identifier, symbolId);
+        this.filename = filename;
+        this.position = position;
+        this.snippet = snippet;
+    }
+
+    public Location getLocation() {
+        return Position.toLocation(filename, position);
+    }
+
     @Override
     public void accept(Visitor visitor) {
         visitor.visit(this);
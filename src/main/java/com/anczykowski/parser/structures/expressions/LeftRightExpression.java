@@ -1,6 +1,8 @@
 package com.anczykowski.parser.structures.expressions;
 
 import com.anczykowski.lexer.Location;
+import com.anczykowski.lexer.Position;
+import com.anczykowski.lexer.SourceSnippet;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
@@ -14,9 +16,20 @@ public class LeftRightExpression extends Expression{
     @Getter
     private final Expression right;
 
+    private String filename = null;
+
+    // see Position
     @Getter
-    private Location location = null;
+    private long position = Position.NONE;
 
     @Getter
-    private String characterBuffer = null;
+    private SourceSnippet snippet = null;
+
+    public Location getLocation() {
+        return Position.toLocation(filename, position);
+    }
+
+    public String getCharacterBuffer() {
+        return snippet == null ? null : snippet.getText();
+    }
 }
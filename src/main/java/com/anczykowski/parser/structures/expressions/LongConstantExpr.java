@@ -0,0 +1,17 @@
+package com.anczykowski.parser.structures.expressions;
+
+import com.anczykowski.visitors.Visitor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+public class LongConstantExpr extends Expression {
+
+    @Getter
+    private final Long value;
+
+    @Override
+    public void accept(Visitor visitor) {
+        visitor.visit(this);
+    }
+}
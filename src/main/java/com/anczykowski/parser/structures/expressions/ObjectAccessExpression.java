@@ -1,6 +1,8 @@
 package com.anczykowski.parser.structures.expressions;
 
 import com.anczykowski.lexer.Location;
+import com.anczykowski.lexer.Position;
+import com.anczykowski.lexer.SourceSnippet;
 import com.anczykowski.visitors.Visitor;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -16,11 +18,22 @@ public class ObjectAccessExpression extends Expression {
     @Getter
     private final Expression child;
 
+    private String filename = null;
+
+    // see Position
     @Getter
-    private Location location = null;
+    private long position = Position.NONE;
 
     @Getter
-    private String characterBuffer = null;
+    private SourceSnippet snippet = null;
+
+    public Location getLocation() {
+        return Position.toLocation(filename, position);
+    }
+
+    public String getCharacterBuffer() {
+        return snippet == null ? null : snippet.getText();
+    }
 
     @Override
     public void accept(Visitor visitor) {
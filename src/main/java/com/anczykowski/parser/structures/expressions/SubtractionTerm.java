@@ -1,6 +1,6 @@
 package com.anczykowski.parser.structures.expressions;
 
-import com.anczykowski.lexer.Location;
+import com.anczykowski.lexer.SourceSnippet;
 import com.anczykowski.visitors.Visitor;
 
 public class SubtractionTerm extends LeftRightExpression {
@@ -9,8 +9,8 @@ public class SubtractionTerm extends LeftRightExpression {
         super(left, right);
     }
 
-    public SubtractionTerm(Expression left, Expression right, Location location, String characterBuffer) {
-        super(left, right, location, characterBuffer);
+    public SubtractionTerm(Expression left, Expression right, String filename, long position, SourceSnippet snippet) {
+        super(left, right, filename, position, snippet);
     }
 
     @Override
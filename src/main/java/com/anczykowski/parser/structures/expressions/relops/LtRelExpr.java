@@ -1,6 +1,6 @@
 package com.anczykowski.parser.structures.expressions.relops;
 
-import com.anczykowski.lexer.Location;
+import com.anczykowski.lexer.SourceSnippet;
 import com.anczykowski.parser.structures.expressions.Expression;
 import com.anczykowski.parser.structures.expressions.LeftRightExpression;
 import com.anczykowski.visitors.Visitor;
@@ -11,8 +11,8 @@ public class LtRelExpr extends LeftRightExpression {
         super(left, right);
     }
 
-    public LtRelExpr(Expression left, Expression right, Location location, String characterBuffer) {
-        super(left, right, location, characterBuffer);
+    public LtRelExpr(Expression left, Expression right, String filename, long position, SourceSnippet snippet) {
+        super(left, right, filename, position, snippet);
     }
 
     @Override
@@ -1,6 +1,8 @@
 package com.anczykowski.parser.structures.statements;
 
 import com.anczykowski.lexer.Location;
+import com.anczykowski.lexer.Position;
+import com.anczykowski.lexer.SourceSnippet;
 import com.anczykowski.parser.structures.expressions.Expression;
 import com.anczykowski.visitors.Visitor;
 import lombok.AllArgsConstructor;
@@ -17,11 +19,22 @@ public class AssignmentStatement extends Statement {
     @Getter
     private final Expression rval;
 
+    private String filename = null;
+
+    // see Position
     @Getter
-    private Location location = null;
+    private long position = Position.NONE;
 
     @Getter
-    private String characterBuffer = null;
+    private SourceSnippet snippet = null;
+
+    public Location getLocation() {
+        return Position.toLocation(filename, position);
+    }
+
+    public String getCharacterBuffer() {
+        return snippet == null ? null : snippet.getText();
+    }
 
     @Override
     public void accept(Visitor visitor) {
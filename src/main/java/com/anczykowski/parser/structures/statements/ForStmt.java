@@ -1,15 +1,18 @@
 package com.anczykowski.parser.structures.statements;
 
 import com.anczykowski.lexer.Location;
+import com.anczykowski.lexer.Position;
+import com.anczykowski.lexer.SourceSnippet;
+import com.anczykowski.lexer.SymbolTable;
 import com.anczykowski.parser.structures.CodeBLock;
 import com.anczykowski.parser.structures.expressions.Expression;
+import com.anczykowski.visitors.ResolverVisitor;
 import com.anczykowski.visitors.Visitor;
-import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
+import lombok.Setter;
 
 @RequiredArgsConstructor
-@AllArgsConstructor
 public class ForStmt extends Statement {
 
     @Getter
@@ -21,11 +24,41 @@ public class ForStmt extends Statement {
     @Getter
     private final CodeBLock codeBLock;
 
+    private String filename = null;
+
+    // see Position
+    @Getter
+    private long position = Position.NONE;
+
     @Getter
-    private Location location = null;
+    private SourceSnippet snippet = null;
 
     @Getter
-    private String characterBuffer = null;
+    private int symbolId = SymbolTable.NO_SYMBOL;
+
+    // see ResolverVisitor
+    @Getter
+    @Setter
+    private int slot = ResolverVisitor.UNRESOLVED;
+
+    public ForStmt(String iteratorIdentifier, Expression iterable, CodeBLock codeBLock, String filename, long position,
+                   SourceSnippet snippet, int symbolId) {
+        this.iteratorIdentifier = iteratorIdentifier;
+        this.iterable = iterable;
+        this.codeBLock = codeBLock;
+        this.filename = filename;
+        this.position = position;
+        this.snippet = snippet;
+        this.symbolId = symbolId;
+    }
+
+    public Location getLocation() {
+        return Position.toLocation(filename, position);
+    }
+
+    public String getCharacterBuffer() {
+        return snippet == null ? null : snippet.getText();
+    }
 
     @Override
     public void accept(Visitor visitor) {
@@ -5,9 +5,11 @@ import java.util.Map;
 import com.anczykowski.parser.structures.CodeBLock;
 import com.anczykowski.parser.structures.SwitchLabel;
 import com.anczykowski.parser.structures.expressions.Expression;
+import com.anczykowski.visitors.ResolverVisitor;
 import com.anczykowski.visitors.Visitor;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
+import lombok.Setter;
 
 @RequiredArgsConstructor
 public class SwitchStmt extends Statement {
@@ -18,6 +20,11 @@ public class SwitchStmt extends Statement {
     @Getter
     private final Map<SwitchLabel, CodeBLock> switchElements;
 
+    // slots of the context shared by all labels, the switched value is in ResolverVisitor.SWITCH_VALUE_SLOT
+    @Getter
+    @Setter
+    private int frameSize = ResolverVisitor.UNRESOLVED;
+
     @Override
     public void accept(Visitor visitor) {
         visitor.visit(this);
@@ -7,9 +7,13 @@ import com.anczykowski.errormodule.exceptions.InterpreterException;
 import com.anczykowski.interpreter.Context;
 import com.anczykowski.interpreter.ContextManager;
 import com.anczykowski.interpreter.ListFuncDef;
+import com.anczykowski.interpreter.MethodTable;
 import com.anczykowski.interpreter.PrintCodeBlock;
+import com.anczykowski.interpreter.SymbolManager;
 import com.anczykowski.interpreter.value.ClassValue;
 import com.anczykowski.interpreter.value.*;
+import com.anczykowski.lexer.Position;
+import com.anczykowski.lexer.SymbolTable;
 import com.anczykowski.parser.structures.*;
 import com.anczykowski.parser.structures.expressions.*;
 import com.anczykowski.parser.structures.expressions.relops.*;
@@ -18,6 +22,7 @@ import com.anczykowski.parser.structures.statements.*;
 import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.function.BiFunction;
 import java.util.function.BinaryOperator;
 import java.util.regex.Matcher;
@@ -25,11 +30,35 @@ import java.util.regex.Pattern;
 
 public class InterpreterVisitor implements Visitor {
 
+    // underlined parts of error snippets, looked for only when an error is printed
+    private static final Pattern ASSIGNED_VALUE = Pattern.compile(".*=\\s*(.*)");
+
+    static final Pattern CALL_ARGUMENTS = Pattern.compile("[(](.*)[)]");
+
     private final ErrorModule errorModule;
 
     private final PrintStream printStream;
 
-    protected final ContextManager contextManager = new ContextManager();
+    private final SymbolTable symbolTable;
+
+    protected final ContextManager contextManager;
+
+    // shared by all objects of a class
+    private final IdentityHashMap<ClassDef, MethodTable> methodTables = new IdentityHashMap<>();
+
+    // calls bound by LinkerVisitor, their arguments are already counted
+    private IdentityHashMap<FunctionCallExpression, FuncDef> targets = new IdentityHashMap<>();
+
+    // last method called at a call site on an object and the method table it was found in
+    private record CachedMethod(MethodTable methods, FuncDef method) {
+    }
+
+    private final IdentityHashMap<FunctionCallExpression, CachedMethod> cachedMethods = new IdentityHashMap<>();
+
+    // symbols used by the interpreter itself
+    private final int mainSymbol;
+
+    private final int initSymbol;
 
     protected boolean isReturn = false;
 
@@ -37,14 +66,28 @@ public class InterpreterVisitor implements Visitor {
 
     ArrayList<ValueProxy> argumentsEvaluated = new ArrayList<>();
 
-    public InterpreterVisitor(ErrorModule errorModule, PrintStream printStream) {
+    // symbolTable has to be the one the program was parsed with, so that symbol ids in nodes match
+    public InterpreterVisitor(ErrorModule errorModule, PrintStream printStream, SymbolTable symbolTable) {
         this.errorModule = errorModule;
         this.printStream = printStream;
+        this.symbolTable = symbolTable;
+        this.contextManager = new ContextManager(symbolTable);
+        this.mainSymbol = symbolTable.getId("main");
+        this.initSymbol = symbolTable.getId("init");
+    }
+
+    public InterpreterVisitor(ErrorModule errorModule, PrintStream printStream) {
+        this(errorModule, printStream, new SymbolTable());
     }
 
     public InterpreterVisitor(ErrorModule errorModule) {
-        this.errorModule = errorModule;
-        this.printStream = System.out;
+        this(errorModule, System.out);
+    }
+
+    // names looked up at run time (functions, classes, attributes and members) of nodes built without a symbol table,
+    // e.g. by hand
+    private int resolve(int symbolId, String name) {
+        return symbolId != SymbolTable.NO_SYMBOL ? symbolId : symbolTable.getId(name);
     }
 
     private ValueProxy consumeLastResult(){
@@ -55,24 +98,29 @@ public class InterpreterVisitor implements Visitor {
 
     @Override
     public void visit(Program program) {
+        ResolverVisitor.resolve(program);
         contextManager.getGlobalSymbolManager().addFunctions(program.getFunctions());
         contextManager.getGlobalSymbolManager().addClasses(program.getClasses());
+        program.getClasses().values().forEach(cls -> methodTables.put(cls, new MethodTable(cls, symbolTable)));
 
         loadBultins();
+        targets = LinkerVisitor.link(program, contextManager.getGlobalSymbolManager(), errorModule);
 
-        var mainFunctionCall = new FunctionCallExpression("main", new ArrayList<>());
+        var mainFunctionCall = new FunctionCallExpression("main", new ArrayList<>(), null, Position.NONE, null, mainSymbol);
         mainFunctionCall.accept(this);
     }
 
     protected void loadBultins(){
+        var print = new FuncDef(
+                "print",
+                new ArrayList<>() {{
+                    add(new Parameter("valueToPrint"));
+                }},
+                new PrintCodeBlock()
+        );
+        ResolverVisitor.resolve(print);
         contextManager.getGlobalSymbolManager().addFunctions(new HashMap<>() {{
-            put("print", new FuncDef(
-                    "print",
-                    new ArrayList<>() {{
-                        add(new Parameter("valueToPrint"));
-                    }},
-                    new PrintCodeBlock()
-            ));
+            put("print", print);
 
             put("list", new ListFuncDef());
         }});
@@ -85,16 +133,15 @@ public class InterpreterVisitor implements Visitor {
 
     @Override
     public void visit(FuncDef funcDef) {
-        var newContext = new Context(!funcDef.getIsMethod());
+        var newContext = new Context(!funcDef.getIsMethod(), funcDef.getCodeBLock().getFrameSize());
         var paramIterator = funcDef.getParams().iterator();
         var argIterator = argumentsEvaluated.iterator();
         while (paramIterator.hasNext() && argIterator.hasNext()) {
             var param = paramIterator.next();
-            var argValueProxy = argIterator.next();
-            newContext.addVariable(param.getName(), argValueProxy);
+            newContext.setSlot(param.getSlot(), argIterator.next());
         }
         argumentsEvaluated.clear();
-        contextManager.addContext(newContext);
+        contextManager.addFunctionContext(newContext);
         funcDef.getCodeBLock().accept(this);
         contextManager.popContext();
         isReturn = false;
@@ -110,7 +157,8 @@ public class InterpreterVisitor implements Visitor {
 
     @Override
     public void visit(FunctionCallExpression functionCallExpression) {
-        var functionDef = contextManager.getFunction(functionCallExpression.getIdentifier());
+        var target = targets.get(functionCallExpression);
+        var functionDef = target != null ? target : getFunction(functionCallExpression);
         if(functionDef == null){
             errorModule.addError(ErrorElement.builder()
                     .errorType(ErrorType.UNDEFINED_SYMBOL)
@@ -129,12 +177,13 @@ public class InterpreterVisitor implements Visitor {
             }
         }
 
-        if (functionDef.getRequireArgMatch() && functionDef.getParams().size() != argumentsEvaluated.size()) {
+        if (target == null && functionDef.getRequireArgMatch()
+            && functionDef.getParams().size() != argumentsEvaluated.size()) {
             errorModule.addError(ErrorElement.builder()
                     .errorType(ErrorType.UNMATCHED_ARGUMENTS)
                     .location(functionCallExpression.getLocation())
-                    .codeLineBuffer(functionCallExpression.getCharacterBuffer())
-                    .underlineFragment(getUnderline(functionCallExpression.getCharacterBuffer(), "[(](.*)[)]"))
+                    .codeSnippet(functionCallExpression.getSnippet())
+                    .underlineFragmentSupplier(() -> getUnderline(functionCallExpression.getCharacterBuffer(), CALL_ARGUMENTS))
                     .explanation("expected %d arguments but %d provided.".formatted(functionDef.getParams().size(), argumentsEvaluated.size()))
                     .build());
         }
@@ -142,6 +191,24 @@ public class InterpreterVisitor implements Visitor {
         functionDef.accept(this);
     }
 
+    // calls on objects remember the method of the last class
+    private FuncDef getFunction(FunctionCallExpression functionCallExpression) {
+        var symbolId = resolve(functionCallExpression.getSymbolId(), functionCallExpression.getIdentifier());
+        var methods = contextManager.getMethods();
+        if (methods != null) {
+            var cached = cachedMethods.get(functionCallExpression);
+            if (cached != null && cached.methods() == methods) {
+                return cached.method();
+            }
+            var method = methods.getMethod(symbolId);
+            if (method != null) {
+                cachedMethods.put(functionCallExpression, new CachedMethod(methods, method));
+                return method;
+            }
+        }
+        return contextManager.getGlobalSymbolManager().getFunction(symbolId);
+    }
+
     private void evaluateArgs(FunctionCallExpression functionCallExpression) {
         for (Arg arg : functionCallExpression.getArgs()) {
             var argumentsEvaluatedCopy = new ArrayList<>(argumentsEvaluated);
@@ -169,13 +236,18 @@ public class InterpreterVisitor implements Visitor {
             errorModule.addError(ErrorElement.builder()
                     .errorType(ErrorType.UNSUPPORTED_OPERATION)
                     .location(varStmt.getLocation())
-                    .codeLineBuffer(varStmt.getCharacterBuffer())
-                    .underlineFragment(getUnderline(varStmt.getCharacterBuffer(), ".*=\\s*(.*)"))
+                    .codeSnippet(varStmt.getSnippet())
+                    .underlineFragmentSupplier(() -> getUnderline(varStmt.getCharacterBuffer(), ASSIGNED_VALUE))
                     .explanation("tried assigning void to a new variable")
                     .build());
             return;
         }
-        contextManager.addVariable(varStmt.getName(), consumeLastResult());
+        // attributes have no slot, they are looked up by name in the object's context
+        if (varStmt.getSlot() != ResolverVisitor.UNRESOLVED) {
+            contextManager.setVariable(varStmt.getSlot(), consumeLastResult());
+        } else {
+            contextManager.addVariable(resolve(varStmt.getSymbolId(), varStmt.getName()), varStmt.getName(), consumeLastResult());
+        }
     }
 
     @Override
@@ -192,7 +264,8 @@ public class InterpreterVisitor implements Visitor {
 
     @Override
     public void visit(PrintCodeBlock printCodeBlock) {
-        var valueToPrint = contextManager.getVariable("valueToPrint");
+        // the only parameter of print
+        var valueToPrint = contextManager.getVariable(0, 0);
         printStream.println(valueToPrint.getValue().toString());
     }
 
@@ -206,12 +279,18 @@ public class InterpreterVisitor implements Visitor {
 
     @Override
     public void visit(IdentifierExpression identifierExpression) {
-        var declaredVariable = contextManager.getVariable(identifierExpression.getIdentifier());
+        // attributes, members and names not declared where they are used are left unresolved
+        var declaredVariable = identifierExpression.getSlot() != ResolverVisitor.UNRESOLVED
+            ? contextManager.getVariable(identifierExpression.getLevel(), identifierExpression.getSlot())
+            : contextManager.getVariable(resolve(identifierExpression.getSymbolId(), identifierExpression.getIdentifier()));
         if (declaredVariable != null) {
             lastResult = declaredVariable;
         } else {
             errorModule.addError(ErrorElement.builder()
                     .errorType(ErrorType.UNDECLARED_VARIABLE)
+                    .location(identifierExpression.getLocation())
+                    .codeSnippet(identifierExpression.getSnippet())
+                    .underlineFragment(identifierExpression.getIdentifier())
                     .build()
             );
             throw new InterpreterException();
@@ -230,8 +309,8 @@ public class InterpreterVisitor implements Visitor {
             errorModule.addError(ErrorElement.builder()
                     .errorType(ErrorType.UNSUPPORTED_OPERATION)
                     .location(objectAccessExpression.getLocation())
-                    .codeLineBuffer(objectAccessExpression.getCharacterBuffer())
-                    .underlineFragment(objectAccessExpression.getCharacterBuffer().trim())
+                    .codeSnippet(objectAccessExpression.getSnippet())
+                    .underlineFragmentSupplier(() -> objectAccessExpression.getCharacterBuffer().trim())
                     .explanation("object access only allowed on class instances")
                     .build()
             );
@@ -246,12 +325,12 @@ public class InterpreterVisitor implements Visitor {
 
     @Override
     public void visit(ClassInitExpression classInitExpression) {
-        var cls = contextManager.getGlobalSymbolManager().getClass(classInitExpression.getIdentifier());
+        var cls = contextManager.getGlobalSymbolManager().getClass(resolve(classInitExpression.getSymbolId(), classInitExpression.getIdentifier()));
         if (cls == null){
             errorModule.addError(ErrorElement.builder()
                     .errorType(ErrorType.UNDEFINED_SYMBOL)
                     .location(classInitExpression.getLocation())
-                    .codeLineBuffer(classInitExpression.getCharacterBuffer())
+                    .codeSnippet(classInitExpression.getSnippet())
                     .underlineFragment(classInitExpression.getIdentifier())
                     .explanation("%s unknown".formatted(classInitExpression.getIdentifier()))
                     .build()
@@ -259,16 +338,14 @@ public class InterpreterVisitor implements Visitor {
             throw new InterpreterException();
         }
 
-        var classContext = new Context(true);
-        classContext.getLocalSymbolManager().addFunctions(cls.getClassBody().getMethods());
-
+        var classContext = new Context(true, getMethods(cls));
         contextManager.addContext(classContext);
         cls.getClassBody().getAttributes().values().forEach(varStmt -> varStmt.accept(this));
         contextManager.popContext();
         var classValue = new ClassValue(cls.getName(), classContext);
 
         contextManager.addContext(classValue.getClassContext());
-        var initFunctionCall = new FunctionCallExpression("init", classInitExpression.getArgs());
+        var initFunctionCall = new FunctionCallExpression("init", classInitExpression.getArgs(), null, Position.NONE, null, initSymbol);
         initFunctionCall.accept(this);
         contextManager.popContext();
 
@@ -279,7 +356,9 @@ public class InterpreterVisitor implements Visitor {
             LeftRightExpression leftRightExpression,
             String operationName,
             BinaryOperator<Integer> integerOperation,
-            BinaryOperator<Float> floatOperation
+            BinaryOperator<Float> floatOperation,
+            BinaryOperator<Long> longOperation,
+            BinaryOperator<Double> doubleOperation
     ) {
         leftRightExpression.getLeft().accept(this);
         var leftValue = consumeLastResult().getValue();
@@ -289,12 +368,16 @@ public class InterpreterVisitor implements Visitor {
             lastResult = new ValueProxy(new IntValue(integerOperation.apply(left.getValue(), right.getValue())));
         } else if (leftValue instanceof FloatValue left && rightValue instanceof FloatValue right) {
             lastResult = new ValueProxy(new FloatValue(floatOperation.apply(left.getValue(), right.getValue())));
+        } else if (leftValue instanceof LongValue left && rightValue instanceof LongValue right) {
+            lastResult = new ValueProxy(new LongValue(longOperation.apply(left.getValue(), right.getValue())));
+        } else if (leftValue instanceof DoubleValue left && rightValue instanceof DoubleValue right) {
+            lastResult = new ValueProxy(new DoubleValue(doubleOperation.apply(left.getValue(), right.getValue())));
         } else {
             errorModule.addError(ErrorElement.builder()
                     .errorType(ErrorType.UNSUPPORTED_OPERATION)
                     .location(leftRightExpression.getLocation())
-                    .codeLineBuffer(leftRightExpression.getCharacterBuffer())
-                    .underlineFragment(getUnderline(leftRightExpression.getCharacterBuffer(), ".*(\\s*" + Pattern.quote(leftValue.toString()) + ".*" + Pattern.quote(rightValue.toString()) + "\\s*)"))
+                    .codeSnippet(leftRightExpression.getSnippet())
+                    .underlineFragmentSupplier(() -> getOperandsUnderline(leftRightExpression, leftValue, rightValue))
                     .explanation("%s is only supported on object of the same type. You may need to cast one of the expressions first.".formatted(operationName))
                     .build()
             );
@@ -306,7 +389,9 @@ public class InterpreterVisitor implements Visitor {
             LeftRightExpression leftRightExpression,
             String operationName,
             BiFunction<Integer, Integer, Boolean> integerOperation,
-            BiFunction<Float, Float, Boolean> floatOperation
+            BiFunction<Float, Float, Boolean> floatOperation,
+            BiFunction<Long, Long, Boolean> longOperation,
+            BiFunction<Double, Double, Boolean> doubleOperation
     ) {
         leftRightExpression.getLeft().accept(this);
         var leftValue = consumeLastResult().getValue();
@@ -316,12 +401,16 @@ public class InterpreterVisitor implements Visitor {
             lastResult = new ValueProxy(new BoolValue(integerOperation.apply(left.getValue(), right.getValue())));
         } else if (leftValue instanceof FloatValue left && rightValue instanceof FloatValue right) {
             lastResult = new ValueProxy(new BoolValue(floatOperation.apply(left.getValue(), right.getValue())));
+        } else if (leftValue instanceof LongValue left && rightValue instanceof LongValue right) {
+            lastResult = new ValueProxy(new BoolValue(longOperation.apply(left.getValue(), right.getValue())));
+        } else if (leftValue instanceof DoubleValue left && rightValue instanceof DoubleValue right) {
+            lastResult = new ValueProxy(new BoolValue(doubleOperation.apply(left.getValue(), right.getValue())));
         } else {
             errorModule.addError(ErrorElement.builder()
                     .errorType(ErrorType.UNSUPPORTED_OPERATION)
                     .location(leftRightExpression.getLocation())
-                    .underlineFragment(getUnderline(leftRightExpression.getCharacterBuffer(), ".*(\\s*" + Pattern.quote(leftValue.toString()) + ".*" + Pattern.quote(rightValue.toString()) + "\\s*)"))
-                    .codeLineBuffer(leftRightExpression.getCharacterBuffer())
+                    .underlineFragmentSupplier(() -> getOperandsUnderline(leftRightExpression, leftValue, rightValue))
+                    .codeSnippet(leftRightExpression.getSnippet())
                     .explanation("%s is only supported on object of the same type. You may need to cast one of the expressions first.".formatted(operationName))
                     .build()
             );
@@ -344,8 +433,8 @@ public class InterpreterVisitor implements Visitor {
             errorModule.addError(ErrorElement.builder()
                     .errorType(ErrorType.UNSUPPORTED_OPERATION)
                     .location(leftRightExpression.getLocation())
-                    .underlineFragment(getUnderline(leftRightExpression.getCharacterBuffer(), ".*(\\s*" + Pattern.quote(leftValue.toString()) + ".*" + Pattern.quote(rightValue.toString()) + "\\s*)"))
-                    .codeLineBuffer(leftRightExpression.getCharacterBuffer())
+                    .underlineFragmentSupplier(() -> getOperandsUnderline(leftRightExpression, leftValue, rightValue))
+                    .codeSnippet(leftRightExpression.getSnippet())
                     .explanation("%s is only supported on object of the same type. You may need to cast one of the expressions first.".formatted(operationName))
                     .build()
             );
@@ -365,48 +454,52 @@ public class InterpreterVisitor implements Visitor {
 
     @Override
     public void visit(EqRelExpr eqRelExpr) {
-        evaluateLeftRightRelational(eqRelExpr, "eq", Integer::equals, Float::equals);
+        evaluateLeftRightRelational(eqRelExpr, "eq", Integer::equals, Float::equals, Long::equals, Double::equals);
     }
 
     @Override
     public void visit(GeRelExpr geRelExpr) {
-        evaluateLeftRightRelational(geRelExpr, "ge", (a, b) -> a >= b, (a, b) -> a >= b);
+        evaluateLeftRightRelational(geRelExpr, "ge", (a, b) -> a >= b, (a, b) -> a >= b, (a, b) -> a >= b, (a, b) -> a >= b);
     }
 
     @Override
     public void visit(GtRelExpr gtRelExpr) {
-        evaluateLeftRightRelational(gtRelExpr, "gt", (a, b) -> a > b, (a, b) -> a > b);
+        evaluateLeftRightRelational(gtRelExpr, "gt", (a, b) -> a > b, (a, b) -> a > b, (a, b) -> a > b, (a, b) -> a > b);
     }
 
     @Override
     public void visit(LtRelExpr ltRelExpr) {
-        evaluateLeftRightRelational(ltRelExpr, "lt", (a, b) -> a < b, (a, b) -> a < b);
+        evaluateLeftRightRelational(ltRelExpr, "lt", (a, b) -> a < b, (a, b) -> a < b, (a, b) -> a < b, (a, b) -> a < b);
     }
 
     @Override
     public void visit(LeRelExpr leRelExpr) {
-        evaluateLeftRightRelational(leRelExpr, "le", (a, b) -> a <= b, (a, b) -> a <= b);
+        evaluateLeftRightRelational(leRelExpr, "le", (a, b) -> a <= b, (a, b) -> a <= b, (a, b) -> a <= b, (a, b) -> a <= b);
     }
 
     @Override
     public void visit(NeRelExpr neRelOpArg) {
-        evaluateLeftRightRelational(neRelOpArg, "ne", (a, b) -> !a.equals(b), (a, b) -> !a.equals(b));
+        evaluateLeftRightRelational(neRelOpArg, "ne", (a, b) -> !a.equals(b), (a, b) -> !a.equals(b), (a, b) -> !a.equals(b),
+                (a, b) -> !a.equals(b));
     }
 
     @Override
     @SuppressWarnings("Convert2MethodRef")
     public void visit(AdditionTerm additionTerm) {
-        evaluateLeftRightNumerical(additionTerm, "addition", (a, b) -> a + b, (a, b) -> a + b);
+        evaluateLeftRightNumerical(additionTerm, "addition", (a, b) -> a + b, (a, b) -> a + b, (a, b) -> a + b,
+                (a, b) -> a + b);
     }
 
     @Override
     public void visit(SubtractionTerm subtractionTerm) {
-        evaluateLeftRightNumerical(subtractionTerm, "subtraction", (a, b) -> a - b, (a, b) -> a - b);
+        evaluateLeftRightNumerical(subtractionTerm, "subtraction", (a, b) -> a - b, (a, b) -> a - b, (a, b) -> a - b,
+                (a, b) -> a - b);
     }
 
     @Override
     public void visit(MultiplicationFactor multiplicationFactor) {
-        evaluateLeftRightNumerical(multiplicationFactor, "multiplication", (a, b) -> a * b, (a, b) -> a * b);
+        evaluateLeftRightNumerical(multiplicationFactor, "multiplication", (a, b) -> a * b, (a, b) -> a * b, (a, b) -> a * b,
+                (a, b) -> a * b);
     }
 
     @Override
@@ -421,6 +514,16 @@ public class InterpreterVisitor implements Visitor {
                 handleDivisionByZero(divisionFactor);
             }
             return a / b;
+        }, (a, b) -> {
+            if (b == 0) {
+                handleDivisionByZero(divisionFactor);
+            }
+            return a / b;
+        }, (a, b) -> {
+            if (b.compareTo(0.0) == 0) {
+                handleDivisionByZero(divisionFactor);
+            }
+            return a / b;
         });
     }
 
@@ -428,7 +531,7 @@ public class InterpreterVisitor implements Visitor {
         errorModule.addError(ErrorElement.builder()
                 .errorType(ErrorType.DIVISION_BY_ZERO)
                 .location(divisionFactor.getLocation())
-                .codeLineBuffer(divisionFactor.getCharacterBuffer())
+                .codeSnippet(divisionFactor.getSnippet())
                 .underlineFragment("/")
                 .build()
         );
@@ -445,6 +548,21 @@ public class InterpreterVisitor implements Visitor {
         lastResult = new ValueProxy(new FloatValue(floatConstantExpr.getValue()));
     }
 
+    @Override
+    public void visit(LongConstantExpr longConstantExpr) {
+        lastResult = new ValueProxy(new LongValue(longConstantExpr.getValue()));
+    }
+
+    @Override
+    public void visit(DoubleConstantExpr doubleConstantExpr) {
+        lastResult = new ValueProxy(new DoubleValue(doubleConstantExpr.getValue()));
+    }
+
+    @Override
+    public void visit(BoolConstantExpr boolConstantExpr) {
+        lastResult = new ValueProxy(new BoolValue(boolConstantExpr.getValue()));
+    }
+
     @Override
     public void visit(NegatedExpression negatedExpression) {
         if (negatedExpression.getInner() != null) {
@@ -453,6 +571,10 @@ public class InterpreterVisitor implements Visitor {
                 lastResult = new ValueProxy(new IntValue(-intValue.getValue()));
             } else if (lastResult.getValue() instanceof FloatValue floatValue) {
                 lastResult = new ValueProxy(new FloatValue(-floatValue.getValue()));
+            } else if (lastResult.getValue() instanceof LongValue longValue) {
+                lastResult = new ValueProxy(new LongValue(-longValue.getValue()));
+            } else if (lastResult.getValue() instanceof DoubleValue doubleValue) {
+                lastResult = new ValueProxy(new DoubleValue(-doubleValue.getValue()));
             } else if (lastResult.getValue() instanceof BoolValue boolValue) {
                 lastResult = new ValueProxy(new BoolValue(!boolValue.getValue()));
             }
@@ -468,8 +590,8 @@ public class InterpreterVisitor implements Visitor {
             errorModule.addError(ErrorElement.builder()
                     .errorType(ErrorType.UNSUPPORTED_OPERATION)
                     .location(assignmentStatement.getLocation())
-                    .codeLineBuffer(assignmentStatement.getCharacterBuffer())
-                    .underlineFragment(getUnderline(assignmentStatement.getCharacterBuffer(), ".*=\\s*(.*)"))
+                    .codeSnippet(assignmentStatement.getSnippet())
+                    .underlineFragmentSupplier(() -> getUnderline(assignmentStatement.getCharacterBuffer(), ASSIGNED_VALUE))
                     .explanation("tried assigning void to a variable")
                     .build());
             return;
@@ -478,8 +600,12 @@ public class InterpreterVisitor implements Visitor {
         lval.setValue(rval);
     }
 
-    private String getUnderline(String buffer, String regexStr){
-        Pattern pattern = Pattern.compile(regexStr);
+    private static String getOperandsUnderline(LeftRightExpression leftRightExpression, Value leftValue, Value rightValue) {
+        var pattern = Pattern.compile(".*(\\s*" + Pattern.quote(leftValue.toString()) + ".*" + Pattern.quote(rightValue.toString()) + "\\s*)");
+        return getUnderline(leftRightExpression.getCharacterBuffer(), pattern);
+    }
+
+    static String getUnderline(String buffer, Pattern pattern){
         if(buffer != null){
             Matcher matcher = pattern.matcher(buffer);
             if (matcher.find())
@@ -510,6 +636,10 @@ public class InterpreterVisitor implements Visitor {
                     lastResult = new ValueProxy(new IntValue(intValue.getValue()));
                 } else if (lastResult.getValue() instanceof FloatValue floatValue) {
                     lastResult = new ValueProxy(new IntValue((int) floatValue.getValue()));
+                } else if (lastResult.getValue() instanceof LongValue longValue) {
+                    lastResult = new ValueProxy(new IntValue(longValue.getValue().intValue()));
+                } else if (lastResult.getValue() instanceof DoubleValue doubleValue) {
+                    lastResult = new ValueProxy(new IntValue((int) doubleValue.getValue()));
                 } else {
                     handleUnsupportedCast(castExpression);
                 }
@@ -519,6 +649,36 @@ public class InterpreterVisitor implements Visitor {
                     lastResult = new ValueProxy(new FloatValue((float) intValue.getValue()));
                 } else if (lastResult.getValue() instanceof FloatValue floatValue) {
                     lastResult = new ValueProxy(new FloatValue(floatValue.getValue()));
+                } else if (lastResult.getValue() instanceof LongValue longValue) {
+                    lastResult = new ValueProxy(new FloatValue((float) longValue.getValue()));
+                } else if (lastResult.getValue() instanceof DoubleValue doubleValue) {
+                    lastResult = new ValueProxy(new FloatValue((float) doubleValue.getValue()));
+                } else {
+                    handleUnsupportedCast(castExpression);
+                }
+            }
+            case "long" -> {
+                if (lastResult.getValue() instanceof IntValue intValue) {
+                    lastResult = new ValueProxy(new LongValue((long) intValue.getValue()));
+                } else if (lastResult.getValue() instanceof FloatValue floatValue) {
+                    lastResult = new ValueProxy(new LongValue((long) floatValue.getValue()));
+                } else if (lastResult.getValue() instanceof LongValue longValue) {
+                    lastResult = new ValueProxy(new LongValue(longValue.getValue()));
+                } else if (lastResult.getValue() instanceof DoubleValue doubleValue) {
+                    lastResult = new ValueProxy(new LongValue((long) doubleValue.getValue()));
+                } else {
+                    handleUnsupportedCast(castExpression);
+                }
+            }
+            case "double" -> {
+                if (lastResult.getValue() instanceof IntValue intValue) {
+                    lastResult = new ValueProxy(new DoubleValue((double) intValue.getValue()));
+                } else if (lastResult.getValue() instanceof FloatValue floatValue) {
+                    lastResult = new ValueProxy(new DoubleValue(floatValue.getValue()));
+                } else if (lastResult.getValue() instanceof LongValue longValue) {
+                    lastResult = new ValueProxy(new DoubleValue((double) longValue.getValue()));
+                } else if (lastResult.getValue() instanceof DoubleValue doubleValue) {
+                    lastResult = new ValueProxy(new DoubleValue(doubleValue.getValue()));
                 } else {
                     handleUnsupportedCast(castExpression);
                 }
@@ -535,12 +695,18 @@ public class InterpreterVisitor implements Visitor {
                 .errorType(ErrorType.UNSUPPORTED_OPERATION)
                 .errorType(ErrorType.UNSUPPORTED_OPERATION)
                 .location(castExpression.getLocation())
-                .codeLineBuffer(castExpression.getCharacterBuffer())
+                .codeSnippet(castExpression.getSnippet())
                 .underlineFragment("as")
                 .explanation("Can only cast int/float to int (got lhs of type: %s)".formatted(lhsClassName))
                 .build());
     }
 
+    // tables are built when the program is loaded, classes registered without it (e.g. by hand) get theirs when first
+    // instantiated; objects only keep their attributes
+    private MethodTable getMethods(ClassDef cls) {
+        return methodTables.computeIfAbsent(cls, c -> new MethodTable(c, symbolTable));
+    }
+
     @Override
     public void visit(SwitchLabel switchLabel) {
     }
@@ -561,12 +727,12 @@ public class InterpreterVisitor implements Visitor {
         var evaluatedCondition = consumeLastResult().getValue();
         if (evaluatedCondition instanceof BoolValue boolCondition) {
             if (boolCondition.getValue()) {
-                contextManager.addContext(new Context());
+                contextManager.addContext(new Context(false, condStmt.getTrueBlock().getFrameSize()));
                 condStmt.getTrueBlock().accept(this);
                 contextManager.popContext();
             } else {
                 if (condStmt.getElseBlock() != null) {
-                    contextManager.addContext(new Context());
+                    contextManager.addContext(new Context(false, condStmt.getElseBlock().getFrameSize()));
                     condStmt.getElseBlock().accept(this);
                     contextManager.popContext();
                 }
@@ -577,7 +743,7 @@ public class InterpreterVisitor implements Visitor {
     @Override
     public void visit(WhileStmt whileStmt) {
         while (checkCondition(whileStmt.getCondition())) {
-            contextManager.addContext(new Context());
+            contextManager.addContext(new Context(false, whileStmt.getCodeBLock().getFrameSize()));
             whileStmt.getCodeBLock().accept(this);
             contextManager.popContext();
             if (isReturn) {
@@ -605,8 +771,8 @@ public class InterpreterVisitor implements Visitor {
         var iterable = consumeLastResult();
         if (iterable.getValue() instanceof ListValue iterableList) {
             for (ValueProxy listElement : iterableList.getValues()) {
-                contextManager.addContext(new Context());
-                contextManager.addVariable(forStmt.getIteratorIdentifier(), listElement);
+                contextManager.addContext(new Context(false, forStmt.getCodeBLock().getFrameSize()));
+                contextManager.setVariable(forStmt.getSlot(), listElement);
                 forStmt.getCodeBLock().accept(this);
                 contextManager.popContext();
             }
@@ -614,7 +780,7 @@ public class InterpreterVisitor implements Visitor {
             errorModule.addError(ErrorElement.builder()
                     .errorType(ErrorType.UNSUPPORTED_OPERATION)
                     .location(forStmt.getLocation())
-                    .codeLineBuffer(forStmt.getCharacterBuffer())
+                    .codeSnippet(forStmt.getSnippet())
                     .underlineFragment("in")
                     .explanation("iterable in for statement must be a list.")
                     .build());
@@ -625,8 +791,8 @@ public class InterpreterVisitor implements Visitor {
     public void visit(SwitchStmt switchStmt) {
         switchStmt.getExpression().accept(this);
         var switchedExpr = consumeLastResult();
-        contextManager.addContext(new Context());
-        contextManager.addVariable("value", switchedExpr);
+        contextManager.addContext(new Context(false, switchStmt.getFrameSize()));
+        contextManager.setVariable(ResolverVisitor.SWITCH_VALUE_SLOT, switchedExpr);
         boolean matched = false;
         for (var entry : switchStmt.getSwitchElements().entrySet()) {
             SwitchLabel label = entry.getKey();
@@ -637,6 +803,12 @@ public class InterpreterVisitor implements Visitor {
             } else if (label.getLabel().equals("float") && switchedExpr.getValue() instanceof FloatValue) {
                 matched = true;
                 codeBlock.accept(this);
+            } else if (label.getLabel().equals("long") && switchedExpr.getValue() instanceof LongValue) {
+                matched = true;
+                codeBlock.accept(this);
+            } else if (label.getLabel().equals("double") && switchedExpr.getValue() instanceof DoubleValue) {
+                matched = true;
+                codeBlock.accept(this);
             } else if (switchedExpr.getValue() instanceof ClassValue cv && cv.getClassIdentifier().equals(label.getLabel())) {
                 matched = true;
                 codeBlock.accept(this);
@@ -0,0 +1,317 @@
+package com.anczykowski.visitors;
+
+import com.anczykowski.errormodule.ErrorElement;
+import com.anczykowski.errormodule.ErrorModule;
+import com.anczykowski.errormodule.ErrorType;
+import com.anczykowski.interpreter.ListFuncDef;
+import com.anczykowski.interpreter.PrintCodeBlock;
+import com.anczykowski.interpreter.SymbolManager;
+import com.anczykowski.lexer.SymbolTable;
+import com.anczykowski.parser.structures.*;
+import com.anczykowski.parser.structures.expressions.*;
+import com.anczykowski.parser.structures.expressions.relops.*;
+import com.anczykowski.parser.structures.statements.*;
+
+import java.util.IdentityHashMap;
+
+// binds calls to the functions they always reach and checks their arguments count once, so that the interpreter
+// neither looks the callee up nor counts arguments on every call; a call is bound when it is made outside of a class
+// context, where only global functions and builtins are visible, calls on objects and inside attributes may reach
+// methods and are left to the interpreter; bindings are kept in a table of their own, the tree stays as parsed
+public class LinkerVisitor implements Visitor {
+
+    private final SymbolManager functions;
+
+    private final ErrorModule errorModule;
+
+    private final IdentityHashMap<FunctionCallExpression, FuncDef> targets = new IdentityHashMap<>();
+
+    private boolean isInAttributes = false;
+
+    // right side of an object access, evaluated in the object's class context
+    private boolean isMemberAccess = false;
+
+    // arguments of a call on an object, evaluated in the class context unless a method is called
+    private boolean isDynamic = false;
+
+    private LinkerVisitor(SymbolManager functions, ErrorModule errorModule) {
+        this.functions = functions;
+        this.errorModule = errorModule;
+    }
+
+    // functions have to hold the builtins as well, returns the function each bound call reaches
+    public static IdentityHashMap<FunctionCallExpression, FuncDef> link(Program program, SymbolManager functions,
+                                                                      ErrorModule errorModule) {
+        var linker = new LinkerVisitor(functions, errorModule);
+        program.accept(linker);
+        return linker.targets;
+    }
+
+    @Override
+    public void visit(Program program) {
+        program.getClasses().values().forEach(classDef -> classDef.accept(this));
+        program.getFunctions().values().forEach(funcDef -> funcDef.accept(this));
+    }
+
+    @Override
+    public void visit(ClassDef classDef) {
+        if (classDef.getClassBody() != null) {
+            classDef.getClassBody().accept(this);
+        }
+    }
+
+    @Override
+    public void visit(FuncDef funcDef) {
+        funcDef.getCodeBLock().accept(this);
+    }
+
+    @Override
+    public void visit(ListFuncDef listFuncDef) {
+    }
+
+    @Override
+    public void visit(ClassBody classBody) {
+        isInAttributes = true;
+        classBody.getAttributes().values().forEach(attribute -> attribute.accept(this));
+        isInAttributes = false;
+        classBody.getMethods().values().forEach(method -> method.accept(this));
+    }
+
+    @Override
+    public void visit(VarStmt varStmt) {
+        varStmt.getInitial().accept(this);
+    }
+
+    @Override
+    public void visit(Parameter parameter) {
+    }
+
+    @Override
+    public void visit(CodeBLock codeBLock) {
+        codeBLock.getStatements().forEach(statement -> statement.accept(this));
+    }
+
+    @Override
+    public void visit(PrintCodeBlock codeBLock) {
+    }
+
+    @Override
+    public void visit(Statement statement) {
+    }
+
+    @Override
+    public void visit(Expression expression) {
+    }
+
+    private void visitLeftRight(LeftRightExpression leftRightExpression) {
+        leftRightExpression.getLeft().accept(this);
+        leftRightExpression.getRight().accept(this);
+    }
+
+    @Override
+    public void visit(AndExpr andExpr) {
+        visitLeftRight(andExpr);
+    }
+
+    @Override
+    public void visit(OrExpression orExpression) {
+        visitLeftRight(orExpression);
+    }
+
+    @Override
+    public void visit(EqRelExpr eqRelExpr) {
+        visitLeftRight(eqRelExpr);
+    }
+
+    @Override
+    public void visit(NeRelExpr neRelOpArg) {
+        visitLeftRight(neRelOpArg);
+    }
+
+    @Override
+    public void visit(GtRelExpr gtRelExpr) {
+        visitLeftRight(gtRelExpr);
+    }
+
+    @Override
+    public void visit(GeRelExpr geRelExpr) {
+        visitLeftRight(geRelExpr);
+    }
+
+    @Override
+    public void visit(LtRelExpr ltRelExpr) {
+        visitLeftRight(ltRelExpr);
+    }
+
+    @Override
+    public void visit(LeRelExpr leRelExpr) {
+        visitLeftRight(leRelExpr);
+    }
+
+    @Override
+    public void visit(AdditionTerm additionTerm) {
+        visitLeftRight(additionTerm);
+    }
+
+    @Override
+    public void visit(SubtractionTerm subtractionTerm) {
+        visitLeftRight(subtractionTerm);
+    }
+
+    @Override
+    public void visit(MultiplicationFactor multiplicationFactor) {
+        visitLeftRight(multiplicationFactor);
+    }
+
+    @Override
+    public void visit(IntegerConstantExpr integerConstantExpr) {
+    }
+
+    @Override
+    public void visit(FloatConstantExpr floatConstantExpr) {
+    }
+
+    @Override
+    public void visit(LongConstantExpr longConstantExpr) {
+    }
+
+    @Override
+    public void visit(DoubleConstantExpr doubleConstantExpr) {
+    }
+
+    @Override
+    public void visit(BoolConstantExpr boolConstantExpr) {
+    }
+
+    @Override
+    public void visit(DivisionFactor divisionFactor) {
+        visitLeftRight(divisionFactor);
+    }
+
+    @Override
+    public void visit(NegatedExpression negatedExpression) {
+        negatedExpression.getInner().accept(this);
+    }
+
+    @Override
+    public void visit(AssignmentStatement assignmentStatement) {
+        assignmentStatement.getLval().accept(this);
+        assignmentStatement.getRval().accept(this);
+    }
+
+    @Override
+    public void visit(ExpressionStatement expressionStatement) {
+        expressionStatement.getExpression().accept(this);
+    }
+
+    @Override
+    public void visit(CondStmt condStmt) {
+        condStmt.getCondition().accept(this);
+        condStmt.getTrueBlock().accept(this);
+        if (condStmt.getElseBlock() != null) {
+            condStmt.getElseBlock().accept(this);
+        }
+    }
+
+    @Override
+    public void visit(WhileStmt whileStmt) {
+        whileStmt.getCondition().accept(this);
+        whileStmt.getCodeBLock().accept(this);
+    }
+
+    @Override
+    public void visit(ForStmt forStmt) {
+        forStmt.getIterable().accept(this);
+        forStmt.getCodeBLock().accept(this);
+    }
+
+    @Override
+    public void visit(SwitchStmt switchStmt) {
+        switchStmt.getExpression().accept(this);
+        switchStmt.getSwitchElements().values().forEach(codeBLock -> codeBLock.accept(this));
+    }
+
+    @Override
+    public void visit(IdentifierExpression identifierExpression) {
+    }
+
+    @Override
+    public void visit(ObjectAccessExpression identifierExpression) {
+        identifierExpression.getChild().accept(this);
+        var wasMemberAccess = isMemberAccess;
+        isMemberAccess = true;
+        identifierExpression.getCurrent().accept(this);
+        isMemberAccess = wasMemberAccess;
+    }
+
+    @Override
+    public void visit(Arg arg) {
+        arg.getArgument().accept(this);
+    }
+
+    @Override
+    public void visit(FunctionCallExpression functionCallExpression) {
+        var wasMemberAccess = isMemberAccess;
+        var wasDynamic = isDynamic;
+        if (!isMemberAccess && !isDynamic && !isInAttributes) {
+            bind(functionCallExpression);
+        }
+        isDynamic = isDynamic || isMemberAccess;
+        isMemberAccess = false;
+        functionCallExpression.getArgs().forEach(arg -> arg.accept(this));
+        isMemberAccess = wasMemberAccess;
+        isDynamic = wasDynamic;
+    }
+
+    // unknown functions are reported by the interpreter once called
+    private void bind(FunctionCallExpression functionCallExpression) {
+        var symbolId = functionCallExpression.getSymbolId();
+        var target = symbolId != SymbolTable.NO_SYMBOL
+            ? functions.getFunction(symbolId)
+            : functions.getFunction(functionCallExpression.getIdentifier());
+        if (target == null) {
+            return;
+        }
+        if (target.getRequireArgMatch() && target.getParams().size() != functionCallExpression.getArgs().size()) {
+            errorModule.addError(ErrorElement.builder()
+                    .errorType(ErrorType.UNMATCHED_ARGUMENTS)
+                    .location(functionCallExpression.getLocation())
+                    .codeSnippet(functionCallExpression.getSnippet())
+                    .underlineFragmentSupplier(() -> InterpreterVisitor.getUnderline(functionCallExpression.getCharacterBuffer(),
+                        InterpreterVisitor.CALL_ARGUMENTS))
+                    .explanation("expected %d arguments but %d provided.".formatted(target.getParams().size(),
+                        functionCallExpression.getArgs().size()))
+                    .build());
+        }
+        targets.put(functionCallExpression, target);
+    }
+
+    // arguments of init are evaluated outside the new object
+    @Override
+    public void visit(ClassInitExpression classInitExpression) {
+        var wasMemberAccess = isMemberAccess;
+        isMemberAccess = false;
+        classInitExpression.getArgs().forEach(arg -> arg.accept(this));
+        isMemberAccess = wasMemberAccess;
+    }
+
+    @Override
+    public void visit(StringExpression stringExpression) {
+    }
+
+    @Override
+    public void visit(CastExpression castExpression) {
+        castExpression.getInner().accept(this);
+    }
+
+    @Override
+    public void visit(SwitchLabel switchLabel) {
+    }
+
+    @Override
+    public void visit(ReturnStatement returnStatement) {
+        if (returnStatement.getInner() != null) {
+            returnStatement.getInner().accept(this);
+        }
+    }
+}
@@ -0,0 +1,479 @@
+package com.anczykowski.visitors;
+
+import com.anczykowski.interpreter.ListFuncDef;
+import com.anczykowski.interpreter.PrintCodeBlock;
+import com.anczykowski.lexer.Location;
+import com.anczykowski.parser.Parser.LeftRightConstructor;
+import com.anczykowski.parser.structures.*;
+import com.anczykowski.parser.structures.expressions.*;
+import com.anczykowski.parser.structures.expressions.relops.*;
+import com.anczykowski.parser.structures.statements.*;
+
+import java.util.ArrayList;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+
+// folds constant expressions and drops code that can never run, so that the interpreter does not redo it on every
+// visit; only what the interpreter would evaluate without an error is folded, anything else (e.g. a division by zero
+// or mixed types) is left in place, to be reported where it is written once it runs
+// code blocks are changed in place, other nodes are replaced when any of their children was
+public class OptimizerVisitor implements Visitor {
+
+    private Expression expression = null;
+
+    // null when the statement was dropped
+    private Statement statement = null;
+
+    public static void optimize(Program program) {
+        program.accept(new OptimizerVisitor());
+    }
+
+    private Expression fold(Expression expression) {
+        if (expression == null) {
+            return null;
+        }
+        expression.accept(this);
+        return this.expression;
+    }
+
+    private Statement fold(Statement statement) {
+        statement.accept(this);
+        return this.statement;
+    }
+
+    @Override
+    public void visit(Program program) {
+        program.getClasses().values().forEach(classDef -> classDef.accept(this));
+        program.getFunctions().values().forEach(funcDef -> funcDef.accept(this));
+    }
+
+    @Override
+    public void visit(ClassDef classDef) {
+        if (classDef.getClassBody() != null) {
+            classDef.getClassBody().accept(this);
+        }
+    }
+
+    @Override
+    public void visit(FuncDef funcDef) {
+        funcDef.getCodeBLock().accept(this);
+    }
+
+    @Override
+    public void visit(ListFuncDef listFuncDef) {
+    }
+
+    @Override
+    public void visit(ClassBody classBody) {
+        classBody.getAttributes().replaceAll((name, attribute) -> (VarStmt) fold(attribute));
+        classBody.getMethods().values().forEach(method -> method.accept(this));
+    }
+
+    @Override
+    public void visit(VarStmt varStmt) {
+        var initial = fold(varStmt.getInitial());
+        statement = initial == varStmt.getInitial() ? varStmt : new VarStmt(varStmt.getName(), initial,
+            filename(varStmt.getLocation()), varStmt.getPosition(), varStmt.getSnippet(), varStmt.getSymbolId());
+    }
+
+    @Override
+    public void visit(Parameter parameter) {
+    }
+
+    // statements after one that always returns are never run
+    @Override
+    public void visit(CodeBLock codeBLock) {
+        var statements = codeBLock.getStatements();
+        var folded = new ArrayList<Statement>(statements.size());
+        for (var statement : statements) {
+            var foldedStatement = fold(statement);
+            if (foldedStatement == null) {
+                continue;
+            }
+            folded.add(foldedStatement);
+            if (alwaysReturns(foldedStatement)) {
+                break;
+            }
+        }
+        statements.clear();
+        statements.addAll(folded);
+    }
+
+    // a bare "return;" does not stop the block, see InterpreterVisitor
+    private static boolean alwaysReturns(Statement statement) {
+        if (statement instanceof ReturnStatement returnStatement) {
+            return returnStatement.getInner() != null;
+        }
+        // constant conditions are folded to true
+        if (statement instanceof CondStmt condStmt && condStmt.getCondition() instanceof BoolConstantExpr condition) {
+            var statements = condStmt.getTrueBlock().getStatements();
+            return condition.getValue() && !statements.isEmpty() && alwaysReturns(statements.get(statements.size() - 1));
+        }
+        return false;
+    }
+
+    @Override
+    public void visit(PrintCodeBlock codeBLock) {
+    }
+
+    @Override
+    public void visit(Statement statement) {
+        this.statement = statement;
+    }
+
+    @Override
+    public void visit(Expression expression) {
+        this.expression = expression;
+    }
+
+    @Override
+    public void visit(AndExpr andExpr) {
+        foldLogical(andExpr, AndExpr::new, (a, b) -> a && b);
+    }
+
+    @Override
+    public void visit(OrExpression orExpression) {
+        foldLogical(orExpression, OrExpression::new, (a, b) -> a || b);
+    }
+
+    @Override
+    public void visit(EqRelExpr eqRelExpr) {
+        foldRelational(eqRelExpr, EqRelExpr::new, Integer::equals, Float::equals, Long::equals, Double::equals);
+    }
+
+    @Override
+    public void visit(NeRelExpr neRelOpArg) {
+        foldRelational(neRelOpArg, NeRelExpr::new, (a, b) -> !a.equals(b), (a, b) -> !a.equals(b), (a, b) -> !a.equals(b),
+            (a, b) -> !a.equals(b));
+    }
+
+    @Override
+    public void visit(GtRelExpr gtRelExpr) {
+        foldRelational(gtRelExpr, GtRelExpr::new, (a, b) -> a > b, (a, b) -> a > b, (a, b) -> a > b, (a, b) -> a > b);
+    }
+
+    @Override
+    public void visit(GeRelExpr geRelExpr) {
+        foldRelational(geRelExpr, GeRelExpr::new, (a, b) -> a >= b, (a, b) -> a >= b, (a, b) -> a >= b, (a, b) -> a >= b);
+    }
+
+    @Override
+    public void visit(LtRelExpr ltRelExpr) {
+        foldRelational(ltRelExpr, LtRelExpr::new, (a, b) -> a < b, (a, b) -> a < b, (a, b) -> a < b, (a, b) -> a < b);
+    }
+
+    @Override
+    public void visit(LeRelExpr leRelExpr) {
+        foldRelational(leRelExpr, LeRelExpr::new, (a, b) -> a <= b, (a, b) -> a <= b, (a, b) -> a <= b, (a, b) -> a <= b);
+    }
+
+    @Override
+    @SuppressWarnings("Convert2MethodRef")
+    public void visit(AdditionTerm additionTerm) {
+        foldNumerical(additionTerm, AdditionTerm::new, (a, b) -> a + b, (a, b) -> a + b, (a, b) -> a + b, (a, b) -> a + b);
+    }
+
+    @Override
+    public void visit(SubtractionTerm subtractionTerm) {
+        foldNumerical(subtractionTerm, SubtractionTerm::new, (a, b) -> a - b, (a, b) -> a - b, (a, b) -> a - b,
+            (a, b) -> a - b);
+    }
+
+    @Override
+    public void visit(MultiplicationFactor multiplicationFactor) {
+        foldNumerical(multiplicationFactor, MultiplicationFactor::new, (a, b) -> a * b, (a, b) -> a * b, (a, b) -> a * b,
+            (a, b) -> a * b);
+    }
+
+    // division by zero is left to the interpreter, which reports it
+    @Override
+    public void visit(DivisionFactor divisionFactor) {
+        foldNumerical(divisionFactor, DivisionFactor::new,
+            (a, b) -> b == 0 ? null : a / b,
+            (a, b) -> b.compareTo(0.0f) == 0 ? null : a / b,
+            (a, b) -> b == 0 ? null : a / b,
+            (a, b) -> b.compareTo(0.0) == 0 ? null : a / b);
+    }
+
+    @Override
+    public void visit(IntegerConstantExpr integerConstantExpr) {
+        expression = integerConstantExpr;
+    }
+
+    @Override
+    public void visit(FloatConstantExpr floatConstantExpr) {
+        expression = floatConstantExpr;
+    }
+
+    @Override
+    public void visit(LongConstantExpr longConstantExpr) {
+        expression = longConstantExpr;
+    }
+
+    @Override
+    public void visit(DoubleConstantExpr doubleConstantExpr) {
+        expression = doubleConstantExpr;
+    }
+
+    @Override
+    public void visit(BoolConstantExpr boolConstantExpr) {
+        expression = boolConstantExpr;
+    }
+
+    @Override
+    public void visit(NegatedExpression negatedExpression) {
+        var inner = fold(negatedExpression.getInner());
+        if (inner instanceof IntegerConstantExpr constant) {
+            expression = new IntegerConstantExpr(-constant.getValue());
+        } else if (inner instanceof FloatConstantExpr constant) {
+            expression = new FloatConstantExpr(-constant.getValue());
+        } else if (inner instanceof LongConstantExpr constant) {
+            expression = new LongConstantExpr(-constant.getValue());
+        } else if (inner instanceof DoubleConstantExpr constant) {
+            expression = new DoubleConstantExpr(-constant.getValue());
+        } else if (inner instanceof BoolConstantExpr constant) {
+            expression = new BoolConstantExpr(!constant.getValue());
+        } else {
+            expression = inner == negatedExpression.getInner() ? negatedExpression : new NegatedExpression(inner);
+        }
+    }
+
+    @Override
+    public void visit(AssignmentStatement assignmentStatement) {
+        var lval = fold(assignmentStatement.getLval());
+        var rval = fold(assignmentStatement.getRval());
+        statement = lval == assignmentStatement.getLval() && rval == assignmentStatement.getRval() ? assignmentStatement
+            : new AssignmentStatement(lval, rval, filename(assignmentStatement.getLocation()),
+            assignmentStatement.getPosition(), assignmentStatement.getSnippet());
+    }
+
+    @Override
+    public void visit(ExpressionStatement expressionStatement) {
+        var folded = fold(expressionStatement.getExpression());
+        statement = folded == expressionStatement.getExpression() ? expressionStatement : new ExpressionStatement(folded);
+    }
+
+    // a constant condition keeps only the branch that runs, under a true condition so that it still gets its scope
+    @Override
+    public void visit(CondStmt condStmt) {
+        var condition = fold(condStmt.getCondition());
+        if (condition instanceof BoolConstantExpr constant) {
+            var block = constant.getValue() ? condStmt.getTrueBlock() : condStmt.getElseBlock();
+            if (block == null) {
+                statement = null;
+                return;
+            }
+            block.accept(this);
+            statement = new CondStmt(constant.getValue() ? condition : new BoolConstantExpr(true), block, null);
+            return;
+        }
+        condStmt.getTrueBlock().accept(this);
+        if (condStmt.getElseBlock() != null) {
+            condStmt.getElseBlock().accept(this);
+        }
+        statement = condition == condStmt.getCondition() ? condStmt
+            : new CondStmt(condition, condStmt.getTrueBlock(), condStmt.getElseBlock());
+    }
+
+    @Override
+    public void visit(WhileStmt whileStmt) {
+        var condition = fold(whileStmt.getCondition());
+        if (condition instanceof BoolConstantExpr constant && !constant.getValue()) {
+            statement = null;
+            return;
+        }
+        whileStmt.getCodeBLock().accept(this);
+        statement = condition == whileStmt.getCondition() ? whileStmt : new WhileStmt(condition, whileStmt.getCodeBLock());
+    }
+
+    @Override
+    public void visit(ForStmt forStmt) {
+        var iterable = fold(forStmt.getIterable());
+        forStmt.getCodeBLock().accept(this);
+        statement = iterable == forStmt.getIterable() ? forStmt : new ForStmt(forStmt.getIteratorIdentifier(), iterable,
+            forStmt.getCodeBLock(), filename(forStmt.getLocation()), forStmt.getPosition(), forStmt.getSnippet(),
+            forStmt.getSymbolId());
+    }
+
+    @Override
+    public void visit(SwitchStmt switchStmt) {
+        var switched = fold(switchStmt.getExpression());
+        switchStmt.getSwitchElements().values().forEach(block -> block.accept(this));
+        statement = switched == switchStmt.getExpression() ? switchStmt
+            : new SwitchStmt(switched, switchStmt.getSwitchElements());
+    }
+
+    @Override
+    public void visit(IdentifierExpression identifierExpression) {
+        expression = identifierExpression;
+    }
+
+    @Override
+    public void visit(ObjectAccessExpression identifierExpression) {
+        var current = fold(identifierExpression.getCurrent());
+        var child = fold(identifierExpression.getChild());
+        expression = current == identifierExpression.getCurrent() && child == identifierExpression.getChild()
+            ? identifierExpression : new ObjectAccessExpression(current, child, filename(identifierExpression.getLocation()),
+            identifierExpression.getPosition(), identifierExpression.getSnippet());
+    }
+
+    @Override
+    public void visit(Arg arg) {
+        throw new IllegalStateException("arguments are folded with their call");
+    }
+
+    @Override
+    public void visit(FunctionCallExpression functionCallExpression) {
+        var args = foldArgs(functionCallExpression.getArgs());
+        expression = args == functionCallExpression.getArgs() ? functionCallExpression : new FunctionCallExpression(
+            functionCallExpression.getIdentifier(), args, filename(functionCallExpression.getLocation()),
+            functionCallExpression.getPosition(), functionCallExpression.getSnippet(), functionCallExpression.getSymbolId());
+    }
+
+    @Override
+    public void visit(ClassInitExpression classInitExpression) {
+        var args = foldArgs(classInitExpression.getArgs());
+        expression = args == classInitExpression.getArgs() ? classInitExpression : new ClassInitExpression(
+            classInitExpression.getIdentifier(), args, filename(classInitExpression.getLocation()),
+            classInitExpression.getPosition(), classInitExpression.getSnippet(), classInitExpression.getSymbolId());
+    }
+
+    @Override
+    public void visit(StringExpression stringExpression) {
+        expression = stringExpression;
+    }
+
+    // class names and unknown types leave the value as it is, see InterpreterVisitor
+    @Override
+    public void visit(CastExpression castExpression) {
+        var inner = fold(castExpression.getInner());
+        Number value = null;
+        if (inner instanceof IntegerConstantExpr constant) {
+            value = constant.getValue();
+        } else if (inner instanceof FloatConstantExpr constant) {
+            value = constant.getValue();
+        } else if (inner instanceof LongConstantExpr constant) {
+            value = constant.getValue();
+        } else if (inner instanceof DoubleConstantExpr constant) {
+            value = constant.getValue();
+        }
+        expression = value == null ? null : switch (castExpression.getType()) {
+            case "int" -> new IntegerConstantExpr(value.intValue());
+            case "float" -> new FloatConstantExpr(value.floatValue());
+            case "long" -> new LongConstantExpr(value.longValue());
+            case "double" -> new DoubleConstantExpr(value.doubleValue());
+            default -> null;
+        };
+        if (expression == null) {
+            expression = inner == castExpression.getInner() ? castExpression : new CastExpression(inner,
+                castExpression.getType(), filename(castExpression.getLocation()), castExpression.getPosition(),
+                castExpression.getSnippet());
+        }
+    }
+
+    @Override
+    public void visit(SwitchLabel switchLabel) {
+    }
+
+    @Override
+    public void visit(ReturnStatement returnStatement) {
+        var inner = fold(returnStatement.getInner());
+        statement = inner == returnStatement.getInner() ? returnStatement : new ReturnStatement(inner);
+    }
+
+    // the same list is returned when no argument changed
+    private ArrayList<Arg> foldArgs(ArrayList<Arg> args) {
+        ArrayList<Arg> folded = null;
+        for (int i = 0; i < args.size(); ++i) {
+            var arg = args.get(i);
+            var argument = fold(arg.getArgument());
+            if (argument != arg.getArgument() && folded == null) {
+                folded = new ArrayList<>(args);
+            }
+            if (folded != null && argument != arg.getArgument()) {
+                folded.set(i, new Arg(argument, arg.isByReference()));
+            }
+        }
+        return folded == null ? args : folded;
+    }
+
+    private void foldNumerical(
+        LeftRightExpression leftRightExpression,
+        LeftRightConstructor constructor,
+        BinaryOperator<Integer> integerOperation,
+        BinaryOperator<Float> floatOperation,
+        BinaryOperator<Long> longOperation,
+        BinaryOperator<Double> doubleOperation
+    ) {
+        var left = fold(leftRightExpression.getLeft());
+        var right = fold(leftRightExpression.getRight());
+        expression = null;
+        if (left instanceof IntegerConstantExpr l && right instanceof IntegerConstantExpr r) {
+            var value = integerOperation.apply(l.getValue(), r.getValue());
+            expression = value == null ? null : new IntegerConstantExpr(value);
+        } else if (left instanceof FloatConstantExpr l && right instanceof FloatConstantExpr r) {
+            var value = floatOperation.apply(l.getValue(), r.getValue());
+            expression = value == null ? null : new FloatConstantExpr(value);
+        } else if (left instanceof LongConstantExpr l && right instanceof LongConstantExpr r) {
+            var value = longOperation.apply(l.getValue(), r.getValue());
+            expression = value == null ? null : new LongConstantExpr(value);
+        } else if (left instanceof DoubleConstantExpr l && right instanceof DoubleConstantExpr r) {
+            var value = doubleOperation.apply(l.getValue(), r.getValue());
+            expression = value == null ? null : new DoubleConstantExpr(value);
+        }
+        if (expression == null) {
+            expression = rebuild(leftRightExpression, constructor, left, right);
+        }
+    }
+
+    private void foldRelational(
+        LeftRightExpression leftRightExpression,
+        LeftRightConstructor constructor,
+        BiFunction<Integer, Integer, Boolean> integerOperation,
+        BiFunction<Float, Float, Boolean> floatOperation,
+        BiFunction<Long, Long, Boolean> longOperation,
+        BiFunction<Double, Double, Boolean> doubleOperation
+    ) {
+        var left = fold(leftRightExpression.getLeft());
+        var right = fold(leftRightExpression.getRight());
+        if (left instanceof IntegerConstantExpr l && right instanceof IntegerConstantExpr r) {
+            expression = new BoolConstantExpr(integerOperation.apply(l.getValue(), r.getValue()));
+        } else if (left instanceof FloatConstantExpr l && right instanceof FloatConstantExpr r) {
+            expression = new BoolConstantExpr(floatOperation.apply(l.getValue(), r.getValue()));
+        } else if (left instanceof LongConstantExpr l && right instanceof LongConstantExpr r) {
+            expression = new BoolConstantExpr(longOperation.apply(l.getValue(), r.getValue()));
+        } else if (left instanceof DoubleConstantExpr l && right instanceof DoubleConstantExpr r) {
+            expression = new BoolConstantExpr(doubleOperation.apply(l.getValue(), r.getValue()));
+        } else {
+            expression = rebuild(leftRightExpression, constructor, left, right);
+        }
+    }
+
+    // both operands are always evaluated, so a constant one alone does not decide the result
+    private void foldLogical(
+        LeftRightExpression leftRightExpression,
+        LeftRightConstructor constructor,
+        BinaryOperator<Boolean> booleanOperation
+    ) {
+        var left = fold(leftRightExpression.getLeft());
+        var right = fold(leftRightExpression.getRight());
+        if (left instanceof BoolConstantExpr l && right instanceof BoolConstantExpr r) {
+            expression = new BoolConstantExpr(booleanOperation.apply(l.getValue(), r.getValue()));
+        } else {
+            expression = rebuild(leftRightExpression, constructor, left, right);
+        }
+    }
+
+    private static Expression rebuild(LeftRightExpression leftRightExpression, LeftRightConstructor constructor,
+                                      Expression left, Expression right) {
+        if (left == leftRightExpression.getLeft() && right == leftRightExpression.getRight()) {
+            return leftRightExpression;
+        }
+        return constructor.apply(left, right, filename(leftRightExpression.getLocation()), leftRightExpression.getPosition(),
+            leftRightExpression.getSnippet());
+    }
+
+    private static String filename(Location location) {
+        return location == null ? null : location.getFilename();
+    }
+}
@@ -293,6 +293,24 @@ public class PrinterVisitor implements Visitor {
         out.println("floatConstantExpr: " + floatConstantExpr.getValue());
     }
 
+    @Override
+    public void visit(LongConstantExpr longConstantExpr) {
+        printIndentation();
+        out.println("longConstantExpr: " + longConstantExpr.getValue());
+    }
+
+    @Override
+    public void visit(DoubleConstantExpr doubleConstantExpr) {
+        printIndentation();
+        out.println("doubleConstantExpr: " + doubleConstantExpr.getValue());
+    }
+
+    @Override
+    public void visit(BoolConstantExpr boolConstantExpr) {
+        printIndentation();
+        out.println("boolConstantExpr: " + boolConstantExpr.getValue());
+    }
+
     @Override
     public void visit(NegatedExpression negatedExpression) {
         printIndentation();
@@ -0,0 +1,368 @@
+package com.anczykowski.visitors;
+
+import com.anczykowski.interpreter.ListFuncDef;
+import com.anczykowski.interpreter.PrintCodeBlock;
+import com.anczykowski.parser.structures.*;
+import com.anczykowski.parser.structures.expressions.*;
+import com.anczykowski.parser.structures.expressions.relops.*;
+import com.anczykowski.parser.structures.statements.*;
+
+import java.util.HashMap;
+
+// gives every local variable a slot in the context of the block it is declared in and annotates identifiers with
+// (level, slot), level being the number of blocks entered since the function frame, so that the interpreter indexes
+// arrays instead of searching contexts by name; identifiers that can only be found at run time (class attributes and
+// members accessed on objects) are left to the name lookup, and so are names not declared where they are used, which
+// the interpreter reports only once such code runs
+public class ResolverVisitor implements Visitor {
+
+    public static final int UNRESOLVED = -1;
+
+    public static final int SWITCH_VALUE_SLOT = 0;
+
+    private static final String SWITCH_VALUE = "value";
+
+    private static final String DEFAULT_LABEL = "default";
+
+    private static class Frame {
+        private final int level;
+
+        private int size = 0;
+
+        private Frame(int level) {
+            this.level = level;
+        }
+    }
+
+    private static class Scope {
+        private final Scope parent;
+
+        private final Frame frame;
+
+        private final HashMap<String, Integer> slots = new HashMap<>();
+
+        private Scope(Scope parent, Frame frame) {
+            this.parent = parent;
+            this.frame = frame;
+        }
+
+        // redeclaring a variable replaces it, as in Context
+        private int declare(String name) {
+            return slots.computeIfAbsent(name, n -> frame.size++);
+        }
+    }
+
+    private Scope scope = null;
+
+    private boolean isInAttributes = false;
+
+    // right side of an object access, evaluated in the object's class context
+    private boolean isMemberAccess = false;
+
+    private ResolverVisitor() {
+    }
+
+    public static void resolve(Program program) {
+        program.accept(new ResolverVisitor());
+    }
+
+    // functions that are not part of a program, e.g. builtins
+    public static void resolve(FuncDef funcDef) {
+        funcDef.accept(new ResolverVisitor());
+    }
+
+    private Scope lookup(String name) {
+        for (var current = scope; current != null; current = current.parent) {
+            if (current.slots.containsKey(name)) {
+                return current;
+            }
+        }
+        return null;
+    }
+
+    private void resolveBlock(CodeBLock codeBLock, String iterator, ForStmt forStmt) {
+        var outer = scope;
+        scope = new Scope(outer, new Frame(outer.frame.level + 1));
+        if (forStmt != null) {
+            forStmt.setSlot(scope.declare(iterator));
+        }
+        codeBLock.accept(this);
+        codeBLock.setFrameSize(scope.frame.size);
+        scope = outer;
+    }
+
+    private void resolveBlock(CodeBLock codeBLock) {
+        resolveBlock(codeBLock, null, null);
+    }
+
+    @Override
+    public void visit(Program program) {
+        program.getClasses().values().forEach(classDef -> classDef.accept(this));
+        program.getFunctions().values().forEach(funcDef -> funcDef.accept(this));
+    }
+
+    @Override
+    public void visit(ClassDef classDef) {
+        if (classDef.getClassBody() != null) {
+            classDef.getClassBody().accept(this);
+        }
+    }
+
+    @Override
+    public void visit(FuncDef funcDef) {
+        scope = new Scope(null, new Frame(0));
+        for (var param : funcDef.getParams()) {
+            param.setSlot(scope.declare(param.getName()));
+        }
+        funcDef.getCodeBLock().accept(this);
+        funcDef.getCodeBLock().setFrameSize(scope.frame.size);
+        scope = null;
+    }
+
+    @Override
+    public void visit(ListFuncDef listFuncDef) {
+    }
+
+    // attributes are initialized in the class context, where names are looked up at run time
+    @Override
+    public void visit(ClassBody classBody) {
+        isInAttributes = true;
+        classBody.getAttributes().values().forEach(attribute -> attribute.getInitial().accept(this));
+        isInAttributes = false;
+        classBody.getMethods().values().forEach(method -> method.accept(this));
+    }
+
+    @Override
+    public void visit(VarStmt varStmt) {
+        varStmt.getInitial().accept(this);
+        varStmt.setSlot(scope.declare(varStmt.getName()));
+    }
+
+    @Override
+    public void visit(Parameter parameter) {
+    }
+
+    @Override
+    public void visit(CodeBLock codeBLock) {
+        codeBLock.getStatements().forEach(statement -> statement.accept(this));
+    }
+
+    @Override
+    public void visit(PrintCodeBlock codeBLock) {
+    }
+
+    @Override
+    public void visit(Statement statement) {
+    }
+
+    @Override
+    public void visit(Expression expression) {
+    }
+
+    private void visitLeftRight(LeftRightExpression leftRightExpression) {
+        leftRightExpression.getLeft().accept(this);
+        leftRightExpression.getRight().accept(this);
+    }
+
+    @Override
+    public void visit(AndExpr andExpr) {
+        visitLeftRight(andExpr);
+    }
+
+    @Override
+    public void visit(OrExpression orExpression) {
+        visitLeftRight(orExpression);
+    }
+
+    @Override
+    public void visit(EqRelExpr eqRelExpr) {
+        visitLeftRight(eqRelExpr);
+    }
+
+    @Override
+    public void visit(NeRelExpr neRelOpArg) {
+        visitLeftRight(neRelOpArg);
+    }
+
+    @Override
+    public void visit(GtRelExpr gtRelExpr) {
+        visitLeftRight(gtRelExpr);
+    }
+
+    @Override
+    public void visit(GeRelExpr geRelExpr) {
+        visitLeftRight(geRelExpr);
+    }
+
+    @Override
+    public void visit(LtRelExpr ltRelExpr) {
+        visitLeftRight(ltRelExpr);
+    }
+
+    @Override
+    public void visit(LeRelExpr leRelExpr) {
+        visitLeftRight(leRelExpr);
+    }
+
+    @Override
+    public void visit(AdditionTerm additionTerm) {
+        visitLeftRight(additionTerm);
+    }
+
+    @Override
+    public void visit(SubtractionTerm subtractionTerm) {
+        visitLeftRight(subtractionTerm);
+    }
+
+    @Override
+    public void visit(MultiplicationFactor multiplicationFactor) {
+        visitLeftRight(multiplicationFactor);
+    }
+
+    @Override
+    public void visit(IntegerConstantExpr integerConstantExpr) {
+    }
+
+    @Override
+    public void visit(FloatConstantExpr floatConstantExpr) {
+    }
+
+    @Override
+    public void visit(LongConstantExpr longConstantExpr) {
+    }
+
+    @Override
+    public void visit(DoubleConstantExpr doubleConstantExpr) {
+    }
+
+    @Override
+    public void visit(BoolConstantExpr boolConstantExpr) {
+    }
+
+    @Override
+    public void visit(DivisionFactor divisionFactor) {
+        visitLeftRight(divisionFactor);
+    }
+
+    @Override
+    public void visit(NegatedExpression negatedExpression) {
+        negatedExpression.getInner().accept(this);
+    }
+
+    @Override
+    public void visit(AssignmentStatement assignmentStatement) {
+        assignmentStatement.getLval().accept(this);
+        assignmentStatement.getRval().accept(this);
+    }
+
+    @Override
+    public void visit(ExpressionStatement expressionStatement) {
+        expressionStatement.getExpression().accept(this);
+    }
+
+    @Override
+    public void visit(CondStmt condStmt) {
+        condStmt.getCondition().accept(this);
+        resolveBlock(condStmt.getTrueBlock());
+        if (condStmt.getElseBlock() != null) {
+            resolveBlock(condStmt.getElseBlock());
+        }
+    }
+
+    @Override
+    public void visit(WhileStmt whileStmt) {
+        whileStmt.getCondition().accept(this);
+        resolveBlock(whileStmt.getCodeBLock());
+    }
+
+    @Override
+    public void visit(ForStmt forStmt) {
+        forStmt.getIterable().accept(this);
+        resolveBlock(forStmt.getCodeBLock(), forStmt.getIteratorIdentifier(), forStmt);
+    }
+
+    // all labels run in one context next to the switched value, the default one after the others
+    @Override
+    public void visit(SwitchStmt switchStmt) {
+        switchStmt.getExpression().accept(this);
+        var outer = scope;
+        scope = new Scope(outer, new Frame(outer.frame.level + 1));
+        scope.declare(SWITCH_VALUE);
+        CodeBLock defaultBlock = null;
+        for (var entry : switchStmt.getSwitchElements().entrySet()) {
+            if (entry.getKey().getLabel().equals(DEFAULT_LABEL)) {
+                defaultBlock = entry.getValue();
+            } else {
+                entry.getValue().accept(this);
+            }
+        }
+        if (defaultBlock != null) {
+            defaultBlock.accept(this);
+        }
+        switchStmt.setFrameSize(scope.frame.size);
+        scope = outer;
+    }
+
+    @Override
+    public void visit(IdentifierExpression identifierExpression) {
+        if (isMemberAccess || isInAttributes) {
+            return;
+        }
+        var name = identifierExpression.getIdentifier();
+        var declaring = lookup(name);
+        if (declaring != null) {
+            identifierExpression.resolve(declaring.frame.level, declaring.slots.get(name));
+        }
+    }
+
+    @Override
+    public void visit(ObjectAccessExpression identifierExpression) {
+        identifierExpression.getChild().accept(this);
+        var wasMemberAccess = isMemberAccess;
+        isMemberAccess = true;
+        identifierExpression.getCurrent().accept(this);
+        isMemberAccess = wasMemberAccess;
+    }
+
+    @Override
+    public void visit(Arg arg) {
+        arg.getArgument().accept(this);
+    }
+
+    // arguments of a method are evaluated outside the class context
+    @Override
+    public void visit(FunctionCallExpression functionCallExpression) {
+        var wasMemberAccess = isMemberAccess;
+        isMemberAccess = false;
+        functionCallExpression.getArgs().forEach(arg -> arg.accept(this));
+        isMemberAccess = wasMemberAccess;
+    }
+
+    @Override
+    public void visit(ClassInitExpression classInitExpression) {
+        var wasMemberAccess = isMemberAccess;
+        isMemberAccess = false;
+        classInitExpression.getArgs().forEach(arg -> arg.accept(this));
+        isMemberAccess = wasMemberAccess;
+    }
+
+    @Override
+    public void visit(StringExpression stringExpression) {
+    }
+
+    @Override
+    public void visit(CastExpression castExpression) {
+        castExpression.getInner().accept(this);
+    }
+
+    @Override
+    public void visit(SwitchLabel switchLabel) {
+    }
+
+    @Override
+    public void visit(ReturnStatement returnStatement) {
+        if (returnStatement.getInner() != null) {
+            returnStatement.getInner().accept(this);
+        }
+    }
+}
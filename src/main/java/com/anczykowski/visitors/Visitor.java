@@ -56,6 +56,12 @@ public interface Visitor {
 
     void visit(FloatConstantExpr floatConstantExpr);
 
+    void visit(LongConstantExpr longConstantExpr);
+
+    void visit(DoubleConstantExpr doubleConstantExpr);
+
+    void visit(BoolConstantExpr boolConstantExpr);
+
     void visit(DivisionFactor divisionFactor);
 
     void visit(NegatedExpression negatedExpression);
@@ -0,0 +1,185 @@
+package com.anczykowski.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.anczykowski.errormodule.ErrorModule;
+import com.anczykowski.errormodule.exceptions.InterpreterException;
+import com.anczykowski.errormodule.exceptions.ParserException;
+import com.anczykowski.lexer.ByteBufferSource;
+import com.anczykowski.lexer.LexerImpl;
+import com.anczykowski.lexer.SymbolTable;
+import com.anczykowski.parser.Parser;
+import com.anczykowski.parser.structures.Program;
+import com.anczykowski.visitors.InterpreterVisitor;
+import com.anczykowski.visitors.PrinterVisitor;
+
+class ProgramCacheTest {
+
+    private static final String PROGRAM = """
+        class Point {
+            var x = 1;
+            init(value) { x = value; }
+            getX() { return x; }
+        }
+        twice(value) { value = value * 2; }
+        main() {
+            var p = new Point(3);
+            var l = 10000000000L + 1L;
+            var d = 1.5D * 2.0D;
+            for (e in list(1, 2.5, p)) {
+                switch (e) {
+                    float -> { print(value as int); }
+                    Point -> { print(value.getX()); }
+                    default -> { print("default"); }
+                }
+            }
+            var i = 0;
+            while (i < 2) { i = i + 1; twice(ref i); }
+            if (i == 1 or not i == 3 and i <= 1) { print("first"); } else { print("other"); }
+            print(i - 1 / 1);
+            print(l);
+            print(d);
+            print(-i);
+            return 0;
+        }
+        """;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void loadStoredProgram() throws Exception {
+        // given
+        var path = write("program.tkom", PROGRAM);
+        var cache = new ProgramCache(directory.resolve("cache"));
+        var symbolTable = new SymbolTable();
+        var program = parse(path, symbolTable);
+        var source = ByteBufferSource.ofFile(new ErrorModule(), path);
+        cache.getEntry(source).store(program, symbolTable);
+
+        // when
+        var loadedSymbolTable = new SymbolTable();
+        var loaded = cache.getEntry(ByteBufferSource.ofFile(new ErrorModule(), path)).load(loadedSymbolTable);
+
+        // then
+        assertNotNull(loaded);
+        assertEquals(symbolTable.size(), loadedSymbolTable.size());
+        assertEquals(print(program), print(loaded));
+        assertEquals(interpret(program, symbolTable), interpret(loaded, loadedSymbolTable));
+    }
+
+    @Test
+    void keepEntryNextToSource() throws Exception {
+        // given
+        var path = write("program.tkom", PROGRAM);
+        var symbolTable = new SymbolTable();
+        var program = parse(path, symbolTable);
+
+        // when
+        var entry = new ProgramCache().getEntry(ByteBufferSource.ofFile(new ErrorModule(), path));
+        entry.store(program, symbolTable);
+
+        // then
+        assertEquals(path.toFile().getCanonicalPath() + ProgramCache.EXTENSION, entry.getPath().toString());
+        assertNotNull(entry.load(new SymbolTable()));
+    }
+
+    @Test
+    void ignoreEntryOfChangedSource() throws Exception {
+        // given
+        var path = write("program.tkom", PROGRAM);
+        var cache = new ProgramCache();
+        var symbolTable = new SymbolTable();
+        cache.getEntry(ByteBufferSource.ofFile(new ErrorModule(), path)).store(parse(path, symbolTable), symbolTable);
+
+        // when
+        write("program.tkom", PROGRAM + "\nother() { }");
+        var loaded = cache.getEntry(ByteBufferSource.ofFile(new ErrorModule(), path)).load(new SymbolTable());
+
+        // then
+        assertNull(loaded);
+    }
+
+    @Test
+    void ignoreCorruptedEntry() throws Exception {
+        // given
+        var path = write("program.tkom", PROGRAM);
+        var cache = new ProgramCache();
+        var symbolTable = new SymbolTable();
+        var entry = cache.getEntry(ByteBufferSource.ofFile(new ErrorModule(), path));
+        entry.store(parse(path, symbolTable), symbolTable);
+        var bytes = Files.readAllBytes(entry.getPath());
+        Files.write(entry.getPath(), Arrays.copyOf(bytes, bytes.length / 2));
+
+        // when
+        var loaded = entry.load(new SymbolTable());
+
+        // then
+        assertNull(loaded);
+    }
+
+    @Test
+    void keepIdentifierLocations() throws Exception {
+        // given
+        var path = write("program.tkom", "main() {\n    print(missing);\n    return 0;\n}\n");
+        var cache = new ProgramCache(directory.resolve("cache"));
+        var symbolTable = new SymbolTable();
+        cache.getEntry(ByteBufferSource.ofFile(new ErrorModule(), path)).store(parse(path, symbolTable), symbolTable);
+        var loadedSymbolTable = new SymbolTable();
+        var loaded = cache.getEntry(ByteBufferSource.ofFile(new ErrorModule(), path)).load(loadedSymbolTable);
+        var errorModule = new ErrorModule();
+        var interpreter = new InterpreterVisitor(errorModule, new PrintStream(new ByteArrayOutputStream()), loadedSymbolTable);
+
+        // when
+        assertThrows(InterpreterException.class, () -> loaded.accept(interpreter));
+
+        // then
+        var error = errorModule.getErrors().get(0);
+        assertEquals(2, error.getLocation().getLineNumber());
+        assertEquals(11, error.getLocation().getColumnNumber());
+        assertEquals("missing", error.getUnderlineFragment());
+        assertTrue(error.getCodeSnippet().getText().contains("print(missing)"));
+    }
+
+    private Path write(String filename, String program) throws IOException {
+        return Files.writeString(directory.resolve(filename), program);
+    }
+
+    private static Program parse(Path path, SymbolTable symbolTable) throws IOException, ParserException {
+        var errorModule = new ErrorModule();
+        try (var source = ByteBufferSource.ofFile(errorModule, path)) {
+            var program = new Parser(new LexerImpl(source, errorModule, symbolTable), errorModule).parse();
+            assertEquals(0, errorModule.getErrorCount());
+            return program;
+        }
+    }
+
+    private static String print(Program program) {
+        var out = new ByteArrayOutputStream();
+        program.accept(new PrinterVisitor(new PrintStream(out, true, StandardCharsets.UTF_8)));
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private static String interpret(Program program, SymbolTable symbolTable) {
+        var out = new ByteArrayOutputStream();
+        var errorModule = new ErrorModule();
+        program.accept(new InterpreterVisitor(errorModule, new PrintStream(out, true, StandardCharsets.UTF_8), symbolTable));
+        assertEquals(0, errorModule.getErrorCount());
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -1,9 +1,18 @@
 package com.anczykowski.errormodule;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.jupiter.api.Test;
 
+import com.anczykowski.errormodule.exceptions.TooManyErrorsException;
 import com.anczykowski.lexer.Location;
 
 class ErrorModuleTest {
@@ -66,4 +75,187 @@ class ErrorModuleTest {
 
     }
 
-}
\ No newline at end of file
+    @Test
+    void reportSameErrorOnce() {
+        // given
+        var errorModule = new ErrorModule();
+
+        // when
+        errorModule.addError(unexpectedToken(new Location("file", 1, 2), "first"));
+        errorModule.addError(unexpectedToken(new Location("file", 1, 2), "second"));
+        errorModule.addError(unexpectedToken(new Location("file", 1, 3), "third"));
+        errorModule.addError(unexpectedToken(null, "fourth"));
+        errorModule.addError(unexpectedToken(null, "fifth"));
+
+        // then
+        assertEquals(4, errorModule.getErrors().size());
+        assertEquals(" (first)", errorModule.getErrors().getFirst().getExplanationText());
+    }
+
+    @Test
+    void countErrorsPastTheCap() {
+        // given
+        var errorModule = new ErrorModule(2);
+
+        // when
+        for (int column = 0; column < 5; ++column) {
+            errorModule.addError(unexpectedToken(new Location("file", 1, column), null));
+        }
+
+        // then
+        assertEquals(2, errorModule.getErrors().size());
+        assertEquals(3, errorModule.getOmittedErrors());
+        assertEquals(5, errorModule.getErrorCount());
+    }
+
+    @Test
+    void abortAtThreshold() {
+        // given
+        var errorModule = new ErrorModule();
+        errorModule.setAbortThreshold(3);
+        errorModule.addError(unexpectedToken(new Location("file", 1, 0), null));
+        errorModule.addError(unexpectedToken(new Location("file", 1, 1), null));
+
+        // when
+        var error = unexpectedToken(new Location("file", 1, 2), null);
+
+        // then
+        assertThrows(TooManyErrorsException.class, () -> errorModule.addError(error));
+        assertEquals(3, errorModule.getErrors().size());
+    }
+
+    @Test
+    void abortWhenPartsReachThreshold() {
+        // given
+        var errorModule = new ErrorModule();
+        errorModule.setAbortThreshold(3);
+        var first = errorModule.createPart();
+        var second = errorModule.createPart();
+        first.addError(unexpectedToken(new Location("first", 1, 0), null));
+        second.addError(unexpectedToken(new Location("second", 1, 0), null));
+
+        // when
+        var error = unexpectedToken(new Location("first", 2, 0), null);
+
+        // then
+        assertThrows(TooManyErrorsException.class, () -> first.addError(error));
+        assertTrue(errorModule.getErrors().isEmpty());
+        errorModule.addPartErrors(first);
+        assertThrows(TooManyErrorsException.class, () -> errorModule.addPartErrors(second));
+        assertEquals(3, errorModule.getErrors().size());
+    }
+
+    @Test
+    void streamPartErrorsWhenHandedOver() {
+        // given
+        var out = new ByteArrayOutputStream();
+        var errorModule = new ErrorModule();
+        errorModule.streamTo(new PrintStream(out, true, StandardCharsets.UTF_8), ErrorFormat.TEXT);
+        var part = errorModule.createPart();
+        var error = unexpectedToken(new Location("file", 1, 0), "first");
+        part.addError(error);
+
+        // when
+        var before = out.size();
+        errorModule.addPartErrors(part);
+
+        // then
+        assertEquals(0, before);
+        assertEquals(1, errorModule.getErrorCount());
+        assertEquals(error + System.lineSeparator(), out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void resolveUnderlineWhenPrinted() {
+        // given
+        var calls = new AtomicInteger();
+        var errorElement = ErrorElement.builder()
+            .errorType(ErrorType.UNSUPPORTED_OPERATION)
+            .codeLineBuffer("var a = b + c;")
+            .underlineFragmentSupplier(() -> {
+                calls.incrementAndGet();
+                return "b + c";
+            })
+            .location(new Location())
+            .build();
+
+        // when
+        var before = calls.get();
+        var underlineText = errorElement.getUnderlineText();
+        errorElement.getUnderlineText();
+
+        // then
+        assertEquals(0, before);
+        assertEquals(1, calls.get());
+        assertEquals("\n        ~~~~~", underlineText);
+    }
+
+    @Test
+    void streamErrorsAsText() {
+        // given
+        var out = new ByteArrayOutputStream();
+        var errorModule = new ErrorModule(1);
+        errorModule.streamTo(new PrintStream(out, true, StandardCharsets.UTF_8), ErrorFormat.TEXT);
+        var first = unexpectedToken(new Location("file", 1, 0), "first");
+        var second = unexpectedToken(new Location("file", 1, 1), "second");
+
+        // when
+        errorModule.addError(first);
+        errorModule.addError(second);
+
+        // then
+        assertTrue(errorModule.getErrors().isEmpty());
+        assertEquals(0, errorModule.getOmittedErrors());
+        assertEquals(2, errorModule.getErrorCount());
+        assertEquals(first + System.lineSeparator() + second + System.lineSeparator(), out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void streamErrorsAsJsonLines() {
+        // given
+        var out = new ByteArrayOutputStream();
+        var errorModule = new ErrorModule();
+        errorModule.streamTo(new PrintStream(out, true, StandardCharsets.UTF_8), ErrorFormat.JSON_LINES);
+        var errorElement = ErrorElement.builder()
+            .errorType(ErrorType.UNCLOSED_STRING)
+            .location(new Location("dir\\file", 3, 7))
+            .codeLineBuffer("  var s = \"abc  ")
+            .underlineFragment("\"abc")
+            .build();
+
+        // when
+        errorModule.addError(errorElement);
+
+        // then
+        var lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(1, lines.size());
+        var timestamp = Instant.ofEpochMilli(errorElement.getTimestampMillis());
+        assertEquals("{\"timestamp\":\"" + timestamp + "\",\"type\":\"UNCLOSED_STRING\",\"file\":\"dir\\\\file\","
+            + "\"line\":3,\"column\":7,\"message\":\"error: string not closed\",\"explanation\":null,"
+            + "\"code\":\"var s = \\\"abc\",\"underline\":\"\\\"abc\"}", lines.get(0));
+    }
+
+    @Test
+    void streamSameErrorOnce() {
+        // given
+        var out = new ByteArrayOutputStream();
+        var errorModule = new ErrorModule();
+        errorModule.streamTo(new PrintStream(out, true, StandardCharsets.UTF_8), ErrorFormat.JSON_LINES);
+
+        // when
+        errorModule.addError(unexpectedToken(new Location("file", 1, 2), "first"));
+        errorModule.addError(unexpectedToken(new Location("file", 1, 2), "second"));
+
+        // then
+        assertEquals(1, errorModule.getStreamedErrors());
+        assertEquals(1, out.toString(StandardCharsets.UTF_8).lines().count());
+    }
+
+    private static ErrorElement unexpectedToken(Location location, String explanation) {
+        return ErrorElement.builder()
+            .errorType(ErrorType.UNEXPECTED_TOKEN)
+            .location(location)
+            .explanation(explanation)
+            .build();
+    }
+}
@@ -0,0 +1,48 @@
+package com.anczykowski.interpreter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class SymbolMapTest {
+
+    @Test
+    void putAndGetBySymbolId() {
+        // given
+        var map = new SymbolMap<String>();
+
+        // when
+        map.put(3, "x", "first");
+        map.put(11, "y", "second");
+        map.put(3, "x", "replaced");
+
+        // then
+        assertEquals("replaced", map.get(3));
+        assertEquals("second", map.get(11));
+        assertNull(map.get(4));
+        assertTrue(map.containsKey(11));
+        assertFalse(map.containsKey(19));
+        assertEquals(2, map.size());
+    }
+
+    @Test
+    void keepsEntriesAfterGrowing() {
+        // given
+        var map = new SymbolMap<Integer>();
+
+        // when
+        for (int i = 0; i < 100; ++i) {
+            map.put(i * 7, "v" + i, i);
+        }
+
+        // then
+        assertEquals(100, map.size());
+        for (int i = 0; i < 100; ++i) {
+            assertEquals(i, map.get(i * 7));
+        }
+        assertEquals(42, map.toNameMap().get("v42"));
+    }
+}
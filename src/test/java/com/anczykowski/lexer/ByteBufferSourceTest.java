@@ -0,0 +1,116 @@
+package com.anczykowski.lexer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.text.MessageFormat;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.anczykowski.errormodule.ErrorModule;
+import com.anczykowski.errormodule.ErrorType;
+import com.anczykowski.lexer.helpers.SourceHelpers;
+
+class ByteBufferSourceTest {
+
+    @Test
+    void sourceGetSecondCharacter() {
+        // given
+        var errorModule = new ErrorModule();
+        try (var src = SourceHelpers.thereIsByteBufferSource("abc", errorModule)) {
+            // when
+            src.fetchCharacter();
+            src.fetchCharacter();
+
+            // then
+            assertEquals("b", src.getCurrentCharacter());
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"ą", "中", "🚀"})
+    void sourceDecodeMultiByteCharacter(String character) {
+        // given
+        var errorModule = new ErrorModule();
+        try (var src = SourceHelpers.thereIsByteBufferSource(character + "b", errorModule)) {
+            // when
+            src.fetchCharacter();
+
+            // then
+            assertEquals(character, src.getCurrentCharacter());
+            src.fetchCharacter();
+            assertEquals("b", src.getCurrentCharacter());
+            assertTrue(errorModule.getErrors().isEmpty());
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"\n", "\r", "\n\r", "\r\n"})
+    void handleNewLines(String newline) {
+        // given
+        var errorModule = new ErrorModule();
+        var str = MessageFormat.format("a{0}b{0}c", newline);
+        try (var src = SourceHelpers.thereIsByteBufferSource(str, errorModule)) {
+            // when
+            src.fetchCharacter();
+            src.fetchCharacter();
+            src.fetchCharacter();
+
+            // then
+            assertEquals("b", src.getCurrentCharacter());
+            assertEquals(2, src.getCurrentLocation().getLineNumber());
+        }
+    }
+
+    @Test
+    void sourceMalformedSequence() {
+        // given
+        var errorModule = new ErrorModule();
+        var input = new byte[]{'a', (byte) 0xC4, 'b'};
+        try (var src = SourceHelpers.thereIsByteBufferSource(input, errorModule)) {
+            // when
+            src.fetchCharacter();
+            src.fetchCharacter();
+
+            // then
+            assertEquals(1, errorModule.getErrors().size());
+            assertEquals(ErrorType.UNKNOWN_CHARACTER, errorModule.getErrors().getFirst().getErrorType());
+            assertEquals("b", src.getCurrentCharacter());
+        }
+    }
+
+    @Test
+    void sourceEOF() {
+        // given
+        var errorModule = new ErrorModule();
+        try (var src = SourceHelpers.thereIsByteBufferSource("a", errorModule)) {
+            // when
+            src.fetchCharacter();
+            src.fetchCharacter();
+
+            // then
+            assertTrue(src.isEOF());
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"\n", "\r", "\n\r", "\r\n"})
+    void sourceSnippetsCoverLines(String newline) {
+        // given
+        var errorModule = new ErrorModule();
+        var str = MessageFormat.format("ą = 1{0}b = 2{0}c", newline);
+        try (var src = SourceHelpers.thereIsByteBufferSource(str, errorModule)) {
+            // when
+            for (int i = 0; i < 9; ++i) {
+                src.fetchCharacter();
+            }
+
+            // then
+            assertEquals("b =", src.getLineSnippet().getText());
+            assertEquals("ą = 1\n", src.getPreviousLineSnippet().getText());
+            assertEquals("ą = 1\nb =", src.getEffectiveSnippet().getText());
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.anczykowski.lexer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class CharacterClassTest {
+
+    @ParameterizedTest
+    @CsvSource({
+        "' ', WHITESPACE",
+        "'\t', WHITESPACE",
+        "7, DIGIT",
+        "x, LETTER",
+        "Z, LETTER",
+        "'\"', QUOTE",
+        "'=', OPERATOR",
+        "'/', OPERATOR",
+        "_, OTHER",
+        "ą, LETTER",
+        "中, LETTER",
+        "🚀, LETTER",
+        "٣, DIGIT",
+        "' ', WHITESPACE",
+        "€, OTHER",
+    })
+    void classifyCharacter(String character, CharacterClass expectedClass) {
+        // when
+        var characterClass = CharacterClass.of(character.codePointAt(0));
+
+        // then
+        assertEquals(expectedClass, characterClass);
+    }
+
+    @ParameterizedTest
+    @CsvSource({"-1", "-2"})
+    void classifyEndOfInput(int codePoint) {
+        // when
+        var characterClass = CharacterClass.of(codePoint);
+
+        // then
+        assertEquals(CharacterClass.OTHER, characterClass);
+    }
+}
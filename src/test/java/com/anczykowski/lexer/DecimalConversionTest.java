@@ -0,0 +1,66 @@
+package com.anczykowski.lexer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class DecimalConversionTest {
+
+    @ParameterizedTest
+    @CsvSource({
+        "105, -2", "1, -1", "3, -1", "9007199254740993, 0", "9999999999999999999, 0", "2470328229206232721, -342",
+        "17976931348623157, 292", "4940656458412, -336", "1, 308", "1, -320", "123456789012345678, -17",
+        "16777217, 0", "33554435, 0", "14013, -49", "340282356779733661, 21", "7038531, -45"
+    })
+    void convertsLikeJavaParsers(String mantissa, int exponent) {
+        // given
+        var bits = Long.parseUnsignedLong(mantissa);
+        var text = mantissa + "e" + exponent;
+
+        // when
+        var doubleValue = DecimalConversion.toDouble(bits, exponent);
+        var floatValue = DecimalConversion.toFloat(bits, exponent);
+
+        // then
+        assertEquals(Double.parseDouble(text), doubleValue);
+        assertEquals(Float.parseFloat(text), floatValue);
+    }
+
+    @Test
+    void convertsRandomLiteralsLikeJavaParsers() {
+        // given
+        var random = new Random(2023);
+
+        for (int i = 0; i < 200_000; ++i) {
+            var mantissa = random.nextLong() >>> random.nextInt(64);
+            var exponent = random.nextInt(700) - 360;
+            var text = Long.toUnsignedString(mantissa) + "e" + exponent;
+
+            // when
+            var doubleValue = DecimalConversion.toDouble(mantissa, exponent);
+            var floatValue = DecimalConversion.toFloat(mantissa, exponent);
+
+            // then
+            assertEquals(Double.parseDouble(text), doubleValue, text);
+            assertEquals(Float.parseFloat(text), floatValue, text);
+        }
+    }
+
+    @Test
+    void convertsLongMantissas() {
+        // given
+        var digits = "1" + "0".repeat(30) + "1";
+
+        // when
+        var doubleValue = DecimalConversion.toDouble(digits, -31);
+        var floatValue = DecimalConversion.toFloat(digits, -31);
+
+        // then
+        assertEquals(Double.parseDouble("1.0000000000000000000000000000001"), doubleValue);
+        assertEquals(Float.parseFloat("1.0000000000000000000000000000001"), floatValue);
+    }
+}
@@ -0,0 +1,48 @@
+package com.anczykowski.lexer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.vdurmont.emoji.EmojiManager;
+
+class EmojiRangesTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {"🚀", "😀", "©", "⌚"})
+    void containsEmoji(String emoji) {
+        // when
+        var contains = EmojiRanges.contains(emoji.codePointAt(0));
+
+        // then
+        assertTrue(contains);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"a", "ą", "中", "€"})
+    void doesNotContainOtherCharacters(String character) {
+        // when
+        var contains = EmojiRanges.contains(character.codePointAt(0));
+
+        // then
+        assertFalse(contains);
+    }
+
+    @Test
+    void rangesMatchEmojiLibrary() {
+        for (int codePoint = 0x80; codePoint <= Character.MAX_CODE_POINT; ++codePoint) {
+            if (codePoint >= Character.MIN_SURROGATE && codePoint <= Character.MAX_SURROGATE) {
+                continue;
+            }
+            // when
+            var expected = EmojiManager.containsEmoji(Character.toString(codePoint));
+
+            // then
+            assertEquals(expected, EmojiRanges.contains(codePoint), "code point 0x%X".formatted(codePoint));
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.anczykowski.lexer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class EscapesTest {
+
+    @Test
+    void unescapeCharacterEscapes() {
+        // given
+        var text = "a\\tb\\nc\\\\d\\'e\\\"f\\rg\\bh\\fi";
+
+        // when
+        var result = Escapes.unescape(text);
+
+        // then
+        assertEquals("a\tb\nc\\d'e\"f\rg\bh\fi", result);
+    }
+
+    @Test
+    void unescapeOctal() {
+        // given
+        var text = "\\101\\0\\477\\7x";
+
+        // when
+        var result = Escapes.unescape(text);
+
+        // then
+        assertEquals("A\0" + "'7" + "\7x", result);
+    }
+
+    @Test
+    void unescapeUnicode() {
+        // given
+        var text = "\\" + "u0041\\" + "uu017C\\" + "u+00e9";
+
+        // when
+        var result = Escapes.unescape(text);
+
+        // then
+        assertEquals("Ażé", result);
+    }
+
+    @Test
+    void keepInvalidUnicodeEscape() {
+        // given
+        var text = "\\" + "u12x";
+
+        // when
+        var result = Escapes.unescape(text);
+
+        // then
+        assertEquals("\\" + "u12x", result);
+    }
+
+    @Test
+    void dropBackslashBeforeOtherCharacters() {
+        // given
+        var text = "\\q\\";
+
+        // when
+        var result = Escapes.unescape(text);
+
+        // then
+        assertEquals("q", result);
+    }
+}
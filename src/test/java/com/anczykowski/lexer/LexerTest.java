@@ -2,6 +2,8 @@ package com.anczykowski.lexer;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.stream.Stream;
 
 import org.junit.jupiter.api.Test;
@@ -205,6 +207,77 @@ class LexerTest {
         }
     }
 
+    @Test
+    void skipComments() {
+        // given
+        var errorModule = new ErrorModule();
+        var src = SourceHelpers.thereIsByteBufferSource("a //bcd\n// " + "x".repeat(100) + "\nb //", errorModule);
+        var lexer = new LexerImpl(src, errorModule, new SymbolTable(), TriviaPolicy.SKIP);
+
+        // when
+        var first = lexer.getNextToken();
+        var second = lexer.getNextToken();
+        var third = lexer.getNextToken();
+
+        // then
+        assertEquals(TokenType.IDENTIFIER, first.getType());
+        assertEquals(TokenType.IDENTIFIER, second.getType());
+        assertEquals("STDIN:3:1", second.getLocation().toString());
+        assertEquals(TokenType.EOF, third.getType());
+        assertTrue(errorModule.getErrors().isEmpty());
+    }
+
+    @Test
+    void getCommentOffsets() {
+        // given
+        var errorModule = new ErrorModule();
+        var comment = "ż".repeat(70);
+        var src = SourceHelpers.thereIsByteBufferSource("a //" + comment + "\nb", errorModule);
+        var lexer = new LexerImpl(src, errorModule, new SymbolTable(), TriviaPolicy.KEEP_OFFSETS);
+
+        // when
+        lexer.getNextToken();
+        lexer.getNextToken();
+
+        // then
+        assertEquals(TokenType.COMMENT, lexer.getCurrentToken().getType());
+        assertInstanceOf(SourceSlice.class, ((StringToken)lexer.getCurrentToken()).getValueSequence());
+        assertEquals(comment, ((StringToken)lexer.getCurrentToken()).getValue());
+        assertTrue(errorModule.getErrors().isEmpty());
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void skippedCommentsMatchFilteredComments(boolean fromBytes) {
+        // given
+        var input = "a // short\r\n//" + "long ".repeat(30) + "\r\n  b//ź😀 x\r\n// \"unclosed\r\n c $ //";
+
+        // when
+        var expected = describeTokens(input, fromBytes, TriviaPolicy.KEEP);
+        var actual = describeTokens(input, fromBytes, TriviaPolicy.SKIP);
+
+        // then
+        assertEquals(expected, actual);
+    }
+
+    private static List<String> describeTokens(String input, boolean fromBytes, TriviaPolicy triviaPolicy) {
+        var errorModule = new ErrorModule();
+        var src = fromBytes
+            ? SourceHelpers.thereIsByteBufferSource(input, errorModule)
+            : SourceHelpers.thereIsSource(input, errorModule);
+        var lexer = new LexerFiltered(new LexerImpl(src, errorModule, new SymbolTable(), triviaPolicy),
+            TokenFilters.getCommentFilter());
+        var description = new ArrayList<String>();
+        Token token;
+        do {
+            token = lexer.getNextToken();
+            description.add(String.join(" | ", token.toString(), lexer.getCurrentLocation().toString(),
+                lexer.getPreviousLocation().toString(), lexer.getEffectiveCharacterBuffer(),
+                lexer.getEffectiveSnippet().getText()));
+        } while (token.getType() != TokenType.EOF);
+        return description;
+    }
+
     private static Stream<Arguments> expectedKeywordTypes() {
         return Stream.of(
             Arguments.of("var", TokenType.VAR_KEYWORD),
@@ -336,6 +409,25 @@ class LexerTest {
         }
     }
 
+    @Test
+    void getStringWithoutEscapesAsSourceSlice() {
+        // given
+        var errorModule = new ErrorModule();
+        try (var src = SourceHelpers.thereIsSource("var x = 'aa bb';", errorModule)) {
+            var lexer = new LexerImpl(src, errorModule);
+
+            // when
+            for (int i = 0; i < 4; ++i) {
+                lexer.getNextToken();
+            }
+
+            // then
+            assertEquals(TokenType.STRING, lexer.getCurrentToken().getType());
+            assertInstanceOf(SourceSlice.class, ((StringToken)lexer.getCurrentToken()).getValueSequence());
+            assertEquals("aa bb", ((StringToken)lexer.getCurrentToken()).getValue());
+        }
+    }
+
     @Test
     void getStringEscapedQuote() {
         // given
@@ -405,6 +497,106 @@ class LexerTest {
         }
     }
 
+    @ParameterizedTest
+    @ValueSource(strings = {"1.05", "0.001", "3.4028235", "16777217.0", "1.00000000000000000000001", "0.1"})
+    void getFloatCorrectlyRounded(String literal) {
+        // given
+        var errorModule = new ErrorModule();
+        try (var src = SourceHelpers.thereIsSource(literal, errorModule)) {
+            var lexer = new LexerImpl(src, errorModule);
+
+            // when
+            lexer.getNextToken();
+
+            // then
+            assertEquals(Float.parseFloat(literal), ((FloatToken) lexer.getCurrentToken()).getValue());
+        }
+    }
+
+    @Test
+    void getIntegerMaxValue() {
+        // given
+        var errorModule = new ErrorModule();
+        try (var src = SourceHelpers.thereIsSource("2147483647", errorModule)) {
+            var lexer = new LexerImpl(src, errorModule);
+
+            // when
+            lexer.getNextToken();
+
+            // then
+            assertTrue(errorModule.getErrors().isEmpty());
+            assertEquals(Integer.MAX_VALUE, ((IntegerToken) lexer.getCurrentToken()).getValue());
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"9223372036854775807L", "1l", "100000000000000000L"})
+    void getLong(String literal) {
+        // given
+        var errorModule = new ErrorModule();
+        try (var src = SourceHelpers.thereIsSource(literal, errorModule)) {
+            var lexer = new LexerImpl(src, errorModule);
+
+            // when
+            lexer.getNextToken();
+
+            // then
+            assertEquals(TokenType.LONG_NUMBER, lexer.getCurrentToken().getType());
+            assertEquals(Long.parseLong(literal.substring(0, literal.length() - 1)), ((LongToken) lexer.getCurrentToken()).getValue());
+            assertEquals(TokenType.EOF, lexer.getNextToken().getType());
+            assertTrue(errorModule.getErrors().isEmpty());
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"1.05D", "2d", "0.30000000000000004D", "123456789.123456789D", "1.11111111111111111111D"})
+    void getDouble(String literal) {
+        // given
+        var errorModule = new ErrorModule();
+        try (var src = SourceHelpers.thereIsSource(literal, errorModule)) {
+            var lexer = new LexerImpl(src, errorModule);
+
+            // when
+            lexer.getNextToken();
+
+            // then
+            assertEquals(TokenType.DOUBLE_NUMBER, lexer.getCurrentToken().getType());
+            assertEquals(Double.parseDouble(literal), ((DoubleToken) lexer.getCurrentToken()).getValue());
+        }
+    }
+
+    @Test
+    void getIntegerFollowedBySuffixLikeIdentifier() {
+        // given
+        var errorModule = new ErrorModule();
+        try (var src = SourceHelpers.thereIsSource("12Loop", errorModule)) {
+            var lexer = new LexerImpl(src, errorModule);
+
+            // when
+            lexer.getNextToken();
+
+            // then
+            assertEquals(TokenType.INTEGER_NUMBER, lexer.getCurrentToken().getType());
+            assertEquals(TokenType.IDENTIFIER, lexer.getNextToken().getType());
+        }
+    }
+
+    @Test
+    void getLongTooBig() {
+        // given
+        var errorModule = new ErrorModule();
+        try (var src = SourceHelpers.thereIsSource("9223372036854775808L", errorModule)) {
+            var lexer = new LexerImpl(src, errorModule);
+
+            // when
+            lexer.getNextToken();
+
+            // then
+            assertEquals(1, errorModule.getErrors().size());
+            assertEquals(ErrorType.CONSTANT_TOO_BIG, errorModule.getErrors().getFirst().getErrorType());
+        }
+    }
+
     @Test
     void getIntegerTooBig() {
         // given
@@ -425,7 +617,7 @@ class LexerTest {
     void getFloatTooBig() {
         // given
         var errorModule = new ErrorModule();
-        try (var src = SourceHelpers.thereIsSource("1.11111111111111111", errorModule)) {
+        try (var src = SourceHelpers.thereIsSource("11111111111.1", errorModule)) {
             var lexer = new LexerImpl(src, errorModule);
 
             // when
@@ -437,6 +629,41 @@ class LexerTest {
         }
     }
 
+    @ParameterizedTest
+    @ValueSource(strings = {"0.12345678901", "1.11111111111111111", "3.14159265358979323846264338327950288419716939937510"})
+    void getFloatWithLongFraction(String literal) {
+        // given
+        var errorModule = new ErrorModule();
+        try (var src = SourceHelpers.thereIsSource(literal, errorModule)) {
+            var lexer = new LexerImpl(src, errorModule);
+
+            // when
+            lexer.getNextToken();
+
+            // then
+            assertEquals(0, errorModule.getErrors().size());
+            assertEquals(TokenType.FLOAT_NUMBER, lexer.getCurrentToken().getType());
+            assertEquals(Float.parseFloat(literal), ((FloatToken) lexer.getCurrentToken()).getValue());
+        }
+    }
+
+    @Test
+    void getDoubleWithLongFraction() {
+        // given
+        var errorModule = new ErrorModule();
+        var literal = "0.1000000000000000055511151231257827021181583404541015625000001";
+        try (var src = SourceHelpers.thereIsSource(literal + "D", errorModule)) {
+            var lexer = new LexerImpl(src, errorModule);
+
+            // when
+            lexer.getNextToken();
+
+            // then
+            assertEquals(0, errorModule.getErrors().size());
+            assertEquals(Double.parseDouble(literal), ((DoubleToken) lexer.getCurrentToken()).getValue());
+        }
+    }
+
     @Test
     void getFloatMalformed() {
         // given
@@ -469,4 +696,24 @@ class LexerTest {
         }
     }
 
-}
\ No newline at end of file
+    @Test
+    void identifiersShareSymbolId() {
+        // given
+        var errorModule = new ErrorModule();
+        var symbolTable = new SymbolTable();
+        try (var src = SourceHelpers.thereIsSource("abc xyz abc", errorModule)) {
+            var lexer = new LexerImpl(src, errorModule, symbolTable);
+
+            // when
+            var first = (IdentifierToken) lexer.getNextToken();
+            var second = (IdentifierToken) lexer.getNextToken();
+            var third = (IdentifierToken) lexer.getNextToken();
+
+            // then
+            assertEquals(first.getSymbolId(), third.getSymbolId());
+            assertNotEquals(first.getSymbolId(), second.getSymbolId());
+            assertEquals("xyz", symbolTable.getName(second.getSymbolId()));
+            assertEquals(2, symbolTable.size());
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.anczykowski.lexer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class LineBufferTest {
+
+    @Test
+    void keepsPushedCodePoints() {
+        // given
+        var buffer = new LineBuffer(4);
+
+        // when
+        "a🚀c".codePoints().forEach(buffer::push);
+
+        // then
+        assertEquals(3, buffer.size());
+        assertEquals("a🚀c", buffer.toString());
+    }
+
+    @Test
+    void overwritesOldestCodePointsWhenFull() {
+        // given
+        var buffer = new LineBuffer(4);
+
+        // when
+        "abcdefg".codePoints().forEach(buffer::push);
+
+        // then
+        assertEquals(4, buffer.size());
+        assertEquals("defg", buffer.toString());
+    }
+
+    @Test
+    void clearEmptiesBuffer() {
+        // given
+        var buffer = new LineBuffer(4);
+        "abcdef".codePoints().forEach(buffer::push);
+
+        // when
+        buffer.clear();
+        buffer.push('x');
+
+        // then
+        assertEquals("x", buffer.toString());
+        buffer.clear();
+        assertTrue(buffer.isEmpty());
+    }
+}
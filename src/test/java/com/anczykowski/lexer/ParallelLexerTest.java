@@ -0,0 +1,104 @@
+package com.anczykowski.lexer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.anczykowski.errormodule.ErrorModule;
+
+class ParallelLexerTest {
+
+    private static final String PROGRAM = """
+        // comment line
+        main() {
+            var x = 12 + 3.5;    // trailing comment
+            var s = "unclosed
+            var źdźbło = x + 1.
+        2;
+            var t = 'text';\r
+            while (x >= 1) { x = x - 1; }
+            var aVeryLongLineToCheckTheCharacterBufferLimit = 1111 + 2222 + 3333 + 4444 + 5555 + 6666;
+            var y = 99999999999 + "😀 " + źdźbło;
+        \r
+            return x # y;
+        }
+        """;
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 5, 16, 64, 1 << 20})
+    void matchesSequentialLexer(int chunkSize) {
+        for (var triviaPolicy : TriviaPolicy.values()) {
+            for (var newline : new String[]{"\n", "\r\n", "\r", "\n\r"}) {
+                // given
+                var input = PROGRAM.replace("\n", newline).getBytes(StandardCharsets.UTF_8);
+
+                // when
+                var expected = describeSequential(input, triviaPolicy);
+                var actual = describeParallel(input, chunkSize, triviaPolicy);
+
+                // then
+                assertEquals(expected, actual);
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 3, 8})
+    void matchesSequentialLexerOnMalformedInput(int chunkSize) {
+        // given
+        var input = new byte[]{'a', '\n', (byte) 0xC4, 'b', ' ', '"', 'c', '\n', (byte) 0xFF, '\n', 'd', '.', '\n', '1'};
+
+        // when
+        var expected = describeSequential(input, TriviaPolicy.KEEP);
+        var actual = describeParallel(input, chunkSize, TriviaPolicy.KEEP);
+
+        // then
+        assertEquals(expected, actual);
+    }
+
+    private static ArrayList<String> describeSequential(byte[] input, TriviaPolicy triviaPolicy) {
+        var errorModule = new ErrorModule();
+        var symbolTable = new SymbolTable();
+        var buffer = TokenBuffer.lex(new ByteBufferSource(errorModule, ByteBuffer.wrap(input), "file.tkom"), errorModule, symbolTable,
+            triviaPolicy, TokenFilters.getCommentTypeFilter());
+        return describe(buffer, errorModule, symbolTable);
+    }
+
+    private static ArrayList<String> describeParallel(byte[] input, int chunkSize, TriviaPolicy triviaPolicy) {
+        var errorModule = new ErrorModule();
+        var symbolTable = new SymbolTable();
+        var buffer = ParallelLexer.lex(new ByteBufferSource(errorModule, ByteBuffer.wrap(input), "file.tkom"), errorModule, symbolTable,
+            triviaPolicy, TokenFilters.getCommentTypeFilter(), chunkSize);
+        return describe(buffer, errorModule, symbolTable);
+    }
+
+    private static ArrayList<String> describe(TokenBuffer buffer, ErrorModule errorModule, SymbolTable symbolTable) {
+        var description = new ArrayList<String>();
+        Token token;
+        do {
+            token = buffer.getNextToken();
+            var symbolId = token instanceof IdentifierToken identifierToken ? identifierToken.getSymbolId() : -1;
+            description.add(String.join(" | ",
+                token.toString(),
+                String.valueOf(symbolId),
+                buffer.getText(buffer.getPosition()),
+                buffer.getCurrentLocation().toString(),
+                buffer.getPreviousLocation().toString(),
+                buffer.getCharacterBuffer(),
+                buffer.getEffectiveCharacterBuffer(),
+                buffer.getEffectiveSnippet().getText()));
+        } while (token.getType() != TokenType.EOF);
+        for (var error : errorModule.getErrors()) {
+            description.add(error.toString());
+        }
+        for (int id = 0; id < symbolTable.size(); ++id) {
+            description.add(symbolTable.getName(id));
+        }
+        return description;
+    }
+}
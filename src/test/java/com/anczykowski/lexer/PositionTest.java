@@ -0,0 +1,55 @@
+package com.anczykowski.lexer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.StringReader;
+
+import org.junit.jupiter.api.Test;
+
+import com.anczykowski.errormodule.ErrorModule;
+
+class PositionTest {
+
+    @Test
+    void packLineAndColumn() {
+        // given
+        var position = Position.of(123456, 7890);
+
+        // when
+        var location = Position.toLocation("file.tkom", position);
+
+        // then
+        assertEquals(123456, Position.getLineNumber(position));
+        assertEquals(7890, Position.getColumnNumber(position));
+        assertEquals("file.tkom:123456:7890", location.toString());
+        assertEquals(position, Position.of(location));
+    }
+
+    @Test
+    void noPositionHasNoLocation() {
+        // when
+        var location = Position.toLocation("file.tkom", Position.NONE);
+
+        // then
+        assertNull(location);
+    }
+
+    @Test
+    void tokensShareSourceFilename() {
+        // given
+        var errorModule = new ErrorModule();
+        var src = new Source(errorModule, new StringReader("a\n  b"), "file.tkom");
+        var lexer = new LexerImpl(src, errorModule);
+
+        // when
+        var first = lexer.getNextToken();
+        var second = lexer.getNextToken();
+
+        // then
+        assertEquals("file.tkom:1:1", first.getLocation().toString());
+        assertEquals("file.tkom:2:3", second.getLocation().toString());
+        assertEquals(Position.of(2, 3), second.getPosition());
+        assertEquals(first.getFilename(), second.getFilename());
+    }
+}
@@ -0,0 +1,99 @@
+package com.anczykowski.lexer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+import com.anczykowski.errormodule.ErrorModule;
+import com.anczykowski.lexer.helpers.SourceHelpers;
+
+class SourceSliceTest {
+
+    @Test
+    void readAsciiSliceInPlace() {
+        // given
+        var text = new CountingText(SourceHelpers.thereIsByteBufferSource("x = \"hello\";", new ErrorModule()).getSourceText());
+        var slice = new SourceSlice(text, 5, 10);
+
+        // when
+        var chars = new StringBuilder();
+        for (int i = 0; i < slice.length(); ++i) {
+            chars.append(slice.charAt(i));
+        }
+        var subSequence = slice.subSequence(1, 3);
+
+        // then
+        assertEquals("hello", chars.toString());
+        assertInstanceOf(SourceSlice.class, subSequence);
+        assertEquals(2, subSequence.length());
+        assertEquals('l', subSequence.charAt(1));
+        assertEquals(0, text.decoded);
+        assertThrows(IndexOutOfBoundsException.class, () -> slice.charAt(5));
+    }
+
+    @Test
+    void decodeMultiByteSliceOnce() {
+        // given
+        var text = new CountingText(SourceHelpers.thereIsByteBufferSource("\"zażółć\"", new ErrorModule()).getSourceText());
+        var slice = new SourceSlice(text, 1, 11);
+
+        // when
+        var length = slice.length();
+        var character = slice.charAt(2);
+        var string = slice.toString();
+
+        // then
+        assertEquals(6, length);
+        assertEquals('ż', character);
+        assertSame(string, slice.toString());
+        assertEquals(1, text.decoded);
+    }
+
+    @Test
+    void readReaderSliceInPlace() {
+        // given
+        var source = SourceHelpers.thereIsSource("ąbcd", new ErrorModule());
+        for (int i = 0; i < 4; ++i) {
+            source.fetchCharacter();
+        }
+        var text = new CountingText(source.getSourceText());
+
+        // when
+        var slice = new SourceSlice(text, 0, 3);
+
+        // then
+        assertEquals(3, slice.length());
+        assertEquals('ą', slice.charAt(0));
+        assertEquals(0, text.decoded);
+    }
+
+    private static class CountingText implements SourceText {
+
+        private final SourceText text;
+
+        private int decoded = 0;
+
+        private CountingText(SourceText text) {
+            this.text = text;
+        }
+
+        @Override
+        public String getText(int start, int end) {
+            ++decoded;
+            return text.getText(start, end);
+        }
+
+        @Override
+        public boolean isCharAddressed(int start, int end) {
+            return text.isCharAddressed(start, end);
+        }
+
+        @Override
+        public char charAt(int offset) {
+            return text.charAt(offset);
+        }
+    }
+}
@@ -11,6 +11,7 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 
 import com.anczykowski.errormodule.ErrorModule;
+import com.anczykowski.errormodule.ErrorType;
 import com.anczykowski.lexer.helpers.SourceHelpers;
 
 class SourceTest {
@@ -147,4 +148,40 @@ class SourceTest {
         }
     }
 
-}
\ No newline at end of file
+
+    @ParameterizedTest
+    @ValueSource(strings = {"\n", "\r", "\n\r", "\r\n"})
+    void sourceSnippetsCoverLines(String newline) {
+        // given
+        var errorModule = new ErrorModule();
+        var str = MessageFormat.format("ą = 1{0}b = 2{0}c", newline);
+        try (var src = SourceHelpers.thereIsSource(str, errorModule)) {
+            // when
+            for (int i = 0; i < 9; ++i) {
+                src.fetchCharacter();
+            }
+
+            // then
+            assertEquals("b =", src.getLineSnippet().getText());
+            assertEquals("ą = 1\n", src.getPreviousLineSnippet().getText());
+            assertEquals("ą = 1\nb =", src.getEffectiveSnippet().getText());
+        }
+    }
+
+    @Test
+    void reportInconsistentLineEndingsOnce() {
+        // given
+        var errorModule = new ErrorModule();
+        try (var src = SourceHelpers.thereIsSource("a\nb\r\nc\r\nd\re\n", errorModule)) {
+            // when
+            while (src.isNotEOF()) {
+                src.fetchCharacter();
+            }
+
+            // then
+            assertEquals(1, errorModule.getErrors().size());
+            assertEquals(ErrorType.INCONSISTENT_LINE_ENDINGS, errorModule.getErrors().getFirst().getErrorType());
+            assertEquals(2, errorModule.getErrors().getFirst().getLocation().getLineNumber());
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.anczykowski.lexer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Test;
+
+class SymbolTableTest {
+
+    @Test
+    void internReturnsSameInstanceForSameCharacters() {
+        // given
+        var symbolTable = new SymbolTable();
+
+        // when
+        var first = symbolTable.intern(new StringBuilder("counter"));
+        var second = symbolTable.intern(new StringBuilder("counter"));
+
+        // then
+        assertEquals("counter", first);
+        assertSame(first, second);
+        assertEquals(1, symbolTable.size());
+    }
+
+    @Test
+    void internKeepsSymbolsAfterGrowing() {
+        // given
+        var symbolTable = new SymbolTable();
+        var symbols = new String[1000];
+
+        // when
+        for (int i = 0; i < symbols.length; ++i) {
+            symbols[i] = symbolTable.intern("identifier" + i);
+        }
+
+        // then
+        assertEquals(symbols.length, symbolTable.size());
+        for (int i = 0; i < symbols.length; ++i) {
+            assertSame(symbols[i], symbolTable.intern(new StringBuilder("identifier" + i)));
+        }
+    }
+
+    @Test
+    void getIdGivesDenseIds() {
+        // given
+        var symbolTable = new SymbolTable();
+
+        // when
+        var first = symbolTable.getId("x");
+        var second = symbolTable.getId("y");
+        var firstAgain = symbolTable.getId(new StringBuilder("x"));
+
+        // then
+        assertEquals(0, first);
+        assertEquals(1, second);
+        assertEquals(first, firstAgain);
+        assertEquals("y", symbolTable.getName(second));
+    }
+}
@@ -0,0 +1,140 @@
+package com.anczykowski.lexer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.anczykowski.errormodule.ErrorModule;
+import com.anczykowski.lexer.helpers.SourceHelpers;
+
+class TokenBufferTest {
+
+    private static final String PROGRAM = """
+        // comment line
+        main() {
+            var x = 12 + 3.5;    // trailing comment
+            var s = "text";
+
+            while (x >= 1) { x = x - 1; }
+            var aVeryLongLineToCheckTheCharacterBufferLimit = 1111 + 2222 + 3333 + 4444 + 5555 + 6666;
+            return x;
+        }
+        """;
+
+    @ParameterizedTest
+    @ValueSource(strings = {"\n", "\r\n", "\r", "\n\r"})
+    void matchesStreamingLexer(String newline) {
+        // given
+        var input = PROGRAM.replace("\n", newline);
+
+        // when
+        var expected = describeStreaming(input);
+        var actual = describeBuffered(input);
+
+        // then
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void readValuesWithoutTokens() {
+        // given
+        var input = "abc 12 2.5 7L 1.5D \"te\\\"xt\" abc";
+        var errorModule = new ErrorModule();
+        var buffer = TokenBuffer.lex(SourceHelpers.thereIsByteBufferSource(input, errorModule),
+            errorModule, new SymbolTable(), TokenFilters.getCommentTypeFilter());
+        var lexer = new LexerImpl(SourceHelpers.thereIsByteBufferSource(input, new ErrorModule()), new ErrorModule());
+
+        // when
+        var buffered = describeValues(buffer);
+        var streamed = describeValues(lexer);
+
+        // then
+        assertEquals(List.of(
+            "IDENTIFIER abc 0", "INTEGER_NUMBER 12", "FLOAT_NUMBER 2.5", "LONG_NUMBER 7", "DOUBLE_NUMBER 1.5",
+            "STRING te\"xt", "IDENTIFIER abc 0"), buffered);
+        assertEquals(buffered, streamed);
+        assertEquals(8, buffer.size());
+        assertEquals("1.5D", buffer.getText(4));
+    }
+
+    @Test
+    void peekAndReset() {
+        // given
+        var errorModule = new ErrorModule();
+        var buffer = TokenBuffer.lex(SourceHelpers.thereIsByteBufferSource("var x = 1;", errorModule),
+            errorModule, new SymbolTable(), TokenFilters.getCommentTypeFilter());
+        buffer.advance();
+
+        // when
+        var mark = buffer.mark();
+        var peeked = buffer.peek(3);
+        buffer.advance();
+        buffer.advance();
+        buffer.reset(mark);
+
+        // then
+        assertEquals(TokenType.INTEGER_NUMBER, peeked);
+        assertEquals(TokenType.EOF, buffer.peek(10));
+        assertEquals(TokenType.VAR_KEYWORD, buffer.getCurrentTokenType());
+        assertEquals("x", buffer.getText(1));
+        assertEquals(6, buffer.size());
+    }
+
+    // values read through the lexer, checked against the token it creates on request
+    private static ArrayList<String> describeValues(Lexer lexer) {
+        var description = new ArrayList<String>();
+        for (lexer.advance(); lexer.getCurrentTokenType() != TokenType.EOF; lexer.advance()) {
+            var type = lexer.getCurrentTokenType();
+            var position = lexer.getCurrentTokenPosition();
+            var value = switch (type) {
+                case IDENTIFIER -> lexer.getCurrentText() + " " + lexer.getCurrentSymbolId();
+                case INTEGER_NUMBER -> String.valueOf(lexer.getCurrentIntValue());
+                case FLOAT_NUMBER -> String.valueOf(lexer.getCurrentFloatValue());
+                case LONG_NUMBER -> String.valueOf(lexer.getCurrentLongValue());
+                case DOUBLE_NUMBER -> String.valueOf(lexer.getCurrentDoubleValue());
+                default -> lexer.getCurrentText();
+            };
+            assertEquals(position, lexer.getCurrentToken().getPosition());
+            assertEquals(type, lexer.getCurrentToken().getType());
+            description.add(type + " " + value);
+        }
+        return description;
+    }
+
+    private static ArrayList<String> describeStreaming(String input) {
+        var errorModule = new ErrorModule();
+        var lexer = new LexerFiltered(
+            new LexerImpl(SourceHelpers.thereIsByteBufferSource(input, errorModule), errorModule),
+            TokenFilters.getCommentFilter());
+        return describe(lexer);
+    }
+
+    private static ArrayList<String> describeBuffered(String input) {
+        var errorModule = new ErrorModule();
+        var buffer = TokenBuffer.lex(SourceHelpers.thereIsByteBufferSource(input, errorModule),
+            errorModule, new SymbolTable(), TokenFilters.getCommentTypeFilter());
+        return describe(buffer);
+    }
+
+    private static ArrayList<String> describe(Lexer lexer) {
+        var description = new ArrayList<String>();
+        Token token;
+        do {
+            token = lexer.getNextToken();
+            description.add(String.join(" | ",
+                token.toString(),
+                lexer.getCurrentLocation().toString(),
+                lexer.getPreviousLocation().toString(),
+                lexer.getCharacterBuffer(),
+                lexer.getEffectiveCharacterBuffer(),
+                lexer.getSnippet().getText(),
+                lexer.getEffectiveSnippet().getText()));
+        } while (token.getType() != TokenType.EOF);
+        return description;
+    }
+}
@@ -4,6 +4,7 @@ import java.io.StringReader;
 import java.nio.charset.StandardCharsets;
 
 import com.anczykowski.errormodule.ErrorModule;
+import com.anczykowski.lexer.ByteBufferSource;
 import com.anczykowski.lexer.Source;
 
 public class SourceHelpers {
@@ -11,6 +12,14 @@ public class SourceHelpers {
         return new Source(errorModule, new StringReader(input));
     }
 
+    public static Source thereIsByteBufferSource(String input, ErrorModule errorModule){
+        return new ByteBufferSource(errorModule, input.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static Source thereIsByteBufferSource(byte[] input, ErrorModule errorModule){
+        return new ByteBufferSource(errorModule, input);
+    }
+
     public static String createUnicodeString(String str){
         return new String(str.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8);
     }
@@ -0,0 +1,104 @@
+package com.anczykowski.parser;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.anczykowski.errormodule.ErrorModule;
+import com.anczykowski.errormodule.ErrorType;
+import com.anczykowski.errormodule.exceptions.ParserException;
+import com.anczykowski.errormodule.exceptions.TooManyErrorsException;
+import com.anczykowski.lexer.SymbolTable;
+
+class ParallelParserTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void mergeProgramsOfAllFiles() throws Exception {
+        // given
+        var first = write("first.tkom", "main() { var x = helper(1); }");
+        var second = write("second.tkom", "class Point { var x = 0; } helper(x) { return x; }");
+        var errorModule = new ErrorModule();
+        var symbolTable = new SymbolTable();
+
+        // when
+        var program = ParallelParser.parse(List.of(first, second), errorModule, symbolTable);
+
+        // then
+        assertTrue(errorModule.getErrors().isEmpty());
+        assertEquals(2, program.getFunctions().size());
+        assertEquals(1, program.getClasses().size());
+        // identifiers of all files share one symbol table, ids are given out in the order of files
+        assertEquals(symbolTable.getId("main"), program.getFunctions().get("main").getSymbolId());
+        assertEquals(symbolTable.getId("helper"), program.getFunctions().get("helper").getSymbolId());
+        assertEquals(0, symbolTable.getId("main"));
+    }
+
+    @Test
+    void reportDeclarationsRepeatedAcrossFiles() throws Exception {
+        // given
+        var first = write("first.tkom", "main() { }\nclass Point { }");
+        var second = write("second.tkom", "\n  main() { }\nclass Point { }");
+        var errorModule = new ErrorModule();
+
+        // when
+        var program = ParallelParser.parse(List.of(first, second), errorModule, new SymbolTable());
+
+        // then
+        assertEquals(2, errorModule.getErrors().size());
+        for (var error : errorModule.getErrors()) {
+            assertEquals(ErrorType.ALREADY_DECLARED, error.getErrorType());
+            assertEquals(second.toFile().getCanonicalPath(), error.getLocation().getFilename());
+        }
+        assertEquals(first.toFile().getCanonicalPath(), program.getFunctions().get("main").getLocation().getFilename());
+    }
+
+    @Test
+    void reportErrorsOfEveryFile() throws Exception {
+        // given
+        var first = write("first.tkom", "main() { var x = ; }");
+        var second = write("second.tkom", "helper() { var y = 1 }");
+        var errorModule = new ErrorModule();
+
+        // when
+        var paths = List.of(first, second);
+
+        // then
+        assertThrows(ParserException.class, () -> ParallelParser.parse(paths, errorModule, new SymbolTable()));
+        assertEquals(first.toFile().getCanonicalPath(), errorModule.getErrors().get(0).getLocation().getFilename());
+        assertEquals(second.toFile().getCanonicalPath(), errorModule.getErrors().getLast().getLocation().getFilename());
+    }
+
+    @Test
+    void abortOnceErrorsOfAllFilesAddUp() throws Exception {
+        // given
+        var paths = new ArrayList<Path>();
+        for (int i = 0; i < 4; ++i) {
+            paths.add(write("file" + i + ".tkom", "main() { var x = ; }"));
+        }
+        var errorModule = new ErrorModule();
+        errorModule.setAbortThreshold(3);
+
+        // when
+        var symbolTable = new SymbolTable();
+
+        // then
+        assertThrows(TooManyErrorsException.class, () -> ParallelParser.parse(paths, errorModule, symbolTable));
+        assertEquals(3, errorModule.getErrorCount());
+    }
+
+    private Path write(String filename, String program) throws IOException {
+        return Files.writeString(directory.resolve(filename), program);
+    }
+}
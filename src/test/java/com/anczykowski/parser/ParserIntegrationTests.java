@@ -2,24 +2,40 @@ package com.anczykowski.parser;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 
 import com.anczykowski.parser.structures.statements.VarStmt;
 import lombok.SneakyThrows;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 
 import com.anczykowski.errormodule.ErrorModule;
+import com.anczykowski.errormodule.exceptions.ParserException;
 import com.anczykowski.lexer.IntegerToken;
+import com.anczykowski.lexer.LexerImpl;
 import com.anczykowski.lexer.Location;
 import com.anczykowski.lexer.StringToken;
+import com.anczykowski.lexer.SymbolTable;
 import com.anczykowski.lexer.Token;
 import com.anczykowski.lexer.TokenType;
+import com.anczykowski.lexer.helpers.SourceHelpers;
 import com.anczykowski.parser.helpers.ParserHelpers;
 import com.anczykowski.parser.structures.statements.AssignmentStatement;
+import com.anczykowski.parser.structures.statements.CondStmt;
+import com.anczykowski.parser.structures.statements.ReturnStatement;
+import com.anczykowski.parser.structures.statements.WhileStmt;
+import com.anczykowski.parser.structures.expressions.AdditionTerm;
+import com.anczykowski.parser.structures.expressions.FunctionCallExpression;
 import com.anczykowski.parser.structures.expressions.IdentifierExpression;
 import com.anczykowski.parser.structures.expressions.IntegerConstantExpr;
+import com.anczykowski.visitors.PrinterVisitor;
 
 class ParserIntegrationTests {
 
@@ -233,4 +249,144 @@ class ParserIntegrationTests {
         assertEquals(2, firstExprRval.getValue());
     }
 
-}
\ No newline at end of file
+    @Test
+    @SneakyThrows
+    void parseDeeplyNestedBlocksInStackSafeMode() {
+        // given
+        var errorModule = new ErrorModule();
+        var depth = 100_000;
+        var source = "main() {" + "if (1) { while (1) { ".repeat(depth / 2) + "return 0;" + "} } ".repeat(depth / 2) + "}";
+        var parser = new Parser(new LexerImpl(SourceHelpers.thereIsByteBufferSource(source, errorModule), errorModule,
+            new SymbolTable()), errorModule);
+        parser.setStackSafe(true);
+
+        // when
+        var program = parser.parse();
+
+        // then
+        assertEquals(0, errorModule.getErrorCount());
+        var block = program.getFunctions().get("main").getCodeBLock();
+        for (int i = 0; i < depth / 2; ++i) {
+            var condStmt = (CondStmt) block.getStatements().get(0);
+            var whileStmt = (WhileStmt) condStmt.getTrueBlock().getStatements().get(0);
+            block = whileStmt.getCodeBLock();
+        }
+        assertInstanceOf(ReturnStatement.class, block.getStatements().get(0));
+    }
+
+    @Test
+    @SneakyThrows
+    void parseDeeplyNestedParenthesesInStackSafeMode() {
+        // given
+        var errorModule = new ErrorModule();
+        var depth = 100_000;
+        var source = "main() { return " + "(1 + ".repeat(depth) + "2" + ")".repeat(depth) + "; }";
+        var parser = new Parser(new LexerImpl(SourceHelpers.thereIsByteBufferSource(source, errorModule), errorModule,
+            new SymbolTable()), errorModule);
+        parser.setStackSafe(true);
+
+        // when
+        var program = parser.parse();
+
+        // then
+        assertEquals(0, errorModule.getErrorCount());
+        var returnStatement = (ReturnStatement) program.getFunctions().get("main").getCodeBLock().getStatements().get(0);
+        var expression = returnStatement.getInner();
+        for (int i = 0; i < depth; ++i) {
+            var addition = (AdditionTerm) expression;
+            assertEquals(1, ((IntegerConstantExpr) addition.getLeft()).getValue());
+            expression = addition.getRight();
+        }
+        assertEquals(2, ((IntegerConstantExpr) expression).getValue());
+    }
+
+    @Test
+    @SneakyThrows
+    void parseDeeplyNestedCallsInStackSafeMode() {
+        // given
+        var errorModule = new ErrorModule();
+        var depth = 100_000;
+        var source = "main() { return " + "f(".repeat(depth) + "1" + ")".repeat(depth) + "; }";
+        var parser = new Parser(new LexerImpl(SourceHelpers.thereIsByteBufferSource(source, errorModule), errorModule,
+            new SymbolTable()), errorModule);
+        parser.setStackSafe(true);
+
+        // when
+        var program = parser.parse();
+
+        // then
+        assertEquals(0, errorModule.getErrorCount());
+        var returnStatement = (ReturnStatement) program.getFunctions().get("main").getCodeBLock().getStatements().get(0);
+        var expression = returnStatement.getInner();
+        for (int i = 0; i < depth; ++i) {
+            var call = (FunctionCallExpression) expression;
+            assertEquals("f", call.getIdentifier());
+            assertEquals(1, call.getArgs().size());
+            expression = call.getArgs().get(0).getArgument();
+        }
+        assertEquals(1, ((IntegerConstantExpr) expression).getValue());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        """
+            class Box { var size = -(1 + 2) * 3; get() { return size as float; } }
+            main() {
+                var box = new Box();
+                if (not (box.get() > 1 and 2 < 3)) { print(1); } else { while (1) { print((2)); } }
+                for (i in list(1, 2)) { switch (i) { int -> { print(i); } default -> { } } }
+                return f((1), -(2 - (3)));
+            }
+            """,
+        """
+            main() {
+                if (1) print(1); var a = 1;
+                while (1) { if (1 > 2 > 3) { } else return; }
+                switch (1) { int -> { } int -> { } float -> default -> { } }
+                for (i in 1) return; if (1) { }
+                return ((1 + ) * (2);
+            }
+            """,
+        """
+            main() {
+                var a = f(ref x, -g(1).h(new Box(2, ), ) as int, k().l);
+                a = f(ref , 1).(2) + new (3) * new Box(4;
+                return a.b(c(d(1, 2) * 3), (e(4)));
+            }
+            """
+    })
+    @SneakyThrows
+    void parseSameTreeInStackSafeMode(String source) {
+        // given
+        var recursiveErrors = new ErrorModule();
+        var stackSafeErrors = new ErrorModule();
+
+        // when
+        var recursive = parseAndPrint(source, recursiveErrors, false);
+        var stackSafe = parseAndPrint(source, stackSafeErrors, true);
+
+        // then
+        assertEquals(recursive, stackSafe);
+        assertEquals(recursiveErrors.getErrorCount(), stackSafeErrors.getErrorCount());
+        for (int i = 0; i < recursiveErrors.getErrorCount(); ++i) {
+            var expected = recursiveErrors.getErrors().get(i);
+            var actual = stackSafeErrors.getErrors().get(i);
+            assertEquals(expected.getErrorType(), actual.getErrorType());
+            assertEquals(expected.getExplanation(), actual.getExplanation());
+            assertEquals(expected.getLocation().getColumnNumber(), actual.getLocation().getColumnNumber());
+        }
+    }
+
+    private static String parseAndPrint(String source, ErrorModule errorModule, boolean stackSafe) {
+        var parser = new Parser(new LexerImpl(SourceHelpers.thereIsByteBufferSource(source, errorModule), errorModule,
+            new SymbolTable()), errorModule);
+        parser.setStackSafe(stackSafe);
+        var out = new ByteArrayOutputStream();
+        try {
+            parser.parse().accept(new PrinterVisitor(new PrintStream(out, true, StandardCharsets.UTF_8)));
+        } catch (ParserException e) {
+            out.writeBytes("aborted".getBytes(StandardCharsets.UTF_8));
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -1069,6 +1069,73 @@ class ParserTests {
         assertEquals(3, right.getValue());
     }
 
+    @Test
+    @SneakyThrows
+    void testOperatorPrecedence() {
+        // given
+        var errorModule = new ErrorModule();
+
+        var lexer = ParserHelpers.thereIsLexer(List.of(
+            new IntegerToken(TokenType.INTEGER_NUMBER, new Location(), 1),
+            new Token(TokenType.OR_KEYWORD, new Location()),
+            new IntegerToken(TokenType.INTEGER_NUMBER, new Location(), 2),
+            new Token(TokenType.ASTERISK, new Location()),
+            new IntegerToken(TokenType.INTEGER_NUMBER, new Location(), 3),
+            new Token(TokenType.MINUS, new Location()),
+            new IntegerToken(TokenType.INTEGER_NUMBER, new Location(), 4),
+            new Token(TokenType.LT, new Location()),
+            new IntegerToken(TokenType.INTEGER_NUMBER, new Location(), 5),
+            new Token(TokenType.AND_KEYWORD, new Location()),
+            new IntegerToken(TokenType.INTEGER_NUMBER, new Location(), 6)
+        ));
+        var parser = new Parser(lexer, errorModule);
+
+        // when
+        var expr = (OrExpression) parser.parseExpr();
+
+        // then
+        assertEquals(1, ((IntegerConstantExpr) expr.getLeft()).getValue());
+        var and = (AndExpr) expr.getRight();
+        assertEquals(6, ((IntegerConstantExpr) and.getRight()).getValue());
+        var lt = (LtRelExpr) and.getLeft();
+        assertEquals(5, ((IntegerConstantExpr) lt.getRight()).getValue());
+        var subtraction = (SubtractionTerm) lt.getLeft();
+        assertEquals(4, ((IntegerConstantExpr) subtraction.getRight()).getValue());
+        var multiplication = (MultiplicationFactor) subtraction.getLeft();
+        assertEquals(2, ((IntegerConstantExpr) multiplication.getLeft()).getValue());
+        assertEquals(3, ((IntegerConstantExpr) multiplication.getRight()).getValue());
+        assertEquals(0, errorModule.getErrorCount());
+    }
+
+    @Test
+    @SneakyThrows
+    void testLongOperatorChainIsLeftAssociative() {
+        // given
+        var errorModule = new ErrorModule();
+
+        var tokens = new ArrayList<Token>();
+        tokens.add(new IntegerToken(TokenType.INTEGER_NUMBER, new Location(), 0));
+        for (int i = 1; i <= 100_000; ++i) {
+            tokens.add(new Token(i % 2 == 0 ? TokenType.PLUS : TokenType.MINUS, new Location()));
+            tokens.add(new IntegerToken(TokenType.INTEGER_NUMBER, new Location(), i));
+        }
+        var lexer = ParserHelpers.thereIsLexer(tokens);
+        var parser = new Parser(lexer, errorModule);
+
+        // when
+        var expr = parser.parseExpr();
+
+        // then
+        for (int i = 100_000; i >= 1; --i) {
+            var term = (LeftRightExpression) expr;
+            assertEquals(i % 2 == 0 ? AdditionTerm.class : SubtractionTerm.class, term.getClass());
+            assertEquals(i, ((IntegerConstantExpr) term.getRight()).getValue());
+            expr = term.getLeft();
+        }
+        assertEquals(0, ((IntegerConstantExpr) expr).getValue());
+        assertEquals(0, errorModule.getErrorCount());
+    }
+
     @Test
     @SneakyThrows
     void parseVarWithAssignment() {
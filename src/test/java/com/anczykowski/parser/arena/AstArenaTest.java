@@ -0,0 +1,145 @@
+package com.anczykowski.parser.arena;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.Test;
+
+import com.anczykowski.errormodule.ErrorModule;
+import com.anczykowski.lexer.LexerImpl;
+import com.anczykowski.lexer.SymbolTable;
+import com.anczykowski.lexer.helpers.SourceHelpers;
+import com.anczykowski.parser.Parser;
+import com.anczykowski.parser.structures.Program;
+import com.anczykowski.parser.structures.expressions.LeftRightExpression;
+import com.anczykowski.parser.structures.statements.VarStmt;
+import lombok.SneakyThrows;
+
+class AstArenaTest {
+
+    @Test
+    void flattenProgram() {
+        // given
+        var symbolTable = new SymbolTable();
+        var program = parse("""
+            class Point {
+                var x = 1;
+                getX() { return x; }
+            }
+            main(a) {
+                var y = a + 2 * 3L;
+                if (y > 1.5) { print(ref y); } else { y = -y as int; }
+                return "done";
+            }
+            """, symbolTable);
+
+        // when
+        var arena = program.getArena();
+
+        // then
+        assertEquals("PROGRAM(CLASS_DEF Point(CLASS_BODY(VAR_STMT x(INTEGER 1) METHOD_DEF getX(CODE_BLOCK(RETURN_STMT("
+            + "IDENTIFIER x))))) FUNC_DEF main(PARAMETER a CODE_BLOCK(VAR_STMT y(ADDITION(IDENTIFIER a "
+            + "MULTIPLICATION(INTEGER 2 LONG 3))) COND_STMT(GT(IDENTIFIER y FLOAT 1.5) CODE_BLOCK(EXPRESSION_STMT("
+            + "FUNCTION_CALL print(REF_ARG(IDENTIFIER y)))) CODE_BLOCK(ASSIGNMENT_STMT(IDENTIFIER y "
+            + "CAST int(NEGATED(IDENTIFIER y))))) RETURN_STMT(STRING done))))", describe(arena));
+        assertSame(arena, program.getArena());
+    }
+
+    @Test
+    void keepSymbolsAndLocations() {
+        // given
+        var symbolTable = new SymbolTable();
+        var program = parse("main() {\n  var y = 1 + 2;\n}", symbolTable);
+
+        // when
+        var arena = program.getArena();
+
+        // then
+        var main = arena.getFirstChild(AstArena.ROOT);
+        assertEquals(symbolTable.getId("main"), arena.getSymbolId(main));
+        var varStmt = arena.getFirstChild(arena.getChild(main, 0));
+        assertEquals(NodeKind.VAR_STMT, arena.getKind(varStmt));
+        assertEquals(symbolTable.getId("y"), arena.getSymbolId(varStmt));
+        var varStmtNode = program.getFunctions().get("main").getCodeBLock().getStatements().get(0);
+        var location = ((VarStmt) varStmtNode).getLocation();
+        assertEquals(location.toString(), arena.getLocation(varStmt).toString());
+        var addition = arena.getFirstChild(varStmt);
+        assertEquals(2, arena.getChildCount(addition));
+        assertEquals(AstArena.NO_NODE, arena.getChild(addition, 2));
+        assertNull(arena.getLocation(arena.getFirstChild(addition)));
+        assertSame(((LeftRightExpression) ((VarStmt) varStmtNode).getInitial()).getSnippet(), arena.getSnippet(addition));
+    }
+
+    @Test
+    void walkDepthFirst() {
+        // given
+        var arena = parse("main() { while (1) { x = x - 1; } }", new SymbolTable()).getArena();
+        var events = new ArrayList<String>();
+
+        // when
+        arena.walk(AstArena.ROOT, new AstArenaVisitor() {
+            @Override
+            public void enter(AstArena arena, int node) {
+                events.add("+" + arena.getKind(node));
+            }
+
+            @Override
+            public void exit(AstArena arena, int node) {
+                events.add("-" + arena.getKind(node));
+            }
+        });
+
+        // then
+        assertEquals(2 * arena.size(), events.size());
+        assertEquals(String.join(" ", "+PROGRAM +FUNC_DEF +CODE_BLOCK +WHILE_STMT +INTEGER -INTEGER +CODE_BLOCK",
+            "+ASSIGNMENT_STMT +IDENTIFIER -IDENTIFIER +SUBTRACTION +IDENTIFIER -IDENTIFIER +INTEGER -INTEGER",
+            "-SUBTRACTION -ASSIGNMENT_STMT -CODE_BLOCK -WHILE_STMT -CODE_BLOCK -FUNC_DEF -PROGRAM"), String.join(" ", events));
+    }
+
+    @SneakyThrows
+    private static Program parse(String input, SymbolTable symbolTable) {
+        var errorModule = new ErrorModule();
+        var source = SourceHelpers.thereIsByteBufferSource(input, errorModule);
+        var program = new Parser(new LexerImpl(source, errorModule, symbolTable), errorModule).parse();
+        assertEquals(0, errorModule.getErrorCount());
+        return program;
+    }
+
+    private static String describe(AstArena arena) {
+        var description = new StringBuilder();
+        arena.walk(AstArena.ROOT, new AstArenaVisitor() {
+            @Override
+            public void enter(AstArena arena, int node) {
+                if (description.length() > 0 && description.charAt(description.length() - 1) != '(') {
+                    description.append(' ');
+                }
+                var kind = arena.getKind(node);
+                description.append(kind);
+                switch (kind) {
+                    case INTEGER -> description.append(' ').append(arena.getInt(node));
+                    case FLOAT -> description.append(' ').append(arena.getFloat(node));
+                    case LONG -> description.append(' ').append(arena.getLong(node));
+                    case DOUBLE -> description.append(' ').append(arena.getDouble(node));
+                    case CLASS_DEF, FUNC_DEF, METHOD_DEF, PARAMETER, VAR_STMT, FOR_STMT, SWITCH_LABEL, CAST, STRING,
+                        IDENTIFIER, FUNCTION_CALL, CLASS_INIT -> description.append(' ').append(arena.getString(node));
+                    default -> {
+                    }
+                }
+                if (arena.getFirstChild(node) != AstArena.NO_NODE) {
+                    description.append('(');
+                }
+            }
+
+            @Override
+            public void exit(AstArena arena, int node) {
+                if (arena.getFirstChild(node) != AstArena.NO_NODE) {
+                    description.append(')');
+                }
+            }
+        });
+        return description.toString();
+    }
+}
@@ -56,6 +56,42 @@ class InterpreterVisitorTest {
         assertEquals(3.0f, ((FloatValue) interpreter.lastResult.getValue()).getValue(), 0.000001f);
     }
 
+    @Test
+    void interpretLongMultiplication() {
+        // given
+        var errorModule = new ErrorModule();
+        var interpreter = new InterpreterVisitor(errorModule);
+
+        var expr = new MultiplicationFactor(
+                new LongConstantExpr(3_000_000_000L),
+                new LongConstantExpr(3L)
+        );
+
+        // when
+        expr.accept(interpreter);
+
+        // then
+        assertEquals(9_000_000_000L, ((LongValue) interpreter.lastResult.getValue()).getValue());
+    }
+
+    @Test
+    void interpretDoubleDivision() {
+        // given
+        var errorModule = new ErrorModule();
+        var interpreter = new InterpreterVisitor(errorModule);
+
+        var expr = new DivisionFactor(
+                new DoubleConstantExpr(1.0),
+                new DoubleConstantExpr(3.0)
+        );
+
+        // when
+        expr.accept(interpreter);
+
+        // then
+        assertEquals(1.0 / 3.0, ((DoubleValue) interpreter.lastResult.getValue()).getValue());
+    }
+
     @Test
     void interpretUnsupportedAddition() {
         // given
@@ -845,7 +881,7 @@ class InterpreterVisitorTest {
         }});
 
         // when
-        block.accept(interpreter);
+        resolveAsMain(block, new HashMap<>(), new HashMap<>()).accept(interpreter);
 
         // then
         assertEquals(6, ((IntValue) interpreter.lastResult.getValue()).getValue());
@@ -918,7 +954,7 @@ class InterpreterVisitorTest {
         var interpreter = new InterpreterVisitor(errorModule, printStream);
 
         interpreter.contextManager.addContext(new Context(true));
-        interpreter.contextManager.getGlobalSymbolManager().addFunctions(new HashMap<>() {{
+        var functions = new HashMap<String, FuncDef>() {{
             put("increment", new FuncDef(
                     "increment",
                     new ArrayList<>() {{
@@ -933,7 +969,8 @@ class InterpreterVisitorTest {
                         ));
                     }})
             ));
-        }});
+        }};
+        interpreter.contextManager.getGlobalSymbolManager().addFunctions(functions);
 
 
         var block = new CodeBLock(new ArrayList<>() {{
@@ -948,7 +985,7 @@ class InterpreterVisitorTest {
         }});
 
         // when
-        block.accept(interpreter);
+        resolveAsMain(block, functions, new HashMap<>()).accept(interpreter);
 
         // then
         assertEquals(4, ((IntValue) interpreter.lastResult.getValue()).getValue());
@@ -963,7 +1000,7 @@ class InterpreterVisitorTest {
         var interpreter = new InterpreterVisitor(errorModule, printStream);
 
         interpreter.contextManager.addContext(new Context(true));
-        interpreter.contextManager.getGlobalSymbolManager().addFunctions(new HashMap<>() {{
+        var functions = new HashMap<String, FuncDef>() {{
             put("increment", new FuncDef(
                     "increment",
                     new ArrayList<>() {{
@@ -978,7 +1015,8 @@ class InterpreterVisitorTest {
                         ));
                     }})
             ));
-        }});
+        }};
+        interpreter.contextManager.getGlobalSymbolManager().addFunctions(functions);
 
 
         var block = new CodeBLock(new ArrayList<>() {{
@@ -993,7 +1031,7 @@ class InterpreterVisitorTest {
         }});
 
         // when
-        block.accept(interpreter);
+        resolveAsMain(block, functions, new HashMap<>()).accept(interpreter);
 
         // then
         assertEquals(5, ((IntValue) interpreter.lastResult.getValue()).getValue());
@@ -1074,7 +1112,7 @@ class InterpreterVisitorTest {
         var interpreter = new InterpreterVisitor(errorModule, printStream);
 
         interpreter.contextManager.addContext(new Context(true));
-        interpreter.contextManager.getGlobalSymbolManager().addClasses(new HashMap<>() {{
+        var classes = new HashMap<String, ClassDef>() {{
             put("Circle", new ClassDef("Circle", new ClassBody(
                     new HashMap<>() {{
                         put("init", new FuncDef(
@@ -1095,7 +1133,8 @@ class InterpreterVisitorTest {
                         put("r", new VarStmt("r", new IntegerConstantExpr(0)));
                     }}
             )));
-        }});
+        }};
+        interpreter.contextManager.getGlobalSymbolManager().addClasses(classes);
 
 
 
@@ -1107,7 +1146,7 @@ class InterpreterVisitorTest {
         }});
 
         // when
-        block.accept(interpreter);
+        resolveAsMain(block, new HashMap<>(), classes).accept(interpreter);
 
         // then
         var radius = ((ClassValue) interpreter.lastResult.getValue()).getClassContext().getVariables().get("r");
@@ -1123,7 +1162,7 @@ class InterpreterVisitorTest {
         var interpreter = new InterpreterVisitor(errorModule, printStream);
 
         interpreter.contextManager.addContext(new Context(true));
-        interpreter.contextManager.getGlobalSymbolManager().addClasses(new HashMap<>() {{
+        var classes = new HashMap<String, ClassDef>() {{
             put("Circle", new ClassDef("Circle", new ClassBody(
                     new HashMap<>() {{
                         put("init", new FuncDef(
@@ -1153,7 +1192,8 @@ class InterpreterVisitorTest {
                         put("r", new VarStmt("r", new IntegerConstantExpr(0)));
                     }}
             )));
-        }});
+        }};
+        interpreter.contextManager.getGlobalSymbolManager().addClasses(classes);
 
 
 
@@ -1168,7 +1208,7 @@ class InterpreterVisitorTest {
         }});
 
         // when
-        block.accept(interpreter);
+        resolveAsMain(block, new HashMap<>(), classes).accept(interpreter);
 
         // then
         assertEquals(5, ((IntValue) interpreter.lastResult.getValue()).getValue());
@@ -1183,7 +1223,7 @@ class InterpreterVisitorTest {
         var interpreter = new InterpreterVisitor(errorModule, printStream);
 
         interpreter.contextManager.addContext(new Context(true));
-        interpreter.contextManager.getGlobalSymbolManager().addClasses(new HashMap<>() {{
+        var classes = new HashMap<String, ClassDef>() {{
             put("Circle", new ClassDef("Circle", new ClassBody(
                     new HashMap<>() {{
                         put("init", new FuncDef(
@@ -1204,7 +1244,8 @@ class InterpreterVisitorTest {
                         put("r", new VarStmt("r", new IntegerConstantExpr(0)));
                     }}
             )));
-        }});
+        }};
+        interpreter.contextManager.getGlobalSymbolManager().addClasses(classes);
 
 
 
@@ -1219,7 +1260,7 @@ class InterpreterVisitorTest {
         }});
 
         // when
-        block.accept(interpreter);
+        resolveAsMain(block, new HashMap<>(), classes).accept(interpreter);
 
         // then
         assertEquals(5, ((IntValue) interpreter.lastResult.getValue()).getValue());
@@ -1234,7 +1275,7 @@ class InterpreterVisitorTest {
         var interpreter = new InterpreterVisitor(errorModule, printStream);
 
         interpreter.contextManager.addContext(new Context(true));
-        interpreter.contextManager.getGlobalSymbolManager().addClasses(new HashMap<>() {{
+        var classes = new HashMap<String, ClassDef>() {{
             put("Circle", new ClassDef("Circle", new ClassBody(
                     new HashMap<>() {{
                         put("init", new FuncDef(
@@ -1287,7 +1328,8 @@ class InterpreterVisitorTest {
                         put("circle", new VarStmt("circle", new IntegerConstantExpr(0)));
                     }}
             )));
-        }});
+        }};
+        interpreter.contextManager.getGlobalSymbolManager().addClasses(classes);
 
 
         var block = new CodeBLock(new ArrayList<>() {{
@@ -1309,7 +1351,7 @@ class InterpreterVisitorTest {
         }});
 
         // when
-        block.accept(interpreter);
+        resolveAsMain(block, new HashMap<>(), classes).accept(interpreter);
 
         // then
         assertEquals(5, ((IntValue) interpreter.lastResult.getValue()).getValue());
@@ -1322,7 +1364,7 @@ class InterpreterVisitorTest {
         var interpreter = new InterpreterVisitor(errorModule);
         interpreter.contextManager.addContext(new Context(true));
         interpreter.loadBultins();
-        interpreter.contextManager.getGlobalSymbolManager().addClasses(new HashMap<>() {{
+        var classes = new HashMap<String, ClassDef>() {{
             put("Circle", new ClassDef("Circle", new ClassBody(
                     new HashMap<>() {{
                         put("init", new FuncDef(
@@ -1343,7 +1385,8 @@ class InterpreterVisitorTest {
                         put("r", new VarStmt("r", new IntegerConstantExpr(0)));
                     }}
             )));
-        }});
+        }};
+        interpreter.contextManager.getGlobalSymbolManager().addClasses(classes);
 
 
         var block = new CodeBLock(new ArrayList<>() {{
@@ -1396,7 +1439,7 @@ class InterpreterVisitorTest {
         }});
 
         // when
-        block.accept(interpreter);
+        resolveAsMain(block, new HashMap<>(), classes).accept(interpreter);
 
         // then
         assertEquals(6, ((IntValue) interpreter.lastResult.getValue()).getValue());
@@ -1410,7 +1453,7 @@ class InterpreterVisitorTest {
         var interpreter = new InterpreterVisitor(errorModule);
         interpreter.contextManager.addContext(new Context(true));
         interpreter.loadBultins();
-        interpreter.contextManager.getGlobalSymbolManager().addClasses(new HashMap<>() {{
+        var classes = new HashMap<String, ClassDef>() {{
             put("Circle", new ClassDef("Circle", new ClassBody(
                     new HashMap<>() {{
                         put("init", new FuncDef(
@@ -1431,7 +1474,8 @@ class InterpreterVisitorTest {
                         put("r", new VarStmt("r", new IntegerConstantExpr(0)));
                     }}
             )));
-        }});
+        }};
+        interpreter.contextManager.getGlobalSymbolManager().addClasses(classes);
 
 
         var block = new CodeBLock(new ArrayList<>() {{
@@ -1487,11 +1531,68 @@ class InterpreterVisitorTest {
         }});
 
         // when
-        block.accept(interpreter);
+        resolveAsMain(block, new HashMap<>(), classes).accept(interpreter);
 
         // then
         assertEquals(9, ((IntValue) interpreter.lastResult.getValue()).getValue());
 
     }
 
-}
\ No newline at end of file
+    @Test
+    void testObjectsShareMethodTable() {
+        // given
+        var errorModule = new ErrorModule();
+        var interpreter = new InterpreterVisitor(errorModule);
+
+        interpreter.contextManager.addContext(new Context(true));
+        var classes = new HashMap<String, ClassDef>() {{
+            put("Circle", new ClassDef("Circle", new ClassBody(
+                    new HashMap<>() {{
+                        put("init", new FuncDef(
+                                "init",
+                                new ArrayList<>() {{
+                                    add(new Parameter("radius"));
+                                }},
+                                new CodeBLock(new ArrayList<>() {{
+                                    add(new AssignmentStatement(
+                                            new IdentifierExpression("r"),
+                                            new IdentifierExpression("radius")
+                                    ));
+                                }}),
+                                true
+                        ));
+                    }},
+                    new HashMap<>() {{
+                        put("r", new VarStmt("r", new IntegerConstantExpr(0)));
+                    }}
+            )));
+        }};
+        interpreter.contextManager.getGlobalSymbolManager().addClasses(classes);
+
+        ResolverVisitor.resolve(new Program(new HashMap<>(), classes));
+
+        var newCircle = new ClassInitExpression("Circle", new ArrayList<>() {{
+            add(new Arg(new IntegerConstantExpr(5), false));
+        }});
+
+        // when
+        newCircle.accept(interpreter);
+        var first = (ClassValue) interpreter.lastResult.getValue();
+        newCircle.accept(interpreter);
+        var second = (ClassValue) interpreter.lastResult.getValue();
+
+        // then
+        assertNotSame(first.getClassContext(), second.getClassContext());
+        assertSame(first.getClassContext().getMethods(), second.getClassContext().getMethods());
+        assertEquals(0, errorModule.getErrorCount());
+    }
+
+    // hand-built code runs as a function of a resolved program, the way the interpreter runs a parsed one
+    private static FuncDef resolveAsMain(CodeBLock block, HashMap<String, FuncDef> functions, HashMap<String, ClassDef> classes) {
+        var main = new FuncDef("main", new ArrayList<>(), block);
+        var program = new Program(new HashMap<>(functions), classes);
+        program.getFunctions().put("main", main);
+        ResolverVisitor.resolve(program);
+        return main;
+    }
+}
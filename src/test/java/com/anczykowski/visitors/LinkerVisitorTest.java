@@ -0,0 +1,138 @@
+package com.anczykowski.visitors;
+
+import com.anczykowski.errormodule.ErrorModule;
+import com.anczykowski.errormodule.ErrorType;
+import com.anczykowski.interpreter.SymbolManager;
+import com.anczykowski.lexer.LexerImpl;
+import com.anczykowski.lexer.SymbolTable;
+import com.anczykowski.lexer.helpers.SourceHelpers;
+import com.anczykowski.parser.Parser;
+import com.anczykowski.parser.structures.*;
+import com.anczykowski.parser.structures.expressions.*;
+import com.anczykowski.parser.structures.statements.*;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LinkerVisitorTest {
+
+    @Test
+    void bindCallsOutsideOfObjects() {
+        // given
+        var symbolTable = new SymbolTable();
+        var program = parse("""
+            class Box {
+                var size = twice(2);
+                get() { return twice(size); }
+            }
+            twice(n) { return n * 2; }
+            main() {
+                var box = new Box();
+                var a = twice(box.get());
+                box.get(twice(1));
+                return unknown();
+            }
+            """, symbolTable);
+        var functions = new SymbolManager(symbolTable);
+        functions.addFunctions(program.getFunctions());
+
+        // when
+        var targets = LinkerVisitor.link(program, functions, new ErrorModule());
+
+        // then
+        var twice = program.getFunctions().get("twice");
+        var box = program.getClasses().get("Box").getClassBody();
+        assertNull(targets.get(box.getAttributes().get("size").getInitial()));
+        var get = box.getMethods().get("get");
+        assertSame(twice, targets.get(((ReturnStatement) get.getCodeBLock().getStatements().get(0)).getInner()));
+
+        var statements = program.getFunctions().get("main").getCodeBLock().getStatements();
+        var call = (FunctionCallExpression) ((VarStmt) statements.get(1)).getInitial();
+        assertSame(twice, targets.get(call));
+        var methodCall = (FunctionCallExpression) ((ObjectAccessExpression) call.getArgs().get(0).getArgument()).getCurrent();
+        assertNull(targets.get(methodCall));
+        var access = (ObjectAccessExpression) ((ExpressionStatement) statements.get(2)).getExpression();
+        var dynamicArg = ((FunctionCallExpression) access.getCurrent()).getArgs().get(0).getArgument();
+        assertNull(targets.get(dynamicArg));
+        assertNull(targets.get(((ReturnStatement) statements.get(3)).getInner()));
+    }
+
+    @Test
+    void reportUnmatchedArgumentsOnce() {
+        // given
+        var errorModule = new ErrorModule();
+        var source = """
+            add(a, b) { return a + b; }
+            main() {
+                var i = 0;
+                while (i < 3) {
+                    print(add(i, 1, 2));
+                    i = i + 1;
+                }
+                return 0;
+            }
+            """;
+
+        // when
+        var output = interpret(source, errorModule);
+
+        // then
+        assertEquals("1\n2\n3\n", output);
+        assertEquals(1, errorModule.getErrorCount());
+        assertEquals(ErrorType.UNMATCHED_ARGUMENTS, errorModule.getErrors().get(0).getErrorType());
+        assertEquals("expected 2 arguments but 3 provided.", errorModule.getErrors().get(0).getExplanation());
+    }
+
+    @Test
+    void callMethodsOfDifferentClassesAtOneSite() {
+        // given
+        var errorModule = new ErrorModule();
+        var source = """
+            class Circle {
+                var r = 0;
+                init(radius) { r = radius; }
+                area() { return 3 * r * r; }
+            }
+            class Square {
+                var a = 0;
+                init(side) { a = side; }
+                area() { return a * a; }
+            }
+            main() {
+                for (shape in list(new Circle(2), new Square(3), new Circle(1))) {
+                    print(shape.area());
+                }
+                return 0;
+            }
+            """;
+
+        // when
+        var output = interpret(source, errorModule);
+
+        // then
+        assertEquals("12\n9\n3\n", output);
+        assertEquals(0, errorModule.getErrorCount());
+    }
+
+    @SneakyThrows
+    private static Program parse(String source, SymbolTable symbolTable) {
+        var errorModule = new ErrorModule();
+        var lexer = new LexerImpl(SourceHelpers.thereIsByteBufferSource(source, errorModule), errorModule, symbolTable);
+        var program = new Parser(lexer, errorModule).parse();
+        assertEquals(0, errorModule.getErrorCount());
+        return program;
+    }
+
+    private static String interpret(String source, ErrorModule errorModule) {
+        var symbolTable = new SymbolTable();
+        var program = parse(source, symbolTable);
+        var out = new ByteArrayOutputStream();
+        program.accept(new InterpreterVisitor(errorModule, new PrintStream(out, true, StandardCharsets.UTF_8), symbolTable));
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,211 @@
+package com.anczykowski.visitors;
+
+import com.anczykowski.errormodule.ErrorModule;
+import com.anczykowski.errormodule.ErrorType;
+import com.anczykowski.errormodule.exceptions.InterpreterException;
+import com.anczykowski.lexer.LexerImpl;
+import com.anczykowski.lexer.SymbolTable;
+import com.anczykowski.lexer.helpers.SourceHelpers;
+import com.anczykowski.parser.Parser;
+import com.anczykowski.parser.structures.*;
+import com.anczykowski.parser.structures.expressions.*;
+import com.anczykowski.parser.structures.statements.*;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OptimizerVisitorTest {
+
+    @Test
+    void foldArithmetic() {
+        // given
+        var program = parse("main() { var a = 2 * 3 + 4; var b = 3L * 5L - 1L; var c = 1.5D / 0.5D; return 0; }");
+
+        // when
+        OptimizerVisitor.optimize(program);
+
+        // then
+        var statements = getStatements(program, "main");
+        assertEquals(10, ((IntegerConstantExpr) ((VarStmt) statements.get(0)).getInitial()).getValue());
+        assertEquals(14L, ((LongConstantExpr) ((VarStmt) statements.get(1)).getInitial()).getValue());
+        assertEquals(3.0, ((DoubleConstantExpr) ((VarStmt) statements.get(2)).getInitial()).getValue());
+    }
+
+    @Test
+    void foldNegationAndCasts() {
+        // given
+        var program = parse("main() { var a = -(7 as float); var b = 2.9 as int; var c = (1 + 2) as long; return 0; }");
+
+        // when
+        OptimizerVisitor.optimize(program);
+
+        // then
+        var statements = getStatements(program, "main");
+        assertEquals(-7.0f, ((FloatConstantExpr) ((VarStmt) statements.get(0)).getInitial()).getValue());
+        assertEquals(2, ((IntegerConstantExpr) ((VarStmt) statements.get(1)).getInitial()).getValue());
+        assertEquals(3L, ((LongConstantExpr) ((VarStmt) statements.get(2)).getInitial()).getValue());
+    }
+
+    @Test
+    void keepExpressionsThatFail() {
+        // given
+        var program = parse("main() { var a = 1 + 2.0; var b = 1 + x; return 0; }");
+        var statements = getStatements(program, "main");
+        var mixed = ((VarStmt) statements.get(0)).getInitial();
+        var variable = ((VarStmt) statements.get(1)).getInitial();
+
+        // when
+        OptimizerVisitor.optimize(program);
+
+        // then
+        assertSame(mixed, ((VarStmt) getStatements(program, "main").get(0)).getInitial());
+        assertSame(variable, ((VarStmt) getStatements(program, "main").get(1)).getInitial());
+    }
+
+    @Test
+    void reportDivisionByZeroWhereItIsWritten() {
+        // given
+        var errorModule = new ErrorModule();
+        var symbolTable = new SymbolTable();
+        var program = parse("main() {\n  var a = 2 * 3;\n  var b = (1 + 2) / (a - 1 + 0 * 5) + 1 / (4 - 4);\n  return 0;\n}",
+            symbolTable);
+        var addition = (AdditionTerm) ((VarStmt) getStatements(program, "main").get(1)).getInitial();
+        var division = (DivisionFactor) addition.getRight();
+        var location = division.getLocation();
+
+        // when
+        OptimizerVisitor.optimize(program);
+
+        // then
+        var folded = (AdditionTerm) ((VarStmt) getStatements(program, "main").get(1)).getInitial();
+        assertInstanceOf(DivisionFactor.class, folded.getLeft());
+        var foldedDivision = (DivisionFactor) folded.getRight();
+        assertEquals(1, ((IntegerConstantExpr) foldedDivision.getLeft()).getValue());
+        assertEquals(0, ((IntegerConstantExpr) foldedDivision.getRight()).getValue());
+        assertThrows(InterpreterException.class,
+            () -> program.accept(new InterpreterVisitor(errorModule, System.out, symbolTable)));
+        assertEquals(ErrorType.DIVISION_BY_ZERO, errorModule.getErrors().get(0).getErrorType());
+        assertEquals(location.toString(), errorModule.getErrors().get(0).getLocation().toString());
+    }
+
+    @Test
+    void pruneConstantBranches() {
+        // given
+        var program = parse("""
+            main() {
+                if (1 < 2 and 3 == 3) { print("yes"); } else { print("no"); }
+                if (1 > 2) { print("never"); }
+                if (2.0 <= 1.0) { print("no"); } else { print("else"); }
+                while (1L != 1L) { print("never"); }
+                return 0;
+            }
+            """);
+
+        // when
+        OptimizerVisitor.optimize(program);
+
+        // then
+        var statements = getStatements(program, "main");
+        assertEquals(3, statements.size());
+        var taken = (CondStmt) statements.get(0);
+        assertTrue(((BoolConstantExpr) taken.getCondition()).getValue());
+        assertNull(taken.getElseBlock());
+        var elseTaken = (CondStmt) statements.get(1);
+        assertTrue(((BoolConstantExpr) elseTaken.getCondition()).getValue());
+        assertEquals("else", getPrinted(elseTaken.getTrueBlock()));
+        assertInstanceOf(ReturnStatement.class, statements.get(2));
+    }
+
+    @Test
+    void dropStatementsAfterReturn() {
+        // given
+        var program = parse("""
+            main() {
+                print("a");
+                return;
+                print("b");
+                if (1 == 1) { return 1; }
+                print("c");
+                return 0;
+            }
+            """);
+
+        // when
+        OptimizerVisitor.optimize(program);
+
+        // then
+        var statements = getStatements(program, "main");
+        assertEquals(4, statements.size());
+        assertInstanceOf(CondStmt.class, statements.get(3));
+    }
+
+    @Test
+    void keepProgramOutput() {
+        // given
+        var source = """
+            class Counter {
+                var count = 10 * 2;
+                add(n) { count = count + n * (2 - 1); return 0; }
+            }
+            main() {
+                var counter = new Counter();
+                var i = 0;
+                while (i < 3 + 2) {
+                    counter.add(i);
+                    if (not (1 > 2)) { i = i + 1; } else { return 1; }
+                }
+                print(counter.count);
+                print(-(1.5 as int) * 4);
+                return 0;
+                print("unreachable");
+            }
+            """;
+
+        // when
+        var output = interpret(source, false);
+        var optimizedOutput = interpret(source, true);
+
+        // then
+        assertEquals("30\n-4\n", output);
+        assertEquals(output, optimizedOutput);
+    }
+
+    private static Program parse(String source) {
+        return parse(source, new SymbolTable());
+    }
+
+    @SneakyThrows
+    private static Program parse(String source, SymbolTable symbolTable) {
+        var errorModule = new ErrorModule();
+        var lexer = new LexerImpl(SourceHelpers.thereIsByteBufferSource(source, errorModule), errorModule, symbolTable);
+        var program = new Parser(lexer, errorModule).parse();
+        assertEquals(0, errorModule.getErrorCount());
+        return program;
+    }
+
+    private static ArrayList<Statement> getStatements(Program program, String function) {
+        return program.getFunctions().get(function).getCodeBLock().getStatements();
+    }
+
+    private static String getPrinted(CodeBLock codeBLock) {
+        var call = (FunctionCallExpression) ((ExpressionStatement) codeBLock.getStatements().get(0)).getExpression();
+        return ((StringExpression) call.getArgs().get(0).getArgument()).getValue();
+    }
+
+    private static String interpret(String source, boolean optimize) {
+        var symbolTable = new SymbolTable();
+        var program = parse(source, symbolTable);
+        if (optimize) {
+            OptimizerVisitor.optimize(program);
+        }
+        var out = new ByteArrayOutputStream();
+        program.accept(new InterpreterVisitor(new ErrorModule(), new PrintStream(out, true, StandardCharsets.UTF_8), symbolTable));
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
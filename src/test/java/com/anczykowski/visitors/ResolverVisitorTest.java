@@ -0,0 +1,248 @@
+package com.anczykowski.visitors;
+
+import com.anczykowski.errormodule.ErrorModule;
+import com.anczykowski.lexer.LexerImpl;
+import com.anczykowski.lexer.SymbolTable;
+import com.anczykowski.lexer.helpers.SourceHelpers;
+import com.anczykowski.parser.Parser;
+import com.anczykowski.parser.structures.*;
+import com.anczykowski.parser.structures.expressions.*;
+import com.anczykowski.parser.structures.statements.*;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResolverVisitorTest {
+
+    @Test
+    void assignSlotsAndLevels() {
+        // given
+        var program = parse("""
+            main(a, b) {
+                var c = a;
+                while (c < b) {
+                    var d = c;
+                    c = d + 1;
+                }
+                for (e in list(1, 2)) { print(e); }
+                return c;
+            }
+            """);
+
+        // when
+        ResolverVisitor.resolve(program);
+
+        // then
+        var main = program.getFunctions().get("main");
+        assertEquals(0, main.getParams().get(0).getSlot());
+        assertEquals(1, main.getParams().get(1).getSlot());
+        assertEquals(3, main.getCodeBLock().getFrameSize());
+        var statements = main.getCodeBLock().getStatements();
+        var c = (VarStmt) statements.get(0);
+        assertEquals(2, c.getSlot());
+        assertIdentifier(0, 0, c.getInitial());
+
+        var whileStmt = (WhileStmt) statements.get(1);
+        assertEquals(1, whileStmt.getCodeBLock().getFrameSize());
+        var d = (VarStmt) whileStmt.getCodeBLock().getStatements().get(0);
+        assertEquals(0, d.getSlot());
+        assertIdentifier(0, 2, d.getInitial());
+        var assignment = (AssignmentStatement) whileStmt.getCodeBLock().getStatements().get(1);
+        assertIdentifier(0, 2, assignment.getLval());
+        assertIdentifier(1, 0, ((AdditionTerm) assignment.getRval()).getLeft());
+
+        var forStmt = (ForStmt) statements.get(2);
+        assertEquals(0, forStmt.getSlot());
+        assertEquals(1, forStmt.getCodeBLock().getFrameSize());
+    }
+
+    @Test
+    void shadowOuterVariables() {
+        // given
+        var program = parse("""
+            main() {
+                var x = 1;
+                if (x > 0) { var x = x * 2; print(x); }
+                return x;
+            }
+            """);
+
+        // when
+        ResolverVisitor.resolve(program);
+
+        // then
+        var statements = program.getFunctions().get("main").getCodeBLock().getStatements();
+        assertEquals(1, program.getFunctions().get("main").getCodeBLock().getFrameSize());
+        var block = ((CondStmt) statements.get(1)).getTrueBlock().getStatements();
+        var inner = (VarStmt) block.get(0);
+        assertEquals(0, inner.getSlot());
+        assertIdentifier(0, 0, ((MultiplicationFactor) inner.getInitial()).getLeft());
+        var printed = ((FunctionCallExpression) ((ExpressionStatement) block.get(1)).getExpression()).getArgs().get(0);
+        assertIdentifier(1, 0, printed.getArgument());
+    }
+
+    @Test
+    void keepSwitchValueInFirstSlot() {
+        // given
+        var program = parse("""
+            main() {
+                switch (1) {
+                    int -> { var y = value; }
+                    default -> { print(value); }
+                }
+                return 0;
+            }
+            """);
+
+        // when
+        ResolverVisitor.resolve(program);
+
+        // then
+        var switchStmt = (SwitchStmt) program.getFunctions().get("main").getCodeBLock().getStatements().get(0);
+        assertEquals(2, switchStmt.getFrameSize());
+        var y = (VarStmt) switchStmt.getSwitchElements().get(new SwitchLabel("int")).getStatements().get(0);
+        assertEquals(1, y.getSlot());
+        assertIdentifier(1, ResolverVisitor.SWITCH_VALUE_SLOT, y.getInitial());
+    }
+
+    @Test
+    void leaveAttributesAndMembersToNameLookup() {
+        // given
+        var program = parse("""
+            class Counter {
+                var count = 0;
+                add(n) { count = count + n; return 0; }
+            }
+            main() {
+                var counter = new Counter();
+                counter.add(counter.count);
+                return 0;
+            }
+            """);
+
+        // when
+        ResolverVisitor.resolve(program);
+
+        // then
+        var add = program.getClasses().get("Counter").getClassBody().getMethods().get("add");
+        var assignment = (AssignmentStatement) add.getCodeBLock().getStatements().get(0);
+        assertIdentifier(ResolverVisitor.UNRESOLVED, ResolverVisitor.UNRESOLVED, assignment.getLval());
+        assertIdentifier(0, 0, ((AdditionTerm) assignment.getRval()).getRight());
+        var main = program.getFunctions().get("main").getCodeBLock().getStatements();
+        var access = (ObjectAccessExpression) ((ExpressionStatement) main.get(1)).getExpression();
+        assertIdentifier(0, 0, access.getChild());
+        var arg = (ObjectAccessExpression) ((FunctionCallExpression) access.getCurrent()).getArgs().get(0).getArgument();
+        assertIdentifier(0, 0, arg.getChild());
+        assertIdentifier(ResolverVisitor.UNRESOLVED, ResolverVisitor.UNRESOLVED, arg.getCurrent());
+    }
+
+    @Test
+    void leaveUndeclaredToRunTime() {
+        // given
+        var program = parse("""
+            main() {
+                if (1 > 2) { var a = 1; }
+                print(a);
+                return b;
+            }
+            """);
+
+        // when
+        ResolverVisitor.resolve(program);
+
+        // then
+        var statements = program.getFunctions().get("main").getCodeBLock().getStatements();
+        var print = (FunctionCallExpression) ((ExpressionStatement) statements.get(1)).getExpression();
+        assertIdentifier(ResolverVisitor.UNRESOLVED, ResolverVisitor.UNRESOLVED, print.getArgs().get(0).getArgument());
+        assertIdentifier(ResolverVisitor.UNRESOLVED, ResolverVisitor.UNRESOLVED, ((ReturnStatement) statements.get(2)).getInner());
+    }
+
+    @Test
+    void runProgramWithUndeclaredNameInUncalledFunction() {
+        // given
+        var source = """
+            unused() { return zzz; }
+            main() { print(1); return 0; }
+            """;
+
+        // when
+        var output = interpret(source, false);
+
+        // then
+        assertEquals("1\n", output);
+    }
+
+    @Test
+    void keepProgramOutput() {
+        // given
+        var source = """
+            class Counter {
+                var count = 10;
+                var name = "counter";
+                add(n) { count = count + n; return 0; }
+            }
+            fib(n) {
+                if (n < 2) { return n; }
+                return fib(n - 1) + fib(n - 2);
+            }
+            main() {
+                var counter = new Counter();
+                var total = 0;
+                for (i in list(1, 2, 3)) {
+                    var total = total + i;
+                    counter.add(total);
+                }
+                switch (counter) {
+                    Counter -> { print(value.count); }
+                    default -> { print("other"); }
+                }
+                print(counter.name);
+                print(fib(10));
+                return 0;
+            }
+            """;
+
+        // when
+        var output = interpret(source, false);
+        var resolvedOutput = interpret(source, true);
+
+        // then
+        assertEquals("16\ncounter\n55\n", output);
+        assertEquals(output, resolvedOutput);
+    }
+
+    private static void assertIdentifier(int level, int slot, Expression expression) {
+        var identifier = assertInstanceOf(IdentifierExpression.class, expression);
+        assertEquals(level, identifier.getLevel());
+        assertEquals(slot, identifier.getSlot());
+    }
+
+    private static Program parse(String source) {
+        return parse(source, new SymbolTable());
+    }
+
+    @SneakyThrows
+    private static Program parse(String source, SymbolTable symbolTable) {
+        var errorModule = new ErrorModule();
+        var lexer = new LexerImpl(SourceHelpers.thereIsByteBufferSource(source, errorModule), errorModule, symbolTable);
+        var program = new Parser(lexer, errorModule).parse();
+        assertEquals(0, errorModule.getErrorCount());
+        return program;
+    }
+
+    private static String interpret(String source, boolean resolve) {
+        var symbolTable = new SymbolTable();
+        var program = parse(source, symbolTable);
+        if (resolve) {
+            ResolverVisitor.resolve(program);
+        }
+        var out = new ByteArrayOutputStream();
+        program.accept(new InterpreterVisitor(new ErrorModule(), new PrintStream(out, true, StandardCharsets.UTF_8), symbolTable));
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}